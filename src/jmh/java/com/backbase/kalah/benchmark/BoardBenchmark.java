@@ -0,0 +1,120 @@
+package com.backbase.kalah.benchmark;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import com.backbase.kalah.binary.BoardBinaryCodec;
+import com.backbase.kalah.controller.BoardLinksWriter;
+import com.backbase.kalah.engine.GameState;
+import com.backbase.kalah.json.BoardJsonWriter;
+import com.backbase.kalah.model.Board;
+import com.backbase.kalah.model.Pit;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Benchmarks of board construction and its JSON serialization with HAL links, as bean and streamed from state,
+ * against the binary board and move of native clients
+ * Created by tojagrut
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class BoardBenchmark {
+
+    private GameState state;
+    private Board board;
+    private ObjectMapper objectMapper;
+    private ObjectReader pitReader;
+    private byte[] jsonPit;
+    private byte[] binaryPit;
+
+    @Setup
+    public void setup() {
+        state = Positions.position("midgame");
+        board = state.toBoard();
+        // links are written for the current request
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+        // same configuration as the application's object mapper
+        objectMapper = new ObjectMapper();
+        objectMapper.setSerializationInclusion(JsonInclude.Include.NON_NULL);
+        pitReader = objectMapper.readerFor(Pit.class);
+        jsonPit = "{\"id\":3}".getBytes(StandardCharsets.UTF_8);
+        binaryPit = new byte[] {3};
+    }
+
+    @TearDown
+    public void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Benchmark
+    public Board newBoard() {
+        return new Board();
+    }
+
+    @Benchmark
+    public Board toBoard() {
+        return state.toBoard();
+    }
+
+    @Benchmark
+    public byte[] serialize() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(board);
+    }
+
+    /**
+     * Response of a board as written before, board view built from state and serialized as bean
+     */
+    @Benchmark
+    public byte[] serializeState() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(state.toBoard());
+    }
+
+    /**
+     * Response of a board as written now, streamed from state
+     */
+    @Benchmark
+    public byte[] writeState() {
+        return BoardJsonWriter.write(state, BoardLinksWriter.baseUri());
+    }
+
+    /**
+     * Response of a board to native clients, binary board without links
+     */
+    @Benchmark
+    public byte[] writeBinary() {
+        return BoardBinaryCodec.write(state);
+    }
+
+    @Benchmark
+    public Pit readJsonPit() throws IOException {
+        return pitReader.readValue(jsonPit);
+    }
+
+    @Benchmark
+    public Pit readBinaryPit() {
+        return new Pit(BoardBinaryCodec.readPit(binaryPit), 0);
+    }
+}
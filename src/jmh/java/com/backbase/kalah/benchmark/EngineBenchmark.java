@@ -0,0 +1,77 @@
+package com.backbase.kalah.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.backbase.kalah.engine.GameState;
+import com.backbase.kalah.engine.KalahEngine;
+import com.backbase.kalah.id.BoardIds;
+import com.backbase.kalah.metrics.KalahMetrics;
+import com.backbase.kalah.model.Board;
+import com.backbase.kalah.repository.ResourceStore;
+import com.backbase.kalah.service.BoardPool;
+import com.backbase.kalah.service.KalahService;
+
+/**
+ * Benchmarks of a move on the engine and through {@link KalahService#play(String, int)}
+ * Created by tojagrut
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class EngineBenchmark {
+
+    @Param({"opening", "midgame", "capture", "largeStones"})
+    private String position;
+
+    private GameState initial;
+    private int pit;
+    private KalahService kalahService;
+    private ResourceStore resourceStore;
+
+    @Setup
+    public void setup() {
+        initial = Positions.position(position);
+        pit = Positions.pit(position);
+        resourceStore = new ResourceStore();
+        kalahService = new KalahService();
+        ReflectionTestUtils.setField(kalahService, "resourceStore", resourceStore);
+        ReflectionTestUtils.setField(kalahService, "boardPool", new BoardPool());
+        ReflectionTestUtils.setField(kalahService, "kalahMetrics", new KalahMetrics());
+    }
+
+    /**
+     * Cost of copying the position, to be subtracted from the move benchmarks
+     */
+    @Benchmark
+    public GameState copy() {
+        return initial.copy();
+    }
+
+    @Benchmark
+    public int enginePlay() {
+        GameState state = initial.copy();
+        return KalahEngine.play(state, pit);
+    }
+
+    @Benchmark
+    public GameState servicePlay() {
+        resourceStore.saveState(initial.copy());
+        return kalahService.play(BoardIds.encode(initial.getBoardId()), pit);
+    }
+}
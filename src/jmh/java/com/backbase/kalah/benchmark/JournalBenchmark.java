@@ -0,0 +1,104 @@
+package com.backbase.kalah.benchmark;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.backbase.kalah.engine.GameState;
+import com.backbase.kalah.engine.KalahEngine;
+import com.backbase.kalah.persistence.MoveJournal;
+import com.backbase.kalah.repository.ResourceStore;
+
+/**
+ * Throughput of moves on the board store with the journal off and on, moves are journaled under the lock of their
+ * board and flushed in background every 10 ms as done by the application without sync commit
+ * Created by tojagrut
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(Threads.MAX)
+@State(Scope.Benchmark)
+public class JournalBenchmark {
+
+    private static final int BOARDS = 10_000;
+    private static final int SEGMENT_SIZE = 64 * 1024 * 1024;
+
+    @Param({"false", "true"})
+    private boolean journaled;
+
+    private ResourceStore resourceStore;
+    private long[] ids;
+    private Path directory;
+    private MoveJournal journal;
+    private ScheduledExecutorService flusher;
+
+    @Setup(Level.Iteration)
+    public void setup() throws IOException {
+        resourceStore = new ResourceStore();
+        ids = new long[BOARDS];
+        for (int index = 0; index < BOARDS; index++) {
+            GameState state = GameState.newGame(index + 1L);
+            ids[index] = state.getBoardId();
+            resourceStore.saveState(state);
+        }
+        if (journaled) {
+            // a journal per iteration, so segments of earlier iterations do not fill the disk
+            directory = Files.createTempDirectory("journal-benchmark");
+            journal = new MoveJournal(directory, SEGMENT_SIZE, 0);
+            flusher = Executors.newSingleThreadScheduledExecutor();
+            flusher.scheduleWithFixedDelay(journal::flush, 10, 10, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDown() throws IOException {
+        if (journaled) {
+            flusher.shutdownNow();
+            journal.close();
+            try (Stream<Path> files = Files.walk(directory)) {
+                files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+            }
+        }
+    }
+
+    @Benchmark
+    public int move() {
+        long id = ids[ThreadLocalRandom.current().nextInt(BOARDS)];
+        return resourceStore.compute(id, state -> {
+            // finished boards and boards left without stones are started over
+            if (KalahEngine.legalMoves(state) == 0) {
+                GameState.newGame(id).copyTo(state);
+            }
+            int pit = Integer.numberOfTrailingZeros(KalahEngine.legalMoves(state));
+            int outcome = KalahEngine.play(state, pit);
+            if (journal != null) {
+                journal.appendMove(id, pit, state.getVersion());
+            }
+            return outcome;
+        }).orElse(-1);
+    }
+}
@@ -0,0 +1,79 @@
+package com.backbase.kalah.benchmark;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.backbase.kalah.ai.Perft;
+import com.backbase.kalah.engine.GameState;
+
+/**
+ * Benchmark of move generation by counting move sequences, by no. of threads and with or without cache.
+ * The sequences counter gives leaves per second, comparable across engine rewrites.
+ * Created by tojagrut
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class PerftBenchmark {
+
+    @Param({"opening", "midgame"})
+    private String position;
+
+    @Param({"1", "4"})
+    private int threads;
+
+    @Param({"0", "16"})
+    private int cacheSizeBits;
+
+    @Param({"8"})
+    private int depth;
+
+    private GameState initial;
+    private ForkJoinPool pool;
+
+    /**
+     * Sequences counted, reported by JMH as a rate
+     */
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    @State(Scope.Thread)
+    public static class Sequences {
+        public long sequences;
+    }
+
+    @Setup
+    public void setup() {
+        initial = Positions.position(position);
+        pool = new ForkJoinPool(threads);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        pool.shutdownNow();
+    }
+
+    @Benchmark
+    public long perft(Sequences sequences) {
+        // a new cache per count so that counts do not answer each other
+        long count = new Perft(pool, cacheSizeBits).count(initial, depth);
+        sequences.sequences += count;
+        return count;
+    }
+}
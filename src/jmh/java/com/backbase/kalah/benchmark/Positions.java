@@ -0,0 +1,48 @@
+package com.backbase.kalah.benchmark;
+
+import com.backbase.kalah.engine.GameState;
+
+/**
+ * Representative positions used by benchmarks
+ * Created by tojagrut
+ */
+final class Positions {
+
+    private Positions() {
+        // preventing instantiation of this class
+    }
+
+    /**
+     * Position with given name along with the pit to play in it
+     * @param name opening, midgame, capture or largeStones
+     * @return GameState
+     */
+    static GameState position(String name) {
+        switch (name) {
+            case "opening":
+                return GameState.newGame(1L);
+            case "midgame":
+                return GameState.of(2L, new int[] {4, 0, 9, 8, 2, 7, 10, 5, 1, 8, 0, 6, 3, 9}, GameState.NORTH, GameState.NONE, 12);
+            case "capture":
+                return GameState.of(3L, new int[] {1, 0, 7, 7, 7, 7, 6, 7, 7, 7, 7, 7, 0, 0}, GameState.NORTH, GameState.NONE, 4);
+            case "largeStones":
+                return GameState.of(4L, new int[] {40, 2, 1, 0, 3, 2, 6, 1, 0, 4, 2, 3, 1, 7}, GameState.NORTH, GameState.NONE, 30);
+            default:
+                throw new IllegalArgumentException("Unknown position - " + name);
+        }
+    }
+
+    /**
+     * Pit played in the position with given name
+     * @param name name
+     * @return pit
+     */
+    static int pit(String name) {
+        switch (name) {
+            case "midgame":
+                return 3;
+            default:
+                return 1;
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.backbase.kalah.benchmark;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.backbase.kalah.ai.AlphaBetaSearch;
+import com.backbase.kalah.ai.SearchResult;
+import com.backbase.kalah.ai.TranspositionTable;
+import com.backbase.kalah.engine.GameState;
+
+/**
+ * Benchmark of a fixed depth search of the computer player by no. of threads.
+ * A new transposition table is used per search so that searches do not answer each other,
+ * the nodes counter gives nodes per second to size the hardware.
+ * Created by tojagrut
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class SearchBenchmark {
+
+    @Param({"opening", "midgame"})
+    private String position;
+
+    @Param({"1", "4"})
+    private int threads;
+
+    @Param({"10"})
+    private int depth;
+
+    private GameState initial;
+    private ForkJoinPool pool;
+
+    /**
+     * Nodes searched, reported by JMH as a rate
+     */
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    @State(Scope.Thread)
+    public static class Nodes {
+        public long nodes;
+    }
+
+    @Setup
+    public void setup() {
+        initial = Positions.position(position);
+        pool = new ForkJoinPool(threads);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        pool.shutdownNow();
+    }
+
+    @Benchmark
+    public int search(Nodes nodes) {
+        SearchResult result = new AlphaBetaSearch(new TranspositionTable(16), pool).search(initial, depth, TimeUnit.MINUTES.toMillis(10));
+        nodes.nodes += result.getNodes();
+        return result.getPit();
+    }
+}
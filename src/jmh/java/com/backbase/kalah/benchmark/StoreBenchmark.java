@@ -0,0 +1,63 @@
+package com.backbase.kalah.benchmark;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.backbase.kalah.engine.GameState;
+import com.backbase.kalah.repository.ResourceStore;
+
+/**
+ * Benchmarks of {@link ResourceStore} reads and writes with all threads contending on the store
+ * Created by tojagrut
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(Threads.MAX)
+@State(Scope.Benchmark)
+public class StoreBenchmark {
+
+    private static final int BOARDS = 10_000;
+
+    private ResourceStore resourceStore;
+    private long[] ids;
+
+    @Setup
+    public void setup() {
+        resourceStore = new ResourceStore();
+        ids = new long[BOARDS];
+        for (int index = 0; index < BOARDS; index++) {
+            GameState state = GameState.newGame(index + 1L);
+            ids[index] = state.getBoardId();
+            resourceStore.saveState(state);
+        }
+    }
+
+    @Benchmark
+    public int get() {
+        return resourceStore.compute(randomId(), GameState::getVersion).orElse(-1);
+    }
+
+    @Benchmark
+    public void put() {
+        resourceStore.saveState(GameState.newGame(randomId()));
+    }
+
+    private long randomId() {
+        return ids[ThreadLocalRandom.current().nextInt(BOARDS)];
+    }
+}
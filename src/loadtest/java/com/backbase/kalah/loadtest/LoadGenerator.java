@@ -0,0 +1,338 @@
+package com.backbase.kalah.loadtest;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.ServerSocket;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.backbase.kalah.Application;
+import com.backbase.kalah.cluster.ClusterRoutingFilter;
+import com.backbase.kalah.metrics.LatencyHistogram;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Load test of the game lifecycle over HTTP, run with: mvn -Ploadtest verify
+ * Boots the application on a random port, unless a url is given, and starts games at a fixed rate. Each game
+ * creates a board, plays random legal moves until it is finished or has played the max moves and retrieves it.
+ * Games are started open loop i.e. at their scheduled time whether or not earlier games are answered, and latency
+ * of the first request is measured from that time, so time spent waiting for a free thread is not hidden.
+ * The following requests of a game depend on the previous response and are measured from when they are sent.
+ * Throughput and percentiles of latency per operation are written as JSON.
+ * With several nodes, a cluster is booted in this JVM, or the urls of a running cluster are given, and each request
+ * is sent to a random node, so requests of boards owned by another node are forwarded as they would be behind a
+ * load balancer.
+ * Created by tojagrut
+ */
+public final class LoadGenerator {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(LoadGenerator.class);
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final List<String> urls;
+    private final int rate;
+    private final long warmupNanos;
+    private final long durationNanos;
+    private final int maxMoves;
+    private final ExecutorService executor;
+
+    private final LatencyHistogram create = new LatencyHistogram();
+    private final LatencyHistogram play = new LatencyHistogram();
+    private final LatencyHistogram retrieve = new LatencyHistogram();
+    private final LatencyHistogram game = new LatencyHistogram();
+    private final LongAdder errors = new LongAdder();
+    private final LongAccumulator lastResponse = new LongAccumulator(Math::max, Long.MIN_VALUE);
+
+    /**
+     * Initialize generator
+     * @param urls urls of the nodes of the application, without trailing slash
+     * @param rate no. of games started per second
+     * @param warmupSeconds seconds of games which are played but not measured
+     * @param durationSeconds seconds of measured games
+     * @param maxMoves max no. of moves per game
+     * @param threads no. of threads sending requests, i.e. max games in progress
+     */
+    LoadGenerator(List<String> urls, int rate, int warmupSeconds, int durationSeconds, int maxMoves, int threads) {
+        if (rate < 1) {
+            throw new IllegalArgumentException("Rate should be at least 1 game per second");
+        }
+        this.urls = urls;
+        this.rate = rate;
+        this.warmupNanos = TimeUnit.SECONDS.toNanos(warmupSeconds);
+        this.durationNanos = TimeUnit.SECONDS.toNanos(durationSeconds);
+        this.maxMoves = maxMoves;
+        this.executor = Executors.newFixedThreadPool(threads);
+    }
+
+    /**
+     * Starts games at the given rate and waits until all are done
+     * @return report
+     * @throws InterruptedException when interrupted
+     */
+    Map<String, Object> run() throws InterruptedException {
+        long start = System.nanoTime();
+        long measureStart = start + warmupNanos;
+        long end = measureStart + durationNanos;
+        long intervalNanos = TimeUnit.SECONDS.toNanos(1) / rate;
+        for (long scheduled = start; scheduled < end; scheduled += intervalNanos) {
+            long delay = scheduled - System.nanoTime();
+            if (delay > 0) {
+                LockSupport.parkNanos(delay);
+            }
+            long startAt = scheduled;
+            executor.execute(() -> playGame(startAt, startAt >= measureStart));
+        }
+        executor.shutdown();
+        if (!executor.awaitTermination(10, TimeUnit.MINUTES)) {
+            LOGGER.warn("Games did not finish within 10 minutes, reporting finished games");
+        }
+        long requests = create.getCount() + play.getCount() + retrieve.getCount();
+        long elapsedNanos = Math.max(lastResponse.get(), end) - measureStart;
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("nodes", urls.size());
+        report.put("rate", rate);
+        report.put("warmupSeconds", TimeUnit.NANOSECONDS.toSeconds(warmupNanos));
+        report.put("durationSeconds", TimeUnit.NANOSECONDS.toSeconds(durationNanos));
+        report.put("maxMoves", maxMoves);
+        report.put("games", game.getCount());
+        report.put("requests", requests);
+        report.put("errors", errors.sum());
+        report.put("gamesPerSecond", game.getCount() * 1e9 / elapsedNanos);
+        report.put("requestsPerSecond", requests * 1e9 / elapsedNanos);
+        Map<String, Object> latencies = new LinkedHashMap<>();
+        latencies.put("create", latency(create));
+        latencies.put("play", latency(play));
+        latencies.put("retrieve", latency(retrieve));
+        latencies.put("game", latency(game));
+        report.put("latencyMillis", latencies);
+        return report;
+    }
+
+    private void playGame(long scheduled, boolean measured) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        try {
+            JsonNode board = send(node(random), "POST", "/kalah", null);
+            long now = System.nanoTime();
+            record(create, scheduled, now, measured);
+            String path = "/kalah/" + board.get("id").asText();
+            for (int move = 0; move < maxMoves && !board.hasNonNull("winner"); move++) {
+                int pit = randomPit(board, random);
+                if (pit == 0) {
+                    // stones ran out without a winner, the game can not go on
+                    break;
+                }
+                long sent = System.nanoTime();
+                board = send(node(random), "PUT", path, "{\"id\":" + pit + "}");
+                now = System.nanoTime();
+                record(play, sent, now, measured);
+            }
+            long sent = System.nanoTime();
+            send(node(random), "GET", path, null);
+            now = System.nanoTime();
+            record(retrieve, sent, now, measured);
+            record(game, scheduled, now, measured);
+            if (measured) {
+                lastResponse.accumulate(now);
+            }
+        }
+        catch (IOException | RuntimeException exception) {
+            errors.increment();
+            LOGGER.debug("Game failed", exception);
+        }
+    }
+
+    private static void record(LatencyHistogram histogram, long start, long end, boolean measured) {
+        if (measured) {
+            histogram.record(end - start);
+        }
+    }
+
+    private static int randomPit(JsonNode board, ThreadLocalRandom random) {
+        JsonNode pits = board.get("nextTurn").asText().equals("North") ? board.get("north").get("pits") : board.get("south").get("pits");
+        int[] legal = new int[pits.size()];
+        int count = 0;
+        for (JsonNode pit : pits) {
+            if (pit.get("stones").asInt() > 0) {
+                legal[count++] = pit.get("id").asInt();
+            }
+        }
+        return count == 0 ? 0 : legal[random.nextInt(count)];
+    }
+
+    private String node(ThreadLocalRandom random) {
+        return urls.size() == 1 ? urls.get(0) : urls.get(random.nextInt(urls.size()));
+    }
+
+    private static JsonNode send(String url, String method, String path, String body) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL(url + path).openConnection();
+        connection.setRequestMethod(method);
+        connection.setRequestProperty("Accept", "application/json");
+        if (body != null) {
+            connection.setDoOutput(true);
+            connection.setRequestProperty("Content-Type", "application/json");
+            try (OutputStream output = connection.getOutputStream()) {
+                output.write(body.getBytes(StandardCharsets.UTF_8));
+            }
+        }
+        int status = connection.getResponseCode();
+        if (status >= 400) {
+            // error stream is read so that the connection is kept alive
+            try (InputStream error = connection.getErrorStream()) {
+                if (error != null) {
+                    while (error.read() >= 0) {
+                        // discarded
+                    }
+                }
+            }
+            throw new IOException(method + " " + path + " answered " + status);
+        }
+        try (InputStream input = connection.getInputStream()) {
+            return MAPPER.readTree(input);
+        }
+    }
+
+    private static Map<String, Object> latency(LatencyHistogram histogram) {
+        Map<String, Object> latency = new LinkedHashMap<>();
+        latency.put("count", histogram.getCount());
+        latency.put("mean", histogram.getMean() / 1e6);
+        latency.put("p50", histogram.getPercentile(0.5) / 1e6);
+        latency.put("p99", histogram.getPercentile(0.99) / 1e6);
+        latency.put("p99.9", histogram.getPercentile(0.999) / 1e6);
+        latency.put("max", histogram.getMax() / 1e6);
+        return latency;
+    }
+
+    /**
+     * Runs a load test and writes its report
+     * @param args games per second, warmup seconds, duration seconds, max moves per game, threads, report file,
+     *             no. of nodes booted, execution mode, sync commit, max container threads and max connections of the
+     *             nodes booted (0 keeps the default), and comma separated urls of a running application instead, all
+     *             optional
+     * @throws Exception when the test can not be run
+     */
+    public static void main(String[] args) throws Exception {
+        int rate = args.length > 0 ? Integer.parseInt(args[0]) : 100;
+        int warmupSeconds = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+        int durationSeconds = args.length > 2 ? Integer.parseInt(args[2]) : 30;
+        int maxMoves = args.length > 3 ? Integer.parseInt(args[3]) : 20;
+        int threads = args.length > 4 ? Integer.parseInt(args[4]) : 200;
+        Path result = Paths.get(args.length > 5 ? args[5] : "target/loadtest-result.json");
+        int nodes = args.length > 6 ? Integer.parseInt(args[6]) : 1;
+        String executionMode = args.length > 7 ? args[7] : "blocking";
+        boolean syncCommit = args.length > 8 && Boolean.parseBoolean(args[8]);
+        int serverThreads = args.length > 9 ? Integer.parseInt(args[9]) : 0;
+        int maxConnections = args.length > 10 ? Integer.parseInt(args[10]) : 0;
+        String url = args.length > 11 ? args[11].trim() : "";
+        // keep a connection per thread and node alive instead of the default 5
+        System.setProperty("http.maxConnections", Integer.toString(threads));
+
+        List<ConfigurableApplicationContext> contexts = new ArrayList<>();
+        Path journals = Files.createTempDirectory("loadtest-journals");
+        List<String> urls = url.isEmpty() ? new ArrayList<>() : Arrays.asList(url.split("\\s*,\\s*"));
+        try {
+            if (url.isEmpty()) {
+                List<String> properties = new ArrayList<>(Arrays.asList("--kalah.web.execution-mode=" + executionMode,
+                        "--logging.level.com.backbase=WARN"));
+                if (serverThreads > 0) {
+                    properties.add("--server.tomcat.max-threads=" + serverThreads);
+                }
+                if (maxConnections > 0) {
+                    properties.add("--server.tomcat.max-connections=" + maxConnections);
+                }
+                urls.addAll(startNodes(nodes, syncCommit ? journals : null, properties, contexts));
+            }
+            LOGGER.info("Starting {} games per second against {} for {} s after {} s of warmup", rate, urls, durationSeconds, warmupSeconds);
+            Map<String, Object> report = new LoadGenerator(urls, rate, warmupSeconds, durationSeconds, maxMoves, threads).run();
+            if (!contexts.isEmpty()) {
+                report.put("executionMode", executionMode);
+                report.put("syncCommit", syncCommit);
+                report.put("serverThreads", serverThreads);
+                report.put("maxConnections", maxConnections);
+            }
+            if (urls.size() > 1 && !contexts.isEmpty()) {
+                report.put("forwarded", contexts.stream().mapToLong(context -> context.getBean(ClusterRoutingFilter.class).getForwarded()).sum());
+            }
+            if (result.getParent() != null) {
+                Files.createDirectories(result.getParent());
+            }
+            MAPPER.writerWithDefaultPrettyPrinter().writeValue(result.toFile(), report);
+            LOGGER.info("Load test report written to {}: {}", result, MAPPER.writeValueAsString(report));
+        }
+        finally {
+            contexts.forEach(ConfigurableApplicationContext::close);
+            try (Stream<Path> files = Files.walk(journals)) {
+                files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+            }
+        }
+    }
+
+    /**
+     * Boots the application, as a cluster forwarding requests to the owner of their board when there are several nodes
+     * @param nodes no. of nodes
+     * @param journals directory of the journals of nodes answering moves once flushed, null for no journal
+     * @param properties properties of all nodes
+     * @param contexts started contexts, closed by the caller
+     * @return urls of the nodes
+     * @throws IOException when no port is free
+     */
+    private static List<String> startNodes(int nodes, Path journals, List<String> properties,
+                                           List<ConfigurableApplicationContext> contexts) throws IOException {
+        List<String> urls = new ArrayList<>();
+        List<ServerSocket> sockets = new ArrayList<>();
+        try {
+            // all ports are held until all are chosen, so that no port is chosen twice
+            for (int node = 0; node < nodes; node++) {
+                ServerSocket socket = new ServerSocket(0);
+                sockets.add(socket);
+                urls.add("http://localhost:" + socket.getLocalPort());
+            }
+        }
+        finally {
+            for (ServerSocket socket : sockets) {
+                socket.close();
+            }
+        }
+        for (String node : urls) {
+            List<String> args = new ArrayList<>(properties);
+            args.add("--server.port=" + node.substring(node.lastIndexOf(':') + 1));
+            if (journals != null) {
+                args.addAll(Arrays.asList("--kalah.journal.enabled=true", "--kalah.journal.sync-commit=true",
+                        "--kalah.journal.directory=" + journals.resolve("node-" + urls.indexOf(node))));
+            }
+            if (nodes > 1) {
+                args.addAll(Arrays.asList("--kalah.cluster.enabled=true", "--kalah.cluster.routing=forward",
+                        "--kalah.cluster.self=" + node, "--kalah.cluster.nodes=" + String.join(",", urls),
+                        "--spring.jmx.enabled=false"));
+            }
+            contexts.add(SpringApplication.run(Application.class, args.toArray(new String[0])));
+        }
+        return urls;
+    }
+}
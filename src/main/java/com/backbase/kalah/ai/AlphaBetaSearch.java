@@ -0,0 +1,389 @@
+package com.backbase.kalah.ai;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.backbase.kalah.engine.GameState;
+import com.backbase.kalah.engine.KalahEngine;
+import com.backbase.kalah.engine.Variant;
+import com.backbase.kalah.util.Constants;
+
+/**
+ * Iterative deepening alpha-beta search of the best move, in negamax form.
+ * Moves are played with {@link KalahEngine}, so captures, extra turns and collection of stones follow the game
+ * rules exactly, an extra turn is searched as another move of the same player.
+ * Each iteration searches the first root move alone and then the other root moves in parallel on the fork/join pool,
+ * all of them sharing the {@link TranspositionTable}. Search stops at the given depth or when time is up, in which
+ * case the last completed iteration is used. Positions in the {@link EndgameDatabase} are not searched, their exact
+ * score is looked up.
+ * Created by tojagrut
+ */
+public class AlphaBetaSearch {
+
+    /**
+     * Score of a won game, the difference of kalahs is added to it
+     */
+    public static final int WIN = 1000;
+
+    /**
+     * Max depth of a search
+     */
+    public static final int MAX_DEPTH = 64;
+
+    private static final int INFINITY = 10_000;
+    private static final int SOW_RING_LENGTH = Constants.MAX_PITS * 2 + 1;
+    // nanoTime is read once per this many nodes
+    private static final int TIME_CHECK_MASK = 1024 - 1;
+
+    private final TranspositionTable table;
+    private final ForkJoinPool pool;
+    private final EndgameDatabase endgame;
+
+    /**
+     * Initialize search
+     * @param table table shared by all searches
+     * @param pool pool the root moves are searched on
+     */
+    public AlphaBetaSearch(TranspositionTable table, ForkJoinPool pool) {
+        this(table, pool, null);
+    }
+
+    /**
+     * Initialize search which takes the exact score of positions having few stones from the endgame table
+     * @param table table shared by all searches
+     * @param pool pool the root moves are searched on
+     * @param endgame endgame table, null when none
+     */
+    public AlphaBetaSearch(TranspositionTable table, ForkJoinPool pool, EndgameDatabase endgame) {
+        this.table = table;
+        this.pool = pool;
+        this.endgame = endgame;
+    }
+
+    /**
+     * Searches the best move of the player having next turn
+     * @param state state, not changed
+     * @param maxDepth max no. of moves searched ahead, between 1 and {@link #MAX_DEPTH}
+     * @param timeMillis time budget, the first iteration is always completed
+     * @return SearchResult
+     */
+    public SearchResult search(GameState state, int maxDepth, long timeMillis) {
+        if (state.isFinished()) {
+            throw new IllegalArgumentException("Game is finished");
+        }
+        if (state.getVariant() != Variant.STANDARD) {
+            throw new IllegalArgumentException("Computer plays only the " + Variant.STANDARD + " variant");
+        }
+        if (maxDepth < 1 || maxDepth > MAX_DEPTH) {
+            throw new IllegalArgumentException("Depth should be between 1 to " + MAX_DEPTH);
+        }
+        long start = System.nanoTime();
+        if (endgame != null && endgame.covers(state)) {
+            return new SearchResult(endgame.bestPit(state), endgameScore(endgame.finalDifference(state)), 0, 0, System.nanoTime() - start);
+        }
+        Search search = new Search(start + TimeUnit.MILLISECONDS.toNanos(timeMillis));
+        int[] pits = new int[Constants.MAX_PITS];
+        int count = orderMoves(state, 0, pits);
+        if (count == 0) {
+            throw new IllegalArgumentException("No stones to play for " + GameState.sideName(state.getNextTurn()));
+        }
+
+        int bestPit = pits[0];
+        int bestScore = 0;
+        int completedDepth = 0;
+        for (int depth = 1; depth <= maxDepth; depth++) {
+            search.interruptible = depth > 1;
+            int[] result = searchRoot(state, pits, count, depth, search);
+            if (result == null) {
+                break;
+            }
+            bestPit = result[0];
+            bestScore = result[1];
+            completedDepth = depth;
+            moveToFront(pits, count, bestPit);
+            // a won or lost game is proven, deeper iterations would not change the move
+            if (Math.abs(bestScore) >= WIN || search.isTimeUp()) {
+                break;
+            }
+        }
+        return new SearchResult(bestPit, bestScore, completedDepth, search.nodes.sum(), System.nanoTime() - start);
+    }
+
+    private int[] searchRoot(GameState state, int[] pits, int count, int depth, Search search) {
+        // the first move is searched alone so that the others start with its score as bound
+        Worker first = new Worker(search, depth);
+        int firstScore = first.searchChild(state, pits[0], depth, -INFINITY, INFINITY, 0);
+        first.finish();
+        if (search.stopped) {
+            return null;
+        }
+        int[] scores = new int[count];
+        boolean[] exact = new boolean[count];
+        scores[0] = firstScore;
+        exact[0] = true;
+        if (count > 1) {
+            AtomicInteger alpha = new AtomicInteger(firstScore);
+            pool.invoke(new RecursiveAction() {
+                @Override
+                protected void compute() {
+                    List<RecursiveAction> tasks = new ArrayList<>(count - 1);
+                    for (int index = 1; index < count; index++) {
+                        tasks.add(new RootMove(state, pits[index], depth, search, alpha, scores, exact, index));
+                    }
+                    ForkJoinTask.invokeAll(tasks);
+                }
+            });
+            if (search.stopped) {
+                return null;
+            }
+        }
+        int best = 0;
+        for (int index = 1; index < count; index++) {
+            // a move which failed low only has an upper bound, it is never better than an exact score
+            if (exact[index] && scores[index] > scores[best]) {
+                best = index;
+            }
+        }
+        return new int[] {pits[best], scores[best]};
+    }
+
+    /**
+     * Orders legal pits of the player having next turn: given pit first, then pits giving an extra turn
+     * and then the others, nearest to kalah first
+     * @param state state
+     * @param firstPit pit searched first, 0 when none
+     * @param pits ordered pits
+     * @return no. of legal pits
+     */
+    static int orderMoves(GameState state, int firstPit, int[] pits) {
+        int side = state.getNextTurn();
+        int count = 0;
+        if (firstPit != 0 && state.getStones(GameState.pitIndex(side, firstPit)) > 0) {
+            pits[count++] = firstPit;
+        }
+        for (int pit = Constants.MAX_PITS; pit >= 1; pit--) {
+            int stones = state.getStones(GameState.pitIndex(side, pit));
+            if (pit != firstPit && stones > 0 && isExtraTurn(pit, stones)) {
+                pits[count++] = pit;
+            }
+        }
+        for (int pit = Constants.MAX_PITS; pit >= 1; pit--) {
+            int stones = state.getStones(GameState.pitIndex(side, pit));
+            if (pit != firstPit && stones > 0 && !isExtraTurn(pit, stones)) {
+                pits[count++] = pit;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Score of a position solved by the endgame table
+     * @param finalDifference final difference of kalahs for the player
+     * @return score
+     */
+    private static int endgameScore(int finalDifference) {
+        if (finalDifference == 0) {
+            return 0;
+        }
+        return finalDifference > 0 ? WIN + finalDifference : -WIN + finalDifference;
+    }
+
+    private static boolean isExtraTurn(int pit, int stones) {
+        return stones % SOW_RING_LENGTH == Constants.MAX_PITS - pit + 1;
+    }
+
+    private static void moveToFront(int[] pits, int count, int pit) {
+        for (int index = 0; index < count; index++) {
+            if (pits[index] == pit) {
+                System.arraycopy(pits, 0, pits, 1, index);
+                pits[0] = pit;
+                return;
+            }
+        }
+    }
+
+    /**
+     * State of one search shared by its workers
+     */
+    private static final class Search {
+        private final long deadline;
+        private final LongAdder nodes = new LongAdder();
+        private volatile boolean stopped;
+        private volatile boolean interruptible;
+
+        private Search(long deadline) {
+            this.deadline = deadline;
+        }
+
+        private boolean isTimeUp() {
+            return System.nanoTime() - deadline >= 0;
+        }
+
+        private void checkTime() {
+            if (interruptible && isTimeUp()) {
+                stopped = true;
+            }
+        }
+    }
+
+    /**
+     * Searches one root move with the best score known so far as lower bound
+     */
+    private final class RootMove extends RecursiveAction {
+        private final GameState state;
+        private final int pit;
+        private final int depth;
+        private final Search search;
+        private final AtomicInteger alpha;
+        private final int[] scores;
+        private final boolean[] exact;
+        private final int index;
+
+        private RootMove(GameState state, int pit, int depth, Search search, AtomicInteger alpha, int[] scores, boolean[] exact, int index) {
+            this.state = state;
+            this.pit = pit;
+            this.depth = depth;
+            this.search = search;
+            this.alpha = alpha;
+            this.scores = scores;
+            this.exact = exact;
+            this.index = index;
+        }
+
+        @Override
+        protected void compute() {
+            Worker worker = new Worker(search, depth);
+            int bound = alpha.get();
+            int score = worker.searchChild(state, pit, depth, bound, INFINITY, 0);
+            worker.finish();
+            scores[index] = score;
+            exact[index] = score > bound;
+            if (score > bound) {
+                alpha.accumulateAndGet(score, Math::max);
+            }
+        }
+    }
+
+    /**
+     * Searches on one thread, states and move lists of each ply are reused so that a search does not allocate
+     */
+    private final class Worker {
+        private final Search search;
+        private final GameState[] states;
+        private final int[][] moves;
+        private long nodes;
+
+        private Worker(Search search, int depth) {
+            this.search = search;
+            states = new GameState[depth + 1];
+            moves = new int[depth + 1][Constants.MAX_PITS];
+            for (int ply = 0; ply <= depth; ply++) {
+                states[ply] = GameState.newGame(0L);
+            }
+        }
+
+        /**
+         * Plays the pit on a copy of parent and searches the rest of depth
+         * @return score for the player of parent
+         */
+        private int searchChild(GameState parent, int pit, int depth, int alpha, int beta, int ply) {
+            if ((++nodes & TIME_CHECK_MASK) == 0) {
+                search.checkTime();
+            }
+            int player = parent.getNextTurn();
+            GameState child = states[ply];
+            parent.copyTo(child);
+            KalahEngine.play(child, pit);
+            if (child.isFinished()) {
+                return score(child, player) + (child.getWinner() == player ? WIN : child.getWinner() == GameState.TIE ? 0 : -WIN);
+            }
+            if (endgame != null && endgame.covers(child)) {
+                int finalDifference = endgame.finalDifference(child);
+                return endgameScore(child.getNextTurn() == player ? finalDifference : -finalDifference);
+            }
+            if (depth <= 1) {
+                return score(child, player);
+            }
+            // an extra turn is searched as a move of the same player, without changing sides
+            if (child.getNextTurn() == player) {
+                return negamax(child, depth - 1, alpha, beta, ply + 1);
+            }
+            return -negamax(child, depth - 1, -beta, -alpha, ply + 1);
+        }
+
+        private int negamax(GameState state, int depth, int alpha, int beta, int ply) {
+            if (search.stopped) {
+                return 0;
+            }
+            long key = TranspositionTable.hash(state);
+            long entry = table.probe(key);
+            int tablePit = 0;
+            if (entry != TranspositionTable.MISS) {
+                tablePit = TranspositionTable.pit(entry);
+                if (TranspositionTable.depth(entry) >= depth) {
+                    int score = TranspositionTable.score(entry);
+                    int bound = TranspositionTable.bound(entry);
+                    if (bound == TranspositionTable.EXACT
+                            || bound == TranspositionTable.LOWER && score >= beta
+                            || bound == TranspositionTable.UPPER && score <= alpha) {
+                        return score;
+                    }
+                }
+            }
+            int originalAlpha = alpha;
+            int[] pits = moves[ply];
+            int count = orderMoves(state, tablePit, pits);
+            if (count == 0) {
+                // the engine leaves a game unfinished when a move collects the stones of the opponent into a kalah
+                // having more than half of the stones, the player to move then has no stones and the game is over
+                return endgameScore(finalDifference(state, state.getNextTurn()));
+            }
+            int best = -INFINITY;
+            int bestPit = 0;
+            for (int index = 0; index < count; index++) {
+                int score = searchChild(state, pits[index], depth, alpha, beta, ply);
+                if (search.stopped) {
+                    return 0;
+                }
+                if (score > best) {
+                    best = score;
+                    bestPit = pits[index];
+                }
+                if (score > alpha) {
+                    alpha = score;
+                }
+                if (alpha >= beta) {
+                    break;
+                }
+            }
+            int bound = best <= originalAlpha ? TranspositionTable.UPPER : best >= beta ? TranspositionTable.LOWER : TranspositionTable.EXACT;
+            table.store(key, best, depth, bound, bestPit);
+            return best;
+        }
+
+        private int score(GameState state, int player) {
+            return state.getStones(GameState.kalahIndex(player)) - state.getStones(GameState.kalahIndex(1 - player));
+        }
+
+        /**
+         * Difference of kalahs for the player once stones left in pits are collected by their side
+         */
+        private int finalDifference(GameState state, int player) {
+            int difference = score(state, player);
+            for (int pit = 1; pit <= Constants.MAX_PITS; pit++) {
+                difference += state.getStones(GameState.pitIndex(player, pit)) - state.getStones(GameState.pitIndex(1 - player, pit));
+            }
+            return difference;
+        }
+
+        private void finish() {
+            search.nodes.add(nodes);
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package com.backbase.kalah.ai;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import com.backbase.kalah.config.AiProperties;
+import com.backbase.kalah.engine.GameState;
+import com.backbase.kalah.model.EndgameResult;
+
+/**
+ * Computer opponent, searches moves with {@link AlphaBetaSearch} on its own fork/join pool.
+ * Difficulty of a move is its search depth and time budget, within the configured limits.
+ * Created by tojagrut
+ */
+@Component
+public class ComputerPlayer {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ComputerPlayer.class);
+
+    private final AiProperties properties;
+    private ForkJoinPool pool;
+    private EndgameDatabase endgame;
+    private AlphaBetaSearch search;
+
+    public ComputerPlayer() {
+        this(new AiProperties());
+    }
+
+    /**
+     * Initialize with given configuration
+     * @param properties properties
+     */
+    @Autowired
+    public ComputerPlayer(AiProperties properties) {
+        this.properties = properties;
+    }
+
+    /**
+     * Creates search pool and transposition table, maps endgame table when configured
+     * @throws IOException when endgame table can not be read
+     */
+    @PostConstruct
+    public void start() throws IOException {
+        if (!properties.getEndgameFile().isEmpty()) {
+            endgame = EndgameDatabase.open(Paths.get(properties.getEndgameFile()));
+            LOGGER.info("Mapped endgame table of positions up to {} stones from {}", endgame.getMaxStones(), properties.getEndgameFile());
+        }
+        int parallelism = properties.getParallelism() > 0 ? properties.getParallelism() : Runtime.getRuntime().availableProcessors();
+        pool = new ForkJoinPool(parallelism, forkJoinPool -> {
+            ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(forkJoinPool);
+            thread.setName("kalah-search-" + thread.getPoolIndex());
+            return thread;
+        }, null, false);
+        search = new AlphaBetaSearch(new TranspositionTable(properties.getTableSizeBits()), pool, endgame);
+    }
+
+    /**
+     * Stops search threads
+     */
+    @PreDestroy
+    public void stop() {
+        pool.shutdownNow();
+    }
+
+    /**
+     * Searches the move of the player having next turn
+     * @param state state, not changed
+     * @param depth depth, default depth when null
+     * @param timeMillis time budget, default time when null
+     * @return SearchResult
+     */
+    public SearchResult search(GameState state, Integer depth, Long timeMillis) {
+        int maxDepth = depth != null ? depth : properties.getDefaultDepth();
+        long budget = timeMillis != null ? timeMillis : properties.getDefaultTimeMillis();
+        if (maxDepth < 1 || maxDepth > properties.getMaxDepth()) {
+            throw new IllegalArgumentException("Depth should be between 1 to " + properties.getMaxDepth());
+        }
+        if (budget < 1 || budget > properties.getMaxTimeMillis()) {
+            throw new IllegalArgumentException("Time should be between 1 to " + properties.getMaxTimeMillis() + " millis");
+        }
+        SearchResult result = search.search(state, maxDepth, budget);
+        LOGGER.debug("Searched pit {} with score {} at depth {}, {} nodes at {} nodes/s", result.getPit(),
+                result.getScore(), result.getDepth(), result.getNodes(), result.getNodesPerSecond());
+        return result;
+    }
+
+    /**
+     * Looks up perfect play of the player having next turn in the endgame table
+     * @param state state
+     * @return EndgameResult
+     */
+    public EndgameResult lookup(GameState state) {
+        if (endgame == null || !endgame.covers(state)) {
+            throw new IllegalArgumentException("Position is not in endgame table");
+        }
+        int difference = endgame.finalDifference(state);
+        EndgameResult result = new EndgameResult(GameState.sideName(state.getNextTurn()), endgame.bestPit(state), difference);
+        result.setOutcome(difference > 0 ? EndgameResult.Outcome.WIN : difference < 0 ? EndgameResult.Outcome.LOSS : EndgameResult.Outcome.TIE);
+        return result;
+    }
+
+    /**
+     * Counts sequences of legal moves from the position on the search pool, see {@link Perft}
+     * @param state state, not changed
+     * @param depth no. of moves of each sequence
+     * @return count
+     */
+    public long perft(GameState state, int depth) {
+        if (depth < 1 || depth > properties.getMaxPerftDepth()) {
+            throw new IllegalArgumentException("Depth should be between 1 to " + properties.getMaxPerftDepth());
+        }
+        return new Perft(pool, properties.getPerftCacheBits()).count(state, depth);
+    }
+}
@@ -0,0 +1,177 @@
+package com.backbase.kalah.ai;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.function.ToIntFunction;
+
+import com.backbase.kalah.engine.GameState;
+import com.backbase.kalah.engine.KalahEngine;
+import com.backbase.kalah.engine.Variant;
+import com.backbase.kalah.util.Constants;
+
+/**
+ * Perfect play of positions having few stones in pits, read from a table written by {@link EndgameGenerator}.
+ * The table is memory mapped, it is paged in by the OS and does not take heap.
+ * Value of a position is the best difference of stones the player having next turn can still gain from the pits
+ * over the opponent, when the game is played till all stones are in kalahs. As a player having more than half of
+ * the stones wins when the game is played till the end as well, the winner is decided by kalahs plus this value.
+ * Created by tojagrut
+ */
+public final class EndgameDatabase {
+
+    /**
+     * First bytes of a table file, "KDB1"
+     */
+    static final int MAGIC = 0x4b444231;
+
+    /**
+     * Magic, no. of pits of a player, max stones and reserved int
+     */
+    static final int HEADER_BYTES = 16;
+
+    private final EndgameIndex index;
+    private final MappedByteBuffer values;
+
+    private EndgameDatabase(EndgameIndex index, MappedByteBuffer values) {
+        this.index = index;
+        this.values = values;
+    }
+
+    /**
+     * Maps the table file
+     * @param file file
+     * @return EndgameDatabase
+     * @throws IOException when file can not be read or is not a table of this game
+     */
+    public static EndgameDatabase open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+            while (header.hasRemaining() && channel.read(header) >= 0) {
+                // read whole header
+            }
+            header.flip();
+            if (header.remaining() < HEADER_BYTES || header.getInt() != MAGIC) {
+                throw new IOException("Not an endgame table - " + file);
+            }
+            int pits = header.getInt();
+            int maxStones = header.getInt();
+            if (pits != Constants.MAX_PITS) {
+                throw new IOException("Endgame table is of " + pits + " pits, game has " + Constants.MAX_PITS);
+            }
+            EndgameIndex index = new EndgameIndex(maxStones);
+            if (channel.size() != HEADER_BYTES + index.size()) {
+                throw new IOException("Endgame table is truncated - " + file);
+            }
+            // mapping remains valid after the channel is closed
+            return new EndgameDatabase(index, channel.map(FileChannel.MapMode.READ_ONLY, HEADER_BYTES, index.size()));
+        }
+    }
+
+    /**
+     * Max no. of stones in pits of the positions in table
+     * @return maxStones
+     */
+    public int getMaxStones() {
+        return index.getMaxStones();
+    }
+
+    /**
+     * Checks if the position is in table
+     * @param state state
+     * @return true when game of the standard variant is not finished and pits have no more than max stones
+     */
+    public boolean covers(GameState state) {
+        return state.getVariant() == Variant.STANDARD && !state.isFinished() && stones(state) <= index.getMaxStones();
+    }
+
+    /**
+     * Difference of kalahs at the end of the game for the player having next turn, when both play perfectly
+     * @param state state, covered by table
+     * @return difference, positive when player having next turn wins
+     */
+    public int finalDifference(GameState state) {
+        int side = state.getNextTurn();
+        return state.getStones(GameState.kalahIndex(side)) - state.getStones(GameState.kalahIndex(1 - side)) + value(state);
+    }
+
+    /**
+     * Best pit of the player having next turn
+     * @param state state, covered by table
+     * @return pit
+     */
+    public int bestPit(GameState state) {
+        // the pits are played without kalahs so that the game is not decided before the pits are empty
+        GameState pits = pitsOnly(state);
+        int bestPit = 0;
+        int best = Integer.MIN_VALUE;
+        for (int pit = Constants.MAX_PITS; pit >= 1; pit--) {
+            if (KalahEngine.isLegal(pits, pit)) {
+                GameState child = pits.copy();
+                KalahEngine.play(child, pit);
+                int score = moveValue(child, this::value);
+                if (score > best) {
+                    best = score;
+                    bestPit = pit;
+                }
+            }
+        }
+        return bestPit;
+    }
+
+    /**
+     * Value of the position, see {@link EndgameDatabase}
+     * @param state state, covered by table
+     * @return value
+     */
+    int value(GameState state) {
+        int stones = stones(state);
+        return values.get((int) index.index(state, stones));
+    }
+
+    /**
+     * Value of a move for the player who made it, from a state played without kalahs by {@link #pitsOnly(GameState)}
+     * @param child state after the move
+     * @param childValue value of a position having stones in pits
+     * @return stones gained over the opponent by the move and the perfect play after it
+     */
+    static int moveValue(GameState child, ToIntFunction<GameState> childValue) {
+        int gained = child.getStones(GameState.kalahIndex(GameState.NORTH)) - child.getStones(GameState.kalahIndex(GameState.SOUTH));
+        if (stones(child) == 0) {
+            return gained;
+        }
+        int value = childValue.applyAsInt(child);
+        return gained + (child.getNextTurn() == GameState.NORTH ? value : -value);
+    }
+
+    /**
+     * Pits of the state seen by the player having next turn, played by north with empty kalahs
+     * @param state state
+     * @return GameState
+     */
+    static GameState pitsOnly(GameState state) {
+        int side = state.getNextTurn();
+        int[] pits = new int[state.length()];
+        for (int pit = 1; pit <= Constants.MAX_PITS; pit++) {
+            pits[GameState.pitIndex(GameState.NORTH, pit)] = state.getStones(GameState.pitIndex(side, pit));
+            pits[GameState.pitIndex(GameState.SOUTH, pit)] = state.getStones(GameState.pitIndex(1 - side, pit));
+        }
+        return GameState.of(state.getBoardId(), pits, GameState.NORTH, GameState.NONE, 0);
+    }
+
+    /**
+     * No. of stones in pits of both players
+     * @param state state
+     * @return stones
+     */
+    static int stones(GameState state) {
+        int stones = 0;
+        for (int pit = 1; pit <= Constants.MAX_PITS; pit++) {
+            stones += state.getStones(GameState.pitIndex(GameState.NORTH, pit)) + state.getStones(GameState.pitIndex(GameState.SOUTH, pit));
+        }
+        return stones;
+    }
+}
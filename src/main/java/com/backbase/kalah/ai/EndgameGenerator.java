@@ -0,0 +1,141 @@
+package com.backbase.kalah.ai;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.backbase.kalah.engine.GameState;
+import com.backbase.kalah.engine.KalahEngine;
+import com.backbase.kalah.util.Constants;
+
+/**
+ * Offline generator of the table read by {@link EndgameDatabase}, run with: mvn -Pendgame verify
+ * Positions are solved in order of no. of stones in pits. A move either takes stones out of the pits, whose
+ * positions are solved already, or only moves stones of the player towards its kalah, which can not be repeated,
+ * so positions having the same stones are solved on demand without cycles.
+ * Created by tojagrut
+ */
+public final class EndgameGenerator {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(EndgameGenerator.class);
+
+    /**
+     * Max stones supported, the table of 20 stones takes 225 MB
+     */
+    static final int MAX_STONES = 20;
+
+    private static final byte UNKNOWN = Byte.MIN_VALUE;
+
+    private final EndgameIndex index;
+    private final byte[] values;
+
+    /**
+     * Initialize generator of positions having up to max stones
+     * @param maxStones maxStones
+     */
+    EndgameGenerator(int maxStones) {
+        if (maxStones < 0 || maxStones > MAX_STONES) {
+            throw new IllegalArgumentException("Max stones should be between 0 to " + MAX_STONES);
+        }
+        index = new EndgameIndex(maxStones);
+        values = new byte[(int) index.size()];
+        Arrays.fill(values, UNKNOWN);
+    }
+
+    /**
+     * Solves all positions
+     * @return values by index
+     */
+    byte[] generate() {
+        int[] pits = new int[EndgameIndex.PITS];
+        for (int stones = 0; stones <= index.getMaxStones(); stones++) {
+            long start = System.nanoTime();
+            for (long rank = 0; rank < index.count(stones); rank++) {
+                index.position(stones, rank, pits);
+                solve(toState(pits));
+            }
+            LOGGER.info("Solved {} positions of {} stones in {} ms", index.count(stones), stones, (System.nanoTime() - start) / 1_000_000);
+        }
+        return values;
+    }
+
+    /**
+     * Writes the table
+     * @param file file
+     * @throws IOException when file can not be written
+     */
+    void write(Path file) throws IOException {
+        if (file.toAbsolutePath().getParent() != null) {
+            Files.createDirectories(file.toAbsolutePath().getParent());
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer header = ByteBuffer.allocate(EndgameDatabase.HEADER_BYTES);
+            header.putInt(EndgameDatabase.MAGIC).putInt(Constants.MAX_PITS).putInt(index.getMaxStones()).putInt(0).flip();
+            writeFully(channel, header);
+            writeFully(channel, ByteBuffer.wrap(values));
+            channel.force(true);
+        }
+    }
+
+    private int solve(GameState state) {
+        int position = (int) index.index(state, EndgameDatabase.stones(state));
+        if (values[position] != UNKNOWN) {
+            return values[position];
+        }
+        GameState pits = EndgameDatabase.pitsOnly(state);
+        int best = Integer.MIN_VALUE;
+        for (int pit = 1; pit <= Constants.MAX_PITS; pit++) {
+            if (KalahEngine.isLegal(pits, pit)) {
+                GameState child = pits.copy();
+                KalahEngine.play(child, pit);
+                best = Math.max(best, EndgameDatabase.moveValue(child, this::solve));
+            }
+        }
+        if (best == Integer.MIN_VALUE) {
+            // no stones to play, opponent collects its stones
+            best = -EndgameDatabase.stones(state);
+        }
+        values[position] = (byte) best;
+        return best;
+    }
+
+    private static GameState toState(int[] pits) {
+        int[] packed = new int[Constants.MAX_PITS * 2 + 2];
+        for (int pit = 1; pit <= Constants.MAX_PITS; pit++) {
+            packed[GameState.pitIndex(GameState.NORTH, pit)] = pits[pit - 1];
+            packed[GameState.pitIndex(GameState.SOUTH, pit)] = pits[Constants.MAX_PITS + pit - 1];
+        }
+        return GameState.of(0L, packed, GameState.NORTH, GameState.NONE, 0);
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    /**
+     * Generates the table
+     * @param args file and max stones, data/endgame.db and 12 by default
+     * @throws IOException when file can not be written
+     */
+    public static void main(String[] args) throws IOException {
+        Path file = Paths.get(args.length > 0 ? args[0] : "data/endgame.db");
+        int maxStones = args.length > 1 ? Integer.parseInt(args[1]) : 12;
+        long start = System.nanoTime();
+        EndgameGenerator generator = new EndgameGenerator(maxStones);
+        generator.generate();
+        generator.write(file);
+        LOGGER.info("Endgame table of {} positions up to {} stones written to {} in {} s", generator.index.size(), maxStones,
+                file, (System.nanoTime() - start) / 1_000_000_000);
+    }
+}
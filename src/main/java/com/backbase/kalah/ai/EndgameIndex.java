@@ -0,0 +1,125 @@
+package com.backbase.kalah.ai;
+
+import com.backbase.kalah.engine.GameState;
+import com.backbase.kalah.util.Constants;
+
+/**
+ * Dense index of the board positions having up to a max no. of stones in pits.
+ * Positions are seen by the player having next turn: own pits first, then pits of opponent, kalahs are not part of it.
+ * Positions are grouped by no. of stones and ranked among the distributions of the same no. of stones,
+ * so that the index is computed in one pass over the pits.
+ * Created by tojagrut
+ */
+final class EndgameIndex {
+
+    /**
+     * No. of pits of both players
+     */
+    static final int PITS = Constants.MAX_PITS * 2;
+
+    private final int maxStones;
+    // ways[parts][stones] is the no. of distributions of stones in given no. of pits
+    private final long[][] ways;
+    private final long[] offsets;
+
+    /**
+     * Initialize index of positions having up to max stones
+     * @param maxStones maxStones
+     */
+    EndgameIndex(int maxStones) {
+        this.maxStones = maxStones;
+        ways = new long[PITS + 1][maxStones + 1];
+        ways[0][0] = 1;
+        for (int parts = 1; parts <= PITS; parts++) {
+            for (int stones = 0; stones <= maxStones; stones++) {
+                ways[parts][stones] = ways[parts - 1][stones] + (stones > 0 ? ways[parts][stones - 1] : 0);
+            }
+        }
+        offsets = new long[maxStones + 2];
+        for (int stones = 0; stones <= maxStones; stones++) {
+            offsets[stones + 1] = offsets[stones] + ways[PITS][stones];
+        }
+    }
+
+    int getMaxStones() {
+        return maxStones;
+    }
+
+    /**
+     * No. of positions having up to max stones
+     * @return size
+     */
+    long size() {
+        return offsets[maxStones + 1];
+    }
+
+    /**
+     * No. of positions having exactly given stones
+     * @param stones stones
+     * @return count
+     */
+    long count(int stones) {
+        return ways[PITS][stones];
+    }
+
+    /**
+     * Index of the position
+     * @param pits stones of pits, own pits of player having next turn first
+     * @param stones total stones in pits, not more than max stones
+     * @return index
+     */
+    long index(int[] pits, int stones) {
+        long rank = 0;
+        int remaining = stones;
+        for (int pit = 0; pit < PITS - 1; pit++) {
+            // positions ranked before have fewer stones in this pit, summed up by the hockey stick identity
+            int parts = PITS - pit;
+            rank += ways[parts][remaining] - ways[parts][remaining - pits[pit]];
+            remaining -= pits[pit];
+        }
+        return offsets[stones] + rank;
+    }
+
+    /**
+     * Index of the position of a game, seen by the player having next turn
+     * @param state state, not finished
+     * @param stones total stones in pits, not more than max stones
+     * @return index
+     */
+    long index(GameState state, int stones) {
+        int side = state.getNextTurn();
+        long rank = 0;
+        int remaining = stones;
+        for (int pit = 0; pit < PITS - 1; pit++) {
+            int parts = PITS - pit;
+            int value = pit < Constants.MAX_PITS ? state.getStones(GameState.pitIndex(side, pit + 1))
+                    : state.getStones(GameState.pitIndex(1 - side, pit - Constants.MAX_PITS + 1));
+            rank += ways[parts][remaining] - ways[parts][remaining - value];
+            remaining -= value;
+        }
+        return offsets[stones] + rank;
+    }
+
+    /**
+     * Position at the given rank, inverse of {@link #index(int[], int)}
+     * @param stones total stones
+     * @param rank rank among the positions having the same stones
+     * @param pits filled with stones of each pit
+     */
+    void position(int stones, long rank, int[] pits) {
+        long remainingRank = rank;
+        int remaining = stones;
+        for (int pit = 0; pit < PITS - 1; pit++) {
+            int parts = PITS - pit - 1;
+            int value = 0;
+            // skip the positions having fewer stones in this pit
+            while (remainingRank >= ways[parts][remaining - value]) {
+                remainingRank -= ways[parts][remaining - value];
+                value++;
+            }
+            pits[pit] = value;
+            remaining -= value;
+        }
+        pits[PITS - 1] = remaining;
+    }
+}
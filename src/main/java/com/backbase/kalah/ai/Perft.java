@@ -0,0 +1,169 @@
+package com.backbase.kalah.ai;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import com.backbase.kalah.engine.GameState;
+import com.backbase.kalah.engine.KalahEngine;
+
+/**
+ * Counts the sequences of legal moves of a given length from a position, to validate the engine against known
+ * counts and to measure the speed of move generation. Every move is a ply, an extra turn is counted as another
+ * ply of the same player. Games finished before the given length do not count.
+ * Subtrees near the root are counted in parallel on a fork/join pool, counts of subtrees can be cached
+ * by position and remaining depth.
+ * Created by tojagrut
+ */
+public final class Perft {
+
+    /**
+     * Max length of the counted sequences
+     */
+    public static final int MAX_DEPTH = 64;
+
+    /**
+     * Subtrees of less remaining depth are counted by a single thread
+     */
+    private static final int SPLIT_DEPTH = 5;
+
+    /**
+     * Subtrees of less remaining depth are cheaper to count than to hash
+     */
+    private static final int CACHE_DEPTH = 4;
+
+    private static final long[] DEPTH_KEYS = new long[MAX_DEPTH + 1];
+
+    static {
+        SplittableRandom random = new SplittableRandom(0x7065726674L);
+        for (int depth = 0; depth < DEPTH_KEYS.length; depth++) {
+            DEPTH_KEYS[depth] = random.nextLong();
+        }
+    }
+
+    private final ForkJoinPool pool;
+    // pairs of count and key xor-ed with count, like TranspositionTable
+    private final AtomicLongArray cache;
+    private final int mask;
+
+    /**
+     * Initialize counter
+     * @param pool pool counting the subtrees
+     * @param cacheSizeBits cache has 2^bits entries of 16 bytes, 0 for no cache
+     */
+    public Perft(ForkJoinPool pool, int cacheSizeBits) {
+        if (cacheSizeBits < 0 || cacheSizeBits > 28) {
+            throw new IllegalArgumentException("Cache size bits should be between 0 to 28");
+        }
+        this.pool = pool;
+        cache = cacheSizeBits > 0 ? new AtomicLongArray(2 << cacheSizeBits) : null;
+        mask = (1 << cacheSizeBits) - 1;
+    }
+
+    /**
+     * Counts sequences of legal moves
+     * @param state state, not changed
+     * @param depth no. of moves of each sequence
+     * @return count
+     */
+    public long count(GameState state, int depth) {
+        if (depth < 0 || depth > MAX_DEPTH) {
+            throw new IllegalArgumentException("Depth should be between 0 to " + MAX_DEPTH);
+        }
+        return pool.invoke(new Count(state.copy(), depth));
+    }
+
+    private long count(GameState[] plies, int ply, int depth) {
+        GameState state = plies[ply];
+        int moves = KalahEngine.legalMoves(state);
+        if (depth <= 1 || moves == 0) {
+            // every legal move is a sequence of its own, finished or not
+            return depth == 0 ? 1 : Integer.bitCount(moves);
+        }
+        long key = key(state, depth);
+        long cached = probe(key);
+        if (cached >= 0) {
+            return cached;
+        }
+        GameState child = plies[ply + 1];
+        long total = 0;
+        for (; moves != 0; moves &= moves - 1) {
+            state.copyTo(child);
+            KalahEngine.play(child, Integer.numberOfTrailingZeros(moves));
+            total += count(plies, ply + 1, depth - 1);
+        }
+        store(key, total);
+        return total;
+    }
+
+    private long key(GameState state, int depth) {
+        return cache == null || depth < CACHE_DEPTH ? 0L : TranspositionTable.hash(state) ^ DEPTH_KEYS[depth];
+    }
+
+    private long probe(long key) {
+        if (key == 0L) {
+            return -1L;
+        }
+        int index = index(key);
+        long count = cache.get(index);
+        return (cache.get(index + 1) ^ count) == key ? count : -1L;
+    }
+
+    private void store(long key, long count) {
+        if (key != 0L) {
+            int index = index(key);
+            cache.lazySet(index, count);
+            cache.lazySet(index + 1, key ^ count);
+        }
+    }
+
+    private int index(long key) {
+        return ((int) (key >>> 32) & mask) << 1;
+    }
+
+    /**
+     * Counts a subtree, forking a task per move while the remaining depth is large enough
+     */
+    private final class Count extends RecursiveTask<Long> {
+
+        private final GameState state;
+        private final int depth;
+
+        Count(GameState state, int depth) {
+            this.state = state;
+            this.depth = depth;
+        }
+
+        @Override
+        protected Long compute() {
+            int moves = KalahEngine.legalMoves(state);
+            if (depth < SPLIT_DEPTH || moves == 0) {
+                GameState[] plies = new GameState[depth + 1];
+                plies[0] = state;
+                for (int ply = 1; ply <= depth; ply++) {
+                    plies[ply] = state.copy();
+                }
+                return count(plies, 0, depth);
+            }
+            long key = key(state, depth);
+            long cached = probe(key);
+            if (cached >= 0) {
+                return cached;
+            }
+            Count[] children = new Count[Integer.bitCount(moves)];
+            for (int child = 0; moves != 0; moves &= moves - 1, child++) {
+                GameState next = state.copy();
+                KalahEngine.play(next, Integer.numberOfTrailingZeros(moves));
+                children[child] = new Count(next, depth - 1);
+            }
+            invokeAll(children);
+            long total = 0;
+            for (Count child : children) {
+                total += child.join();
+            }
+            store(key, total);
+            return total;
+        }
+    }
+}
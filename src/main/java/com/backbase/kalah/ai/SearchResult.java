@@ -0,0 +1,66 @@
+package com.backbase.kalah.ai;
+
+/**
+ * Best move found by {@link AlphaBetaSearch} with the effort spent on it
+ * Created by tojagrut
+ */
+public final class SearchResult {
+
+    private final int pit;
+    private final int score;
+    private final int depth;
+    private final long nodes;
+    private final long elapsedNanos;
+
+    /**
+     * Initialize result
+     * @param pit best pit
+     * @param score score of the pit for the player having next turn
+     * @param depth depth of the last completed iteration
+     * @param nodes no. of positions searched
+     * @param elapsedNanos elapsedNanos
+     */
+    public SearchResult(int pit, int score, int depth, long nodes, long elapsedNanos) {
+        this.pit = pit;
+        this.score = score;
+        this.depth = depth;
+        this.nodes = nodes;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    public int getPit() {
+        return pit;
+    }
+
+    /**
+     * Difference of kalahs expected after the searched moves, beyond {@link AlphaBetaSearch#WIN} when the game is won
+     * @return score
+     */
+    public int getScore() {
+        return score;
+    }
+
+    /**
+     * Depth of the last completed iteration
+     * @return depth, 0 when the move is looked up in the endgame table
+     */
+    public int getDepth() {
+        return depth;
+    }
+
+    public long getNodes() {
+        return nodes;
+    }
+
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    /**
+     * Search speed
+     * @return nodes per second
+     */
+    public long getNodesPerSecond() {
+        return elapsedNanos == 0 ? 0 : nodes * 1_000_000_000L / elapsedNanos;
+    }
+}
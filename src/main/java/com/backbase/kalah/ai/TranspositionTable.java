@@ -0,0 +1,156 @@
+package com.backbase.kalah.ai;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import com.backbase.kalah.engine.GameState;
+import com.backbase.kalah.engine.Variant;
+
+/**
+ * Lock free table of searched positions shared by all search threads.
+ * Each entry is two longs, the packed data and the key xor-ed with the data. A reader only accepts an entry
+ * when both longs belong together, so entries torn by concurrent writers are ignored instead of locked against.
+ * Created by tojagrut
+ */
+public class TranspositionTable {
+
+    /**
+     * Score is exact
+     */
+    static final int EXACT = 0;
+
+    /**
+     * Score is a lower bound i.e. search failed high
+     */
+    static final int LOWER = 1;
+
+    /**
+     * Score is an upper bound i.e. search failed low
+     */
+    static final int UPPER = 2;
+
+    /**
+     * Returned by probe when the position is not in the table
+     */
+    static final long MISS = -1L;
+
+    private static final int TOTAL_STONES = Variant.MAX_PITS * Variant.MAX_STONES * 2;
+    private static final long[][] STONE_KEYS = new long[Variant.MAX_PITS * 2 + 2][TOTAL_STONES + 1];
+    private static final long[] VARIANT_KEYS = new long[Variant.values().size()];
+    private static final long SOUTH_KEY;
+
+    private static final int SCORE_OFFSET = 1 << 15;
+
+    static {
+        // fixed seed so that hashes are the same on every instance
+        SplittableRandom random = new SplittableRandom(0x6b616c6168L);
+        for (long[] keys : STONE_KEYS) {
+            for (int stones = 0; stones < keys.length; stones++) {
+                keys[stones] = random.nextLong();
+            }
+        }
+        SOUTH_KEY = random.nextLong();
+        // variants sharing a packed layout have different rules, positions of the standard variant keep their hash
+        for (Variant variant : Variant.values()) {
+            VARIANT_KEYS[variant.getId()] = variant == Variant.STANDARD ? 0L : random.nextLong();
+        }
+    }
+
+    private final AtomicLongArray entries;
+    private final int mask;
+
+    /**
+     * Initialize table with 2^sizeBits entries of 16 bytes
+     * @param sizeBits sizeBits
+     */
+    public TranspositionTable(int sizeBits) {
+        if (sizeBits < 1 || sizeBits > 28) {
+            throw new IllegalArgumentException("Size bits should be between 1 to 28");
+        }
+        entries = new AtomicLongArray(2 << sizeBits);
+        mask = (1 << sizeBits) - 1;
+    }
+
+    /**
+     * Zobrist hash of the position i.e. variant, pits and side having next turn, board id and version are not part of it
+     * @param state state
+     * @return hash
+     */
+    static long hash(GameState state) {
+        long hash = VARIANT_KEYS[state.getVariant().getId()] ^ (state.getNextTurn() == GameState.SOUTH ? SOUTH_KEY : 0L);
+        for (int index = 0; index < state.length(); index++) {
+            int stones = state.getStones(index);
+            hash ^= stones <= TOTAL_STONES ? STONE_KEYS[index][stones] : mix(STONE_KEYS[index][0] + stones);
+        }
+        return hash;
+    }
+
+    /**
+     * Looks up the position
+     * @param key hash of the position
+     * @return packed entry, see {@link #score(long)}, {@link #depth(long)}, {@link #bound(long)} and {@link #pit(long)},
+     *         or {@link #MISS}
+     */
+    long probe(long key) {
+        int index = index(key);
+        long data = entries.get(index);
+        long check = entries.get(index + 1);
+        return data != 0L && (check ^ data) == key ? data : MISS;
+    }
+
+    /**
+     * Stores result of a search, a deeper result of the same position is kept
+     * @param key hash of the position
+     * @param score score
+     * @param depth searched depth
+     * @param bound {@link #EXACT}, {@link #LOWER} or {@link #UPPER}
+     * @param pit best pit, 0 when unknown
+     */
+    void store(long key, int score, int depth, int bound, int pit) {
+        int index = index(key);
+        long existing = entries.get(index);
+        if (existing != 0L && (entries.get(index + 1) ^ existing) == key && depth(existing) > depth) {
+            return;
+        }
+        long data = ((long) (score + SCORE_OFFSET) << 16) | ((long) depth << 8) | ((long) bound << 4) | pit;
+        entries.lazySet(index, data);
+        entries.lazySet(index + 1, key ^ data);
+    }
+
+    /**
+     * Clears all entries
+     */
+    void clear() {
+        for (int index = 0; index < entries.length(); index++) {
+            entries.lazySet(index, 0L);
+        }
+    }
+
+    static int score(long data) {
+        return (int) (data >>> 16) - SCORE_OFFSET;
+    }
+
+    static int depth(long data) {
+        return (int) (data >>> 8) & 0xff;
+    }
+
+    static int bound(long data) {
+        return (int) (data >>> 4) & 0xf;
+    }
+
+    static int pit(long data) {
+        return (int) data & 0xf;
+    }
+
+    private int index(long key) {
+        // upper bits of the key pick the slot, the whole key is verified on probe
+        return ((int) (key >>> 32) & mask) << 1;
+    }
+
+    private static long mix(long value) {
+        // boards set up with more stones than a game has are hashed by a finalizer of murmur3
+        long hash = (value ^ (value >>> 33)) * 0xff51afd7ed558ccdL;
+        hash = (hash ^ (hash >>> 33)) * 0xc4ceb9fe1a85ec53L;
+        return hash ^ (hash >>> 33);
+    }
+}
@@ -0,0 +1,134 @@
+package com.backbase.kalah.binary;
+
+import org.springframework.http.MediaType;
+
+import com.backbase.kalah.engine.GameState;
+import com.backbase.kalah.engine.Variant;
+
+/**
+ * Compact binary encoding of boards and moves for native clients, negotiated next to JSON.
+ * A board is a fixed header followed by one unsigned byte per pit and kalah in the packed layout of its variant
+ * (pits of north, kalah of north, pits of south, kalah of south), 30 bytes for the standard variant:
+ * <pre>
+ * 0      format version
+ * 1      variant id
+ * 2      side having next turn, 0 north, 1 south, 255 none
+ * 3      winner, 0 north, 1 south, 2 tie, 255 none
+ * 4-7    version of the board, big endian, same as the ETag
+ * 8-15   board id, big endian, the id of urls is its unpadded base64url encoding
+ * 16-    stones of each pit and kalah
+ * </pre>
+ * Stones fit in a byte as no variant has more than 96 stones. Links are not written, clients build urls from the id.
+ * A move is a single byte, the pit id.
+ * Created by tojagrut
+ */
+public final class BoardBinaryCodec {
+
+    /**
+     * Media type of a board, as used in request mappings
+     */
+    public static final String BOARD_VALUE = "application/vnd.kalah.board";
+
+    /**
+     * Media type of a move, as used in request mappings
+     */
+    public static final String PIT_VALUE = "application/vnd.kalah.pit";
+
+    /**
+     * Media type of a board
+     */
+    public static final MediaType BOARD = MediaType.valueOf(BOARD_VALUE);
+
+    /**
+     * Media type of a move
+     */
+    public static final MediaType PIT = MediaType.valueOf(PIT_VALUE);
+
+    /**
+     * Version of the layout, changed whenever the layout changes
+     */
+    public static final int FORMAT_VERSION = 1;
+
+    /**
+     * Length of the header before the pits
+     */
+    public static final int HEADER_LENGTH = 16;
+
+    private static final int NONE = 0xFF;
+
+    private BoardBinaryCodec() {
+        // preventing instantiation of this class
+    }
+
+    /**
+     * Encodes the board of the state
+     * @param state state
+     * @return bytes
+     */
+    public static byte[] write(GameState state) {
+        byte[] bytes = new byte[HEADER_LENGTH + state.length()];
+        bytes[0] = FORMAT_VERSION;
+        bytes[1] = (byte) state.getVariant().getId();
+        bytes[2] = (byte) state.getNextTurn();
+        bytes[3] = (byte) state.getWinner();
+        putInt(bytes, 4, state.getVersion());
+        long id = state.getBoardId();
+        putInt(bytes, 8, (int) (id >>> 32));
+        putInt(bytes, 12, (int) id);
+        for (int index = 0; index < state.length(); index++) {
+            bytes[HEADER_LENGTH + index] = (byte) state.getStones(index);
+        }
+        return bytes;
+    }
+
+    /**
+     * Decodes a board, as done by clients
+     * @param bytes bytes
+     * @return GameState
+     * @throws IllegalArgumentException when bytes are not an encoded board
+     */
+    public static GameState read(byte[] bytes) {
+        if (bytes.length < HEADER_LENGTH || bytes[0] != FORMAT_VERSION) {
+            throw new IllegalArgumentException("Invalid board of " + bytes.length + " bytes");
+        }
+        Variant variant = Variant.byId(bytes[1] & 0xFF);
+        if (bytes.length != HEADER_LENGTH + variant.getLength()) {
+            throw new IllegalArgumentException("Invalid board of " + bytes.length + " bytes for variant " + variant.getName());
+        }
+        int[] pits = new int[variant.getLength()];
+        for (int index = 0; index < pits.length; index++) {
+            pits[index] = bytes[HEADER_LENGTH + index] & 0xFF;
+        }
+        long id = (long) getInt(bytes, 8) << 32 | getInt(bytes, 12) & 0xFFFFFFFFL;
+        return GameState.of(id, variant, pits, side(bytes[2]), side(bytes[3]), getInt(bytes, 4));
+    }
+
+    /**
+     * Decodes a move
+     * @param bytes bytes
+     * @return pit id
+     * @throws IllegalArgumentException when bytes are not a single byte
+     */
+    public static int readPit(byte[] bytes) {
+        if (bytes.length != 1) {
+            throw new IllegalArgumentException("Move should be a single byte but was " + bytes.length + " bytes");
+        }
+        return bytes[0] & 0xFF;
+    }
+
+    private static int side(byte value) {
+        return (value & 0xFF) == NONE ? GameState.NONE : value;
+    }
+
+    private static void putInt(byte[] bytes, int offset, int value) {
+        bytes[offset] = (byte) (value >>> 24);
+        bytes[offset + 1] = (byte) (value >>> 16);
+        bytes[offset + 2] = (byte) (value >>> 8);
+        bytes[offset + 3] = (byte) value;
+    }
+
+    private static int getInt(byte[] bytes, int offset) {
+        return (bytes[offset] & 0xFF) << 24 | (bytes[offset + 1] & 0xFF) << 16 | (bytes[offset + 2] & 0xFF) << 8
+                | bytes[offset + 3] & 0xFF;
+    }
+}
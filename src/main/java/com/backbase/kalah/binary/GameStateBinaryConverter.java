@@ -0,0 +1,45 @@
+package com.backbase.kalah.binary;
+
+import java.io.IOException;
+
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+
+import com.backbase.kalah.engine.GameState;
+
+/**
+ * Writes game states returned by controllers as binary boards with {@link BoardBinaryCodec},
+ * when the client accepts {@link BoardBinaryCodec#BOARD_VALUE}
+ * Created by tojagrut
+ */
+public class GameStateBinaryConverter extends AbstractHttpMessageConverter<GameState> {
+
+    public GameStateBinaryConverter() {
+        super(BoardBinaryCodec.BOARD);
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return GameState.class.isAssignableFrom(clazz);
+    }
+
+    @Override
+    public boolean canRead(Class<?> clazz, MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    protected GameState readInternal(Class<? extends GameState> clazz, HttpInputMessage inputMessage) {
+        throw new HttpMessageNotReadableException("Game state can not be read");
+    }
+
+    @Override
+    protected void writeInternal(GameState state, HttpOutputMessage outputMessage) throws IOException {
+        byte[] bytes = BoardBinaryCodec.write(state);
+        outputMessage.getHeaders().setContentLength(bytes.length);
+        outputMessage.getBody().write(bytes);
+    }
+}
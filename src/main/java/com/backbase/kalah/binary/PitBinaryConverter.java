@@ -0,0 +1,50 @@
+package com.backbase.kalah.binary;
+
+import java.io.IOException;
+
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+import org.springframework.util.StreamUtils;
+
+import com.backbase.kalah.model.Pit;
+
+/**
+ * Reads the pit of a move sent as a single byte of {@link BoardBinaryCodec#PIT_VALUE}
+ * Created by tojagrut
+ */
+public class PitBinaryConverter extends AbstractHttpMessageConverter<Pit> {
+
+    public PitBinaryConverter() {
+        super(BoardBinaryCodec.PIT);
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return Pit.class.equals(clazz);
+    }
+
+    @Override
+    public boolean canWrite(Class<?> clazz, MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    protected Pit readInternal(Class<? extends Pit> clazz, HttpInputMessage inputMessage) throws IOException {
+        try {
+            // pit is validated like a pit read from JSON
+            return new Pit(BoardBinaryCodec.readPit(StreamUtils.copyToByteArray(inputMessage.getBody())), 0);
+        }
+        catch (IllegalArgumentException exception) {
+            throw new HttpMessageNotReadableException(exception.getMessage(), exception);
+        }
+    }
+
+    @Override
+    protected void writeInternal(Pit pit, HttpOutputMessage outputMessage) {
+        throw new HttpMessageNotWritableException("Pit can not be written");
+    }
+}
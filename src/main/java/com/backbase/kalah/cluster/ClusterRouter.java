@@ -0,0 +1,80 @@
+package com.backbase.kalah.cluster;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import com.backbase.kalah.config.ClusterProperties;
+
+/**
+ * Finds the node owning a board in clustered mode, from the static membership of the cluster
+ * Created by tojagrut
+ */
+@Component
+@ConditionalOnProperty(name = "kalah.cluster.enabled", havingValue = "true")
+public class ClusterRouter {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ClusterRouter.class);
+
+    private final HashRing ring;
+    private final int selfIndex;
+
+    /**
+     * Initialize router with given configuration
+     * @param properties properties
+     */
+    @Autowired
+    public ClusterRouter(ClusterProperties properties) {
+        List<String> nodes = properties.getNodes().stream().map(ClusterRouter::normalize).collect(Collectors.toList());
+        this.ring = new HashRing(nodes, properties.getVirtualNodes());
+        this.selfIndex = properties.getSelf() != null ? nodes.indexOf(normalize(properties.getSelf())) : -1;
+        if (selfIndex < 0) {
+            throw new IllegalArgumentException("Self should be one of the nodes of the cluster - " + properties.getSelf());
+        }
+        LOGGER.info("Node {} of cluster {}", nodes.get(selfIndex), nodes);
+    }
+
+    /**
+     * Checks if the board is owned by this node
+     * @param id id
+     * @return true if local
+     */
+    public boolean isLocal(long id) {
+        return ring.ownerIndex(id) == selfIndex;
+    }
+
+    /**
+     * Base url of the node owning the board
+     * @param id id
+     * @return url without trailing slash
+     */
+    public String owner(long id) {
+        return ring.owner(id);
+    }
+
+    /**
+     * Index of this node in the list of nodes
+     * @return selfIndex
+     */
+    public int getSelfIndex() {
+        return selfIndex;
+    }
+
+    /**
+     * No. of nodes of the cluster
+     * @return size
+     */
+    public int size() {
+        return ring.getNodes().size();
+    }
+
+    private static String normalize(String url) {
+        String trimmed = url.trim();
+        return trimmed.endsWith("/") ? trimmed.substring(0, trimmed.length() - 1) : trimmed;
+    }
+}
@@ -0,0 +1,182 @@
+package com.backbase.kalah.cluster;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StreamUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import com.backbase.kalah.config.ClusterProperties;
+import com.backbase.kalah.config.ClusterProperties.Routing;
+import com.backbase.kalah.controller.BoardLinksWriter;
+import com.backbase.kalah.id.BoardIds;
+
+/**
+ * Routes requests of boards owned by another node of the cluster to their owner, before they reach a controller.
+ * Requests are forwarded and the response of the owner is passed back, or the client is redirected to the owner.
+ * Event streams are always redirected, so that a subscriber does not hold a connection through two nodes.
+ * A forwarded request is answered by the node it is sent to, so nodes disagreeing on members never loop.
+ * Creating boards is never routed, as new boards are owned by the node creating them.
+ * Created by tojagrut
+ */
+@Component
+@ConditionalOnProperty(name = "kalah.cluster.enabled", havingValue = "true")
+public class ClusterRoutingFilter extends OncePerRequestFilter {
+
+    /**
+     * Header of a forwarded request, naming the node which forwarded it
+     */
+    public static final String FORWARDED_BY = "X-Kalah-Forwarded-By";
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ClusterRoutingFilter.class);
+    private static final String EVENTS_PATH = "/events";
+    private static final String[] REQUEST_HEADERS = {HttpHeaders.CONTENT_TYPE, HttpHeaders.ACCEPT, HttpHeaders.IF_NONE_MATCH};
+    private static final String[] RESPONSE_HEADERS = {HttpHeaders.CONTENT_TYPE, HttpHeaders.ETAG, HttpHeaders.LOCATION, HttpHeaders.VARY};
+
+    private final ClusterRouter router;
+    private final ClusterProperties properties;
+    private final String self;
+
+    private final LongAdder forwarded = new LongAdder();
+    private final LongAdder redirected = new LongAdder();
+    private final LongAdder forwardFailures = new LongAdder();
+
+    /**
+     * Initialize filter
+     * @param router router
+     * @param properties properties
+     */
+    @Autowired
+    public ClusterRoutingFilter(ClusterRouter router, ClusterProperties properties) {
+        this.router = router;
+        this.properties = properties;
+        this.self = properties.getSelf();
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        String id = boardId(path);
+        long boardId = id != null ? BoardIds.decode(id) : 0;
+        if (id == null || request.getHeader(FORWARDED_BY) != null || router.isLocal(boardId)) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        String query = request.getQueryString();
+        String target = router.owner(boardId) + request.getRequestURI() + (query != null ? "?" + query : "");
+        if (properties.getRouting() == Routing.REDIRECT || path.endsWith(EVENTS_PATH)) {
+            redirected.increment();
+            response.setStatus(HttpStatus.TEMPORARY_REDIRECT.value());
+            response.setHeader(HttpHeaders.LOCATION, target);
+        }
+        else {
+            forward(request, response, target);
+        }
+    }
+
+    /**
+     * Id of the board a request is for
+     * @param path path of the request within the context
+     * @return encoded id, null when the request is not for a single board
+     */
+    static String boardId(String path) {
+        String prefix = BoardLinksWriter.BOARD_PATH;
+        if (!path.startsWith(prefix)) {
+            return null;
+        }
+        int end = path.indexOf('/', prefix.length());
+        String id = path.substring(prefix.length(), end < 0 ? path.length() : end);
+        return BoardIds.isValid(id) ? id : null;
+    }
+
+    private void forward(HttpServletRequest request, HttpServletResponse response, String target) throws IOException {
+        HttpURLConnection connection = null;
+        try {
+            connection = (HttpURLConnection) new URL(target).openConnection();
+            connection.setRequestMethod(request.getMethod());
+            connection.setInstanceFollowRedirects(false);
+            connection.setConnectTimeout(properties.getConnectTimeoutMillis());
+            connection.setReadTimeout(properties.getReadTimeoutMillis());
+            connection.setRequestProperty(FORWARDED_BY, self);
+            for (String header : REQUEST_HEADERS) {
+                String value = request.getHeader(header);
+                if (value != null) {
+                    connection.setRequestProperty(header, value);
+                }
+            }
+            if (request.getContentLengthLong() > 0 || request.getHeader(HttpHeaders.TRANSFER_ENCODING) != null) {
+                connection.setDoOutput(true);
+                try (OutputStream body = connection.getOutputStream()) {
+                    StreamUtils.copy(request.getInputStream(), body);
+                }
+            }
+            int status = connection.getResponseCode();
+            response.setStatus(status);
+            for (String header : RESPONSE_HEADERS) {
+                String value = connection.getHeaderField(header);
+                if (value != null) {
+                    response.setHeader(header, value);
+                }
+            }
+            // body is read to the end so that the connection is kept alive for the next request
+            try (InputStream body = status >= HttpStatus.BAD_REQUEST.value() ? connection.getErrorStream() : connection.getInputStream()) {
+                if (body != null) {
+                    StreamUtils.copy(body, response.getOutputStream());
+                }
+            }
+            forwarded.increment();
+        }
+        catch (IOException exception) {
+            forwardFailures.increment();
+            LOGGER.warn("Forwarding to {} failed - {}", target, exception.getMessage());
+            if (connection != null) {
+                connection.disconnect();
+            }
+            if (!response.isCommitted()) {
+                response.reset();
+                response.sendError(HttpStatus.SERVICE_UNAVAILABLE.value(), "Owner of board is not available");
+            }
+        }
+    }
+
+    /**
+     * No. of requests forwarded to the owner of their board
+     * @return forwarded
+     */
+    public long getForwarded() {
+        return forwarded.sum();
+    }
+
+    /**
+     * No. of requests redirected to the owner of their board
+     * @return redirected
+     */
+    public long getRedirected() {
+        return redirected.sum();
+    }
+
+    /**
+     * No. of requests which could not be forwarded, answered with 503
+     * @return forwardFailures
+     */
+    public long getForwardFailures() {
+        return forwardFailures.sum();
+    }
+}
@@ -0,0 +1,121 @@
+package com.backbase.kalah.cluster;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Consistent hash ring mapping board ids to nodes.
+ * Each node is placed on the ring at several points, its virtual nodes, and a board is owned by the node of the
+ * first point at or after the hash of its id. Points depend on the name of the node only, so all nodes having the
+ * same members agree on the owners whatever the order of members, and adding a node only moves the boards
+ * which the new node takes over.
+ * Immutable and thread safe.
+ * Created by tojagrut
+ */
+public final class HashRing {
+
+    private final List<String> nodes;
+    // points sorted by hash, owners[i] is the index of the node of points[i]
+    private final long[] points;
+    private final int[] owners;
+
+    /**
+     * Initialize ring
+     * @param nodes names of the nodes, distinct
+     * @param virtualNodes no. of points per node
+     */
+    public HashRing(List<String> nodes, int virtualNodes) {
+        if (nodes.isEmpty()) {
+            throw new IllegalArgumentException("Ring should have at least one node");
+        }
+        if (virtualNodes < 1) {
+            throw new IllegalArgumentException("Virtual nodes should be at least 1");
+        }
+        if (nodes.stream().distinct().count() != nodes.size()) {
+            throw new IllegalArgumentException("Nodes of ring should be distinct - " + nodes);
+        }
+        this.nodes = Collections.unmodifiableList(new ArrayList<>(nodes));
+        int size = nodes.size() * virtualNodes;
+        long[] hashes = new long[size];
+        Integer[] order = new Integer[size];
+        for (int node = 0; node < nodes.size(); node++) {
+            long seed = hash(nodes.get(node));
+            for (int point = 0; point < virtualNodes; point++) {
+                hashes[node * virtualNodes + point] = mix(seed + point * 0x9E3779B97F4A7C15L);
+                order[node * virtualNodes + point] = node * virtualNodes + point;
+            }
+        }
+        // ties of points are broken by node name so that the ring does not depend on the order of members
+        Arrays.sort(order, Comparator.<Integer>comparingLong(index -> hashes[index])
+                .thenComparing(index -> nodes.get(index / virtualNodes)));
+        this.points = new long[size];
+        this.owners = new int[size];
+        for (int index = 0; index < size; index++) {
+            points[index] = hashes[order[index]];
+            owners[index] = order[index] / virtualNodes;
+        }
+    }
+
+    /**
+     * Names of the nodes, in the given order
+     * @return nodes
+     */
+    public List<String> getNodes() {
+        return nodes;
+    }
+
+    /**
+     * Index of the node owning the board
+     * @param id id
+     * @return index into nodes
+     */
+    public int ownerIndex(long id) {
+        long hash = mix(id);
+        int low = 0;
+        int high = points.length;
+        // first point at or after the hash, in signed order as the points are sorted by it
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (points[middle] < hash) {
+                low = middle + 1;
+            }
+            else {
+                high = middle;
+            }
+        }
+        return owners[low == points.length ? 0 : low];
+    }
+
+    /**
+     * Node owning the board
+     * @param id id
+     * @return name of node
+     */
+    public String owner(long id) {
+        return nodes.get(ownerIndex(id));
+    }
+
+    private static long hash(String name) {
+        // FNV-1a over 64 bits, as urls of nodes differ in a few characters only
+        long hash = 0xCBF29CE484222325L;
+        for (byte value : name.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= value & 0xFF;
+            hash *= 0x100000001B3L;
+        }
+        return hash;
+    }
+
+    private static long mix(long value) {
+        // finalizer of murmur3, independent from the hash selecting the store segment
+        value ^= value >>> 33;
+        value *= 0xFF51AFD7ED558CCDL;
+        value ^= value >>> 33;
+        value *= 0xC4CEB9FE1A85EC53L;
+        value ^= value >>> 33;
+        return value;
+    }
+}
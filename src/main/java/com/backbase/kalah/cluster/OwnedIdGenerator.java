@@ -0,0 +1,34 @@
+package com.backbase.kalah.cluster;
+
+import com.backbase.kalah.id.BoardIdGenerator;
+
+/**
+ * Generates only ids owned by this node, so a board is kept where it is created and creating a board is never
+ * routed. Ids of other nodes are skipped, about as many ids are generated per board as there are nodes.
+ * Created by tojagrut
+ */
+public class OwnedIdGenerator implements BoardIdGenerator {
+
+    private final BoardIdGenerator generator;
+    private final ClusterRouter router;
+
+    /**
+     * Initialize generator
+     * @param generator generator of unique ids
+     * @param router router
+     */
+    public OwnedIdGenerator(BoardIdGenerator generator, ClusterRouter router) {
+        this.generator = generator;
+        this.router = router;
+    }
+
+    @Override
+    public long nextId() {
+        long id;
+        do {
+            id = generator.nextId();
+        }
+        while (!router.isLocal(id));
+        return id;
+    }
+}
@@ -0,0 +1,61 @@
+package com.backbase.kalah.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import lombok.Data;
+
+/**
+ * Configuration of the computer player
+ * Created by tojagrut
+ */
+@Component
+@ConfigurationProperties(prefix = "kalah.ai")
+@Data
+public class AiProperties {
+
+    /**
+     * Depth searched when a move request does not give one
+     */
+    private int defaultDepth = 12;
+
+    /**
+     * Max depth a move request may ask for
+     */
+    private int maxDepth = 24;
+
+    /**
+     * Time budget of a search when a move request does not give one
+     */
+    private long defaultTimeMillis = 1000L;
+
+    /**
+     * Max time budget a move request may ask for
+     */
+    private long maxTimeMillis = 10_000L;
+
+    /**
+     * No. of search threads, 0 means no. of processors
+     */
+    private int parallelism = 0;
+
+    /**
+     * Transposition table has 2^bits entries of 16 bytes, shared by all searches
+     */
+    private int tableSizeBits = 20;
+
+    /**
+     * Endgame table written by EndgameGenerator, memory mapped on startup, none when empty
+     */
+    private String endgameFile = "";
+
+    /**
+     * Max depth a move count request may ask for, counts grow about 5 times per depth
+     */
+    private int maxPerftDepth = 10;
+
+    /**
+     * Cache of move counts has 2^bits entries of 16 bytes, allocated per request, none when 0
+     */
+    private int perftCacheBits = 0;
+}
@@ -0,0 +1,68 @@
+package com.backbase.kalah.config;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import lombok.Data;
+
+/**
+ * Configuration of clustered mode, membership is static and has to be the same on all nodes
+ * Created by tojagrut
+ */
+@Component
+@ConfigurationProperties(prefix = "kalah.cluster")
+@Data
+public class ClusterProperties {
+
+    /**
+     * Spread boards over the nodes, every board is kept by the node owning its id
+     */
+    private boolean enabled = false;
+
+    /**
+     * Base url of this node, as it is given in the list of nodes
+     */
+    private String self;
+
+    /**
+     * Base urls of all nodes of the cluster, including this node
+     */
+    private List<String> nodes = new ArrayList<>();
+
+    /**
+     * No. of points of each node on the hash ring, more points spread boards more evenly
+     */
+    private int virtualNodes = 160;
+
+    /**
+     * How a request of a board owned by another node is answered
+     */
+    private Routing routing = Routing.FORWARD;
+
+    /**
+     * Timeout of connecting to the owner of a board when forwarding
+     */
+    private int connectTimeoutMillis = 1000;
+
+    /**
+     * Timeout of the response of the owner of a board when forwarding, above the max time of a computer move
+     */
+    private int readTimeoutMillis = 15_000;
+
+    /**
+     * Routing of requests of boards owned by another node
+     */
+    public enum Routing {
+        /**
+         * Request is sent to the owner by this node and its response is passed back to the client
+         */
+        FORWARD,
+        /**
+         * Client is redirected to the owner with 307 Temporary Redirect, keeping method and body
+         */
+        REDIRECT
+    }
+}
@@ -0,0 +1,55 @@
+package com.backbase.kalah.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import lombok.Data;
+
+/**
+ * Configuration of game event pipeline
+ * Created by tojagrut
+ */
+@Component
+@ConfigurationProperties(prefix = "kalah.game-events")
+@Data
+public class GameEventProperties {
+
+    /**
+     * Publish game events to listeners on a background thread, side work is done inline on the request thread otherwise
+     */
+    private boolean enabled = true;
+
+    /**
+     * No. of events buffered per shard, rounded up to a power of two
+     */
+    private int ringSize = 1024;
+
+    /**
+     * Max no. of events of a shard passed to listeners in one batch
+     */
+    private int batchSize = 256;
+
+    /**
+     * Max delay of events while their ring is less than half full
+     */
+    private long pollIntervalMillis = 10;
+
+    /**
+     * What a move does when the events of its shard are not consumed fast enough
+     */
+    private Backpressure backpressure = Backpressure.DROP;
+
+    /**
+     * Policy when the buffer of a shard is full
+     */
+    public enum Backpressure {
+        /**
+         * Event is dropped and counted, moves are never delayed
+         */
+        DROP,
+        /**
+         * Move waits for a free slot while holding the lock of its board, no event is lost
+         */
+        BLOCK
+    }
+}
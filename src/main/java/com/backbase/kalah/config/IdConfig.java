@@ -0,0 +1,34 @@
+package com.backbase.kalah.config;
+
+import java.security.SecureRandom;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.backbase.kalah.cluster.ClusterRouter;
+import com.backbase.kalah.cluster.OwnedIdGenerator;
+import com.backbase.kalah.id.BoardIdGenerator;
+import com.backbase.kalah.id.ScrambledIdGenerator;
+
+/**
+ * Board id generation config, a custom {@link BoardIdGenerator} bean replaces the default one
+ * Created by tojagrut
+ */
+@Configuration
+public class IdConfig {
+
+    @Bean
+    @ConditionalOnMissingBean(BoardIdGenerator.class)
+    public BoardIdGenerator boardIdGenerator(@Value("${kalah.id.node:0}") long node, @Value("${kalah.id.key:0}") long key,
+            ObjectProvider<ClusterRouter> clusterRouter) {
+        ClusterRouter router = clusterRouter.getIfAvailable();
+        // in clustered mode the index of the node keeps ids unique unless a node id is configured
+        long nodeId = router != null && node == 0 ? router.getSelfIndex() : node;
+        // without a configured key, ids are scrambled with a random key per process
+        BoardIdGenerator generator = new ScrambledIdGenerator(nodeId, key != 0 ? key : new SecureRandom().nextLong());
+        return router != null ? new OwnedIdGenerator(generator, router) : generator;
+    }
+}
@@ -0,0 +1,46 @@
+package com.backbase.kalah.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import lombok.Data;
+
+/**
+ * Configuration of move journal
+ * Created by tojagrut
+ */
+@Component
+@ConfigurationProperties(prefix = "kalah.journal")
+@Data
+public class JournalProperties {
+
+    /**
+     * Persist boards in journal and recover them on startup
+     */
+    private boolean enabled = false;
+
+    /**
+     * Directory of journal segments and snapshots
+     */
+    private String directory = "data";
+
+    /**
+     * Size of each memory mapped journal segment
+     */
+    private int segmentSizeBytes = 64 * 1024 * 1024;
+
+    /**
+     * Interval of batched flush of journal to disk
+     */
+    private long flushIntervalMillis = 10L;
+
+    /**
+     * Wait for the flush of journal before responding to a move
+     */
+    private boolean syncCommit = false;
+
+    /**
+     * Interval of board store snapshots
+     */
+    private long snapshotIntervalSeconds = 300L;
+}
@@ -0,0 +1,51 @@
+package com.backbase.kalah.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import lombok.Data;
+
+/**
+ * Configuration of board store
+ * Created by tojagrut
+ */
+@Component
+@ConfigurationProperties(prefix = "kalah.store")
+@Data
+public class StoreProperties {
+
+    /**
+     * No. of lock striped segments, 0 to derive it from available processors
+     */
+    private int concurrencyLevel = 0;
+
+    /**
+     * Max no. of boards kept in store, least recently used boards are evicted beyond it
+     */
+    private int maximumSize = 100_000;
+
+    /**
+     * Seconds after which a board which is not accessed is evicted
+     */
+    private long idleTimeoutSeconds = 30 * 60L;
+
+    /**
+     * Seconds after which a board with a winner is evicted
+     */
+    private long finishedTimeoutSeconds = 60L;
+
+    /**
+     * Max no. of evicted board ids remembered to answer as expired
+     */
+    private int expiredIdsRetained = 100_000;
+
+    /**
+     * Max no. of moves kept in history of each board, older moves are dropped beyond it, 0 to keep no history
+     */
+    private int historyMaxMoves = 1024;
+
+    /**
+     * No. of moves between two states kept in history to replay from, even and a divisor of history max moves
+     */
+    private int historyCheckpointInterval = 64;
+}
@@ -3,6 +3,9 @@ package com.backbase.kalah.config;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import com.backbase.kalah.engine.GameState;
+import com.backbase.kalah.model.Board;
+
 import springfox.documentation.builders.PathSelectors;
 import springfox.documentation.builders.RequestHandlerSelectors;
 import springfox.documentation.service.ApiInfo;
@@ -25,7 +28,9 @@ public class SwaggerConfig {
                 .select()
                 .apis(RequestHandlerSelectors.basePackage("com.backbase.kalah.controller"))
                 .paths(PathSelectors.any())
-                .build();
+                .build()
+                // game states are written as boards
+                .directModelSubstitute(GameState.class, Board.class);
     }
 
     private ApiInfo apiInfo() {
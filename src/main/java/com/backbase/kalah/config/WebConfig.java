@@ -0,0 +1,74 @@
+package com.backbase.kalah.config;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.web.WebMvcRegistrationsAdapter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerMapping;
+
+import com.backbase.kalah.binary.GameStateBinaryConverter;
+import com.backbase.kalah.binary.PitBinaryConverter;
+import com.backbase.kalah.controller.ExecutionModeHandlerMapping;
+import com.backbase.kalah.json.GameStateMessageConverter;
+
+/**
+ * Web config, message converter beans are registered ahead of the default ones
+ * Created by tojagrut
+ */
+@Configuration
+public class WebConfig {
+
+    @Bean
+    public GameStateMessageConverter gameStateMessageConverter() {
+        return new GameStateMessageConverter();
+    }
+
+    @Bean
+    public GameStateBinaryConverter gameStateBinaryConverter() {
+        return new GameStateBinaryConverter();
+    }
+
+    @Bean
+    public PitBinaryConverter pitBinaryConverter() {
+        return new PitBinaryConverter();
+    }
+
+    /**
+     * Maps only the handlers of the configured execution mode
+     * @param webProperties webProperties
+     * @return WebMvcRegistrationsAdapter
+     */
+    @Bean
+    public WebMvcRegistrationsAdapter executionModeRegistrations(WebProperties webProperties) {
+        return new WebMvcRegistrationsAdapter() {
+            @Override
+            public RequestMappingHandlerMapping getRequestMappingHandlerMapping() {
+                return new ExecutionModeHandlerMapping(webProperties.getExecutionMode());
+            }
+        };
+    }
+
+    /**
+     * Executor of requests in async mode, bounded so that overload is rejected instead of queued without limit
+     * @param webProperties webProperties
+     * @return ExecutorService
+     */
+    @Bean(destroyMethod = "shutdown")
+    @ConditionalOnProperty(name = "kalah.web.execution-mode", havingValue = "async")
+    public ExecutorService kalahExecutor(WebProperties webProperties) {
+        int threads = webProperties.getAsyncThreads() > 0 ? webProperties.getAsyncThreads() : Runtime.getRuntime().availableProcessors();
+        AtomicInteger count = new AtomicInteger();
+        return new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(webProperties.getAsyncQueueSize()), runnable -> {
+                    Thread thread = new Thread(runnable, "kalah-worker-" + count.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.AbortPolicy());
+    }
+}
@@ -0,0 +1,46 @@
+package com.backbase.kalah.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import lombok.Data;
+
+/**
+ * Configuration of request execution
+ * Created by tojagrut
+ */
+@Component
+@ConfigurationProperties(prefix = "kalah.web")
+@Data
+public class WebProperties {
+
+    /**
+     * Mode in which create, retrieve and play requests are executed
+     */
+    private ExecutionMode executionMode = ExecutionMode.BLOCKING;
+
+    /**
+     * No. of threads executing requests in async mode, 0 means no. of processors
+     */
+    private int asyncThreads = 0;
+
+    /**
+     * Max no. of requests waiting for a thread in async mode, further requests are rejected with 503
+     */
+    private int asyncQueueSize = 10_000;
+
+    /**
+     * Execution mode of requests
+     */
+    public enum ExecutionMode {
+        /**
+         * Request is executed on the servlet container thread which waits for the journal commit
+         */
+        BLOCKING,
+        /**
+         * Request is handed to a small pool as a servlet async request, the container thread is released
+         * and no thread waits for the journal commit
+         */
+        ASYNC
+    }
+}
@@ -0,0 +1,124 @@
+package com.backbase.kalah.controller;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
+
+import javax.validation.Valid;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.WebDataBinder;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.InitBinder;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.backbase.kalah.binary.BoardBinaryCodec;
+import com.backbase.kalah.config.WebProperties.ExecutionMode;
+import com.backbase.kalah.engine.GameState;
+import com.backbase.kalah.engine.Variant;
+import com.backbase.kalah.model.Pit;
+import com.backbase.kalah.service.KalahService;
+import com.backbase.kalah.validator.PitValidator;
+
+/**
+ * Create, retrieve and play of Kalah in async execution mode.
+ * Requests are servlet async requests executed by the kalah executor, the container thread is released at once
+ * and a move waiting for its journal commit does not hold any thread.
+ * Created by tojagrut
+ */
+@RestController
+@RequestMapping("/kalah")
+@ConditionalOnProperty(name = "kalah.web.execution-mode", havingValue = "async")
+public class AsyncKalahController {
+
+    @Autowired
+    private KalahService kalahService;
+
+    @Autowired
+    @Qualifier("kalahExecutor")
+    private Executor kalahExecutor;
+
+    /**
+     * Binds validator for Pit
+     * @param webDataBinder webDataBinder
+     */
+    @InitBinder("pit")
+    public void initBinder(WebDataBinder webDataBinder) {
+        webDataBinder.setValidator(new PitValidator());
+    }
+
+    /**
+     * Initializes a new board
+     * @param variant variant like "4x3", no. of pits x stones per pit, standard when not given
+     * @return GameState of the board, written as Board
+     */
+    @OnExecutionMode(ExecutionMode.ASYNC)
+    @PostMapping(produces = {MediaType.APPLICATION_JSON_VALUE, BoardBinaryCodec.BOARD_VALUE})
+    @ResponseStatus(HttpStatus.CREATED)
+    public CompletableFuture<GameState> initialize(@RequestParam(required = false) Variant variant) {
+        return execute(() -> CompletableFuture.completedFuture(kalahService.createBoard(variant)));
+    }
+
+    /**
+     * Retrieves current status of Board, see {@link KalahController#retrieve(String)}
+     * @param id id of the board
+     * @param accept accepted media types
+     * @return GameState of the board, written as Board
+     */
+    @OnExecutionMode(ExecutionMode.ASYNC)
+    @GetMapping(value = "/{id}", produces = {MediaType.APPLICATION_JSON_VALUE, BoardBinaryCodec.BOARD_VALUE})
+    public CompletableFuture<ResponseEntity<GameState>> retrieve(@PathVariable String id,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+        return execute(() -> CompletableFuture.completedFuture(KalahController.withVersion(kalahService.retrieveBoard(id), accept)));
+    }
+
+    /**
+     * Processes the player's move, response is sent once the move is committed to the journal
+     * @param id id of the board
+     * @param pit player's selected pit
+     * @param accept accepted media types
+     * @return GameState of the board, written as Board
+     */
+    @OnExecutionMode(ExecutionMode.ASYNC)
+    @PutMapping(value = "/{id}", produces = {MediaType.APPLICATION_JSON_VALUE, BoardBinaryCodec.BOARD_VALUE})
+    public CompletableFuture<ResponseEntity<GameState>> play(@PathVariable String id, @Valid @RequestBody Pit pit,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+        return execute(() -> kalahService.playAsync(id, pit.getId()).thenApply(state -> KalahController.withVersion(state, accept)));
+    }
+
+    private <T> CompletableFuture<T> execute(Supplier<CompletableFuture<T>> task) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        kalahExecutor.execute(() -> {
+            try {
+                task.get().whenComplete((value, exception) -> {
+                    if (exception != null) {
+                        result.completeExceptionally(exception instanceof CompletionException ? exception.getCause() : exception);
+                    }
+                    else {
+                        result.complete(value);
+                    }
+                });
+            }
+            catch (RuntimeException exception) {
+                // completed with the exception itself so that exception handlers match it
+                result.completeExceptionally(exception);
+            }
+        });
+        return result;
+    }
+}
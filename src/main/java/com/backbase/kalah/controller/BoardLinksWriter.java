@@ -0,0 +1,110 @@
+package com.backbase.kalah.controller;
+
+import javax.servlet.http.HttpServletRequest;
+
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+import com.backbase.kalah.model.Board;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.cfg.MapperConfig;
+import com.fasterxml.jackson.databind.introspect.AnnotatedClass;
+import com.fasterxml.jackson.databind.introspect.BeanPropertyDefinition;
+import com.fasterxml.jackson.databind.ser.VirtualBeanPropertyWriter;
+import com.fasterxml.jackson.databind.util.Annotations;
+
+/**
+ * Writes the HAL links of a board while it is serialized, so boards do not carry links themselves.
+ * The link path is resolved once from the mapping of {@link KalahController}, only the base uri of the
+ * current request is resolved per request. Links are omitted when there is no current request.
+ * Created by tojagrut
+ */
+public class BoardLinksWriter extends VirtualBeanPropertyWriter {
+
+    /**
+     * Path of a board relative to the servlet mapping, followed by the board id
+     */
+    public static final String BOARD_PATH = AnnotatedElementUtils.findMergedAnnotation(KalahController.class, RequestMapping.class).path()[0] + "/";
+
+    private static final String BASE_URI_ATTRIBUTE = BoardLinksWriter.class.getName() + ".baseUri";
+    private static final SerializableString PLAY = new SerializedString("play");
+    private static final SerializableString SELF = new SerializedString("self");
+    private static final SerializableString HREF = new SerializedString("href");
+
+    public BoardLinksWriter() {
+        // used by jackson to create the writer from @JsonAppend
+    }
+
+    private BoardLinksWriter(BeanPropertyDefinition propertyDefinition, Annotations annotations, JavaType type) {
+        super(propertyDefinition, annotations, type);
+    }
+
+    @Override
+    public VirtualBeanPropertyWriter withConfig(MapperConfig<?> config, AnnotatedClass declaringClass,
+            BeanPropertyDefinition propertyDefinition, JavaType type) {
+        return new BoardLinksWriter(propertyDefinition, declaringClass.getAnnotations(), type);
+    }
+
+    @Override
+    protected Object value(Object bean, JsonGenerator generator, SerializerProvider provider) {
+        return boardUri((Board) bean);
+    }
+
+    @Override
+    public void serializeAsField(Object bean, JsonGenerator generator, SerializerProvider provider) throws Exception {
+        String boardUri = boardUri((Board) bean);
+        if (boardUri == null) {
+            return;
+        }
+        generator.writeFieldName(_name);
+        generator.writeStartObject();
+        writeLink(generator, PLAY, boardUri);
+        writeLink(generator, SELF, boardUri);
+        generator.writeEndObject();
+    }
+
+    private static void writeLink(JsonGenerator generator, SerializableString rel, String href) throws Exception {
+        generator.writeFieldName(rel);
+        generator.writeStartObject();
+        generator.writeFieldName(HREF);
+        generator.writeString(href);
+        generator.writeEndObject();
+    }
+
+    /**
+     * Uri of the board in the current request
+     * @param board board
+     * @return uri or null when there is no current request
+     */
+    static String boardUri(Board board) {
+        String baseUri = baseUri();
+        return baseUri == null ? null : baseUri + board.getBoardId();
+    }
+
+    /**
+     * Uri of boards in the current request, the board id is appended to it
+     * @return uri or null when there is no current request
+     */
+    public static String baseUri() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (!(attributes instanceof ServletRequestAttributes)) {
+            return null;
+        }
+        // resolved once per request as a bulk response serializes many boards
+        HttpServletRequest request = ((ServletRequestAttributes) attributes).getRequest();
+        String baseUri = (String) request.getAttribute(BASE_URI_ATTRIBUTE);
+        if (baseUri == null) {
+            baseUri = ServletUriComponentsBuilder.fromServletMapping(request).toUriString() + BOARD_PATH;
+            request.setAttribute(BASE_URI_ATTRIBUTE, baseUri);
+        }
+        return baseUri;
+    }
+}
@@ -0,0 +1,36 @@
+package com.backbase.kalah.controller;
+
+import java.lang.reflect.Method;
+
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.web.servlet.mvc.method.RequestMappingInfo;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerMapping;
+
+import com.backbase.kalah.config.WebProperties.ExecutionMode;
+
+/**
+ * Request mapping which skips handler methods annotated with {@link OnExecutionMode} of another mode,
+ * so that blocking and async handlers of the same endpoint do not clash
+ * Created by tojagrut
+ */
+public class ExecutionModeHandlerMapping extends RequestMappingHandlerMapping {
+
+    private final ExecutionMode executionMode;
+
+    /**
+     * Initialize mapping for given mode
+     * @param executionMode executionMode
+     */
+    public ExecutionModeHandlerMapping(ExecutionMode executionMode) {
+        this.executionMode = executionMode;
+    }
+
+    @Override
+    protected RequestMappingInfo getMappingForMethod(Method method, Class<?> handlerType) {
+        OnExecutionMode onExecutionMode = AnnotatedElementUtils.findMergedAnnotation(method, OnExecutionMode.class);
+        if (onExecutionMode != null && onExecutionMode.value() != executionMode) {
+            return null;
+        }
+        return super.getMappingForMethod(method, handlerType);
+    }
+}
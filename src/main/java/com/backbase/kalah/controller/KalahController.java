@@ -1,40 +1,53 @@
 package com.backbase.kalah.controller;
 
+import java.util.List;
+
 import javax.validation.Valid;
 
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.hateoas.mvc.ControllerLinkBuilder;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.WebDataBinder;
-import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.InitBinder;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
-import com.backbase.kalah.exception.BoardNotFoundException;
+import com.backbase.kalah.binary.BoardBinaryCodec;
+import com.backbase.kalah.config.WebProperties.ExecutionMode;
+import com.backbase.kalah.engine.GameState;
+import com.backbase.kalah.engine.Variant;
 import com.backbase.kalah.model.Board;
+import com.backbase.kalah.model.ComputerMove;
+import com.backbase.kalah.model.EndgameResult;
+import com.backbase.kalah.model.GameHistory;
+import com.backbase.kalah.model.LegalMoves;
+import com.backbase.kalah.model.MoveBatch;
+import com.backbase.kalah.model.PerftResult;
 import com.backbase.kalah.model.Pit;
 import com.backbase.kalah.service.KalahService;
 import com.backbase.kalah.validator.PitValidator;
 
 /**
- * Controller for Kalah
+ * Controller for Kalah, create, retrieve and play of async execution mode are in {@link AsyncKalahController}.
+ * Boards are written as JSON, or as binary boards of {@link BoardBinaryCodec} when the client accepts only those.
  * Created by tojagrut
  */
 @RestController
 @RequestMapping("/kalah")
 public class KalahController {
 
-    private static final Logger LOGGER = LoggerFactory.getLogger(KalahController.class);
+    private static final String BINARY_TAG_SUFFIX = "-b";
 
     @Autowired
     private KalahService kalahService;
@@ -43,60 +56,199 @@ public class KalahController {
      * Binds validator for Pit
      * @param webDataBinder webDataBinder
      */
-    @InitBinder
+    @InitBinder("pit")
     public void initBinder(WebDataBinder webDataBinder) {
         webDataBinder.setValidator(new PitValidator());
     }
 
     /**
      * Initializes a new board
-     * @return Board
+     * @param variant variant like "4x3", no. of pits x stones per pit, standard when not given
+     * @return GameState of the board, written as Board
      */
-    @PostMapping(produces = MediaType.APPLICATION_JSON_VALUE)
+    @OnExecutionMode(ExecutionMode.BLOCKING)
+    @PostMapping(produces = {MediaType.APPLICATION_JSON_VALUE, BoardBinaryCodec.BOARD_VALUE})
     @ResponseStatus(HttpStatus.CREATED)
-    public Board initialize() throws Exception {
-        Board board = kalahService.createBoard();
-        createLinks(board);
-        return board;
+    public GameState initialize(@RequestParam(required = false) Variant variant) throws Exception {
+        return kalahService.createBoard(variant);
     }
 
-    private void createLinks(Board board) throws Exception {
-        board.add(ControllerLinkBuilder.linkTo(ControllerLinkBuilder.methodOn(KalahController.class).play(board.getBoardId(), null)).withRel("play"));
-        board.add(ControllerLinkBuilder.linkTo(ControllerLinkBuilder.methodOn(KalahController.class).retrieve(board.getBoardId())).withSelfRel());
+    /**
+     * Initializes given no. of new boards
+     * @param count no. of boards
+     * @param variant variant of the boards, standard when not given
+     * @return List of Board
+     */
+    @PostMapping(value = "/bulk", produces = MediaType.APPLICATION_JSON_VALUE)
+    @ResponseStatus(HttpStatus.CREATED)
+    public List<Board> initializeAll(@RequestParam int count, @RequestParam(required = false) Variant variant) throws Exception {
+        return kalahService.createBoards(count, variant);
     }
 
     /**
-     * Retrieves current status of Board
+     * Retrieves current status of Board.
+     * Version of the board is sent as ETag, suffixed by -b for the binary board, when it matches If-None-Match
+     * of the request the response is 304 Not Modified without the board.
      * @param id id of the board
-     * @return Board
+     * @param accept accepted media types
+     * @return GameState of the board, written as Board
      * @throws Exception When board not found
      */
-    @GetMapping(value = "/{id}", produces = MediaType.APPLICATION_JSON_VALUE)
-    public Board retrieve(@PathVariable String id) throws Exception {
-        Board board = kalahService.retrieveBoard(id);
-        return board;
+    @OnExecutionMode(ExecutionMode.BLOCKING)
+    @GetMapping(value = "/{id}", produces = {MediaType.APPLICATION_JSON_VALUE, BoardBinaryCodec.BOARD_VALUE})
+    public ResponseEntity<GameState> retrieve(@PathVariable String id,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) throws Exception {
+        return withVersion(kalahService.retrieveBoard(id), accept);
     }
 
     /**
      * Processes the player's move
      * @param id id of the board
-     * @param pit player's selected pit
-     * @return Board
+     * @param pit player's selected pit, as JSON or a single byte of {@link BoardBinaryCodec#PIT_VALUE}
+     * @param accept accepted media types
+     * @return GameState of the board, written as Board
+     * @throws Exception When board not found
+     */
+    @OnExecutionMode(ExecutionMode.BLOCKING)
+    @PutMapping(value = "/{id}", produces = {MediaType.APPLICATION_JSON_VALUE, BoardBinaryCodec.BOARD_VALUE})
+    public ResponseEntity<GameState> play(@PathVariable String id, @Valid @RequestBody Pit pit,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) throws Exception {
+        return withVersion(kalahService.play(id, pit.getId()), accept);
+    }
+
+    /**
+     * Board with its version as ETag of the representation negotiated for the accepted media types
+     * @param state state
+     * @param accept accepted media types
+     * @return ResponseEntity
+     */
+    static ResponseEntity<GameState> withVersion(GameState state, String accept) {
+        // conditional GET is answered by spring from the ETag, before the body is written, so the tag is chosen
+        // here and has to differ between representations, which caches keep apart by Accept
+        String tag = Integer.toString(state.getVersion());
+        return ResponseEntity.ok()
+                .eTag(acceptsBinary(accept) ? tag + BINARY_TAG_SUFFIX : tag)
+                .varyBy(HttpHeaders.ACCEPT)
+                .body(state);
+    }
+
+    /**
+     * Whether the binary board is negotiated, as done by spring for producible JSON and binary board: the accepted
+     * type of highest quality and specificity decides, wildcards select JSON which is produced first
+     * @param accept accepted media types, any when null
+     * @return true for the binary board
+     */
+    static boolean acceptsBinary(String accept) {
+        if (accept == null) {
+            return false;
+        }
+        List<MediaType> types = MediaType.parseMediaTypes(accept);
+        MediaType.sortBySpecificityAndQuality(types);
+        for (MediaType type : types) {
+            if (type.includes(MediaType.APPLICATION_JSON)) {
+                return false;
+            }
+            if (type.includes(BoardBinaryCodec.BOARD)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Subscribes to updates of the board as server sent events.
+     * Current board is sent first and then the board after each move, until the game is finished.
+     * @param id id of the board
+     * @return SseEmitter
+     * @throws Exception When board not found
+     */
+    @GetMapping(value = "/{id}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter subscribe(@PathVariable String id) throws Exception {
+        return kalahService.subscribe(id);
+    }
+
+    /**
+     * Processes a sequence of moves of the players in one request.
+     * Moves are applied in order until an illegal move is found or the game is finished.
+     * @param id id of the board
+     * @param pits pit ids in the order of moves
+     * @return MoveBatch with board after the moves and outcome of each move
+     * @throws Exception When board not found
+     */
+    @PutMapping(value = "/{id}/moves", produces = MediaType.APPLICATION_JSON_VALUE)
+    public MoveBatch playAll(@PathVariable String id, @RequestBody int[] pits) throws Exception {
+        return kalahService.playAll(id, pits);
+    }
+
+    /**
+     * Plays the move of the player having next turn, searched by the computer.
+     * Difficulty is the search depth and time budget, search stops at whichever is reached first.
+     * @param id id of the board
+     * @param depth no. of moves searched ahead, optional
+     * @param timeMillis search time budget, optional
+     * @return ComputerMove with board after the move and statistics of the search
+     * @throws Exception When board not found
+     */
+    @PutMapping(value = "/{id}/ai-move", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ComputerMove playComputer(@PathVariable String id, @RequestParam(required = false) Integer depth,
+            @RequestParam(required = false) Long timeMillis) throws Exception {
+        return kalahService.playComputer(id, depth, timeMillis);
+    }
+
+    /**
+     * Looks up perfect play of the player having next turn in the endgame table
+     * @param id id of the board
+     * @return EndgameResult with best pit and outcome of the game
+     * @throws Exception When board not found
+     */
+    @GetMapping(value = "/{id}/endgame", produces = MediaType.APPLICATION_JSON_VALUE)
+    public EndgameResult lookupEndgame(@PathVariable String id) throws Exception {
+        return kalahService.lookupEndgame(id);
+    }
+
+    /**
+     * Retrieves the pits the player having next turn can play
+     * @param id id of the board
+     * @return LegalMoves
      * @throws Exception When board not found
      */
-    @PutMapping(value = "/{id}", produces = MediaType.APPLICATION_JSON_VALUE)
-    public Board play(@PathVariable String id, @Valid @RequestBody Pit pit) throws Exception {
-        Board board = kalahService.play(id, pit.getId());
-        return board;
+    @GetMapping(value = "/{id}/moves", produces = MediaType.APPLICATION_JSON_VALUE)
+    public LegalMoves legalMoves(@PathVariable String id) throws Exception {
+        return kalahService.legalMoves(id);
     }
 
     /**
-     * Handles BoardNotFoundException
-     * @param exception exception
+     * Counts sequences of legal moves from the board, to validate and benchmark the engine
+     * @param id id of the board
+     * @param depth no. of moves of each sequence, limited by kalah.ai.max-perft-depth
+     * @return PerftResult
+     * @throws Exception When board not found
+     */
+    @GetMapping(value = "/{id}/perft", produces = MediaType.APPLICATION_JSON_VALUE)
+    public PerftResult perft(@PathVariable String id, @RequestParam int depth) throws Exception {
+        return kalahService.perft(id, depth);
+    }
+
+    /**
+     * Retrieves the moves played on the board
+     * @param id id of the board
+     * @return GameHistory
+     * @throws Exception When board not found
+     */
+    @GetMapping(value = "/{id}/history", produces = MediaType.APPLICATION_JSON_VALUE)
+    public GameHistory history(@PathVariable String id) throws Exception {
+        return kalahService.history(id);
+    }
+
+    /**
+     * Retrieves the board as it was after the given no. of moves
+     * @param id id of the board
+     * @param ply no. of moves played
+     * @return GameState of the board at the ply, written as Board
+     * @throws Exception When board not found
      */
-    @ExceptionHandler(BoardNotFoundException.class)
-    @ResponseStatus(HttpStatus.NOT_FOUND)
-    public void handleBoardNotFoundException(BoardNotFoundException exception) {
-        LOGGER.error("Exception occurred {}", exception);
+    @GetMapping(value = "/{id}/history/{ply}", produces = {MediaType.APPLICATION_JSON_VALUE, BoardBinaryCodec.BOARD_VALUE})
+    public ResponseEntity<GameState> replay(@PathVariable String id, @PathVariable int ply) throws Exception {
+        return ResponseEntity.ok().varyBy(HttpHeaders.ACCEPT).body(kalahService.replay(id, ply));
     }
 }
@@ -0,0 +1,74 @@
+package com.backbase.kalah.controller;
+
+import java.util.concurrent.RejectedExecutionException;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+import com.backbase.kalah.exception.BoardConflictException;
+import com.backbase.kalah.exception.BoardExpiredException;
+import com.backbase.kalah.exception.BoardNotFoundException;
+
+/**
+ * Exception handlers of kalah controllers
+ * Created by tojagrut
+ */
+@RestControllerAdvice(assignableTypes = {KalahController.class, AsyncKalahController.class})
+public class KalahExceptionHandler {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(KalahExceptionHandler.class);
+
+    /**
+     * Handles BoardNotFoundException
+     * @param exception exception
+     */
+    @ExceptionHandler(BoardNotFoundException.class)
+    @ResponseStatus(HttpStatus.NOT_FOUND)
+    public void handleBoardNotFoundException(BoardNotFoundException exception) {
+        LOGGER.error("Exception occurred {}", exception);
+    }
+
+    /**
+     * Handles IllegalArgumentException
+     * @param exception exception
+     */
+    @ExceptionHandler(IllegalArgumentException.class)
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public void handleIllegalArgumentException(IllegalArgumentException exception) {
+        LOGGER.error("Invalid request - {}", exception.getMessage());
+    }
+
+    /**
+     * Handles BoardExpiredException
+     * @param exception exception
+     */
+    @ExceptionHandler(BoardExpiredException.class)
+    @ResponseStatus(HttpStatus.GONE)
+    public void handleBoardExpiredException(BoardExpiredException exception) {
+        LOGGER.info("Board has expired - {}", exception.getMessage());
+    }
+
+    /**
+     * Handles BoardConflictException
+     * @param exception exception
+     */
+    @ExceptionHandler(BoardConflictException.class)
+    @ResponseStatus(HttpStatus.CONFLICT)
+    public void handleBoardConflictException(BoardConflictException exception) {
+        LOGGER.info("Board is moved by others - {}", exception.getMessage());
+    }
+
+    /**
+     * Handles RejectedExecutionException
+     * @param exception exception
+     */
+    @ExceptionHandler(RejectedExecutionException.class)
+    @ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+    public void handleRejectedExecutionException(RejectedExecutionException exception) {
+        LOGGER.warn("Request rejected as all threads are busy - {}", exception.getMessage());
+    }
+}
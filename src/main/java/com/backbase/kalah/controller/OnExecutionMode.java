@@ -0,0 +1,25 @@
+package com.backbase.kalah.controller;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+import com.backbase.kalah.config.WebProperties.ExecutionMode;
+
+/**
+ * Maps the handler method only in the given execution mode, see {@link ExecutionModeHandlerMapping}
+ * Created by tojagrut
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface OnExecutionMode {
+
+    /**
+     * Execution mode in which the method is mapped
+     * @return mode
+     */
+    ExecutionMode value();
+}
@@ -0,0 +1,265 @@
+package com.backbase.kalah.engine;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.backbase.kalah.id.BoardIds;
+import com.backbase.kalah.model.Board;
+import com.backbase.kalah.model.Pit;
+import com.backbase.kalah.model.Player;
+import com.backbase.kalah.util.Constants;
+
+/**
+ * Packed primitive state of a kalah board.
+ * Pits of both players are kept in a single array: north pits, north kalah, south pits and south kalah.
+ * Size of the array and the rules applied on it are given by its {@link Variant}.
+ * Created by tojagrut
+ */
+public final class GameState {
+
+    public static final int NORTH = 0;
+    public static final int SOUTH = 1;
+    public static final int TIE = 2;
+    public static final int NONE = -1;
+
+    static final String NORTH_NAME = "North";
+    static final String SOUTH_NAME = "South";
+    static final String TIE_NAME = "IT'S A TIE!!";
+
+    /**
+     * No. of slots used by one side of the standard variant i.e. its pits and its kalah
+     */
+    static final int SIDE_LENGTH = Constants.MAX_PITS + 1;
+
+    private final long boardId;
+    private final Variant variant;
+    private final int[] pits;
+    private int nextTurn;
+    private int winner;
+    private int version;
+
+    private GameState(long boardId, Variant variant, int[] pits, int nextTurn, int winner, int version) {
+        this.boardId = boardId;
+        this.variant = variant;
+        this.pits = pits;
+        this.nextTurn = nextTurn;
+        this.winner = winner;
+        this.version = version;
+    }
+
+    /**
+     * Creates state of the standard variant from its packed values
+     * @param boardId boardId
+     * @param pits packed pits, see {@link #pitIndex(int, int)} and {@link #kalahIndex(int)}
+     * @param nextTurn side having next turn
+     * @param winner winner side
+     * @param version no. of moves applied
+     * @return GameState
+     */
+    public static GameState of(long boardId, int[] pits, int nextTurn, int winner, int version) {
+        return of(boardId, Variant.STANDARD, pits, nextTurn, winner, version);
+    }
+
+    /**
+     * Creates state from its packed values
+     * @param boardId boardId
+     * @param variant variant
+     * @param pits packed pits, see {@link Variant#pitIndex(int, int)} and {@link Variant#kalahIndex(int)}
+     * @param nextTurn side having next turn
+     * @param winner winner side
+     * @param version no. of moves applied
+     * @return GameState
+     */
+    public static GameState of(long boardId, Variant variant, int[] pits, int nextTurn, int winner, int version) {
+        if (pits.length != variant.getLength()) {
+            throw new IllegalArgumentException("Invalid no. of pits - " + pits.length);
+        }
+        return new GameState(boardId, variant, pits, nextTurn, winner, version);
+    }
+
+    /**
+     * Creates state of a new game of the standard variant, north player starts
+     * @param boardId boardId
+     * @return GameState
+     */
+    public static GameState newGame(long boardId) {
+        return newGame(boardId, Variant.STANDARD);
+    }
+
+    /**
+     * Creates state of a new game, north player starts
+     * @param boardId boardId
+     * @param variant variant
+     * @return GameState
+     */
+    public static GameState newGame(long boardId, Variant variant) {
+        int[] pits = new int[variant.getLength()];
+        for (int pit = 1; pit <= variant.getPits(); pit++) {
+            pits[variant.pitIndex(NORTH, pit)] = variant.getStones();
+            pits[variant.pitIndex(SOUTH, pit)] = variant.getStones();
+        }
+        return new GameState(boardId, variant, pits, NORTH, NONE, 0);
+    }
+
+    /**
+     * Packs the given board
+     * @param board board
+     * @return GameState
+     */
+    public static GameState fromBoard(Board board) {
+        Variant variant = board.getVariant() != null ? Variant.valueOf(board.getVariant()) : Variant.STANDARD;
+        int[] pits = new int[variant.getLength()];
+        pack(board.getNorth(), pits, 0, variant);
+        pack(board.getSouth(), pits, variant.getSideLength(), variant);
+        return new GameState(BoardIds.decode(board.getBoardId()), variant, pits, side(board.getNextTurn()), side(board.getWinner()), 0);
+    }
+
+    /**
+     * Builds the board view of this state, variant is left out for the standard variant
+     * @return Board
+     */
+    public Board toBoard() {
+        Board board = new Board(BoardIds.encode(boardId), unpack(NORTH_NAME, 0), unpack(SOUTH_NAME, variant.getSideLength()),
+                sideName(winner), sideName(nextTurn));
+        if (variant != Variant.STANDARD) {
+            board.setVariant(variant.getName());
+        }
+        return board;
+    }
+
+    /**
+     * Copy of this state
+     * @return GameState
+     */
+    public GameState copy() {
+        return new GameState(boardId, variant, pits.clone(), nextTurn, winner, version);
+    }
+
+    /**
+     * Copies pits, turn, winner and version of this state into the target of the same variant,
+     * so that a search can reuse its states
+     * @param target target
+     */
+    public void copyTo(GameState target) {
+        System.arraycopy(pits, 0, target.pits, 0, pits.length);
+        target.nextTurn = nextTurn;
+        target.winner = winner;
+        target.version = version;
+    }
+
+    /**
+     * Index of the given pit in packed array of the standard variant, see {@link Variant#pitIndex(int, int)}
+     * @param side side of the player
+     * @param pit pit id, between 1 and {@link Constants#MAX_PITS}
+     * @return index
+     */
+    public static int pitIndex(int side, int pit) {
+        return side * SIDE_LENGTH + pit - 1;
+    }
+
+    /**
+     * Index of kalah of the given side in packed array of the standard variant, see {@link Variant#kalahIndex(int)}
+     * @param side side of the player
+     * @return index
+     */
+    public static int kalahIndex(int side) {
+        return side * SIDE_LENGTH + Constants.MAX_PITS;
+    }
+
+    public long getBoardId() {
+        return boardId;
+    }
+
+    public Variant getVariant() {
+        return variant;
+    }
+
+    public int getStones(int index) {
+        return pits[index];
+    }
+
+    public int getNextTurn() {
+        return nextTurn;
+    }
+
+    public int getWinner() {
+        return winner;
+    }
+
+    /**
+     * No. of moves applied on this state
+     * @return version
+     */
+    public int getVersion() {
+        return version;
+    }
+
+    /**
+     * No. of slots in packed array
+     * @return length
+     */
+    public int length() {
+        return pits.length;
+    }
+
+    public boolean isFinished() {
+        return winner != NONE;
+    }
+
+    int[] pits() {
+        return pits;
+    }
+
+    void setNextTurn(int nextTurn) {
+        this.nextTurn = nextTurn;
+    }
+
+    void setWinner(int winner) {
+        this.winner = winner;
+    }
+
+    void incrementVersion() {
+        version++;
+    }
+
+    private static void pack(Player player, int[] pits, int offset, Variant variant) {
+        player.getPits().forEach(pit -> pits[offset + pit.getId() - 1] = pit.getStones());
+        pits[offset + variant.getPits()] = player.getKalah().getStones();
+    }
+
+    private Player unpack(String name, int offset) {
+        List<Pit> playerPits = new ArrayList<>(variant.getPits());
+        for (int index = 0; index < variant.getPits(); index++) {
+            playerPits.add(new Pit(index + 1, pits[offset + index]));
+        }
+        return new Player(name, playerPits, new Pit(0, pits[offset + variant.getPits()]));
+    }
+
+    private static int side(String name) {
+        if (name == null) {
+            return NONE;
+        }
+        if (NORTH_NAME.equalsIgnoreCase(name)) {
+            return NORTH;
+        }
+        return SOUTH_NAME.equalsIgnoreCase(name) ? SOUTH : TIE;
+    }
+
+    /**
+     * Name of the given side as shown on the board
+     * @param side side
+     * @return name, null for {@link #NONE}
+     */
+    public static String sideName(int side) {
+        switch (side) {
+            case NORTH:
+                return NORTH_NAME;
+            case SOUTH:
+                return SOUTH_NAME;
+            case TIE:
+                return TIE_NAME;
+            default:
+                return null;
+        }
+    }
+}
@@ -0,0 +1,201 @@
+package com.backbase.kalah.engine;
+
+/**
+ * Game rules of kalah applied on {@link GameState}.
+ * Moves are processed on the packed pits array in place, without any allocation.
+ * Created by tojagrut
+ */
+public final class KalahEngine {
+
+    /**
+     * Outcome flag when opponent's stones were captured
+     */
+    public static final int CAPTURE = 1;
+
+    /**
+     * Outcome flag when current player gets the next turn again
+     */
+    public static final int EXTRA_TURN = 1 << 1;
+
+    /**
+     * Outcome flag when stones of one side were collected in its kalah
+     */
+    public static final int COLLECTED = 1 << 2;
+
+    /**
+     * Outcome flag when current player has won the game
+     */
+    public static final int WIN = 1 << 3;
+
+    /**
+     * Outcome flag when game is tied
+     */
+    public static final int TIE = 1 << 4;
+
+    private KalahEngine() {
+        // preventing instantiation of this class
+    }
+
+    /**
+     * Checks if the pit can be played by the player having next turn i.e. game is not finished
+     * and the pit exists and has stones
+     * @param state state
+     * @param pit pit id
+     * @return true if legal
+     */
+    public static boolean isLegal(GameState state, int pit) {
+        Variant variant = state.getVariant();
+        return !state.isFinished() && pit >= 1 && pit <= variant.getPits()
+                && state.getStones(variant.pitIndex(state.getNextTurn(), pit)) > 0;
+    }
+
+    /**
+     * Pits that can be played by the player having next turn, see {@link #isLegal(GameState, int)}
+     * @param state state
+     * @return bit mask having bit 1 &lt;&lt; pit set for each legal pit, 0 when game is finished
+     */
+    public static int legalMoves(GameState state) {
+        if (state.isFinished()) {
+            return 0;
+        }
+        Variant variant = state.getVariant();
+        int[] pits = state.pits();
+        int offset = state.getNextTurn() * variant.getSideLength();
+        int moves = 0;
+        for (int pit = 1; pit <= variant.getPits(); pit++) {
+            if (pits[offset + pit - 1] > 0) {
+                moves |= 1 << pit;
+            }
+        }
+        return moves;
+    }
+
+    /**
+     * Move the stones according to pit selected by the player having next turn
+     * @param state state
+     * @param pit pit id, between 1 and no. of pits of the variant
+     * @return outcome flags of the move
+     */
+    public static int play(GameState state, int pit) {
+        Variant variant = state.getVariant();
+        int[] pits = state.pits();
+        int current = state.getNextTurn();
+        int opponent = 1 - current;
+
+        int lastPosition = sow(variant, pits, current, pit);
+        state.incrementVersion();
+        int outcome = 0;
+        if (capture(variant, pits, current, lastPosition)) {
+            outcome |= CAPTURE;
+        }
+        if (collectEmptySides(variant, pits, current, opponent)) {
+            outcome |= COLLECTED;
+        }
+        return outcome | updateStatus(state, current, opponent, lastPosition);
+    }
+
+    /**
+     * Sow stones of the given pit of current player
+     * @param variant variant
+     * @param pits packed pits
+     * @param current side of current player
+     * @param pit pit id
+     * @return position of the last pit in sow ring of current player
+     */
+    static int sow(Variant variant, int[] pits, int current, int pit) {
+        int[] ring = variant.ring(current);
+        int ringLength = variant.getRingLength();
+        int origin = pit - 1;
+        int originIndex = ring[origin];
+        int stonesToSow = pits[originIndex];
+        int laps = stonesToSow / ringLength;
+        int remainder = stonesToSow % ringLength;
+        if (laps > 0) {
+            // every full lap puts one stone in each pit of current player's ring, only opponent's kalah is skipped
+            for (int index = 0; index < pits.length; index++) {
+                pits[index] += laps;
+            }
+            pits[variant.kalahIndex(1 - current)] -= laps;
+        }
+        // distribute remaining stones to the next pits including current player's kalah and opponent player's pits,
+        // the ring is two laps long so that the positions do not wrap
+        int last = origin + remainder;
+        for (int position = origin + 1; position <= last; position++) {
+            pits[ring[position]]++;
+        }
+        pits[originIndex] = 0;
+        return last < ringLength ? last : last - ringLength;
+    }
+
+    private static boolean capture(Variant variant, int[] pits, int current, int lastPosition) {
+        // check if last pit after sowing is of current player and contains only 1 stone
+        if (lastPosition >= variant.getPits()) {
+            return false;
+        }
+        int lastIndex = variant.ring(current)[lastPosition];
+        if (pits[lastIndex] != 1) {
+            return false;
+        }
+        int oppositeIndex = variant.opposite(lastIndex);
+        // add stones of last pit and opponent's pit in kalah
+        pits[variant.kalahIndex(current)] += pits[lastIndex] + pits[oppositeIndex];
+        pits[lastIndex] = 0;
+        pits[oppositeIndex] = 0;
+        return true;
+    }
+
+    private static boolean collectEmptySides(Variant variant, int[] pits, int current, int opponent) {
+        if (!isStoneAvailable(variant, pits, current)) {
+            collectStones(variant, pits, opponent);
+            return true;
+        }
+        if (!isStoneAvailable(variant, pits, opponent)) {
+            collectStones(variant, pits, current);
+            return true;
+        }
+        return false;
+    }
+
+    private static int updateStatus(GameState state, int current, int opponent, int lastPosition) {
+        Variant variant = state.getVariant();
+        int[] pits = state.pits();
+        int currentKalah = pits[variant.kalahIndex(current)];
+        if (currentKalah >= variant.getStonesToWin()) {
+            state.setWinner(current);
+            state.setNextTurn(GameState.NONE);
+            return WIN;
+        }
+        // check if both kalahs have half of the stones
+        if (currentKalah == variant.getTieStones() && currentKalah == pits[variant.kalahIndex(opponent)]) {
+            state.setWinner(GameState.TIE);
+            state.setNextTurn(GameState.NONE);
+            return TIE;
+        }
+        // if last pit is kalah, current player gets the next turn again
+        if (lastPosition == variant.getPits()) {
+            return EXTRA_TURN;
+        }
+        state.setNextTurn(opponent);
+        return 0;
+    }
+
+    private static boolean isStoneAvailable(Variant variant, int[] pits, int side) {
+        int offset = side * variant.getSideLength();
+        for (int index = offset; index < offset + variant.getPits(); index++) {
+            if (pits[index] > 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static void collectStones(Variant variant, int[] pits, int side) {
+        // collect stones from each of the pit and add them in kalah
+        int offset = side * variant.getSideLength();
+        int kalah = variant.kalahIndex(side);
+        for (int index = offset; index < offset + variant.getPits(); index++) {
+            pits[kalah] += pits[index];
+            pits[index] = 0;
+        }
+    }
+}
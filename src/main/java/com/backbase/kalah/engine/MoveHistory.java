@@ -0,0 +1,200 @@
+package com.backbase.kalah.engine;
+
+import java.util.Arrays;
+
+/**
+ * Moves applied on a board, four bits per move as pit ids fit in a nibble, the side of each move is given by
+ * replaying the moves. Every checkpoint interval moves the state is kept encoded in a few bytes, so that the board
+ * at any ply is rebuilt from the nearest checkpoint by replaying less than the interval of moves.
+ * Memory is bounded by the max no. of moves, beyond it the oldest interval of moves and its checkpoint are dropped.
+ * Plies are counted like the version of the state, ply n is the board after its n-th move.
+ * Not thread safe, it is guarded by the lock of the board.
+ * Created by tojagrut
+ */
+public final class MoveHistory {
+
+    private static final int INITIAL_BYTES = 16;
+
+    private final long boardId;
+    private final Variant variant;
+    private final int checkpointInterval;
+    private final int maxMoves;
+    private int firstPly;
+    // move i is in the low nibble of byte i / 2 when i is even, in the high nibble when odd
+    private byte[] moves = new byte[INITIAL_BYTES];
+    private int size;
+    // checkpoint i is the state at first ply + i * interval, encoded at its offset
+    private byte[] checkpoints = new byte[INITIAL_BYTES * 2];
+    private int[] checkpointOffsets = new int[4];
+    private int checkpointCount;
+    private int checkpointBytes;
+
+    /**
+     * Initialize history of a board
+     * @param initial state the moves are applied on, not kept
+     * @param checkpointInterval no. of moves between two checkpoints, even
+     * @param maxMoves max no. of moves kept, multiple of checkpoint interval
+     */
+    public MoveHistory(GameState initial, int checkpointInterval, int maxMoves) {
+        validate(checkpointInterval, maxMoves);
+        this.boardId = initial.getBoardId();
+        this.variant = initial.getVariant();
+        this.checkpointInterval = checkpointInterval;
+        this.maxMoves = maxMoves;
+        this.firstPly = initial.getVersion();
+        addCheckpoint(initial);
+    }
+
+    /**
+     * Validates size of history, so that it can be checked once before any history is kept
+     * @param checkpointInterval no. of moves between two checkpoints, even
+     * @param maxMoves max no. of moves kept, multiple of checkpoint interval
+     */
+    public static void validate(int checkpointInterval, int maxMoves) {
+        if (checkpointInterval < 2 || checkpointInterval % 2 != 0) {
+            throw new IllegalArgumentException("Checkpoint interval should be even");
+        }
+        if (maxMoves < checkpointInterval || maxMoves % checkpointInterval != 0) {
+            throw new IllegalArgumentException("Max moves should be a multiple of checkpoint interval");
+        }
+    }
+
+    /**
+     * Records a move
+     * @param pit pit played
+     * @param state state after the move
+     */
+    public void record(int pit, GameState state) {
+        if (size == maxMoves) {
+            dropOldest();
+        }
+        int index = size >> 1;
+        if (index == moves.length) {
+            moves = Arrays.copyOf(moves, Math.min(moves.length * 2, maxMoves / 2));
+        }
+        moves[index] |= pit << ((size & 1) << 2);
+        size++;
+        if (size % checkpointInterval == 0) {
+            addCheckpoint(state);
+        }
+    }
+
+    /**
+     * Oldest ply kept, the ply of the board when history started unless older moves were dropped
+     * @return firstPly
+     */
+    public int getFirstPly() {
+        return firstPly;
+    }
+
+    /**
+     * Ply of the board after the last recorded move
+     * @return lastPly
+     */
+    public int getLastPly() {
+        return firstPly + size;
+    }
+
+    /**
+     * Pit of the move made at the given ply
+     * @param ply ply after the move, between first ply + 1 and last ply
+     * @return pit
+     */
+    public int pit(int ply) {
+        if (ply <= firstPly || ply > getLastPly()) {
+            throw new IllegalArgumentException("Ply of a move should be between " + (firstPly + 1) + " to " + getLastPly());
+        }
+        return move(ply - firstPly - 1);
+    }
+
+    /**
+     * Builds the board at the given ply from the nearest checkpoint before it
+     * @param ply ply, between first ply and last ply
+     * @return GameState
+     */
+    public GameState replay(int ply) {
+        if (ply < firstPly || ply > getLastPly()) {
+            throw new IllegalArgumentException("Ply should be between " + firstPly + " to " + getLastPly());
+        }
+        int checkpoint = (ply - firstPly) / checkpointInterval;
+        GameState state = decodeCheckpoint(checkpoint);
+        for (int move = checkpoint * checkpointInterval; move < ply - firstPly; move++) {
+            KalahEngine.play(state, move(move));
+        }
+        return state;
+    }
+
+    /**
+     * Approximate no. of bytes taken by this history
+     * @return bytes
+     */
+    public int sizeInBytes() {
+        // object headers and fields of the history and its three arrays
+        return 96 + moves.length + checkpoints.length + checkpointOffsets.length * 4;
+    }
+
+    private int move(int index) {
+        return (moves[index >> 1] >> ((index & 1) << 2)) & 0xF;
+    }
+
+    private void dropOldest() {
+        int droppedBytes = checkpointInterval >> 1;
+        int usedBytes = (size + 1) >> 1;
+        System.arraycopy(moves, droppedBytes, moves, 0, usedBytes - droppedBytes);
+        Arrays.fill(moves, usedBytes - droppedBytes, usedBytes, (byte) 0);
+        size -= checkpointInterval;
+        firstPly += checkpointInterval;
+
+        int dropped = checkpointOffsets[1];
+        System.arraycopy(checkpoints, dropped, checkpoints, 0, checkpointBytes - dropped);
+        checkpointBytes -= dropped;
+        checkpointCount--;
+        for (int checkpoint = 0; checkpoint < checkpointCount; checkpoint++) {
+            checkpointOffsets[checkpoint] = checkpointOffsets[checkpoint + 1] - dropped;
+        }
+    }
+
+    private void addCheckpoint(GameState state) {
+        if (checkpointCount == checkpointOffsets.length) {
+            checkpointOffsets = Arrays.copyOf(checkpointOffsets, checkpointCount * 2);
+        }
+        // at most five bytes per slot, turn and winner
+        int maxLength = state.length() * 5 + 2;
+        if (checkpointBytes + maxLength > checkpoints.length) {
+            checkpoints = Arrays.copyOf(checkpoints, Math.max(checkpoints.length * 2, checkpointBytes + maxLength));
+        }
+        checkpointOffsets[checkpointCount++] = checkpointBytes;
+        int offset = checkpointBytes;
+        for (int index = 0; index < state.length(); index++) {
+            int value = state.getStones(index);
+            while ((value & ~0x7F) != 0) {
+                checkpoints[offset++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            checkpoints[offset++] = (byte) value;
+        }
+        checkpoints[offset++] = (byte) state.getNextTurn();
+        checkpoints[offset++] = (byte) state.getWinner();
+        checkpointBytes = offset;
+    }
+
+    private GameState decodeCheckpoint(int checkpoint) {
+        int offset = checkpointOffsets[checkpoint];
+        int[] pits = new int[variant.getLength()];
+        for (int index = 0; index < pits.length; index++) {
+            int value = 0;
+            int shift = 0;
+            byte current;
+            do {
+                current = checkpoints[offset++];
+                value |= (current & 0x7F) << shift;
+                shift += 7;
+            }
+            while ((current & 0x80) != 0);
+            pits[index] = value;
+        }
+        int nextTurn = checkpoints[offset++];
+        int winner = checkpoints[offset];
+        return GameState.of(boardId, variant, pits, nextTurn, winner, firstPly + checkpoint * checkpointInterval);
+    }
+}
@@ -0,0 +1,223 @@
+package com.backbase.kalah.engine;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import com.backbase.kalah.util.Constants;
+
+/**
+ * Rules of a board variant i.e. no. of pits per player and stones per pit, named like "4x3".
+ * All variants are built once when the class is loaded, each with immutable tables of the packed indexes
+ * a move goes through, so that {@link KalahEngine} looks indexes up instead of computing them per stone.
+ * Packed layout of a variant is the same as of the standard game: pits of north, kalah of north,
+ * pits of south and kalah of south.
+ * Created by tojagrut
+ */
+public final class Variant {
+
+    /**
+     * Max no. of pits per player of any variant
+     */
+    public static final int MAX_PITS = 8;
+
+    /**
+     * Max no. of stones per pit of any variant
+     */
+    public static final int MAX_STONES = 6;
+
+    private static final int[] PIT_COUNTS = {4, 6, MAX_PITS};
+    private static final int MIN_STONES = 3;
+
+    private static final Variant[] VARIANTS = new Variant[PIT_COUNTS.length * (MAX_STONES - MIN_STONES + 1)];
+
+    static {
+        int id = 0;
+        for (int pits : PIT_COUNTS) {
+            for (int stones = MIN_STONES; stones <= MAX_STONES; stones++) {
+                VARIANTS[id] = new Variant(id, pits, stones);
+                id++;
+            }
+        }
+    }
+
+    /**
+     * Game of {@link Constants#MAX_PITS} pits having {@link Constants#MAX_STONES} stones
+     */
+    public static final Variant STANDARD = valueOf(Constants.MAX_PITS + "x" + Constants.MAX_STONES);
+
+    private final int id;
+    private final String name;
+    private final int pits;
+    private final int stones;
+    private final int sideLength;
+    private final int ringLength;
+    private final int stonesToWin;
+    private final int tieStones;
+    // packed index of each position of the sow ring of a side, listed twice so that sowing does not wrap
+    private final int[][] rings;
+    // packed index of the opposite pit of each pit
+    private final int[] opposites;
+
+    private Variant(int id, int pits, int stones) {
+        this.id = id;
+        this.name = pits + "x" + stones;
+        this.pits = pits;
+        this.stones = stones;
+        this.sideLength = pits + 1;
+        this.ringLength = pits * 2 + 1;
+        int totalStones = pits * stones * 2;
+        this.stonesToWin = totalStones / 2 + 1;
+        this.tieStones = totalStones / 2;
+        rings = new int[2][ringLength * 2];
+        for (int side = 0; side < 2; side++) {
+            for (int position = 0; position < ringLength * 2; position++) {
+                // own pits, own kalah and then pits of opponent, kalah of opponent is skipped
+                rings[side][position] = (side * sideLength + position % ringLength) % (sideLength * 2);
+            }
+        }
+        opposites = new int[sideLength * 2];
+        for (int pit = 1; pit <= pits; pit++) {
+            opposites[pitIndex(GameState.NORTH, pit)] = pitIndex(GameState.SOUTH, pits - pit + 1);
+            opposites[pitIndex(GameState.SOUTH, pit)] = pitIndex(GameState.NORTH, pits - pit + 1);
+        }
+    }
+
+    /**
+     * Variant of the given name
+     * @param name name like "6x6", no. of pits x stones per pit
+     * @return Variant
+     * @throws IllegalArgumentException when there is no such variant
+     */
+    public static Variant valueOf(String name) {
+        for (Variant variant : VARIANTS) {
+            if (variant.name.equals(name)) {
+                return variant;
+            }
+        }
+        throw new IllegalArgumentException("Unknown variant " + name + ", variants are " + values());
+    }
+
+    /**
+     * Variant of the given id, see {@link #getId()}
+     * @param id id
+     * @return Variant
+     * @throws IllegalArgumentException when there is no such variant
+     */
+    public static Variant byId(int id) {
+        if (id < 0 || id >= VARIANTS.length) {
+            throw new IllegalArgumentException("Unknown variant id " + id);
+        }
+        return VARIANTS[id];
+    }
+
+    /**
+     * All variants
+     * @return unmodifiable list
+     */
+    public static List<Variant> values() {
+        return Collections.unmodifiableList(Arrays.asList(VARIANTS));
+    }
+
+    /**
+     * Index of the given pit in packed array
+     * @param side side of the player
+     * @param pit pit id, between 1 and {@link #getPits()}
+     * @return index
+     */
+    public int pitIndex(int side, int pit) {
+        return side * sideLength + pit - 1;
+    }
+
+    /**
+     * Index of kalah of the given side in packed array
+     * @param side side of the player
+     * @return index
+     */
+    public int kalahIndex(int side) {
+        return side * sideLength + pits;
+    }
+
+    /**
+     * Small number identifying the variant in binary encodings
+     * @return id
+     */
+    public int getId() {
+        return id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getPits() {
+        return pits;
+    }
+
+    public int getStones() {
+        return stones;
+    }
+
+    /**
+     * No. of slots used by one side i.e. its pits and its kalah
+     * @return sideLength
+     */
+    public int getSideLength() {
+        return sideLength;
+    }
+
+    /**
+     * No. of slots in packed array
+     * @return length
+     */
+    public int getLength() {
+        return sideLength * 2;
+    }
+
+    /**
+     * No. of pits a player sows into i.e. own pits, own kalah and pits of opponent
+     * @return ringLength
+     */
+    public int getRingLength() {
+        return ringLength;
+    }
+
+    /**
+     * Min stones in kalah to win the game i.e. more than half of all stones
+     * @return stonesToWin
+     */
+    public int getStonesToWin() {
+        return stonesToWin;
+    }
+
+    /**
+     * Stones in both kalahs when the game is tied
+     * @return tieStones
+     */
+    public int getTieStones() {
+        return tieStones;
+    }
+
+    /**
+     * Packed indexes of the sow ring of a side, from its first pit, two laps long
+     * @param side side
+     * @return ring, not to be modified
+     */
+    int[] ring(int side) {
+        return rings[side];
+    }
+
+    /**
+     * Packed index of the pit opposite of the given pit
+     * @param index packed index of a pit
+     * @return index
+     */
+    int opposite(int index) {
+        return opposites[index];
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
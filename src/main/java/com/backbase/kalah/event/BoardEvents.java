@@ -0,0 +1,286 @@
+package com.backbase.kalah.event;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+import javax.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.backbase.kalah.controller.BoardLinksWriter;
+import com.backbase.kalah.engine.GameState;
+import com.backbase.kalah.json.BoardJsonWriter;
+
+/**
+ * Pushes board updates to subscribers as server sent events.
+ * Subscriptions are async requests, they do not hold a request thread while waiting for moves.
+ * Each subscriber has its own pending update, sent by a small pool of threads, so a slow subscriber only delays
+ * itself. When a board is moved faster than its updates are sent, a subscriber only receives the latest state,
+ * and never a state older than one it received. A subscriber whose send is blocked longer than the send timeout
+ * is dropped.
+ * Created by tojagrut
+ */
+@Component
+public class BoardEvents {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(BoardEvents.class);
+
+    /**
+     * Name of the event carrying board JSON
+     */
+    public static final String BOARD_EVENT = "board";
+
+    private final Map<Long, List<Watcher>> boards = new ConcurrentHashMap<>();
+    private final ExecutorService sender;
+    private final LongAdder subscribers = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final long timeoutMillis;
+    private final long sendTimeoutNanos;
+
+    public BoardEvents() {
+        this(300_000L, 5_000L, 4);
+    }
+
+    /**
+     * Initialize with given subscription timeout, clients are expected to subscribe again after it
+     * @param timeoutMillis timeoutMillis
+     * @param sendTimeoutMillis time a send may be blocked before its subscriber is dropped
+     * @param senderThreads no. of threads sending updates
+     */
+    @Autowired
+    public BoardEvents(@Value("${kalah.events.timeout-millis:300000}") long timeoutMillis,
+                       @Value("${kalah.events.send-timeout-millis:5000}") long sendTimeoutMillis,
+                       @Value("${kalah.events.sender-threads:4}") int senderThreads) {
+        this.timeoutMillis = timeoutMillis;
+        this.sendTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(sendTimeoutMillis);
+        AtomicInteger threads = new AtomicInteger();
+        this.sender = Executors.newFixedThreadPool(senderThreads, runnable -> {
+            Thread thread = new Thread(runnable, "kalah-board-events-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Subscribes to updates of the board, current state is sent as first event.
+     * The subscriber is registered before the board is read, so moves made meanwhile are not missed.
+     * Has to be called on the request thread, links of the events are made from the request uri.
+     * @param boardId boardId
+     * @param current reads current state of the board, empty when there is no such board
+     * @return SseEmitter, empty when there is no such board
+     */
+    public Optional<SseEmitter> subscribe(long boardId, Supplier<Optional<GameState>> current) {
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        Watcher watcher = new Watcher(boardId, emitter, BoardLinksWriter.baseUri());
+        boards.compute(boardId, (key, watchers) -> {
+            List<Watcher> result = watchers != null ? watchers : new CopyOnWriteArrayList<>();
+            result.add(watcher);
+            return result;
+        });
+        subscribers.increment();
+        Optional<GameState> state = current.get();
+        if (!state.isPresent()) {
+            remove(watcher);
+            return Optional.empty();
+        }
+        Runnable remove = () -> remove(watcher);
+        emitter.onCompletion(remove);
+        emitter.onTimeout(remove);
+        // a newer state published since registering may already be sent, the current one is then skipped
+        watcher.send(new Update(state.get()));
+        return Optional.of(emitter);
+    }
+
+    /**
+     * Publishes new state of the board to its subscribers
+     * @param state state, must not be changed afterwards
+     */
+    public void publish(GameState state) {
+        List<Watcher> watchers = boards.get(state.getBoardId());
+        if (watchers != null) {
+            Update update = new Update(state);
+            watchers.forEach(watcher -> watcher.offer(update));
+        }
+    }
+
+    /**
+     * No. of active subscribers
+     * @return subscribers
+     */
+    public long getSubscribers() {
+        return subscribers.sum();
+    }
+
+    /**
+     * No. of subscribers dropped as their sends were blocked longer than the send timeout
+     * @return dropped
+     */
+    public long getDropped() {
+        return dropped.sum();
+    }
+
+    /**
+     * Drops subscribers whose send is blocked longer than the send timeout, they are found between one and two
+     * timeouts after the send started. The blocked send is left to fail on its own, its emitter is completed after.
+     */
+    @Scheduled(fixedDelayString = "${kalah.events.send-timeout-millis:5000}")
+    public void dropSlowSubscribers() {
+        long now = System.nanoTime();
+        boards.values().forEach(watchers -> watchers.forEach(watcher -> {
+            long since = watcher.sendingSince;
+            if (since != 0 && now - since > sendTimeoutNanos && watcher.slow.compareAndSet(false, true)) {
+                LOGGER.info("Dropping subscriber of board {}, send is blocked for {} ms", watcher.boardId,
+                        TimeUnit.NANOSECONDS.toMillis(now - since));
+                dropped.increment();
+                remove(watcher);
+            }
+        }));
+    }
+
+    /**
+     * Completes all subscriptions
+     */
+    @PreDestroy
+    public void stop() {
+        sender.shutdownNow();
+        boards.values().forEach(watchers -> watchers.forEach(watcher -> watcher.emitter.complete()));
+        boards.clear();
+    }
+
+    private void remove(Watcher watcher) {
+        if (watcher.removed.compareAndSet(false, true)) {
+            subscribers.decrement();
+        }
+        boards.computeIfPresent(watcher.boardId, (key, watchers) -> {
+            watchers.remove(watcher);
+            return watchers.isEmpty() ? null : watchers;
+        });
+    }
+
+    /**
+     * State to send, subscribers of the same host share the same JSON
+     */
+    private static final class Update {
+        private final GameState state;
+        private final Map<String, String> json = new ConcurrentHashMap<>(2);
+
+        private Update(GameState state) {
+            this.state = state;
+        }
+
+        private String json(String baseUri) {
+            return json.computeIfAbsent(baseUri == null ? "" : baseUri,
+                    key -> new String(BoardJsonWriter.write(state, baseUri), StandardCharsets.UTF_8));
+        }
+    }
+
+    private final class Watcher {
+        private final long boardId;
+        private final SseEmitter emitter;
+        private final String baseUri;
+        private final AtomicBoolean removed = new AtomicBoolean();
+        private final AtomicBoolean slow = new AtomicBoolean();
+        // latest update which is not sent yet, and whether a sender is taking updates
+        private final AtomicReference<Update> pending = new AtomicReference<>();
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+        // version of last state sent, guarded by this
+        private int sentVersion = -1;
+        // start of the send in progress, 0 when not sending
+        private volatile long sendingSince;
+
+        private Watcher(long boardId, SseEmitter emitter, String baseUri) {
+            this.boardId = boardId;
+            this.emitter = emitter;
+            this.baseUri = baseUri;
+        }
+
+        private void offer(Update update) {
+            Update previous;
+            do {
+                previous = pending.get();
+                // updates can be published out of order, as they are published after the lock of the board
+                if (previous != null && previous.state.getVersion() >= update.state.getVersion()) {
+                    return;
+                }
+            }
+            while (!pending.compareAndSet(previous, update));
+            if (scheduled.compareAndSet(false, true)) {
+                sender.execute(this::drain);
+            }
+        }
+
+        private void drain() {
+            boolean open = true;
+            while (open && !removed.get()) {
+                Update update = pending.getAndSet(null);
+                if (update == null) {
+                    scheduled.set(false);
+                    // an update offered after the check above and before the flag is cleared is taken now
+                    if (pending.get() == null || !scheduled.compareAndSet(false, true)) {
+                        return;
+                    }
+                    continue;
+                }
+                sendingSince = System.nanoTime();
+                try {
+                    open = send(update);
+                }
+                finally {
+                    sendingSince = 0;
+                }
+            }
+            if (open && slow.get()) {
+                emitter.completeWithError(new IOException("Subscriber is too slow"));
+            }
+        }
+
+        /**
+         * Sends the update unless a newer state was sent
+         * @param update update
+         * @return false when the emitter is completed
+         */
+        private synchronized boolean send(Update update) {
+            GameState state = update.state;
+            if (state.getVersion() <= sentVersion) {
+                return true;
+            }
+            try {
+                emitter.send(SseEmitter.event().id(Integer.toString(state.getVersion())).name(BOARD_EVENT)
+                        .data(update.json(baseUri), MediaType.APPLICATION_JSON));
+                sentVersion = state.getVersion();
+                if (state.isFinished()) {
+                    emitter.complete();
+                    remove(this);
+                    return false;
+                }
+                return true;
+            }
+            catch (IOException | IllegalStateException exception) {
+                LOGGER.debug("Subscriber of board is gone - {}", exception.getMessage());
+                emitter.completeWithError(exception);
+                remove(this);
+                return false;
+            }
+        }
+    }
+}
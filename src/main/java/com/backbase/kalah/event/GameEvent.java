@@ -0,0 +1,116 @@
+package com.backbase.kalah.event;
+
+import com.backbase.kalah.engine.GameState;
+import com.backbase.kalah.engine.KalahEngine;
+import com.backbase.kalah.engine.Variant;
+
+/**
+ * Event of a board passed to {@link GameEventListener}.
+ * The same instance is reused for every event, it is only valid during the call of the listener.
+ * Created by tojagrut
+ */
+public final class GameEvent {
+
+    /**
+     * Type of event
+     */
+    public enum Type {
+        /**
+         * Board was created
+         */
+        BOARD_CREATED,
+        /**
+         * A pit was played
+         */
+        MOVE_APPLIED,
+        /**
+         * A move captured stones of the opponent, published after its move
+         */
+        CAPTURED,
+        /**
+         * A move finished the game, published after its move
+         */
+        GAME_FINISHED,
+        /**
+         * A board was requested which does not exist
+         */
+        BOARD_NOT_FOUND
+    }
+
+    private static final Type[] TYPES = Type.values();
+
+    private Type type;
+    private long boardId;
+    private int pit;
+    private int version;
+    private int value;
+
+    void set(int type, long boardId, int pit, int version, int value) {
+        this.type = TYPES[type];
+        this.boardId = boardId;
+        this.pit = pit;
+        this.version = version;
+        this.value = value;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public long getBoardId() {
+        return boardId;
+    }
+
+    /**
+     * Pit played, of move events
+     * @return pit
+     */
+    public int getPit() {
+        return pit;
+    }
+
+    /**
+     * Version of the board after the event
+     * @return version
+     */
+    public int getVersion() {
+        return version;
+    }
+
+    /**
+     * Outcome flags of {@link KalahEngine#play(GameState, int)}, of move events
+     * @return outcome
+     */
+    public int getOutcome() {
+        return type == Type.MOVE_APPLIED ? value : 0;
+    }
+
+    /**
+     * Winner as per {@link GameState#getWinner()}, of finished games
+     * @return winner
+     */
+    public int getWinner() {
+        return type == Type.GAME_FINISHED ? value : GameState.NONE;
+    }
+
+    /**
+     * Variant of created boards
+     * @return variant, null for other events
+     */
+    public Variant getVariant() {
+        return type == Type.BOARD_CREATED ? Variant.byId(value) : null;
+    }
+
+    /**
+     * Whether the missing board was evicted
+     * @return true if expired
+     */
+    public boolean isExpired() {
+        return type == Type.BOARD_NOT_FOUND && value != 0;
+    }
+
+    @Override
+    public String toString() {
+        return type + " of board " + boardId + " at version " + version;
+    }
+}
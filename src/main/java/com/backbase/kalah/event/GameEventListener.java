@@ -0,0 +1,22 @@
+package com.backbase.kalah.event;
+
+/**
+ * Consumer of game events, called by the single thread of {@link GameEvents}.
+ * Events of a board are passed in the order they happened.
+ * Created by tojagrut
+ */
+public interface GameEventListener {
+
+    /**
+     * Handles an event
+     * @param event event, reused once the call returns
+     */
+    void onEvent(GameEvent event);
+
+    /**
+     * Called after each batch of events, e.g. to flush work collected for the batch
+     */
+    default void endOfBatch() {
+        // nothing collected by default
+    }
+}
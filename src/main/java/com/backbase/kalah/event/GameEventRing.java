@@ -0,0 +1,123 @@
+package com.backbase.kalah.event;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Bounded ring of events of one shard, with a single producer and a single consumer.
+ * Fields of the events are kept in preallocated primitive arrays, so publishing does not allocate.
+ * The producer is whoever holds the lock of the shard, the consumer is the thread of {@link GameEvents}.
+ * Created by tojagrut
+ */
+final class GameEventRing {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(GameEventRing.class);
+
+    private final int capacity;
+    private final int mask;
+    private final byte[] types;
+    private final long[] boardIds;
+    private final int[] pits;
+    private final int[] versions;
+    private final int[] values;
+
+    // next sequence to be consumed, written by the consumer
+    private final AtomicLong consumed = new AtomicLong();
+    // sequences before it are written, written by the producer
+    private final AtomicLong published = new AtomicLong();
+    // producer only, guarded by the lock of the shard
+    private long next;
+    private long cachedConsumed;
+
+    /**
+     * Initialize ring
+     * @param size min no. of events buffered
+     */
+    GameEventRing(int size) {
+        capacity = size <= 1 ? 1 : Integer.highestOneBit(size - 1) << 1;
+        mask = capacity - 1;
+        types = new byte[capacity];
+        boardIds = new long[capacity];
+        pits = new int[capacity];
+        versions = new int[capacity];
+        values = new int[capacity];
+    }
+
+    /**
+     * Adds an event unless the ring is full, see {@link GameEvent} for the fields
+     * @return true if added
+     */
+    boolean offer(int type, long boardId, int pit, int version, int value) {
+        long sequence = next;
+        if (sequence - cachedConsumed >= capacity) {
+            // consumer position is only read again when the ring looks full
+            cachedConsumed = consumed.get();
+            if (sequence - cachedConsumed >= capacity) {
+                return false;
+            }
+        }
+        int index = (int) sequence & mask;
+        types[index] = (byte) type;
+        boardIds[index] = boardId;
+        pits[index] = pit;
+        versions[index] = version;
+        values[index] = value;
+        next = sequence + 1;
+        published.lazySet(sequence + 1);
+        return true;
+    }
+
+    /**
+     * Checks if at least half of the ring is taken, to be called by the producer
+     * @return true if half full
+     */
+    boolean isHalfFull() {
+        if (next - cachedConsumed < capacity >> 1) {
+            return false;
+        }
+        cachedConsumed = consumed.get();
+        return next - cachedConsumed >= capacity >> 1;
+    }
+
+    /**
+     * Passes published events to the listeners
+     * @param event event to fill
+     * @param listeners listeners
+     * @param max max no. of events
+     * @return no. of events passed
+     */
+    int drain(GameEvent event, List<GameEventListener> listeners, int max) {
+        long from = consumed.get();
+        long to = Math.min(published.get(), from + max);
+        for (long sequence = from; sequence < to; sequence++) {
+            int index = (int) sequence & mask;
+            event.set(types[index], boardIds[index], pits[index], versions[index], values[index]);
+            for (GameEventListener listener : listeners) {
+                try {
+                    listener.onEvent(event);
+                }
+                catch (RuntimeException exception) {
+                    LOGGER.error("Listener {} failed on {}", listener, event, exception);
+                }
+            }
+        }
+        // slots are free for the producer only after all listeners are done with them
+        consumed.lazySet(to);
+        return (int) (to - from);
+    }
+
+    /**
+     * No. of events not consumed yet
+     * @return size
+     */
+    int size() {
+        return (int) (published.get() - consumed.get());
+    }
+
+    int capacity() {
+        return capacity;
+    }
+}
@@ -0,0 +1,213 @@
+package com.backbase.kalah.event;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import com.backbase.kalah.config.GameEventProperties;
+import com.backbase.kalah.config.GameEventProperties.Backpressure;
+import com.backbase.kalah.engine.GameState;
+import com.backbase.kalah.engine.KalahEngine;
+import com.backbase.kalah.repository.ResourceStore;
+
+/**
+ * Passes events of boards to the {@link GameEventListener}s on a single background thread, so that side work
+ * like logging is not done on request threads.
+ * Events are buffered in a {@link GameEventRing} per segment of {@link ResourceStore} and have to be published
+ * while holding the lock of the board, so each ring has a single producer at a time and events of a board keep
+ * their order. Publishing writes a few primitives in a preallocated slot, it takes constant time and does not
+ * allocate. The consumer drains all rings every poll interval and is woken earlier only when a ring is half full,
+ * so that moves do not pay for waking it. When a ring is full the event is dropped or the move waits,
+ * as per {@link Backpressure}.
+ * Created by tojagrut
+ */
+@Component
+@ConditionalOnProperty(name = "kalah.game-events.enabled", havingValue = "true", matchIfMissing = true)
+public class GameEvents {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(GameEvents.class);
+
+    private static final long PRODUCER_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(10);
+
+    @Autowired
+    private ResourceStore resourceStore;
+
+    @Autowired
+    private GameEventProperties properties;
+
+    @Autowired(required = false)
+    private List<GameEventListener> listeners = Collections.emptyList();
+
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder delivered = new LongAdder();
+    private GameEventRing[] rings;
+    private boolean block;
+    private long pollIntervalNanos;
+    private Thread consumer;
+    private volatile boolean running;
+
+    public GameEvents() {
+        // default constructor
+    }
+
+    /**
+     * Initialize without spring
+     * @param resourceStore store whose segments are the shards
+     * @param properties properties
+     * @param listeners listeners
+     */
+    public GameEvents(ResourceStore resourceStore, GameEventProperties properties, List<GameEventListener> listeners) {
+        this.resourceStore = resourceStore;
+        this.properties = properties;
+        this.listeners = listeners;
+    }
+
+    /**
+     * Allocates a ring per shard and starts the consumer thread
+     */
+    @PostConstruct
+    public void start() {
+        rings = new GameEventRing[resourceStore.getSegmentCount()];
+        for (int shard = 0; shard < rings.length; shard++) {
+            rings[shard] = new GameEventRing(properties.getRingSize());
+        }
+        block = properties.getBackpressure() == Backpressure.BLOCK;
+        pollIntervalNanos = TimeUnit.MILLISECONDS.toNanos(properties.getPollIntervalMillis());
+        running = true;
+        consumer = new Thread(this::consume, "kalah-game-events");
+        consumer.setDaemon(true);
+        consumer.start();
+        LOGGER.info("Game events of {} shards passed to {}", rings.length, listeners);
+    }
+
+    /**
+     * Stops the consumer thread once the published events are passed to listeners
+     * @throws InterruptedException when interrupted while waiting
+     */
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        LockSupport.unpark(consumer);
+        consumer.join(TimeUnit.SECONDS.toMillis(5));
+    }
+
+    /**
+     * Publishes creation of a board, to be called while holding the lock of the board
+     * @param state state
+     */
+    public void created(GameState state) {
+        publish(GameEvent.Type.BOARD_CREATED, state.getBoardId(), 0, state.getVersion(), state.getVariant().getId());
+    }
+
+    /**
+     * Publishes a move and its capture or end of game, to be called while holding the lock of the board
+     * @param state state after the move
+     * @param pit pit
+     * @param outcome outcome flags of the move
+     */
+    public void moved(GameState state, int pit, int outcome) {
+        long boardId = state.getBoardId();
+        int version = state.getVersion();
+        publish(GameEvent.Type.MOVE_APPLIED, boardId, pit, version, outcome);
+        if ((outcome & KalahEngine.CAPTURE) != 0) {
+            publish(GameEvent.Type.CAPTURED, boardId, pit, version, 0);
+        }
+        if ((outcome & (KalahEngine.WIN | KalahEngine.TIE)) != 0) {
+            publish(GameEvent.Type.GAME_FINISHED, boardId, pit, version, state.getWinner());
+        }
+    }
+
+    /**
+     * Publishes a request of a missing board, to be called while holding the lock of the board
+     * @param boardId boardId
+     * @param expired true when the board was evicted
+     */
+    public void notFound(long boardId, boolean expired) {
+        publish(GameEvent.Type.BOARD_NOT_FOUND, boardId, 0, 0, expired ? 1 : 0);
+    }
+
+    /**
+     * No. of events dropped as their ring was full
+     * @return dropped
+     */
+    public long getDropped() {
+        return dropped.sum();
+    }
+
+    /**
+     * No. of events passed to listeners
+     * @return delivered
+     */
+    public long getDelivered() {
+        return delivered.sum();
+    }
+
+    /**
+     * No. of events waiting for the consumer
+     * @return pending
+     */
+    public int getPending() {
+        int pending = 0;
+        for (GameEventRing ring : rings) {
+            pending += ring.size();
+        }
+        return pending;
+    }
+
+    private void publish(GameEvent.Type type, long boardId, int pit, int version, int value) {
+        GameEventRing ring = rings[resourceStore.segmentIndex(boardId)];
+        while (!ring.offer(type.ordinal(), boardId, pit, version, value)) {
+            if (!block || !running) {
+                dropped.increment();
+                return;
+            }
+            LockSupport.unpark(consumer);
+            LockSupport.parkNanos(PRODUCER_PARK_NANOS);
+        }
+        if (ring.isHalfFull()) {
+            LockSupport.unpark(consumer);
+        }
+    }
+
+    private void consume() {
+        GameEvent event = new GameEvent();
+        while (running) {
+            if (drain(event) == 0) {
+                LockSupport.parkNanos(pollIntervalNanos);
+            }
+        }
+        while (drain(event) > 0) {
+            // events published before stop are passed on
+        }
+    }
+
+    private int drain(GameEvent event) {
+        int total = 0;
+        for (GameEventRing ring : rings) {
+            total += ring.drain(event, listeners, properties.getBatchSize());
+        }
+        if (total > 0) {
+            delivered.add(total);
+            for (GameEventListener listener : listeners) {
+                try {
+                    listener.endOfBatch();
+                }
+                catch (RuntimeException exception) {
+                    LOGGER.error("Listener {} failed at end of batch", listener, exception);
+                }
+            }
+        }
+        return total;
+    }
+}
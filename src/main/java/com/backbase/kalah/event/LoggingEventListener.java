@@ -0,0 +1,60 @@
+package com.backbase.kalah.event;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import com.backbase.kalah.engine.GameState;
+import com.backbase.kalah.engine.KalahEngine;
+import com.backbase.kalah.id.BoardIds;
+
+/**
+ * Logs captures, collections, results and missing boards, off the request thread
+ * Created by tojagrut
+ */
+@Component
+public class LoggingEventListener implements GameEventListener {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(LoggingEventListener.class);
+
+    @Override
+    public void onEvent(GameEvent event) {
+        switch (event.getType()) {
+            case MOVE_APPLIED:
+                if ((event.getOutcome() & KalahEngine.COLLECTED) != 0 && LOGGER.isInfoEnabled()) {
+                    LOGGER.info("No stones available with current player, collecting stones in opponent kalah of board {}",
+                            BoardIds.encode(event.getBoardId()));
+                }
+                break;
+            case CAPTURED:
+                if (LOGGER.isInfoEnabled()) {
+                    LOGGER.info("Capturing opponent's stones from opposite pit of board {}", BoardIds.encode(event.getBoardId()));
+                }
+                break;
+            case GAME_FINISHED:
+                if (event.getWinner() == GameState.TIE) {
+                    LOGGER.info("Game is tied on board {}", BoardIds.encode(event.getBoardId()));
+                }
+                else {
+                    LOGGER.info("Player {} has won the game on board {}", GameState.sideName(event.getWinner()),
+                            BoardIds.encode(event.getBoardId()));
+                }
+                break;
+            case BOARD_NOT_FOUND:
+                if (event.isExpired()) {
+                    LOGGER.info("Board with id {} has expired", BoardIds.encode(event.getBoardId()));
+                }
+                else {
+                    LOGGER.error("Board does not exist with id {} ", BoardIds.encode(event.getBoardId()));
+                }
+                break;
+            default:
+                break;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "logging";
+    }
+}
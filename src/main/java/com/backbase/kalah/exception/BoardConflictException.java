@@ -0,0 +1,16 @@
+package com.backbase.kalah.exception;
+
+/**
+ * Exception class to be used when Board keeps being moved by others while a move is being prepared
+ * Created by tojagrut
+ */
+public class BoardConflictException extends RuntimeException {
+
+    /**
+     * Instantiate exception with error message
+     * @param errorMessage errorMessage
+     */
+    public BoardConflictException(String errorMessage) {
+        super(errorMessage);
+    }
+}
@@ -0,0 +1,16 @@
+package com.backbase.kalah.exception;
+
+/**
+ * Exception class to be used when Board was evicted from store
+ * Created by tojagrut
+ */
+public class BoardExpiredException extends BoardNotFoundException {
+
+    /**
+     * Instantiate exception with error message
+     * @param errorMessage errorMessage
+     */
+    public BoardExpiredException(String errorMessage) {
+        super(errorMessage);
+    }
+}
@@ -0,0 +1,14 @@
+package com.backbase.kalah.id;
+
+/**
+ * Generator of unique board ids
+ * Created by tojagrut
+ */
+public interface BoardIdGenerator {
+
+    /**
+     * Generates a new board id, encoded with {@link BoardIds#encode(long)} for clients
+     * @return id
+     */
+    long nextId();
+}
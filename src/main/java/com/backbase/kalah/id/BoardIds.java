@@ -0,0 +1,109 @@
+package com.backbase.kalah.id;
+
+import java.security.SecureRandom;
+import java.util.Arrays;
+
+/**
+ * Url safe encoding of board ids, a 64 bit id is encoded in 11 characters of base64url alphabet
+ * Created by tojagrut
+ */
+public final class BoardIds {
+
+    /**
+     * Length of an encoded id
+     */
+    public static final int LENGTH = 11;
+
+    private static final char[] ALPHABET = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789-_".toCharArray();
+    private static final byte[] VALUES = new byte[128];
+
+    static {
+        Arrays.fill(VALUES, (byte) -1);
+        for (int index = 0; index < ALPHABET.length; index++) {
+            VALUES[ALPHABET[index]] = (byte) index;
+        }
+    }
+
+    private BoardIds() {
+        // preventing instantiation of this class
+    }
+
+    /**
+     * Encodes the id
+     * @param id id
+     * @return encoded id
+     */
+    public static String encode(long id) {
+        char[] chars = new char[LENGTH];
+        // first 10 characters carry 60 bits, the last one the remaining 4 bits
+        for (int index = 0; index < LENGTH - 1; index++) {
+            chars[index] = ALPHABET[(int) (id >>> (58 - index * 6)) & 0x3F];
+        }
+        chars[LENGTH - 1] = ALPHABET[(int) (id & 0xF) << 2];
+        return new String(chars);
+    }
+
+    /**
+     * Encodes the id as ascii bytes into the target
+     * @param id id
+     * @param target target, must have {@link #LENGTH} bytes from offset
+     * @param offset offset
+     */
+    public static void encode(long id, byte[] target, int offset) {
+        for (int index = 0; index < LENGTH - 1; index++) {
+            target[offset + index] = (byte) ALPHABET[(int) (id >>> (58 - index * 6)) & 0x3F];
+        }
+        target[offset + LENGTH - 1] = (byte) ALPHABET[(int) (id & 0xF) << 2];
+    }
+
+    /**
+     * Checks if the value is an encoded id
+     * @param value value
+     * @return true if valid
+     */
+    public static boolean isValid(String value) {
+        if (value == null || value.length() != LENGTH) {
+            return false;
+        }
+        for (int index = 0; index < LENGTH; index++) {
+            if (valueOf(value.charAt(index)) < 0) {
+                return false;
+            }
+        }
+        // unused low bits of the last character are always zero
+        return (valueOf(value.charAt(LENGTH - 1)) & 0x3) == 0;
+    }
+
+    /**
+     * Decodes the id
+     * @param value encoded id
+     * @return id
+     * @throws IllegalArgumentException when value is not an encoded id
+     */
+    public static long decode(String value) {
+        if (!isValid(value)) {
+            throw new IllegalArgumentException("Invalid board id - " + value);
+        }
+        long id = 0;
+        for (int index = 0; index < LENGTH - 1; index++) {
+            id = id << 6 | valueOf(value.charAt(index));
+        }
+        return id << 4 | valueOf(value.charAt(LENGTH - 1)) >>> 2;
+    }
+
+    /**
+     * Generates a new encoded id with a default generator, used where no generator is configured
+     * @return encoded id
+     */
+    public static String generate() {
+        return encode(DefaultGenerator.INSTANCE.nextId());
+    }
+
+    private static int valueOf(char character) {
+        return character < VALUES.length ? VALUES[character] : -1;
+    }
+
+    private static final class DefaultGenerator {
+        private static final BoardIdGenerator INSTANCE = new ScrambledIdGenerator(0, new SecureRandom().nextLong());
+    }
+}
@@ -0,0 +1,101 @@
+package com.backbase.kalah.id;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Default board id generator.
+ * An id is made of the milliseconds since 2020, the node id and a sequence within the millisecond, which makes
+ * it unique without any lock. The id is then scrambled by a keyed permutation so that consecutive ids are
+ * not guessable from each other.
+ * Created by tojagrut
+ */
+public class ScrambledIdGenerator implements BoardIdGenerator {
+
+    static final int NODE_BITS = 10;
+    static final int SEQUENCE_BITS = 13;
+    static final long MAX_NODE = (1L << NODE_BITS) - 1;
+
+    private static final long EPOCH_MILLIS = 1_577_836_800_000L;
+    private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+    private static final int ROUNDS = 4;
+
+    private final long node;
+    private final int[] roundKeys = new int[ROUNDS];
+    // milliseconds and sequence of the last id
+    private final AtomicLong last = new AtomicLong();
+
+    /**
+     * Initialize generator
+     * @param node id of this node, between 0 and 1023
+     * @param key secret key of the scramble
+     */
+    public ScrambledIdGenerator(long node, long key) {
+        if (node < 0 || node > MAX_NODE) {
+            throw new IllegalArgumentException("Node id should be between 0 to " + MAX_NODE);
+        }
+        this.node = node;
+        long seed = key;
+        for (int round = 0; round < ROUNDS; round++) {
+            seed = mix(seed + 0x9E3779B97F4A7C15L);
+            roundKeys[round] = (int) seed;
+        }
+    }
+
+    @Override
+    public long nextId() {
+        long now = (System.currentTimeMillis() - EPOCH_MILLIS) << SEQUENCE_BITS;
+        long previous;
+        long next;
+        do {
+            previous = last.get();
+            // when the sequence of a millisecond is used up, the next millisecond is borrowed
+            next = Math.max(previous + 1, now);
+        }
+        while (!last.compareAndSet(previous, next));
+        long id = (next >>> SEQUENCE_BITS) << (NODE_BITS + SEQUENCE_BITS) | node << SEQUENCE_BITS | (next & SEQUENCE_MASK);
+        return scramble(id);
+    }
+
+    /**
+     * Keyed permutation of 64 bits as a feistel network over its 32 bit halves
+     * @param value value
+     * @return scrambled value
+     */
+    long scramble(long value) {
+        int left = (int) (value >>> 32);
+        int right = (int) value;
+        for (int round = 0; round < ROUNDS; round++) {
+            int next = left ^ round(right, roundKeys[round]);
+            left = right;
+            right = next;
+        }
+        return (long) left << 32 | right & 0xFFFFFFFFL;
+    }
+
+    /**
+     * Inverse of {@link #scramble(long)}
+     * @param value scrambled value
+     * @return value
+     */
+    long unscramble(long value) {
+        int left = (int) (value >>> 32);
+        int right = (int) value;
+        for (int round = ROUNDS - 1; round >= 0; round--) {
+            int previous = right ^ round(left, roundKeys[round]);
+            right = left;
+            left = previous;
+        }
+        return (long) left << 32 | right & 0xFFFFFFFFL;
+    }
+
+    private static int round(int value, int key) {
+        return (int) mix(value ^ key);
+    }
+
+    private static long mix(long value) {
+        // finalizer of murmur3
+        value = (value ^ (value >>> 33)) * 0xFF51AFD7ED558CCDL;
+        value = (value ^ (value >>> 33)) * 0xC4CEB9FE1A85EC53L;
+        return value ^ (value >>> 33);
+    }
+}
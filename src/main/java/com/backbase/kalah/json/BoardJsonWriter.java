@@ -0,0 +1,132 @@
+package com.backbase.kalah.json;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import com.backbase.kalah.engine.GameState;
+import com.backbase.kalah.engine.Variant;
+import com.backbase.kalah.id.BoardIds;
+import com.fasterxml.jackson.core.io.JsonStringEncoder;
+
+/**
+ * Writes the JSON of a board straight from its game state, without building the {@link com.backbase.kalah.model.Board}.
+ * Output is the same as the bean serialization of the board with null values excluded, byte for byte.
+ * Created by tojagrut
+ */
+public final class BoardJsonWriter {
+
+    private static final byte[] ID = ascii("{\"id\":\"");
+    private static final byte[] NEXT_TURN = ascii("\",\"nextTurn\":\"");
+    private static final byte[] NORTH = ascii(",\"north\":{\"name\":\"North\",\"pits\":[");
+    private static final byte[] SOUTH = ascii(",\"south\":{\"name\":\"South\",\"pits\":[");
+    private static final byte[] KALAH = ascii("],\"kalah\":{\"id\":0,\"stones\":");
+    private static final byte[] WINNER = ascii(",\"winner\":\"");
+    private static final byte[] VARIANT = ascii(",\"variant\":\"");
+    private static final byte[] PLAY = ascii(",\"_links\":{\"play\":{\"href\":\"");
+    private static final byte[] SELF = ascii("\"},\"self\":{\"href\":\"");
+    private static final byte[] LINKS_END = ascii("\"}}");
+    private static final byte[][] PITS = new byte[Variant.MAX_PITS + 1][];
+    private static final byte[][] SIDE_NAMES = {ascii(GameState.sideName(GameState.NORTH)),
+            ascii(GameState.sideName(GameState.SOUTH)), ascii(GameState.sideName(GameState.TIE))};
+    /**
+     * Upper bound of the length of a board without links, about 800 bytes when all stone counts of 8 pits have 11 digits
+     */
+    private static final int MAX_LENGTH = 1024;
+
+    static {
+        for (int pit = 1; pit <= Variant.MAX_PITS; pit++) {
+            PITS[pit] = ascii((pit == 1 ? "" : ",") + "{\"id\":" + pit + ",\"stones\":");
+        }
+    }
+
+    private BoardJsonWriter() {
+        // preventing instantiation of this class
+    }
+
+    /**
+     * Writes the board of the state
+     * @param state state
+     * @param baseUri uri of boards the links are made of, without links when null
+     * @return UTF-8 bytes of JSON
+     */
+    public static byte[] write(GameState state, String baseUri) {
+        byte[] uri = baseUri == null ? null : JsonStringEncoder.getInstance().quoteAsUTF8(baseUri);
+        byte[] bytes = new byte[MAX_LENGTH + (uri == null ? 0 : (uri.length + BoardIds.LENGTH) * 2)];
+        int length = put(bytes, 0, ID);
+        BoardIds.encode(state.getBoardId(), bytes, length);
+        length += BoardIds.LENGTH;
+        if (state.getNextTurn() == GameState.NONE) {
+            bytes[length++] = '"';
+        }
+        else {
+            length = put(bytes, length, NEXT_TURN);
+            length = put(bytes, length, SIDE_NAMES[state.getNextTurn()]);
+            bytes[length++] = '"';
+        }
+        length = writePlayer(state, GameState.NORTH, NORTH, bytes, length);
+        length = writePlayer(state, GameState.SOUTH, SOUTH, bytes, length);
+        if (state.getWinner() != GameState.NONE) {
+            length = put(bytes, length, WINNER);
+            length = put(bytes, length, SIDE_NAMES[state.getWinner()]);
+            bytes[length++] = '"';
+        }
+        if (state.getVariant() != Variant.STANDARD) {
+            length = put(bytes, length, VARIANT);
+            length = put(bytes, length, ascii(state.getVariant().getName()));
+            bytes[length++] = '"';
+        }
+        if (uri != null) {
+            length = writeHref(state, PLAY, uri, bytes, length);
+            length = writeHref(state, SELF, uri, bytes, length);
+            length = put(bytes, length, LINKS_END);
+        }
+        bytes[length++] = '}';
+        return Arrays.copyOf(bytes, length);
+    }
+
+    private static int writePlayer(GameState state, int side, byte[] prefix, byte[] bytes, int offset) {
+        Variant variant = state.getVariant();
+        int length = put(bytes, offset, prefix);
+        for (int pit = 1; pit <= variant.getPits(); pit++) {
+            length = put(bytes, length, PITS[pit]);
+            length = putInt(bytes, length, state.getStones(variant.pitIndex(side, pit)));
+            bytes[length++] = '}';
+        }
+        length = put(bytes, length, KALAH);
+        length = putInt(bytes, length, state.getStones(variant.kalahIndex(side)));
+        bytes[length++] = '}';
+        bytes[length++] = '}';
+        return length;
+    }
+
+    private static int writeHref(GameState state, byte[] prefix, byte[] uri, byte[] bytes, int offset) {
+        int length = put(bytes, offset, prefix);
+        length = put(bytes, length, uri);
+        BoardIds.encode(state.getBoardId(), bytes, length);
+        return length + BoardIds.LENGTH;
+    }
+
+    private static int put(byte[] bytes, int offset, byte[] value) {
+        System.arraycopy(value, 0, bytes, offset, value.length);
+        return offset + value.length;
+    }
+
+    private static int putInt(byte[] bytes, int offset, int value) {
+        if (value < 0 || value >= 1000) {
+            return put(bytes, offset, ascii(Integer.toString(value)));
+        }
+        int length = offset;
+        if (value >= 100) {
+            bytes[length++] = (byte) ('0' + value / 100);
+        }
+        if (value >= 10) {
+            bytes[length++] = (byte) ('0' + value / 10 % 10);
+        }
+        bytes[length++] = (byte) ('0' + value % 10);
+        return length;
+    }
+
+    private static byte[] ascii(String value) {
+        return value.getBytes(StandardCharsets.US_ASCII);
+    }
+}
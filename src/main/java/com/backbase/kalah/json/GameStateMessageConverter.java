@@ -0,0 +1,46 @@
+package com.backbase.kalah.json;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+
+import com.backbase.kalah.controller.BoardLinksWriter;
+import com.backbase.kalah.engine.GameState;
+
+/**
+ * Writes game states returned by controllers as board JSON with {@link BoardJsonWriter}
+ * Created by tojagrut
+ */
+public class GameStateMessageConverter extends AbstractHttpMessageConverter<GameState> {
+
+    public GameStateMessageConverter() {
+        super(StandardCharsets.UTF_8, MediaType.APPLICATION_JSON);
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return GameState.class.isAssignableFrom(clazz);
+    }
+
+    @Override
+    public boolean canRead(Class<?> clazz, MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    protected GameState readInternal(Class<? extends GameState> clazz, HttpInputMessage inputMessage) {
+        throw new HttpMessageNotReadableException("Game state can not be read");
+    }
+
+    @Override
+    protected void writeInternal(GameState state, HttpOutputMessage outputMessage) throws IOException {
+        byte[] json = BoardJsonWriter.write(state, BoardLinksWriter.baseUri());
+        outputMessage.getHeaders().setContentLength(json.length);
+        outputMessage.getBody().write(json);
+    }
+}
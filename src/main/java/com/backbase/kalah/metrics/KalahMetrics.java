@@ -0,0 +1,117 @@
+package com.backbase.kalah.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.stereotype.Component;
+
+import com.backbase.kalah.engine.KalahEngine;
+
+/**
+ * Lock free instrumentation of the game operations
+ * Created by tojagrut
+ */
+@Component
+public class KalahMetrics {
+
+    private final LatencyHistogram createLatency = new LatencyHistogram();
+    private final LatencyHistogram retrieveLatency = new LatencyHistogram();
+    private final LatencyHistogram playLatency = new LatencyHistogram();
+
+    private final LongAdder moves = new LongAdder();
+    private final LongAdder captures = new LongAdder();
+    private final LongAdder extraTurns = new LongAdder();
+    private final LongAdder collections = new LongAdder();
+    private final LongAdder wins = new LongAdder();
+    private final LongAdder ties = new LongAdder();
+
+    private final LongAdder searches = new LongAdder();
+    private final LongAdder searchNodes = new LongAdder();
+    private final LongAdder searchNanos = new LongAdder();
+
+    /**
+     * Counts outcome of a move
+     * @param outcome outcome flags of {@link KalahEngine#play}
+     */
+    public void recordMove(int outcome) {
+        moves.increment();
+        if ((outcome & KalahEngine.CAPTURE) != 0) {
+            captures.increment();
+        }
+        if ((outcome & KalahEngine.EXTRA_TURN) != 0) {
+            extraTurns.increment();
+        }
+        if ((outcome & KalahEngine.COLLECTED) != 0) {
+            collections.increment();
+        }
+        if ((outcome & KalahEngine.WIN) != 0) {
+            wins.increment();
+        }
+        if ((outcome & KalahEngine.TIE) != 0) {
+            ties.increment();
+        }
+    }
+
+    /**
+     * Counts a search of the computer player
+     * @param nodes no. of positions searched
+     * @param elapsedNanos elapsedNanos
+     */
+    public void recordSearch(long nodes, long elapsedNanos) {
+        searches.increment();
+        searchNodes.add(nodes);
+        searchNanos.add(elapsedNanos);
+    }
+
+    public LatencyHistogram getCreateLatency() {
+        return createLatency;
+    }
+
+    public LatencyHistogram getRetrieveLatency() {
+        return retrieveLatency;
+    }
+
+    public LatencyHistogram getPlayLatency() {
+        return playLatency;
+    }
+
+    public long getMoves() {
+        return moves.sum();
+    }
+
+    public long getCaptures() {
+        return captures.sum();
+    }
+
+    public long getExtraTurns() {
+        return extraTurns.sum();
+    }
+
+    public long getCollections() {
+        return collections.sum();
+    }
+
+    public long getWins() {
+        return wins.sum();
+    }
+
+    public long getTies() {
+        return ties.sum();
+    }
+
+    public long getSearches() {
+        return searches.sum();
+    }
+
+    public long getSearchNodes() {
+        return searchNodes.sum();
+    }
+
+    /**
+     * Search speed over all searches, to size the hardware of the computer player
+     * @return nodes per second
+     */
+    public long getSearchNodesPerSecond() {
+        long nanos = searchNanos.sum();
+        return nanos == 0 ? 0 : (long) (searchNodes.sum() * 1e9 / nanos);
+    }
+}
@@ -0,0 +1,91 @@
+package com.backbase.kalah.metrics;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.PublicMetrics;
+import org.springframework.boot.actuate.metrics.Metric;
+import org.springframework.stereotype.Component;
+
+import com.backbase.kalah.cluster.ClusterRoutingFilter;
+import com.backbase.kalah.event.BoardEvents;
+import com.backbase.kalah.event.GameEvents;
+import com.backbase.kalah.repository.ResourceStore;
+
+/**
+ * Publishes game and board store metrics on the metrics endpoint
+ * Created by tojagrut
+ */
+@Component
+public class KalahPublicMetrics implements PublicMetrics {
+
+    @Autowired
+    private KalahMetrics kalahMetrics;
+
+    @Autowired
+    private ResourceStore resourceStore;
+
+    @Autowired
+    private BoardEvents boardEvents;
+
+    @Autowired(required = false)
+    private GameEvents gameEvents;
+
+    @Autowired(required = false)
+    private ClusterRoutingFilter clusterRoutingFilter;
+
+    @Override
+    public Collection<Metric<?>> metrics() {
+        List<Metric<?>> metrics = new ArrayList<>();
+        addLatency(metrics, "kalah.create", kalahMetrics.getCreateLatency());
+        addLatency(metrics, "kalah.retrieve", kalahMetrics.getRetrieveLatency());
+        addLatency(metrics, "kalah.play", kalahMetrics.getPlayLatency());
+
+        metrics.add(new Metric<>("kalah.moves", kalahMetrics.getMoves()));
+        metrics.add(new Metric<>("kalah.captures", kalahMetrics.getCaptures()));
+        metrics.add(new Metric<>("kalah.extra-turns", kalahMetrics.getExtraTurns()));
+        metrics.add(new Metric<>("kalah.collections", kalahMetrics.getCollections()));
+        metrics.add(new Metric<>("kalah.wins", kalahMetrics.getWins()));
+        metrics.add(new Metric<>("kalah.ties", kalahMetrics.getTies()));
+
+        metrics.add(new Metric<>("kalah.boards.live", resourceStore.size()));
+        metrics.add(new Metric<>("kalah.boards.finished", resourceStore.finishedSize()));
+        metrics.add(new Metric<>("kalah.boards.evicted.size", resourceStore.getEvictedBySize()));
+        metrics.add(new Metric<>("kalah.boards.evicted.idle", resourceStore.getExpiredByIdle()));
+        metrics.add(new Metric<>("kalah.boards.evicted.finished", resourceStore.getEvictedFinished()));
+
+        metrics.add(new Metric<>("kalah.events.subscribers", boardEvents.getSubscribers()));
+        metrics.add(new Metric<>("kalah.events.dropped", boardEvents.getDropped()));
+        if (gameEvents != null) {
+            metrics.add(new Metric<>("kalah.game-events.delivered", gameEvents.getDelivered()));
+            metrics.add(new Metric<>("kalah.game-events.pending", gameEvents.getPending()));
+            metrics.add(new Metric<>("kalah.game-events.dropped", gameEvents.getDropped()));
+        }
+        if (clusterRoutingFilter != null) {
+            metrics.add(new Metric<>("kalah.cluster.forwarded", clusterRoutingFilter.getForwarded()));
+            metrics.add(new Metric<>("kalah.cluster.redirected", clusterRoutingFilter.getRedirected()));
+            metrics.add(new Metric<>("kalah.cluster.forward-failures", clusterRoutingFilter.getForwardFailures()));
+        }
+
+        metrics.add(new Metric<>("kalah.ai.searches", kalahMetrics.getSearches()));
+        metrics.add(new Metric<>("kalah.ai.nodes", kalahMetrics.getSearchNodes()));
+        metrics.add(new Metric<>("kalah.ai.nodes-per-second", kalahMetrics.getSearchNodesPerSecond()));
+        return metrics;
+    }
+
+    private void addLatency(List<Metric<?>> metrics, String name, LatencyHistogram histogram) {
+        metrics.add(new Metric<>(name + ".count", histogram.getCount()));
+        metrics.add(new Metric<>(name + ".latency.mean", histogram.getMean() / 1000));
+        metrics.add(new Metric<>(name + ".latency.p50", micros(histogram.getPercentile(0.5))));
+        metrics.add(new Metric<>(name + ".latency.p99", micros(histogram.getPercentile(0.99))));
+        metrics.add(new Metric<>(name + ".latency.p999", micros(histogram.getPercentile(0.999))));
+        metrics.add(new Metric<>(name + ".latency.max", micros(histogram.getMax())));
+    }
+
+    private static double micros(long nanos) {
+        // latencies are published in microseconds
+        return nanos / 1000.0;
+    }
+}
@@ -0,0 +1,105 @@
+package com.backbase.kalah.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock free histogram of latencies in nanoseconds.
+ * Values are counted in log-linear buckets, each power of two is split in 16 buckets
+ * so a percentile is reported within about 6% of the recorded value.
+ * Created by tojagrut
+ */
+public final class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 4;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int BUCKETS = (Long.SIZE - SUB_BUCKET_BITS + 1) * SUB_BUCKETS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sum = new LongAdder();
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+    /**
+     * Records a latency
+     * @param nanos nanos
+     */
+    public void record(long nanos) {
+        long value = Math.max(0, nanos);
+        counts.incrementAndGet(index(value));
+        count.increment();
+        sum.add(value);
+        max.accumulate(value);
+    }
+
+    /**
+     * Records the time passed since the given start
+     * @param startNanos start as per {@link System#nanoTime()}
+     */
+    public void recordSince(long startNanos) {
+        record(System.nanoTime() - startNanos);
+    }
+
+    public long getCount() {
+        return count.sum();
+    }
+
+    public long getMax() {
+        return max.get();
+    }
+
+    /**
+     * Mean of recorded latencies
+     * @return mean, 0 if nothing is recorded
+     */
+    public double getMean() {
+        long total = count.sum();
+        return total == 0 ? 0 : (double) sum.sum() / total;
+    }
+
+    /**
+     * Latency below which the given fraction of recorded latencies fall
+     * @param quantile quantile between 0 and 1
+     * @return latency in nanos, 0 if nothing is recorded
+     */
+    public long getPercentile(double quantile) {
+        long[] snapshot = new long[BUCKETS];
+        long total = 0;
+        for (int index = 0; index < BUCKETS; index++) {
+            snapshot[index] = counts.get(index);
+            total += snapshot[index];
+        }
+        if (total == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(quantile * total));
+        long seen = 0;
+        for (int index = 0; index < BUCKETS; index++) {
+            seen += snapshot[index];
+            if (seen >= rank) {
+                return Math.min(highestValue(index), getMax());
+            }
+        }
+        return getMax();
+    }
+
+    static int index(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int shift = Long.SIZE - 1 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+        // bits following the highest one bit select the bucket within its power of two
+        int subBucket = (int) (value >>> shift) & (SUB_BUCKETS - 1);
+        return (shift + 1) * SUB_BUCKETS + subBucket;
+    }
+
+    static long highestValue(int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+        int shift = index / SUB_BUCKETS - 1;
+        int subBucket = index % SUB_BUCKETS;
+        return ((long) (SUB_BUCKETS + subBucket + 1) << shift) - 1;
+    }
+}
@@ -1,21 +1,22 @@
 package com.backbase.kalah.model;
 
-import java.util.UUID;
-
-import org.springframework.hateoas.ResourceSupport;
-
+import com.backbase.kalah.controller.BoardLinksWriter;
+import com.backbase.kalah.id.BoardIds;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+import com.fasterxml.jackson.databind.annotation.JsonAppend;
 
 import lombok.Data;
 
 /**
  * Model class for Board
+ * HAL links of the board are not kept on it, they are written by {@link BoardLinksWriter} on serialization.
  * Created by tojagrut
  */
 @JsonPropertyOrder({"id", "nextTurn"})
+@JsonAppend(props = @JsonAppend.Prop(value = BoardLinksWriter.class, name = "_links"))
 @Data
-public class Board extends ResourceSupport {
+public class Board {
 
     @JsonProperty("id")
     private String boardId;
@@ -25,11 +26,32 @@ public class Board extends ResourceSupport {
     private String winner;
     private String nextTurn;
 
+    /**
+     * Name of the variant, null for the standard variant
+     */
+    private String variant;
+
     public Board() {
-        this.boardId = UUID.randomUUID().toString();
+        this.boardId = BoardIds.generate();
         this.north = new Player("North");
         this.south = new Player("South");
         this.winner = null;
         this.nextTurn = north.getName();
     }
+
+    /**
+     * Initialize board with given state
+     * @param boardId boardId
+     * @param north north
+     * @param south south
+     * @param winner winner
+     * @param nextTurn nextTurn
+     */
+    public Board(String boardId, Player north, Player south, String winner, String nextTurn) {
+        this.boardId = boardId;
+        this.north = north;
+        this.south = south;
+        this.winner = winner;
+        this.nextTurn = nextTurn;
+    }
 }
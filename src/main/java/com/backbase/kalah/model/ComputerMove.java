@@ -0,0 +1,35 @@
+package com.backbase.kalah.model;
+
+import lombok.Data;
+
+/**
+ * Model class for a move played by the computer
+ * Created by tojagrut
+ */
+@Data
+public class ComputerMove {
+    private Board board;
+    private int pit;
+    private String player;
+    private int score;
+    private int depth;
+    private long nodes;
+    private long nodesPerSecond;
+    private long elapsedMillis;
+
+    public ComputerMove() {
+        // default constructor
+    }
+
+    /**
+     * Initialize computer move
+     * @param board board after the move
+     * @param pit pit played
+     * @param player player the computer played for
+     */
+    public ComputerMove(Board board, int pit, String player) {
+        this.board = board;
+        this.pit = pit;
+        this.player = player;
+    }
+}
@@ -0,0 +1,39 @@
+package com.backbase.kalah.model;
+
+import lombok.Data;
+
+/**
+ * Model class for perfect play of a position looked up in the endgame table
+ * Created by tojagrut
+ */
+@Data
+public class EndgameResult {
+
+    /**
+     * Outcome of the game for the player having next turn
+     */
+    public enum Outcome {
+        WIN, LOSS, TIE
+    }
+
+    private String player;
+    private int pit;
+    private Outcome outcome;
+    private int difference;
+
+    public EndgameResult() {
+        // default constructor
+    }
+
+    /**
+     * Initialize endgame result
+     * @param player player having next turn
+     * @param pit best pit of the player
+     * @param difference difference of kalahs for the player at the end of the game
+     */
+    public EndgameResult(String player, int pit, int difference) {
+        this.player = player;
+        this.pit = pit;
+        this.difference = difference;
+    }
+}
@@ -0,0 +1,30 @@
+package com.backbase.kalah.model;
+
+import lombok.Data;
+
+/**
+ * Model class for the moves played on a board, ply n is the board after its n-th move
+ * Created by tojagrut
+ */
+@Data
+public class GameHistory {
+    private int firstPly;
+    private int lastPly;
+    private int[] pits;
+
+    public GameHistory() {
+        // default constructor
+    }
+
+    /**
+     * Initialize history
+     * @param firstPly oldest ply kept, moves before it were dropped
+     * @param lastPly ply of the board now
+     * @param pits pit id of each move after first ply
+     */
+    public GameHistory(int firstPly, int lastPly, int[] pits) {
+        this.firstPly = firstPly;
+        this.lastPly = lastPly;
+        this.pits = pits;
+    }
+}
@@ -0,0 +1,27 @@
+package com.backbase.kalah.model;
+
+import lombok.Data;
+
+/**
+ * Model class for the pits the player having next turn can play
+ * Created by tojagrut
+ */
+@Data
+public class LegalMoves {
+    private String player;
+    private int[] pits;
+
+    public LegalMoves() {
+        // default constructor
+    }
+
+    /**
+     * Initialize legal moves
+     * @param player player having next turn, null when game is finished
+     * @param pits pit ids having stones, empty when game is finished
+     */
+    public LegalMoves(String player, int[] pits) {
+        this.player = player;
+        this.pits = pits;
+    }
+}
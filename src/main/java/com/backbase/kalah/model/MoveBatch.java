@@ -0,0 +1,29 @@
+package com.backbase.kalah.model;
+
+import java.util.List;
+
+import lombok.Data;
+
+/**
+ * Model class for result of a batch of moves
+ * Created by tojagrut
+ */
+@Data
+public class MoveBatch {
+    private Board board;
+    private List<MoveResult> moves;
+
+    public MoveBatch() {
+        // default constructor
+    }
+
+    /**
+     * Initialize batch result
+     * @param board board after the moves
+     * @param moves outcome of each attempted move
+     */
+    public MoveBatch(Board board, List<MoveResult> moves) {
+        this.board = board;
+        this.moves = moves;
+    }
+}
@@ -0,0 +1,41 @@
+package com.backbase.kalah.model;
+
+import lombok.Data;
+
+/**
+ * Model class for outcome of a move played in a batch
+ * Created by tojagrut
+ */
+@Data
+public class MoveResult {
+
+    /**
+     * Status of the move
+     */
+    public enum Status {
+        APPLIED, ILLEGAL, GAME_FINISHED
+    }
+
+    private int pit;
+    private String player;
+    private Status status;
+    private boolean capture;
+    private boolean extraTurn;
+    private boolean collected;
+
+    public MoveResult() {
+        // default constructor
+    }
+
+    /**
+     * Initialize move result
+     * @param pit pit
+     * @param player player
+     * @param status status
+     */
+    public MoveResult(int pit, String player, Status status) {
+        this.pit = pit;
+        this.player = player;
+        this.status = status;
+    }
+}
@@ -0,0 +1,29 @@
+package com.backbase.kalah.model;
+
+import lombok.Data;
+
+/**
+ * Model class for the no. of move sequences counted from a board
+ * Created by tojagrut
+ */
+@Data
+public class PerftResult {
+    private int depth;
+    private long sequences;
+    private long elapsedMillis;
+    private long sequencesPerSecond;
+
+    public PerftResult() {
+        // default constructor
+    }
+
+    /**
+     * Initialize perft result
+     * @param depth no. of moves of each sequence
+     * @param sequences no. of sequences
+     */
+    public PerftResult(int depth, long sequences) {
+        this.depth = depth;
+        this.sequences = sequences;
+    }
+}
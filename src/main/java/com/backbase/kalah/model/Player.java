@@ -24,6 +24,18 @@ public class Player {
         this.kalah = new Pit(0,0);
     }
 
+    /**
+     * Initialize player with given pits
+     * @param name name
+     * @param pits pits
+     * @param kalah kalah
+     */
+    public Player(String name, List<Pit> pits, Pit kalah) {
+        this.name = name;
+        this.pits = pits;
+        this.kalah = kalah;
+    }
+
     private List<Pit> initializePits() {
         List<Pit> pits = new ArrayList<>();
         IntStream.rangeClosed(1, Constants.MAX_PITS).forEach(index -> pits.add(new Pit(index, Constants.MAX_STONES)));
@@ -0,0 +1,182 @@
+package com.backbase.kalah.persistence;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import com.backbase.kalah.config.JournalProperties;
+import com.backbase.kalah.engine.GameState;
+import com.backbase.kalah.engine.KalahEngine;
+import com.backbase.kalah.repository.ResourceStore;
+
+/**
+ * Persists boards of {@link ResourceStore} in a {@link MoveJournal} with periodic snapshots.
+ * On startup the store is rebuilt from the latest snapshot and the journal segments written after it.
+ * Created by tojagrut
+ */
+@Component
+@ConditionalOnProperty(name = "kalah.journal.enabled", havingValue = "true")
+public class BoardJournal {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(BoardJournal.class);
+
+    @Autowired
+    private ResourceStore resourceStore;
+
+    @Autowired
+    private JournalProperties properties;
+
+    private Path directory;
+    private MoveJournal journal;
+    private ScheduledExecutorService executor;
+
+    /**
+     * Recovers boards in store and starts journal
+     * @throws IOException when journal can not be read or written
+     */
+    @PostConstruct
+    public void start() throws IOException {
+        directory = Paths.get(properties.getDirectory());
+        long lastSegment = recover();
+        journal = new MoveJournal(directory, properties.getSegmentSizeBytes(), lastSegment + 1);
+
+        // separate threads so that a long snapshot does not delay flushes
+        executor = Executors.newScheduledThreadPool(2, runnable -> {
+            Thread thread = new Thread(runnable, "kalah-journal");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleWithFixedDelay(this::flush, properties.getFlushIntervalMillis(),
+                properties.getFlushIntervalMillis(), TimeUnit.MILLISECONDS);
+        executor.scheduleWithFixedDelay(this::snapshot, properties.getSnapshotIntervalSeconds(),
+                properties.getSnapshotIntervalSeconds(), TimeUnit.SECONDS);
+    }
+
+    /**
+     * Flushes journal and stops background tasks
+     */
+    @PreDestroy
+    public void stop() {
+        executor.shutdown();
+        journal.close();
+    }
+
+    /**
+     * Records a new board, to be called while holding the lock of the board after the board is saved in store
+     * @param state state
+     */
+    public void created(GameState state) {
+        journal.appendCreated(state);
+    }
+
+    /**
+     * Records a move, to be called while holding the lock of the board after the move is applied
+     * @param state state after the move
+     * @param pit pit
+     */
+    public void moved(GameState state, int pit) {
+        journal.appendMove(state.getBoardId(), pit, state.getVersion());
+    }
+
+    /**
+     * Waits for records appended so far to reach the disk, when sync commit is configured.
+     * All moves waiting together are committed by a single flush.
+     */
+    public void commit() {
+        if (!properties.isSyncCommit()) {
+            return;
+        }
+        try {
+            if (!journal.awaitFlushed(TimeUnit.SECONDS.toMillis(5))) {
+                LOGGER.error("Journal was not flushed in time");
+            }
+        }
+        catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Same as {@link #commit()} without blocking the caller
+     * @return future completed when records appended so far are on disk, or at once without sync commit
+     */
+    public CompletableFuture<Void> commitAsync() {
+        return properties.isSyncCommit() ? journal.whenFlushed() : CompletableFuture.completedFuture(null);
+    }
+
+    /**
+     * Writes snapshot of store and deletes the journal segments covered by it
+     */
+    public void snapshot() {
+        try {
+            // every record appended after rolling is replayed, earlier ones are contained in the snapshot
+            long firstSegment = journal.roll();
+            SnapshotFile.write(directory, firstSegment, resourceStore::forEachState);
+            SnapshotFile.deleteOlderThan(directory, firstSegment);
+            journal.deleteSegmentsBefore(firstSegment);
+            LOGGER.info("Snapshot of boards written, journal continues from segment {}", firstSegment);
+        }
+        catch (IOException | UncheckedIOException exception) {
+            LOGGER.error("Snapshot of boards failed", exception);
+        }
+    }
+
+    private void flush() {
+        try {
+            journal.flush();
+        }
+        catch (RuntimeException exception) {
+            LOGGER.error("Flush of journal failed", exception);
+        }
+    }
+
+    private long recover() throws IOException {
+        AtomicInteger boards = new AtomicInteger();
+        AtomicInteger moves = new AtomicInteger();
+        long firstSegment = SnapshotFile.readLatest(directory, state -> {
+            resourceStore.saveState(state);
+            boards.incrementAndGet();
+        }).orElse(0L);
+        long lastSegment = MoveJournal.replay(directory, firstSegment, new MoveJournal.RecordVisitor() {
+            @Override
+            public void created(GameState state) {
+                if (!resourceStore.compute(state.getBoardId(), existing -> true).isPresent()) {
+                    resourceStore.saveState(state);
+                    boards.incrementAndGet();
+                }
+            }
+
+            @Override
+            public void moved(long id, int pit, int version) {
+                resourceStore.computeWithHistory(id, (state, history) -> {
+                    // moves already contained in the snapshot are skipped, history starts at the snapshot
+                    if (state.getVersion() == version - 1) {
+                        KalahEngine.play(state, pit);
+                        if (history != null) {
+                            history.record(pit, state);
+                        }
+                        moves.incrementAndGet();
+                    }
+                    return state;
+                });
+            }
+        });
+        LOGGER.info("Recovered {} boards and {} moves from {}", boards.get(), moves.get(), directory.toAbsolutePath());
+        return lastSegment;
+    }
+}
@@ -0,0 +1,360 @@
+package com.backbase.kalah.persistence;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+import com.backbase.kalah.engine.GameState;
+
+/**
+ * Append only journal of created boards and applied moves.
+ * Records are written in memory mapped segment files and flushed to disk in batches by {@link #flush()},
+ * each record is framed by its length and checksum so that a torn write at the tail is ignored on replay.
+ * Created by tojagrut
+ */
+public class MoveJournal implements Closeable {
+
+    static final byte CREATED = 1;
+    static final byte MOVED = 2;
+
+    /**
+     * Length and checksum of a record
+     */
+    private static final int HEADER_LENGTH = 8;
+    private static final Pattern SEGMENT_NAME = Pattern.compile("journal-(\\d{16})\\.log");
+
+    private final Path directory;
+    private final int segmentSize;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private final Condition flushed = flushLock.newCondition();
+    private final CRC32 crc = new CRC32();
+
+    private long segmentIndex;
+    private MappedByteBuffer buffer;
+    private volatile long writtenPosition;
+    private volatile long flushedPosition;
+    // futures of whenFlushed by the position they wait for, guarded by flushLock
+    private final List<FlushWaiter> flushWaiters = new ArrayList<>();
+
+    /**
+     * Opens journal writing into a new segment with given index
+     * @param directory directory
+     * @param segmentSize segmentSize
+     * @param segmentIndex segmentIndex
+     * @throws IOException when segment can not be created
+     */
+    public MoveJournal(Path directory, int segmentSize, long segmentIndex) throws IOException {
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        Files.createDirectories(directory);
+        openSegment(segmentIndex);
+    }
+
+    /**
+     * Appends record of created board
+     * @param state state
+     */
+    public void appendCreated(GameState state) {
+        lock.lock();
+        try {
+            ByteBuffer record = reserve(1 + StateCodec.maxStateLength(state));
+            record.put(CREATED);
+            StateCodec.writeState(record, state);
+            commit(record);
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Appends record of applied move
+     * @param id board id
+     * @param pit pit
+     * @param version version of board after the move
+     */
+    public void appendMove(long id, int pit, int version) {
+        lock.lock();
+        try {
+            ByteBuffer record = reserve(1 + 8 + 1 + 4);
+            record.put(MOVED);
+            record.putLong(id);
+            record.put((byte) pit);
+            record.putInt(version);
+            commit(record);
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Continues journal in a new segment, all records appended afterwards are in the new segment or later
+     * @return index of the new segment
+     */
+    public long roll() {
+        lock.lock();
+        try {
+            buffer.force();
+            markFlushed(writtenPosition);
+            openSegment(segmentIndex + 1);
+            return segmentIndex;
+        }
+        catch (IOException exception) {
+            throw new UncheckedIOException(exception);
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Forces all appended records to disk, one flush covers all records appended since the previous one
+     */
+    public void flush() {
+        MappedByteBuffer current;
+        long position;
+        lock.lock();
+        try {
+            current = buffer;
+            position = writtenPosition;
+        }
+        finally {
+            lock.unlock();
+        }
+        if (position > flushedPosition) {
+            current.force();
+            markFlushed(position);
+        }
+    }
+
+    /**
+     * Waits until all records appended so far are flushed to disk
+     * @param timeoutMillis max time to wait
+     * @return true if flushed within the timeout
+     * @throws InterruptedException when interrupted while waiting
+     */
+    public boolean awaitFlushed(long timeoutMillis) throws InterruptedException {
+        long position = writtenPosition;
+        long remaining = TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        flushLock.lock();
+        try {
+            while (flushedPosition < position) {
+                if (remaining <= 0) {
+                    return false;
+                }
+                remaining = flushed.awaitNanos(remaining);
+            }
+            return true;
+        }
+        finally {
+            flushLock.unlock();
+        }
+    }
+
+    /**
+     * Future completed once all records appended so far are flushed to disk, no thread waits for it
+     * @return future
+     */
+    public CompletableFuture<Void> whenFlushed() {
+        long position = writtenPosition;
+        CompletableFuture<Void> future = new CompletableFuture<>();
+        flushLock.lock();
+        try {
+            if (flushedPosition < position) {
+                flushWaiters.add(new FlushWaiter(position, future));
+                return future;
+            }
+        }
+        finally {
+            flushLock.unlock();
+        }
+        future.complete(null);
+        return future;
+    }
+
+    /**
+     * Deletes segments which are covered by a snapshot
+     * @param segmentIndex index of the first segment to keep
+     * @throws IOException when segment can not be deleted
+     */
+    public void deleteSegmentsBefore(long segmentIndex) throws IOException {
+        for (long index : segments(directory)) {
+            if (index < segmentIndex) {
+                Files.deleteIfExists(segmentPath(directory, index));
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        flush();
+    }
+
+    /**
+     * Reads records of all segments starting from the given index
+     * @param directory directory
+     * @param fromSegment index of first segment to read
+     * @param visitor visitor of records
+     * @return index of the last segment found, fromSegment - 1 if there is none
+     * @throws IOException when segment can not be read
+     */
+    public static long replay(Path directory, long fromSegment, RecordVisitor visitor) throws IOException {
+        long lastSegment = fromSegment - 1;
+        if (!Files.isDirectory(directory)) {
+            return lastSegment;
+        }
+        for (long index : segments(directory)) {
+            if (index < fromSegment) {
+                continue;
+            }
+            lastSegment = index;
+            try (FileChannel channel = FileChannel.open(segmentPath(directory, index), StandardOpenOption.READ)) {
+                replaySegment(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()), visitor);
+            }
+        }
+        return lastSegment;
+    }
+
+    private static void replaySegment(ByteBuffer segment, RecordVisitor visitor) {
+        CRC32 checksum = new CRC32();
+        while (segment.remaining() >= HEADER_LENGTH) {
+            int length = segment.getInt();
+            int expectedChecksum = segment.getInt();
+            if (length <= 0 || length > segment.remaining()) {
+                // end of written records or torn write
+                return;
+            }
+            ByteBuffer record = segment.slice();
+            record.limit(length);
+            checksum.reset();
+            checksum.update(record.duplicate());
+            if ((int) checksum.getValue() != expectedChecksum) {
+                return;
+            }
+            segment.position(segment.position() + length);
+            byte type = record.get();
+            if (type == CREATED) {
+                visitor.created(StateCodec.readState(record));
+            }
+            else if (type == MOVED) {
+                visitor.moved(record.getLong(), record.get(), record.getInt());
+            }
+        }
+    }
+
+    private static List<Long> segments(Path directory) throws IOException {
+        List<Long> indexes = new ArrayList<>();
+        try (Stream<Path> files = Files.list(directory)) {
+            files.forEach(file -> {
+                Matcher matcher = SEGMENT_NAME.matcher(file.getFileName().toString());
+                if (matcher.matches()) {
+                    indexes.add(Long.parseLong(matcher.group(1)));
+                }
+            });
+        }
+        indexes.sort(Long::compare);
+        return indexes;
+    }
+
+    private static Path segmentPath(Path directory, long index) {
+        return directory.resolve(String.format("journal-%016d.log", index));
+    }
+
+    private ByteBuffer reserve(int maxLength) {
+        if (buffer.remaining() < HEADER_LENGTH + maxLength) {
+            roll();
+        }
+        ByteBuffer record = buffer.duplicate();
+        record.position(buffer.position() + HEADER_LENGTH);
+        return record;
+    }
+
+    private void commit(ByteBuffer record) {
+        int start = buffer.position();
+        int length = record.position() - start - HEADER_LENGTH;
+        ByteBuffer payload = record.duplicate();
+        payload.position(start + HEADER_LENGTH);
+        payload.limit(record.position());
+        crc.reset();
+        crc.update(payload);
+        buffer.putInt(start + 4, (int) crc.getValue());
+        // length is written last, a record is only visible on replay once it is complete
+        buffer.putInt(start, length);
+        buffer.position(record.position());
+        writtenPosition = segmentIndex * segmentSize + buffer.position();
+    }
+
+    private void openSegment(long index) throws IOException {
+        try (FileChannel channel = FileChannel.open(segmentPath(directory, index),
+                StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+        }
+        segmentIndex = index;
+        writtenPosition = index * segmentSize;
+    }
+
+    private void markFlushed(long position) {
+        List<FlushWaiter> completed = new ArrayList<>();
+        flushLock.lock();
+        try {
+            if (position > flushedPosition) {
+                flushedPosition = position;
+            }
+            flushed.signalAll();
+            flushWaiters.removeIf(waiter -> waiter.position <= flushedPosition && completed.add(waiter));
+        }
+        finally {
+            flushLock.unlock();
+        }
+        // completed outside of lock as dependent actions run on this thread
+        completed.forEach(waiter -> waiter.future.complete(null));
+    }
+
+    private static final class FlushWaiter {
+        private final long position;
+        private final CompletableFuture<Void> future;
+
+        private FlushWaiter(long position, CompletableFuture<Void> future) {
+            this.position = position;
+            this.future = future;
+        }
+    }
+
+    /**
+     * Visitor of journal records
+     */
+    public interface RecordVisitor {
+
+        /**
+         * Board was created with given state
+         * @param state state
+         */
+        void created(GameState state);
+
+        /**
+         * Move was applied on board
+         * @param id board id
+         * @param pit pit
+         * @param version version of board after the move
+         */
+        void moved(long id, int pit, int version);
+    }
+}
@@ -0,0 +1,175 @@
+package com.backbase.kalah.persistence;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.AccessDeniedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+import com.backbase.kalah.engine.GameState;
+
+/**
+ * Snapshot of all boards in store.
+ * A snapshot is named after the first journal segment which has to be replayed on top of it.
+ * Created by tojagrut
+ */
+public final class SnapshotFile {
+
+    private static final int MAGIC = 0x4B4C4853;
+    private static final int END_OF_STATES = -1;
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final Pattern SNAPSHOT_NAME = Pattern.compile("snapshot-(\\d{16})\\.bin");
+
+    private SnapshotFile() {
+        // preventing instantiation of this class
+    }
+
+    /**
+     * Writes snapshot atomically, a partially written snapshot is never visible
+     * @param directory directory
+     * @param firstSegment index of the first journal segment not covered by the snapshot
+     * @param states supplier of all states
+     * @throws IOException when snapshot can not be written
+     */
+    public static void write(Path directory, long firstSegment, Consumer<Consumer<GameState>> states) throws IOException {
+        Path target = snapshotPath(directory, firstSegment);
+        Path temporary = directory.resolve(target.getFileName() + ".tmp");
+        CRC32 checksum = new CRC32();
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            BufferedOutputStream file = new BufferedOutputStream(Channels.newOutputStream(channel), BUFFER_SIZE);
+            DataOutputStream output = new DataOutputStream(new CheckedOutputStream(file, checksum));
+            output.writeInt(MAGIC);
+            output.writeLong(firstSegment);
+            ByteBuffer buffer = ByteBuffer.allocate(1024);
+            states.accept(state -> {
+                buffer.clear();
+                StateCodec.writeState(buffer, state);
+                try {
+                    output.writeInt(buffer.position());
+                    output.write(buffer.array(), 0, buffer.position());
+                }
+                catch (IOException exception) {
+                    throw new UncheckedIOException(exception);
+                }
+            });
+            output.writeInt(END_OF_STATES);
+            output.flush();
+            // checksum of the content is written after it, bypassing the checksum stream
+            new DataOutputStream(file).writeInt((int) checksum.getValue());
+            file.flush();
+            channel.force(true);
+        }
+        catch (UncheckedIOException exception) {
+            throw exception.getCause();
+        }
+        Files.move(temporary, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        // the rename is durable only once the directory is flushed, journal segments are deleted after it
+        forceDirectory(directory);
+    }
+
+    /**
+     * Flushes the entries of the directory to disk, so that files created, renamed or deleted in it survive a crash
+     * @param directory directory
+     * @throws IOException when directory can not be flushed
+     */
+    static void forceDirectory(Path directory) throws IOException {
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        }
+        catch (AccessDeniedException exception) {
+            // directories can not be opened on windows, where a rename is durable once it returns
+            if (!System.getProperty("os.name").startsWith("Windows")) {
+                throw exception;
+            }
+        }
+    }
+
+    /**
+     * Reads the latest snapshot
+     * @param directory directory
+     * @param consumer consumer of states in the snapshot
+     * @return index of the first journal segment to replay, empty if there is no snapshot
+     * @throws IOException when snapshot can not be read or is corrupt
+     */
+    public static Optional<Long> readLatest(Path directory, Consumer<GameState> consumer) throws IOException {
+        List<Long> snapshots = snapshots(directory);
+        if (snapshots.isEmpty()) {
+            return Optional.empty();
+        }
+        long firstSegment = snapshots.get(snapshots.size() - 1);
+        CRC32 checksum = new CRC32();
+        List<GameState> states = new ArrayList<>();
+        try (BufferedInputStream file = new BufferedInputStream(Files.newInputStream(snapshotPath(directory, firstSegment)), BUFFER_SIZE)) {
+            DataInputStream input = new DataInputStream(new CheckedInputStream(file, checksum));
+            if (input.readInt() != MAGIC || input.readLong() != firstSegment) {
+                throw new IOException("Invalid snapshot for segment " + firstSegment);
+            }
+            byte[] bytes = new byte[1024];
+            int length;
+            while ((length = input.readInt()) != END_OF_STATES) {
+                input.readFully(bytes, 0, length);
+                states.add(StateCodec.readState(ByteBuffer.wrap(bytes, 0, length)));
+            }
+            if (new DataInputStream(file).readInt() != (int) checksum.getValue()) {
+                throw new IOException("Corrupt snapshot for segment " + firstSegment);
+            }
+        }
+        states.forEach(consumer);
+        return Optional.of(firstSegment);
+    }
+
+    /**
+     * Deletes snapshots older than the given one
+     * @param directory directory
+     * @param firstSegment first segment of the snapshot to keep
+     * @throws IOException when snapshot can not be deleted
+     */
+    public static void deleteOlderThan(Path directory, long firstSegment) throws IOException {
+        for (long index : snapshots(directory)) {
+            if (index < firstSegment) {
+                Files.deleteIfExists(snapshotPath(directory, index));
+            }
+        }
+    }
+
+    private static List<Long> snapshots(Path directory) throws IOException {
+        List<Long> indexes = new ArrayList<>();
+        if (!Files.isDirectory(directory)) {
+            return indexes;
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            files.forEach(file -> {
+                Matcher matcher = SNAPSHOT_NAME.matcher(file.getFileName().toString());
+                if (matcher.matches()) {
+                    indexes.add(Long.parseLong(matcher.group(1)));
+                }
+            });
+        }
+        indexes.sort(Long::compare);
+        return indexes;
+    }
+
+    private static Path snapshotPath(Path directory, long firstSegment) {
+        return directory.resolve(String.format("snapshot-%016d.bin", firstSegment));
+    }
+}
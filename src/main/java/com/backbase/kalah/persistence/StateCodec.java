@@ -0,0 +1,76 @@
+package com.backbase.kalah.persistence;
+
+import java.nio.ByteBuffer;
+
+import com.backbase.kalah.engine.GameState;
+import com.backbase.kalah.engine.Variant;
+
+/**
+ * Binary encoding of game states shared by journal and snapshots.
+ * The byte after the board id is the no. of packed pits for the standard variant, as written before variants,
+ * and the variant id with the high bit set for other variants.
+ * Created by tojagrut
+ */
+final class StateCodec {
+
+    private StateCodec() {
+        // preventing instantiation of this class
+    }
+
+    private static final int VARIANT_FLAG = 0x80;
+
+    static void writeState(ByteBuffer buffer, GameState state) {
+        buffer.putLong(state.getBoardId());
+        Variant variant = state.getVariant();
+        buffer.put((byte) (variant == Variant.STANDARD ? state.length() : VARIANT_FLAG | variant.getId()));
+        for (int index = 0; index < state.length(); index++) {
+            writeVarInt(buffer, state.getStones(index));
+        }
+        buffer.put((byte) state.getNextTurn());
+        buffer.put((byte) state.getWinner());
+        buffer.putInt(state.getVersion());
+    }
+
+    static GameState readState(ByteBuffer buffer) {
+        long id = buffer.getLong();
+        int layout = buffer.get() & 0xFF;
+        Variant variant = (layout & VARIANT_FLAG) != 0 ? Variant.byId(layout & ~VARIANT_FLAG) : Variant.STANDARD;
+        int[] pits = new int[(layout & VARIANT_FLAG) != 0 ? variant.getLength() : layout];
+        for (int index = 0; index < pits.length; index++) {
+            pits[index] = readVarInt(buffer);
+        }
+        int nextTurn = buffer.get();
+        int winner = buffer.get();
+        return GameState.of(id, variant, pits, nextTurn, winner, buffer.getInt());
+    }
+
+    /**
+     * Max no. of bytes of an encoded state
+     * @param state state
+     * @return length
+     */
+    static int maxStateLength(GameState state) {
+        return 8 + 1 + state.length() * 5 + 2 + 4;
+    }
+
+    private static void writeVarInt(ByteBuffer buffer, int value) {
+        while ((value & ~0x7F) != 0) {
+            buffer.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        buffer.put((byte) value);
+    }
+
+    private static int readVarInt(ByteBuffer buffer) {
+        int value = 0;
+        int shift = 0;
+        byte current;
+        do {
+            current = buffer.get();
+            value |= (current & 0x7F) << shift;
+            shift += 7;
+        }
+        while ((current & 0x80) != 0);
+        return value;
+    }
+}
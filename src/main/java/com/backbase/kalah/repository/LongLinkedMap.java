@@ -0,0 +1,200 @@
+package com.backbase.kalah.repository;
+
+import java.util.function.Consumer;
+
+/**
+ * Hash map with primitive long keys which keeps its entries in access order like an access ordered
+ * {@link java.util.LinkedHashMap}, so the eldest entry is the least recently used one.
+ * Not thread safe, it is guarded by the lock of a store segment.
+ * Created by tojagrut
+ */
+final class LongLinkedMap<V> {
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    private Node<V>[] table;
+    private int size;
+    // sentinel of the circular access ordered list, head.after is the eldest entry
+    private final Node<V> head = new Node<>(0, null, null);
+
+    LongLinkedMap() {
+        table = newTable(INITIAL_CAPACITY);
+        head.before = head;
+        head.after = head;
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * Value of the key, marks the entry as most recently used
+     * @param key key
+     * @return value or null
+     */
+    V get(long key) {
+        Node<V> node = find(key);
+        if (node == null) {
+            return null;
+        }
+        unlink(node);
+        linkLast(node);
+        return node.value;
+    }
+
+    /**
+     * Checks for the key without changing the access order
+     * @param key key
+     * @return true if present
+     */
+    boolean containsKey(long key) {
+        return find(key) != null;
+    }
+
+    /**
+     * Puts value as the most recently used entry
+     * @param key key
+     * @param value value
+     * @return previous value or null
+     */
+    V put(long key, V value) {
+        Node<V> node = find(key);
+        if (node != null) {
+            V previous = node.value;
+            node.value = value;
+            unlink(node);
+            linkLast(node);
+            return previous;
+        }
+        if (size >= table.length - (table.length >>> 2)) {
+            resize();
+        }
+        int index = index(key, table.length);
+        node = new Node<>(key, value, table[index]);
+        table[index] = node;
+        linkLast(node);
+        size++;
+        return null;
+    }
+
+    /**
+     * Removes the key only if it is mapped to the given value
+     * @param key key
+     * @param value value
+     * @return true if removed
+     */
+    boolean remove(long key, V value) {
+        Node<V> node = find(key);
+        if (node == null || node.value != value) {
+            return false;
+        }
+        removeNode(node);
+        return true;
+    }
+
+    /**
+     * Least recently used value
+     * @return value or null if empty
+     */
+    V eldest() {
+        return head.after == head ? null : head.after.value;
+    }
+
+    /**
+     * Removes the least recently used entry
+     * @return value or null if empty
+     */
+    V removeEldest() {
+        Node<V> eldest = head.after;
+        if (eldest == head) {
+            return null;
+        }
+        removeNode(eldest);
+        return eldest.value;
+    }
+
+    /**
+     * Passes each value from the eldest to the most recently used one
+     * @param consumer consumer
+     */
+    void forEachValue(Consumer<V> consumer) {
+        for (Node<V> node = head.after; node != head; node = node.after) {
+            consumer.accept(node.value);
+        }
+    }
+
+    private Node<V> find(long key) {
+        Node<V> node = table[index(key, table.length)];
+        while (node != null && node.key != key) {
+            node = node.next;
+        }
+        return node;
+    }
+
+    private void removeNode(Node<V> node) {
+        int index = index(node.key, table.length);
+        Node<V> current = table[index];
+        if (current == node) {
+            table[index] = node.next;
+        }
+        else {
+            while (current.next != node) {
+                current = current.next;
+            }
+            current.next = node.next;
+        }
+        unlink(node);
+        size--;
+    }
+
+    private void resize() {
+        Node<V>[] resized = newTable(table.length << 1);
+        for (Node<V> bucket : table) {
+            Node<V> node = bucket;
+            while (node != null) {
+                Node<V> next = node.next;
+                int index = index(node.key, resized.length);
+                node.next = resized[index];
+                resized[index] = node;
+                node = next;
+            }
+        }
+        table = resized;
+    }
+
+    private void linkLast(Node<V> node) {
+        node.before = head.before;
+        node.after = head;
+        head.before.after = node;
+        head.before = node;
+    }
+
+    private static <V> void unlink(Node<V> node) {
+        node.before.after = node.after;
+        node.after.before = node.before;
+    }
+
+    private static int index(long key, int length) {
+        long hash = key * 0x9E3779B97F4A7C15L;
+        return (int) (hash >>> 32) & (length - 1);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <V> Node<V>[] newTable(int capacity) {
+        return (Node<V>[]) new Node[capacity];
+    }
+
+    private static final class Node<V> {
+        private final long key;
+        private V value;
+        private Node<V> next;
+        private Node<V> before;
+        private Node<V> after;
+
+        private Node(long key, V value, Node<V> next) {
+            this.key = key;
+            this.value = value;
+            this.next = next;
+        }
+    }
+}
@@ -1,27 +1,103 @@
 package com.backbase.kalah.repository;
 
-import java.util.HashMap;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
 
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jmx.export.annotation.ManagedAttribute;
+import org.springframework.jmx.export.annotation.ManagedOperation;
+import org.springframework.jmx.export.annotation.ManagedResource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Repository;
+
+import com.backbase.kalah.config.StoreProperties;
+import com.backbase.kalah.engine.GameState;
+import com.backbase.kalah.engine.MoveHistory;
+import com.backbase.kalah.id.BoardIds;
 import com.backbase.kalah.model.Board;
 
 /**
- * Class which maintains all initliazed boards of kalah
+ * Class which maintains all initliazed boards of kalah.
+ * Boards are spread over lock striped segments, all access to a board is done under the lock of its segment
+ * so moves on the same board are serialized while boards of other segments are processed in parallel.
+ * Boards are kept by their numeric id, so a lookup does not hash or compare strings.
+ * Each segment is bounded and evicts least recently used, idle and finished boards in constant time.
+ * Each board keeps a {@link MoveHistory} of bounded size, so memory of history is bounded by the max no. of boards.
  * Created by tojagrut
  */
-public final class ResourceStore {
+@Repository
+@ManagedResource
+public class ResourceStore {
+
+    /**
+     * Min interval between two expiry sweeps of a segment done on access
+     */
+    private static final long SWEEP_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final Segment[] segments;
+    private final int segmentMask;
+    private final long idleTimeoutNanos;
+    private final long finishedTimeoutNanos;
+    private final int historyMaxMoves;
+    private final int historyCheckpointInterval;
+    private final LongSupplier ticker;
 
-    private static Map<String, Board> boards = new HashMap<>();
+    private final LongAdder evictedBySize = new LongAdder();
+    private final LongAdder expiredByIdle = new LongAdder();
+    private final LongAdder evictedFinished = new LongAdder();
 
-    private ResourceStore() {
-        // preventing instantiation of this class
+    public ResourceStore() {
+        this(new StoreProperties());
     }
+
+    /**
+     * Initialize store with given configuration
+     * @param properties properties
+     */
+    @Autowired
+    public ResourceStore(StoreProperties properties) {
+        this(properties, System::nanoTime);
+    }
+
+    ResourceStore(StoreProperties properties, LongSupplier ticker) {
+        if (properties.getHistoryMaxMoves() > 0) {
+            // fails startup rather than every board created
+            MoveHistory.validate(properties.getHistoryCheckpointInterval(), properties.getHistoryMaxMoves());
+        }
+        int concurrencyLevel = properties.getConcurrencyLevel() > 0 ? properties.getConcurrencyLevel()
+                : Runtime.getRuntime().availableProcessors() * 16;
+        int size = concurrencyLevel <= 1 ? 1 : Integer.highestOneBit(concurrencyLevel - 1) << 1;
+        this.segments = new Segment[size];
+        this.segmentMask = size - 1;
+        this.idleTimeoutNanos = TimeUnit.SECONDS.toNanos(properties.getIdleTimeoutSeconds());
+        this.finishedTimeoutNanos = TimeUnit.SECONDS.toNanos(properties.getFinishedTimeoutSeconds());
+        this.historyMaxMoves = properties.getHistoryMaxMoves();
+        this.historyCheckpointInterval = properties.getHistoryCheckpointInterval();
+        this.ticker = ticker;
+        int maximumSize = Math.max(1, (properties.getMaximumSize() + size - 1) / size);
+        int expiredIdsRetained = Math.max(1, (properties.getExpiredIdsRetained() + size - 1) / size);
+        for (int index = 0; index < size; index++) {
+            segments[index] = new Segment(maximumSize, expiredIdsRetained);
+        }
+    }
+
     /**
      * Save board to resource store
      * @param board board
      */
-    public static void saveBoard(Board board) {
-        boards.put(board.getBoardId(), board);
+    public void saveBoard(Board board) {
+        saveState(GameState.fromBoard(board));
     }
 
     /**
@@ -29,7 +105,312 @@ public final class ResourceStore {
      * @param id id
      * @return Board
      */
-    public static Board getBoard(String id) {
-        return boards.get(id);
+    public Board getBoard(String id) {
+        return BoardIds.isValid(id) ? compute(BoardIds.decode(id), GameState::toBoard).orElse(null) : null;
+    }
+
+    /**
+     * Save game state to resource store
+     * @param state state
+     */
+    public void saveState(GameState state) {
+        saveState(state, null);
+    }
+
+    /**
+     * Save game state to resource store and applies the action on it while still holding its lock
+     * @param state state
+     * @param action action, must not keep a reference to the state, none when null
+     */
+    public void saveState(GameState state, Consumer<GameState> action) {
+        Segment segment = segmentFor(state.getBoardId());
+        segment.lock.lock();
+        try {
+            long now = ticker.getAsLong();
+            segment.sweep(now, false);
+            MoveHistory history = historyMaxMoves > 0
+                    ? new MoveHistory(state, historyCheckpointInterval, historyMaxMoves) : null;
+            Entry entry = new Entry(state, history, now);
+            segment.removed(segment.boards.put(state.getBoardId(), entry));
+            segment.expiredIds.remove(state.getBoardId());
+            segment.evictEldest();
+            segment.trackFinished(entry, now);
+            if (action != null) {
+                action.accept(state);
+            }
+        }
+        finally {
+            segment.lock.unlock();
+        }
+    }
+
+    /**
+     * Runs the action while holding the lock of the board, whether or not the board exists,
+     * so that it is ordered with all other actions on boards of its segment
+     * @param id id
+     * @param action action
+     */
+    public void runLocked(long id, Runnable action) {
+        Segment segment = segmentFor(id);
+        segment.lock.lock();
+        try {
+            action.run();
+        }
+        finally {
+            segment.lock.unlock();
+        }
+    }
+
+    /**
+     * Applies the action on game state of the board while holding its lock
+     * @param id id
+     * @param action action, must not keep a reference to the state
+     * @param <T> type of result
+     * @return result of action, empty when board does not exist
+     */
+    public <T> Optional<T> compute(long id, Function<GameState, T> action) {
+        return computeWithHistory(id, (state, history) -> action.apply(state));
+    }
+
+    /**
+     * Applies the action on game state and move history of the board while holding its lock
+     * @param id id
+     * @param action action, must not keep a reference to the state or history, history is null when not kept
+     * @param <T> type of result
+     * @return result of action, empty when board does not exist
+     */
+    public <T> Optional<T> computeWithHistory(long id, BiFunction<GameState, MoveHistory, T> action) {
+        Segment segment = segmentFor(id);
+        segment.lock.lock();
+        try {
+            long now = ticker.getAsLong();
+            segment.sweep(now, false);
+            Entry entry = segment.boards.get(id);
+            if (entry == null) {
+                return Optional.empty();
+            }
+            entry.accessedAt = now;
+            T result = action.apply(entry.state, entry.history);
+            segment.trackFinished(entry, now);
+            return Optional.ofNullable(result);
+        }
+        finally {
+            segment.lock.unlock();
+        }
+    }
+
+    /**
+     * Passes copy of each board's game state to the consumer, used to take a snapshot of the store
+     * @param consumer consumer
+     */
+    public void forEachState(Consumer<GameState> consumer) {
+        List<GameState> states = new ArrayList<>();
+        for (Segment segment : segments) {
+            segment.lock.lock();
+            try {
+                segment.boards.forEachValue(entry -> states.add(entry.state.copy()));
+            }
+            finally {
+                segment.lock.unlock();
+            }
+            // consume outside of lock so that a slow consumer does not block moves
+            states.forEach(consumer);
+            states.clear();
+        }
+    }
+
+    /**
+     * Checks if the board was evicted from resource store
+     * @param id id
+     * @return true if evicted
+     */
+    public boolean isExpired(long id) {
+        Segment segment = segmentFor(id);
+        segment.lock.lock();
+        try {
+            return segment.expiredIds.containsKey(id);
+        }
+        finally {
+            segment.lock.unlock();
+        }
+    }
+
+    /**
+     * Evicts idle and finished boards from all segments
+     */
+    @Scheduled(fixedDelayString = "${kalah.store.clean-up-interval-millis:10000}")
+    public void cleanUp() {
+        for (Segment segment : segments) {
+            segment.lock.lock();
+            try {
+                segment.sweep(ticker.getAsLong(), true);
+            }
+            finally {
+                segment.lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * No. of boards in resource store
+     * @return size
+     */
+    @ManagedOperation(description = "No. of boards in store")
+    public int size() {
+        int size = 0;
+        for (Segment segment : segments) {
+            segment.lock.lock();
+            try {
+                size += segment.boards.size();
+            }
+            finally {
+                segment.lock.unlock();
+            }
+        }
+        return size;
+    }
+
+    /**
+     * No. of finished boards which are not evicted yet
+     * @return size
+     */
+    @ManagedOperation(description = "No. of finished boards in store")
+    public int finishedSize() {
+        int size = 0;
+        for (Segment segment : segments) {
+            segment.lock.lock();
+            try {
+                size += segment.finishedSize;
+            }
+            finally {
+                segment.lock.unlock();
+            }
+        }
+        return size;
+    }
+
+    @ManagedAttribute(description = "No. of least recently used boards evicted as store was full")
+    public long getEvictedBySize() {
+        return evictedBySize.sum();
+    }
+
+    @ManagedAttribute(description = "No. of boards evicted as they were not accessed within idle timeout")
+    public long getExpiredByIdle() {
+        return expiredByIdle.sum();
+    }
+
+    @ManagedAttribute(description = "No. of boards evicted after game was finished")
+    public long getEvictedFinished() {
+        return evictedFinished.sum();
+    }
+
+    /**
+     * No. of lock striped segments
+     * @return count
+     */
+    public int getSegmentCount() {
+        return segments.length;
+    }
+
+    /**
+     * Segment of the board, actions holding the lock of a board are serialized with all boards of its segment
+     * @param id id
+     * @return index between 0 and segment count - 1
+     */
+    public int segmentIndex(long id) {
+        // higher bits select the segment, lower bits are used within the segment
+        return (int) ((id * 0xC2B2AE3D27D4EB4FL) >>> 40) & segmentMask;
+    }
+
+    private Segment segmentFor(long id) {
+        return segments[segmentIndex(id)];
+    }
+
+    private static final class Entry {
+        private final GameState state;
+        private final MoveHistory history;
+        private long accessedAt;
+        private long finishedAt;
+        private boolean finished;
+
+        private Entry(GameState state, MoveHistory history, long accessedAt) {
+            this.state = state;
+            this.history = history;
+            this.accessedAt = accessedAt;
+        }
+    }
+
+    private final class Segment {
+        private final ReentrantLock lock = new ReentrantLock();
+        // access ordered, so the eldest entry is the least recently used and the first to go idle
+        private final LongLinkedMap<Entry> boards = new LongLinkedMap<>();
+        private final LinkedHashMap<Long, Boolean> expiredIds;
+        private final int maximumSize;
+        // finished boards in the order they were finished
+        private final ArrayDeque<Entry> finishedBoards = new ArrayDeque<>();
+        private long lastSweep;
+        private int finishedSize;
+
+        private Segment(int maximumSize, int expiredIdsRetained) {
+            this.maximumSize = maximumSize;
+            this.expiredIds = new LinkedHashMap<Long, Boolean>(16, 0.75f, false) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Long, Boolean> eldest) {
+                    return size() > expiredIdsRetained;
+                }
+            };
+        }
+
+        private void trackFinished(Entry entry, long now) {
+            if (!entry.finished && entry.state.isFinished()) {
+                entry.finished = true;
+                entry.finishedAt = now;
+                finishedBoards.addLast(entry);
+                finishedSize++;
+            }
+        }
+
+        private void evictEldest() {
+            if (boards.size() > maximumSize) {
+                Entry eldest = boards.removeEldest();
+                evictedBySize.increment();
+                removed(eldest);
+                expire(eldest.state.getBoardId());
+            }
+        }
+
+        private void removed(Entry entry) {
+            if (entry != null && entry.finished) {
+                finishedSize--;
+            }
+        }
+
+        private void sweep(long now, boolean force) {
+            if (!force && now - lastSweep < SWEEP_INTERVAL_NANOS) {
+                return;
+            }
+            lastSweep = now;
+            while (!finishedBoards.isEmpty() && now - finishedBoards.peekFirst().finishedAt >= finishedTimeoutNanos) {
+                Entry entry = finishedBoards.pollFirst();
+                long id = entry.state.getBoardId();
+                // board may already be evicted or replaced
+                if (boards.remove(id, entry)) {
+                    removed(entry);
+                    evictedFinished.increment();
+                    expire(id);
+                }
+            }
+            Entry entry;
+            while ((entry = boards.eldest()) != null && now - entry.accessedAt >= idleTimeoutNanos) {
+                boards.removeEldest();
+                removed(entry);
+                expiredByIdle.increment();
+                expire(entry.state.getBoardId());
+            }
+        }
+
+        private void expire(long id) {
+            expiredIds.put(id, Boolean.TRUE);
+        }
     }
 }
@@ -0,0 +1,106 @@
+package com.backbase.kalah.service;
+
+import java.security.SecureRandom;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.backbase.kalah.engine.GameState;
+import com.backbase.kalah.engine.Variant;
+import com.backbase.kalah.id.BoardIdGenerator;
+import com.backbase.kalah.id.ScrambledIdGenerator;
+
+/**
+ * Pool of initialized game states, refilled in background so that creating a board only takes one from the pool
+ * Created by tojagrut
+ */
+@Component
+public class BoardPool {
+
+    private final BlockingQueue<GameState> states;
+    private final BoardIdGenerator idGenerator;
+    private Thread refiller;
+
+    public BoardPool() {
+        this(1, new ScrambledIdGenerator(0, new SecureRandom().nextLong()));
+    }
+
+    /**
+     * Initialize pool with given capacity
+     * @param size size
+     * @param idGenerator generator of board ids
+     */
+    @Autowired
+    public BoardPool(@Value("${kalah.pool.size:10000}") int size, BoardIdGenerator idGenerator) {
+        this.states = new ArrayBlockingQueue<>(Math.max(1, size));
+        this.idGenerator = idGenerator;
+    }
+
+    /**
+     * Starts refilling the pool
+     */
+    @PostConstruct
+    public void start() {
+        refiller = new Thread(this::refill, "kalah-board-pool");
+        refiller.setDaemon(true);
+        refiller.start();
+    }
+
+    /**
+     * Stops refilling the pool
+     */
+    @PreDestroy
+    public void stop() {
+        if (refiller != null) {
+            refiller.interrupt();
+        }
+    }
+
+    /**
+     * Takes state of a new game from pool, creates one if pool is empty
+     * @return GameState
+     */
+    public GameState take() {
+        GameState state = states.poll();
+        return state != null ? state : newGame();
+    }
+
+    /**
+     * Takes state of a new game of the given variant, only games of the standard variant are pooled
+     * @param variant variant
+     * @return GameState
+     */
+    public GameState take(Variant variant) {
+        return variant == Variant.STANDARD ? take() : GameState.newGame(idGenerator.nextId(), variant);
+    }
+
+    /**
+     * No. of states available in pool
+     * @return size
+     */
+    public int available() {
+        return states.size();
+    }
+
+    private void refill() {
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                // blocks while pool is full
+                states.put(newGame());
+            }
+        }
+        catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private GameState newGame() {
+        return GameState.newGame(idGenerator.nextId());
+    }
+}
@@ -2,17 +2,37 @@ package com.backbase.kalah.service;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Optional;
-import java.util.stream.IntStream;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import com.backbase.kalah.ai.ComputerPlayer;
+import com.backbase.kalah.ai.SearchResult;
+import com.backbase.kalah.engine.GameState;
+import com.backbase.kalah.engine.KalahEngine;
+import com.backbase.kalah.engine.MoveHistory;
+import com.backbase.kalah.engine.Variant;
+import com.backbase.kalah.event.BoardEvents;
+import com.backbase.kalah.event.GameEvents;
+import com.backbase.kalah.exception.BoardConflictException;
+import com.backbase.kalah.exception.BoardExpiredException;
 import com.backbase.kalah.exception.BoardNotFoundException;
 import com.backbase.kalah.model.Board;
-import com.backbase.kalah.model.Pit;
-import com.backbase.kalah.model.Player;
+import com.backbase.kalah.model.ComputerMove;
+import com.backbase.kalah.model.EndgameResult;
+import com.backbase.kalah.model.GameHistory;
+import com.backbase.kalah.model.LegalMoves;
+import com.backbase.kalah.model.MoveBatch;
+import com.backbase.kalah.model.MoveResult;
+import com.backbase.kalah.model.PerftResult;
+import com.backbase.kalah.id.BoardIds;
+import com.backbase.kalah.metrics.KalahMetrics;
+import com.backbase.kalah.persistence.BoardJournal;
 import com.backbase.kalah.repository.ResourceStore;
 import com.backbase.kalah.util.Constants;
 
@@ -24,160 +44,402 @@ import com.backbase.kalah.util.Constants;
 public class KalahService {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(KalahService.class);
+
+    @Autowired
+    private ResourceStore resourceStore;
+
+    @Autowired
+    private BoardPool boardPool;
+
+    @Autowired
+    private KalahMetrics kalahMetrics;
+
+    @Autowired
+    private ComputerPlayer computerPlayer;
+
+    @Autowired(required = false)
+    private BoardJournal boardJournal;
+
+    @Autowired(required = false)
+    private BoardEvents boardEvents;
+
+    @Autowired(required = false)
+    private GameEvents gameEvents;
+
     /**
      * Creates new instance of Board
      * 
-     * @return Board
+     * @param variant variant of the board, standard when null
+     * @return GameState snapshot of the new board
      */
-    public Board createBoard() {
-        Board board = new Board();
-        ResourceStore.saveBoard(board);
-        return board;
+    public GameState createBoard(Variant variant) {
+        long start = System.nanoTime();
+        try {
+            GameState state = boardPool.take(variant != null ? variant : Variant.STANDARD);
+            GameState[] result = new GameState[1];
+            // recorded under the lock of the board, so its creation is ordered before any of its moves
+            resourceStore.saveState(state, saved -> {
+                if (gameEvents != null) {
+                    gameEvents.created(saved);
+                }
+                if (boardJournal != null) {
+                    boardJournal.created(saved);
+                }
+                result[0] = saved.copy();
+            });
+            return result[0];
+        }
+        finally {
+            kalahMetrics.getCreateLatency().recordSince(start);
+        }
+    }
+
+    /**
+     * Creates given no. of new boards
+     *
+     * @param count count
+     * @param variant variant of the boards, standard when null
+     * @return List of Board
+     */
+    public List<Board> createBoards(int count, Variant variant) {
+        if (count < 1 || count > Constants.MAX_BOARDS_PER_BATCH) {
+            throw new IllegalArgumentException("No. of boards should be between 1 to " + Constants.MAX_BOARDS_PER_BATCH);
+        }
+        List<Board> boards = new ArrayList<>(count);
+        for (int index = 0; index < count; index++) {
+            boards.add(createBoard(variant).toBoard());
+        }
+        return boards;
     }
 
     /**
      * Retrieve already created board using id
      * 
      * @param id id
-     * @return Board
+     * @return GameState snapshot of the board
      * @throws Exception exception if board does not exist
      */
-    public Board retrieveBoard(String id) throws BoardNotFoundException {
-        return getBoard(id);
+    public GameState retrieveBoard(String id) throws BoardNotFoundException {
+        long start = System.nanoTime();
+        try {
+            long boardId = boardId(id);
+            return resourceStore.compute(boardId, GameState::copy).orElseThrow(() -> boardNotFound(id, boardId));
+        }
+        finally {
+            kalahMetrics.getRetrieveLatency().recordSince(start);
+        }
     }
 
     /**
      * Move the stones according to pit selected by a player
      * 
      * @param pit pit id
-     * @return Board
+     * @return GameState snapshot of the board after the move
      */
-    public Board play(String id, int pit) throws BoardNotFoundException {
-        Board board = getBoard(id);
-        if (!Optional.ofNullable(board.getWinner()).isPresent()) {
-            play(board, pit);
+    public GameState play(String id, int pit) throws BoardNotFoundException {
+        long start = System.nanoTime();
+        try {
+            GameState result = move(id, pit);
+            if (boardJournal != null) {
+                boardJournal.commit();
+            }
+            publish(result);
+            return result;
+        }
+        finally {
+            kalahMetrics.getPlayLatency().recordSince(start);
         }
-        return board;
     }
 
-    private Board getBoard(String id) throws BoardNotFoundException {
-        Board board = ResourceStore.getBoard(id);
-        if (board == null) {
-            LOGGER.error("Board does not exist with id {} ", id);
-            throw new BoardNotFoundException("Invalid board id - " + id);
+    /**
+     * Same as {@link #play(String, int)} except that the caller does not wait for the journal commit
+     *
+     * @param id id
+     * @param pit pit id
+     * @return future completed with snapshot of the board once the move is committed
+     */
+    public CompletableFuture<GameState> playAsync(String id, int pit) throws BoardNotFoundException {
+        long start = System.nanoTime();
+        // latency is recorded here unless the move is handed to the commit, also when the board is not found
+        boolean committing = false;
+        try {
+            GameState result = move(id, pit);
+            CompletableFuture<Void> committed = boardJournal != null ? boardJournal.commitAsync() : CompletableFuture.completedFuture(null);
+            CompletableFuture<GameState> played = committed.thenApply(ignored -> {
+                publish(result);
+                return result;
+            });
+            committing = true;
+            return played.whenComplete((state, exception) -> kalahMetrics.getPlayLatency().recordSince(start));
+        }
+        finally {
+            if (!committing) {
+                kalahMetrics.getPlayLatency().recordSince(start);
+            }
         }
-        return board;
     }
 
-    private void play(Board board, int pit) {
-        Player currentPlayer = board.getNextTurn().equalsIgnoreCase(board.getNorth().getName()) ? board.getNorth() : board.getSouth();
-        Player opponentPlayer = currentPlayer == board.getNorth() ? board.getSouth() : board.getNorth();
-        int stonesToSow = Optional.ofNullable(currentPlayer.getPits().stream()
-                .filter(eachPit -> pit == eachPit.getId()).findFirst().orElse(null)).map(Pit::getStones).orElse(0);
-
-        // combine all pits of current player, its own kalah and pits of opponent
-        // Kalah of opponent player is not included
-        List<Pit> allPits = getAllPits(currentPlayer, opponentPlayer);
+    private GameState move(String id, int pit) throws BoardNotFoundException {
+        long boardId = boardId(id);
+        return resourceStore.computeWithHistory(boardId, (state, history) -> {
+            if (pit > state.getVariant().getPits()) {
+                throw new IllegalArgumentException("Pit id should be between 1 to " + state.getVariant().getPits());
+            }
+            if (!state.isFinished()) {
+                applyMove(state, history, pit);
+            }
+            return state.copy();
+        }).orElseThrow(() -> boardNotFound(id, boardId));
+    }
 
-        processSow(pit, stonesToSow, allPits);
-        Pit lastPit = getPit(pit, allPits, stonesToSow);
+    /**
+     * Move the stones for each pit in order, under a single lock of the board.
+     * Stops at the first illegal move or when the game is finished.
+     *
+     * @param id id
+     * @param pits pit ids
+     * @return MoveBatch
+     */
+    public MoveBatch playAll(String id, int[] pits) throws BoardNotFoundException {
+        if (pits.length > Constants.MAX_MOVES_PER_BATCH) {
+            throw new IllegalArgumentException("No. of moves should not exceed " + Constants.MAX_MOVES_PER_BATCH);
+        }
+        long boardId = boardId(id);
+        GameState[] result = new GameState[1];
+        MoveBatch batch = resourceStore.computeWithHistory(boardId, (state, history) -> {
+            List<MoveResult> results = new ArrayList<>(pits.length);
+            for (int pit : pits) {
+                String player = GameState.sideName(state.getNextTurn());
+                if (state.isFinished()) {
+                    results.add(new MoveResult(pit, player, MoveResult.Status.GAME_FINISHED));
+                    break;
+                }
+                if (!KalahEngine.isLegal(state, pit)) {
+                    results.add(new MoveResult(pit, player, MoveResult.Status.ILLEGAL));
+                    break;
+                }
+                int outcome = applyMove(state, history, pit);
+                results.add(toMoveResult(pit, player, outcome));
+            }
+            result[0] = state.copy();
+            return new MoveBatch(result[0].toBoard(), results);
+        }).orElseThrow(() -> boardNotFound(id, boardId));
+        if (boardJournal != null) {
+            boardJournal.commit();
+        }
+        publish(result[0]);
+        return batch;
+    }
 
-        processCapture(currentPlayer, opponentPlayer, lastPit);
-        processAllEmptyPits(currentPlayer, opponentPlayer);
-        processBoardStatus(board, currentPlayer, opponentPlayer, lastPit);
+    /**
+     * Plays the move of the player having next turn, searched by the computer.
+     * The search runs on a snapshot without holding the board, its move is applied only when no other move
+     * was made meanwhile, otherwise the new position is searched again, at most
+     * {@link Constants#MAX_COMPUTER_MOVE_ATTEMPTS} times.
+     *
+     * @param id id
+     * @param depth search depth, default when null
+     * @param timeMillis search time budget, default when null
+     * @return ComputerMove
+     * @throws BoardConflictException When the board was moved during every search
+     */
+    public ComputerMove playComputer(String id, Integer depth, Long timeMillis) throws BoardNotFoundException {
+        long boardId = boardId(id);
+        for (int attempt = 0; attempt < Constants.MAX_COMPUTER_MOVE_ATTEMPTS; attempt++) {
+            GameState snapshot = resourceStore.compute(boardId, GameState::copy).orElseThrow(() -> boardNotFound(id, boardId));
+            SearchResult search = computerPlayer.search(snapshot, depth, timeMillis);
+            kalahMetrics.recordSearch(search.getNodes(), search.getElapsedNanos());
+            GameState result = resourceStore.computeWithHistory(boardId, (state, history) -> {
+                if (state.getVersion() != snapshot.getVersion()) {
+                    return null;
+                }
+                applyMove(state, history, search.getPit());
+                return state.copy();
+            }).orElse(null);
+            if (result != null) {
+                if (boardJournal != null) {
+                    boardJournal.commit();
+                }
+                publish(result);
+                return toComputerMove(result, snapshot, search);
+            }
+            LOGGER.debug("Board {} was moved during search, searching again", id);
+        }
+        throw new BoardConflictException("Board " + id + " was moved during " + Constants.MAX_COMPUTER_MOVE_ATTEMPTS + " searches");
     }
 
-    private void processSow(int pit, int stonesToSow, List<Pit> allPits) {
-        // move stone one by one to the next pit including current player's kalah and opponent player's pits
-        IntStream.rangeClosed(1, stonesToSow).forEach(stone -> getPit(pit, allPits, stone).addStones(1));
-        allPits.get(pit - 1).setStones(0);
+    /**
+     * Looks up perfect play of the player having next turn, for boards having few stones left in pits
+     *
+     * @param id id
+     * @return EndgameResult
+     */
+    public EndgameResult lookupEndgame(String id) throws BoardNotFoundException {
+        return computerPlayer.lookup(retrieveBoard(id));
     }
 
-    private void processBoardStatus(Board board, Player currentPlayer, Player opponentPlayer, Pit lastPit) {
-        if (isWinner(currentPlayer)) {
-            LOGGER.info("Player {} has won the game.", currentPlayer.getName());
-            board.setWinner(currentPlayer.getName());
-            board.setNextTurn(null);
-        }
-        else if (isGameTied(currentPlayer, opponentPlayer)) {
-            LOGGER.info("Game is tied..");
-            board.setWinner("IT'S A TIE!!");
-            board.setNextTurn(null);
-        }
-        else {
-            // set name of the player for next turn
-            // if last pit is kalah, set the name of the current player again
-            board.setNextTurn(isLastPitKalah(currentPlayer, lastPit) ? currentPlayer.getName() : opponentPlayer.getName());
+    /**
+     * Pits the player having next turn can play i.e. own pits having stones
+     *
+     * @param id id
+     * @return LegalMoves
+     */
+    public LegalMoves legalMoves(String id) throws BoardNotFoundException {
+        GameState state = retrieveBoard(id);
+        int moves = KalahEngine.legalMoves(state);
+        int[] pits = new int[Integer.bitCount(moves)];
+        for (int index = 0; moves != 0; moves &= moves - 1, index++) {
+            pits[index] = Integer.numberOfTrailingZeros(moves);
         }
+        return new LegalMoves(GameState.sideName(state.getNextTurn()), pits);
     }
 
-    private void processAllEmptyPits(Player currentPlayer, Player opponentPlayer) {
-        if (!isStoneAvailable(currentPlayer)) {
-            collectStones(opponentPlayer);
-        }
-        else if (!isStoneAvailable(opponentPlayer)) {
-            collectStones(currentPlayer);
-        }
+    /**
+     * Counts sequences of legal moves of given length from the board, to validate and benchmark the engine
+     *
+     * @param id id
+     * @param depth no. of moves of each sequence
+     * @return PerftResult
+     */
+    public PerftResult perft(String id, int depth) throws BoardNotFoundException {
+        GameState state = retrieveBoard(id);
+        long start = System.nanoTime();
+        PerftResult result = new PerftResult(depth, computerPlayer.perft(state, depth));
+        long elapsedNanos = System.nanoTime() - start;
+        result.setElapsedMillis(TimeUnit.NANOSECONDS.toMillis(elapsedNanos));
+        result.setSequencesPerSecond(elapsedNanos == 0 ? 0 : result.getSequences() * 1_000_000_000L / elapsedNanos);
+        return result;
     }
 
-    private void processCapture(Player currentPlayer, Player opponentPlayer, Pit lastPit) {
-        if (isCaptureRequired(currentPlayer, lastPit)) {
-            LOGGER.info("Capturing opponent's stones from opposite pit...");
-            Pit opponentPitToCapture = opponentPlayer.getPits().get(Constants.MAX_PITS - lastPit.getId());
-            // add stones of last pit and opponent's pit in kalah
-            currentPlayer.getKalah().addStones(lastPit.getStones() + opponentPitToCapture.getStones());
-            lastPit.setStones(0);
-            opponentPitToCapture.setStones(0);
+    /**
+     * Moves played on the board, oldest moves are dropped when history is full
+     *
+     * @param id id
+     * @return GameHistory
+     */
+    public GameHistory history(String id) throws BoardNotFoundException {
+        long boardId = boardId(id);
+        return resourceStore.computeWithHistory(boardId, (state, history) -> {
+            MoveHistory moves = requireHistory(history);
+            int[] pits = new int[moves.getLastPly() - moves.getFirstPly()];
+            for (int ply = moves.getFirstPly() + 1; ply <= moves.getLastPly(); ply++) {
+                pits[ply - moves.getFirstPly() - 1] = moves.pit(ply);
+            }
+            return new GameHistory(moves.getFirstPly(), moves.getLastPly(), pits);
+        }).orElseThrow(() -> boardNotFound(id, boardId));
+    }
+
+    /**
+     * Board as it was after the given no. of moves, replayed from the nearest checkpoint of its history
+     *
+     * @param id id
+     * @param ply no. of moves played, between first and last ply of history
+     * @return GameState snapshot of the board at the ply
+     */
+    public GameState replay(String id, int ply) throws BoardNotFoundException {
+        long boardId = boardId(id);
+        return resourceStore.computeWithHistory(boardId, (state, history) -> requireHistory(history).replay(ply))
+                .orElseThrow(() -> boardNotFound(id, boardId));
+    }
+
+    /**
+     * Subscribes to updates of the board, see {@link BoardEvents}
+     *
+     * @param id id
+     * @return SseEmitter sending the board on each move
+     */
+    public SseEmitter subscribe(String id) throws BoardNotFoundException {
+        if (boardEvents == null) {
+            throw new IllegalStateException("Board events are not enabled");
         }
+        long boardId = boardId(id);
+        return boardEvents.subscribe(boardId, () -> resourceStore.compute(boardId, GameState::copy))
+                .orElseThrow(() -> boardNotFound(id, boardId));
     }
 
-    private boolean isWinner(Player currentPlayer) {
-        return currentPlayer.getKalah().getStones() >= Constants.MIN_STONES_TO_WIN;
+    private void publish(GameState state) {
+        if (boardEvents != null) {
+            boardEvents.publish(state);
+        }
     }
 
-    private void collectStones(Player player) {
-        // collect stones from each of the pit and add them in kalah
-        LOGGER.info("No stones available with current player, collecting stones in opponent kalah");
-        player.getPits().forEach(pit -> {
-            player.getKalah().addStones(pit.getStones());
-            pit.setStones(0);
-        });
+    private MoveHistory requireHistory(MoveHistory history) {
+        if (history == null) {
+            throw new IllegalStateException("Move history is not enabled");
+        }
+        return history;
     }
 
-    private boolean isStoneAvailable(Player player) {
-        return player.getPits().stream().anyMatch(Pit::isStoneAvailable);
+    private int applyMove(GameState state, MoveHistory history, int pit) {
+        int outcome = KalahEngine.play(state, pit);
+        if (history != null) {
+            history.record(pit, state);
+        }
+        if (gameEvents != null) {
+            gameEvents.moved(state, pit, outcome);
+        }
+        else {
+            logOutcome(state, outcome);
+        }
+        kalahMetrics.recordMove(outcome);
+        if (boardJournal != null) {
+            boardJournal.moved(state, pit);
+        }
+        return outcome;
     }
 
-    private boolean isGameTied(Player currentPlayer, Player opponentPlayer) {
-        // check if the no. of stones in kalah of current player and opponent player is 36
-        return currentPlayer.getKalah().getStones() == Constants.MIN_STONES_TO_WIN - 1
-                && currentPlayer.getKalah().getStones() == opponentPlayer.getKalah().getStones();
+    private MoveResult toMoveResult(int pit, String player, int outcome) {
+        MoveResult result = new MoveResult(pit, player, MoveResult.Status.APPLIED);
+        result.setCapture((outcome & KalahEngine.CAPTURE) != 0);
+        result.setExtraTurn((outcome & KalahEngine.EXTRA_TURN) != 0);
+        result.setCollected((outcome & KalahEngine.COLLECTED) != 0);
+        return result;
     }
 
-    private boolean isLastPitKalah(Player currentPlayer, Pit lastPit) {
-        return lastPit == currentPlayer.getKalah();
+    private ComputerMove toComputerMove(GameState state, GameState searched, SearchResult search) {
+        ComputerMove move = new ComputerMove(state.toBoard(), search.getPit(), GameState.sideName(searched.getNextTurn()));
+        move.setScore(search.getScore());
+        move.setDepth(search.getDepth());
+        move.setNodes(search.getNodes());
+        move.setNodesPerSecond(search.getNodesPerSecond());
+        move.setElapsedMillis(TimeUnit.NANOSECONDS.toMillis(search.getElapsedNanos()));
+        return move;
     }
 
-    private boolean isCaptureRequired(Player currentPlayer, Pit lastPit) {
-        // check if last pit after sowing is of current player and contains only 1 stone
-        return currentPlayer.getPits().contains(lastPit) && lastPit.getStones() == 1;
+    private long boardId(String id) throws BoardNotFoundException {
+        if (!BoardIds.isValid(id)) {
+            LOGGER.error("Board does not exist with id {} ", id);
+            throw new BoardNotFoundException("Invalid board id - " + id);
+        }
+        return BoardIds.decode(id);
     }
 
-    private Pit getPit(int pit, List<Pit> allPits, int stone) {
-        int nextPitIndex = pit + stone - 1;
-        // see if the next pit index is great than available no. of pits
-        if (nextPitIndex >= allPits.size()) {
-            // start from the first pit again
-            nextPitIndex -= allPits.size();
+    private BoardNotFoundException boardNotFound(String id, long boardId) {
+        boolean expired = resourceStore.isExpired(boardId);
+        if (gameEvents != null) {
+            resourceStore.runLocked(boardId, () -> gameEvents.notFound(boardId, expired));
+            return expired ? new BoardExpiredException("Expired board id - " + id) : new BoardNotFoundException("Invalid board id - " + id);
         }
-        return allPits.get(nextPitIndex);
+        if (expired) {
+            LOGGER.info("Board with id {} has expired", id);
+            return new BoardExpiredException("Expired board id - " + id);
+        }
+        LOGGER.error("Board does not exist with id {} ", id);
+        return new BoardNotFoundException("Invalid board id - " + id);
     }
 
-    private List<Pit> getAllPits(Player currentPlayer, Player opponentPlayer) {
-        List<Pit> allPits = new ArrayList<>();
-        allPits.addAll(currentPlayer.getPits());
-        allPits.add(currentPlayer.getKalah());
-        allPits.addAll(opponentPlayer.getPits());
-        return allPits;
+    private void logOutcome(GameState state, int outcome) {
+        if ((outcome & KalahEngine.CAPTURE) != 0) {
+            LOGGER.info("Capturing opponent's stones from opposite pit...");
+        }
+        if ((outcome & KalahEngine.COLLECTED) != 0) {
+            LOGGER.info("No stones available with current player, collecting stones in opponent kalah");
+        }
+        if ((outcome & KalahEngine.WIN) != 0) {
+            LOGGER.info("Player {} has won the game.", GameState.sideName(state.getWinner()));
+        }
+        else if ((outcome & KalahEngine.TIE) != 0) {
+            LOGGER.info("Game is tied..");
+        }
     }
 }
@@ -0,0 +1,79 @@
+package com.backbase.kalah.simulation;
+
+import java.util.SplittableRandom;
+
+import com.backbase.kalah.engine.GameState;
+import com.backbase.kalah.engine.KalahEngine;
+
+/**
+ * Ways of choosing the move of a player in self-play, see {@link SelfPlaySimulator}
+ * Created by tojagrut
+ */
+public enum Policy {
+
+    /**
+     * Any legal pit with the same probability
+     */
+    RANDOM {
+        @Override
+        int choose(GameState state, int moves, GameState scratch, SplittableRandom random) {
+            for (int skipped = random.nextInt(Integer.bitCount(moves)); skipped > 0; skipped--) {
+                moves &= moves - 1;
+            }
+            return Integer.numberOfTrailingZeros(moves);
+        }
+    },
+
+    /**
+     * Legal pit of the lowest id
+     */
+    FIRST {
+        @Override
+        int choose(GameState state, int moves, GameState scratch, SplittableRandom random) {
+            return Integer.numberOfTrailingZeros(moves);
+        }
+    },
+
+    /**
+     * Legal pit of the highest id, nearest to the kalah
+     */
+    LAST {
+        @Override
+        int choose(GameState state, int moves, GameState scratch, SplittableRandom random) {
+            return 31 - Integer.numberOfLeadingZeros(moves);
+        }
+    },
+
+    /**
+     * Legal pit putting most stones in own kalah, an extra turn counts as one stone, lowest id on a tie
+     */
+    GREEDY {
+        @Override
+        int choose(GameState state, int moves, GameState scratch, SplittableRandom random) {
+            int kalah = state.getVariant().kalahIndex(state.getNextTurn());
+            int best = 0;
+            int bestGain = Integer.MIN_VALUE;
+            for (; moves != 0; moves &= moves - 1) {
+                int pit = Integer.numberOfTrailingZeros(moves);
+                state.copyTo(scratch);
+                int outcome = KalahEngine.play(scratch, pit);
+                int gain = scratch.getStones(kalah) - state.getStones(kalah) + ((outcome & KalahEngine.EXTRA_TURN) != 0 ? 1 : 0);
+                if (gain > bestGain) {
+                    best = pit;
+                    bestGain = gain;
+                }
+            }
+            return best;
+        }
+    };
+
+    /**
+     * Chooses the pit of the player having next turn
+     * @param state state, not changed
+     * @param moves legal moves, see {@link KalahEngine#legalMoves(GameState)}, not 0
+     * @param scratch state of the same variant to try moves on
+     * @param random random of the playing thread
+     * @return pit id
+     */
+    abstract int choose(GameState state, int moves, GameState scratch, SplittableRandom random);
+}
@@ -0,0 +1,148 @@
+package com.backbase.kalah.simulation;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.backbase.kalah.engine.GameState;
+import com.backbase.kalah.engine.KalahEngine;
+import com.backbase.kalah.engine.Variant;
+
+/**
+ * Plays games of the computer against itself in process, for statistics of the rules over millions of games.
+ * Moves are applied by {@link KalahEngine} like in the service, without the store, journal or web layer.
+ * Passes of a player having no stones are not counted as moves. Stones sown back into the emptied pit on a lap
+ * are removed like in the service, so a game may run out of stones without a winner, it then counts as unfinished.
+ * Games are split in batches played on a fork/join pool, each batch reuses its states and has its own random
+ * split from the seed, so the results of a seed do not depend on the no. of threads.
+ * Run with: mvn -Psimulation verify -Dsimulation.games=1000000
+ * Created by tojagrut
+ */
+public final class SelfPlaySimulator {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(SelfPlaySimulator.class);
+
+    /**
+     * Batches of less games are played by a single thread
+     */
+    private static final long BATCH_GAMES = 4096;
+
+    private final ForkJoinPool pool;
+
+    /**
+     * Initialize simulator
+     * @param pool pool playing the games
+     */
+    public SelfPlaySimulator(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * Plays the given no. of games from the start
+     * @param variant variant
+     * @param north policy of north, who moves first
+     * @param south policy of south
+     * @param games no. of games
+     * @param seed seed of the randoms
+     * @return SimulationStats
+     */
+    public SimulationStats simulate(Variant variant, Policy north, Policy south, long games, long seed) {
+        if (games < 0) {
+            throw new IllegalArgumentException("No. of games should not be negative");
+        }
+        long start = System.nanoTime();
+        SimulationStats stats = pool.invoke(new Batch(variant, new Policy[] {north, south}, games, new SplittableRandom(seed)));
+        stats.setElapsedNanos(System.nanoTime() - start);
+        return stats;
+    }
+
+    private static SimulationStats play(Variant variant, Policy[] policies, long games, SplittableRandom random) {
+        SimulationStats stats = new SimulationStats();
+        GameState initial = GameState.newGame(0L, variant);
+        GameState state = initial.copy();
+        GameState scratch = initial.copy();
+        for (long game = 0; game < games; game++) {
+            initial.copyTo(state);
+            int plies = 0;
+            int captures = 0;
+            int extraTurns = 0;
+            int passes = 0;
+            while (!state.isFinished() && passes < 2) {
+                int moves = KalahEngine.legalMoves(state);
+                if (moves == 0) {
+                    // stones were collected without a winner yet, the player passes like on an empty pit in the service
+                    KalahEngine.play(state, 1);
+                    passes++;
+                    continue;
+                }
+                int pit = policies[state.getNextTurn()].choose(state, moves, scratch, random);
+                int outcome = KalahEngine.play(state, pit);
+                plies++;
+                if ((outcome & KalahEngine.CAPTURE) != 0) {
+                    captures++;
+                }
+                if ((outcome & KalahEngine.EXTRA_TURN) != 0) {
+                    extraTurns++;
+                }
+            }
+            stats.record(state, plies, captures, extraTurns);
+        }
+        return stats;
+    }
+
+    /**
+     * Plays games, forking halves while there are more than a batch of games
+     */
+    private static final class Batch extends RecursiveTask<SimulationStats> {
+
+        private final Variant variant;
+        private final Policy[] policies;
+        private final long games;
+        private final SplittableRandom random;
+
+        Batch(Variant variant, Policy[] policies, long games, SplittableRandom random) {
+            this.variant = variant;
+            this.policies = policies;
+            this.games = games;
+            this.random = random;
+        }
+
+        @Override
+        protected SimulationStats compute() {
+            if (games <= BATCH_GAMES) {
+                return play(variant, policies, games, random);
+            }
+            long half = games / 2;
+            // randoms are split before forking so that they do not depend on the thread playing the batch
+            Batch first = new Batch(variant, policies, half, random.split());
+            Batch second = new Batch(variant, policies, games - half, random.split());
+            first.fork();
+            return second.compute().merge(first.join());
+        }
+    }
+
+    /**
+     * Runs a simulation and logs its results
+     * @param args no. of games, variant, policy of north, policy of south, no. of threads and seed, all optional
+     */
+    public static void main(String[] args) {
+        long games = args.length > 0 ? Long.parseLong(args[0]) : 1_000_000L;
+        Variant variant = args.length > 1 ? Variant.valueOf(args[1]) : Variant.STANDARD;
+        Policy north = args.length > 2 ? Policy.valueOf(args[2].toUpperCase()) : Policy.RANDOM;
+        Policy south = args.length > 3 ? Policy.valueOf(args[3].toUpperCase()) : Policy.RANDOM;
+        int threads = args.length > 4 && Integer.parseInt(args[4]) > 0 ? Integer.parseInt(args[4])
+                : Runtime.getRuntime().availableProcessors();
+        long seed = args.length > 5 ? Long.parseLong(args[5]) : System.nanoTime();
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            SimulationStats stats = new SelfPlaySimulator(pool).simulate(variant, north, south, games, seed);
+            LOGGER.info("Variant {}, {} against {} on {} threads, seed {}: {}", variant, north, south, threads, seed, stats);
+        }
+        finally {
+            pool.shutdownNow();
+        }
+    }
+}
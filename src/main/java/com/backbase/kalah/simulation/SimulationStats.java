@@ -0,0 +1,177 @@
+package com.backbase.kalah.simulation;
+
+import com.backbase.kalah.engine.GameState;
+
+/**
+ * Results of self-play games. Each thread fills its own stats without synchronization,
+ * stats of threads are merged into one when they are done.
+ * Created by tojagrut
+ */
+public final class SimulationStats {
+
+    private long games;
+    private long northWins;
+    private long southWins;
+    private long ties;
+    private long unfinished;
+    private long plies;
+    private long maxPlies;
+    private long captures;
+    private long extraTurns;
+    private long elapsedNanos;
+
+    /**
+     * Adds a finished game
+     * @param state state at the end of the game, not finished when it ran out of stones
+     * @param gamePlies no. of moves of the game
+     * @param gameCaptures no. of moves capturing stones
+     * @param gameExtraTurns no. of moves giving an extra turn
+     */
+    void record(GameState state, int gamePlies, int gameCaptures, int gameExtraTurns) {
+        games++;
+        switch (state.getWinner()) {
+            case GameState.NORTH:
+                northWins++;
+                break;
+            case GameState.SOUTH:
+                southWins++;
+                break;
+            case GameState.TIE:
+                ties++;
+                break;
+            default:
+                unfinished++;
+        }
+        plies += gamePlies;
+        maxPlies = Math.max(maxPlies, gamePlies);
+        captures += gameCaptures;
+        extraTurns += gameExtraTurns;
+    }
+
+    /**
+     * Adds the games of other stats, elapsed time is the longest of both as they run in parallel
+     * @param other other
+     * @return this
+     */
+    public SimulationStats merge(SimulationStats other) {
+        games += other.games;
+        northWins += other.northWins;
+        southWins += other.southWins;
+        ties += other.ties;
+        unfinished += other.unfinished;
+        plies += other.plies;
+        maxPlies = Math.max(maxPlies, other.maxPlies);
+        captures += other.captures;
+        extraTurns += other.extraTurns;
+        elapsedNanos = Math.max(elapsedNanos, other.elapsedNanos);
+        return this;
+    }
+
+    void setElapsedNanos(long elapsedNanos) {
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    public long getGames() {
+        return games;
+    }
+
+    public long getNorthWins() {
+        return northWins;
+    }
+
+    public long getSouthWins() {
+        return southWins;
+    }
+
+    public long getTies() {
+        return ties;
+    }
+
+    /**
+     * No. of games having no winner when no stones were left
+     * @return unfinished
+     */
+    public long getUnfinished() {
+        return unfinished;
+    }
+
+    /**
+     * Total no. of moves of all games
+     * @return plies
+     */
+    public long getPlies() {
+        return plies;
+    }
+
+    /**
+     * No. of moves of the longest game
+     * @return maxPlies
+     */
+    public long getMaxPlies() {
+        return maxPlies;
+    }
+
+    public long getCaptures() {
+        return captures;
+    }
+
+    public long getExtraTurns() {
+        return extraTurns;
+    }
+
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    /**
+     * Share of games won by north, north moves first
+     * @return rate between 0 and 1
+     */
+    public double getNorthWinRate() {
+        return rate(northWins);
+    }
+
+    /**
+     * Share of games won by south
+     * @return rate between 0 and 1
+     */
+    public double getSouthWinRate() {
+        return rate(southWins);
+    }
+
+    /**
+     * Average no. of moves of a game
+     * @return length
+     */
+    public double getAverageLength() {
+        return games == 0 ? 0 : (double) plies / games;
+    }
+
+    /**
+     * Share of moves capturing stones
+     * @return rate between 0 and 1
+     */
+    public double getCaptureRate() {
+        return plies == 0 ? 0 : (double) captures / plies;
+    }
+
+    /**
+     * Simulation speed
+     * @return games per second
+     */
+    public long getGamesPerSecond() {
+        return elapsedNanos == 0 ? 0 : games * 1_000_000_000L / elapsedNanos;
+    }
+
+    private double rate(long count) {
+        return games == 0 ? 0 : (double) count / games;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d games, north won %.2f%%, south won %.2f%%, tied %.2f%%, unfinished %.2f%%, "
+                + "%.1f moves per game (max %d), %.2f%% of moves captured, %d games/s", games, getNorthWinRate() * 100,
+                getSouthWinRate() * 100, rate(ties) * 100, rate(unfinished) * 100, getAverageLength(), maxPlies,
+                getCaptureRate() * 100, getGamesPerSecond());
+    }
+}
@@ -7,17 +7,32 @@ package com.backbase.kalah.util;
 public interface Constants {
 
     /**
-     * Max no. of stones
+     * No. of stones per pit of the standard variant, see {@link com.backbase.kalah.engine.Variant}
      */
     int MAX_STONES = 6;
 
     /**
-     * Max no. of pits
+     * No. of pits per player of the standard variant
      */
     int MAX_PITS = 6;
 
     /**
-     * Min stones to win the game
+     * Min stones to win the game of the standard variant
      */
     int MIN_STONES_TO_WIN = 37;
+
+    /**
+     * Max no. of moves in a batch
+     */
+    int MAX_MOVES_PER_BATCH = 1000;
+
+    /**
+     * Max no. of boards created in a batch
+     */
+    int MAX_BOARDS_PER_BATCH = 10_000;
+
+    /**
+     * Max no. of searches of a computer move, when the board is moved by others during each search
+     */
+    int MAX_COMPUTER_MOVE_ATTEMPTS = 3;
 }
@@ -3,8 +3,8 @@ package com.backbase.kalah.validator;
 import org.springframework.validation.Errors;
 import org.springframework.validation.Validator;
 
+import com.backbase.kalah.engine.Variant;
 import com.backbase.kalah.model.Pit;
-import com.backbase.kalah.util.Constants;
 
 /**
  * Validator class for Pit
@@ -20,9 +20,9 @@ public class PitValidator implements Validator {
     public void validate(Object target, Errors errors) {
         Pit pit = (Pit) target;
 
-        // validate Pit id
-        if (pit.getId() < 1 || pit.getId() > Constants.MAX_PITS) {
-            errors.rejectValue("id", "id.Invalid", "Pit id should be between 1 to 6");
+        // validate Pit id, against the no. of pits of the board's variant when the move is played
+        if (pit.getId() < 1 || pit.getId() > Variant.MAX_PITS) {
+            errors.rejectValue("id", "id.Invalid", "Pit id should be between 1 to " + Variant.MAX_PITS);
         }
     }
 }
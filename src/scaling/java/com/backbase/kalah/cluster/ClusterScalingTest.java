@@ -0,0 +1,143 @@
+package com.backbase.kalah.cluster;
+
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.backbase.kalah.Application;
+import com.backbase.kalah.cluster.ClusterTest.Response;
+import com.fasterxml.jackson.databind.JsonNode;
+
+/**
+ * Scaling test of clustered mode, run with: mvn -Pscaling verify
+ * Clusters of 1, 2 and 4 nodes are started in this JVM. The capacity of each node is bounded by its threads, each
+ * waiting for the flush of the journal after a move, the way a node is bounded by its own host. So moves per second
+ * grow with nodes as long as routing spreads boards over the nodes and costs little, whatever the no. of cores.
+ * Clients send every request to a random node, as behind a load balancer, and follow redirects to the owner.
+ * Created by tojagrut
+ */
+public class ClusterScalingTest {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ClusterScalingTest.class);
+    private static final int[] SIZES = {1, 2, 4};
+    private static final int CLIENTS_PER_NODE = 8;
+    private static final long DURATION_NANOS = TimeUnit.SECONDS.toNanos(3);
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final List<ConfigurableApplicationContext> nodes = new ArrayList<>();
+
+    @After
+    public void tearDown() {
+        stopNodes();
+    }
+
+    @Test
+    public void testThroughputScalesWithNodes() throws Exception {
+        double[] throughput = new double[SIZES.length];
+        for (int index = 0; index < SIZES.length; index++) {
+            List<String> urls = ClusterTest.urls(SIZES[index]);
+            for (int node = 0; node < urls.size(); node++) {
+                // redirects do not hold a thread of the node sent to while the owner answers
+                nodes.add(SpringApplication.run(Application.class, ClusterTest.nodeArgs(urls, node,
+                        "--kalah.cluster.routing=redirect", "--kalah.journal.enabled=true", "--kalah.journal.sync-commit=true",
+                        "--kalah.journal.flush-interval-millis=20", "--kalah.journal.segment-size-bytes=1048576",
+                        "--kalah.journal.directory=" + folder.newFolder().getPath(), "--server.tomcat.max-threads=2",
+                        "--logging.level." + ClusterScalingTest.class.getName() + "=INFO")));
+            }
+            throughput[index] = measureMoves(urls);
+            stopNodes();
+        }
+        for (int index = 1; index < SIZES.length; index++) {
+            double speedup = throughput[index] / throughput[index - 1];
+            LOGGER.info("{} to {} nodes: {} to {} moves per second, speedup {}", SIZES[index - 1], SIZES[index],
+                    (long) throughput[index - 1], (long) throughput[index], String.format("%.2f", speedup));
+            assertTrue("Doubling nodes should scale throughput, speedup from " + SIZES[index - 1] + " to " + SIZES[index]
+                    + " nodes - " + speedup, speedup > 1.5);
+        }
+    }
+
+    private double measureMoves(List<String> urls) throws Exception {
+        int clients = CLIENTS_PER_NODE * urls.size();
+        ExecutorService executor = Executors.newFixedThreadPool(clients);
+        LongAdder moves = new LongAdder();
+        LongAdder redirects = new LongAdder();
+        long start = System.nanoTime();
+        long end = start + DURATION_NANOS;
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int client = 0; client < clients; client++) {
+                futures.add(executor.submit(() -> {
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    while (System.nanoTime() < end) {
+                        JsonNode board = send(urls.get(random.nextInt(urls.size())), "POST", "/kalah", null, redirects);
+                        String path = "/kalah/" + board.get("id").asText();
+                        int pit;
+                        while ((pit = legalPit(board)) > 0 && System.nanoTime() < end) {
+                            board = send(urls.get(random.nextInt(urls.size())), "PUT", path, "{\"id\":" + pit + "}", redirects);
+                            moves.increment();
+                        }
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        }
+        finally {
+            executor.shutdownNow();
+        }
+        double throughput = moves.sum() * 1e9 / (System.nanoTime() - start);
+        LOGGER.info("{} nodes played {} moves per second, {} of {} moves redirected to the owner", urls.size(),
+                (long) throughput, redirects.sum(), moves.sum());
+        return throughput;
+    }
+
+    private static JsonNode send(String url, String method, String path, String body, LongAdder redirects) throws Exception {
+        Response response = ClusterTest.send(method, url + path, body, null);
+        if (response.status == 307) {
+            redirects.increment();
+            response = ClusterTest.send(method, response.location, body, null);
+        }
+        if (response.status >= 300) {
+            throw new IllegalStateException(method + " " + path + " answered " + response.status);
+        }
+        return response.json();
+    }
+
+    private static int legalPit(JsonNode board) {
+        if (board.hasNonNull("winner")) {
+            return 0;
+        }
+        JsonNode pits = board.get("nextTurn").asText().equals("North") ? board.get("north").get("pits") : board.get("south").get("pits");
+        for (JsonNode pit : pits) {
+            if (pit.get("stones").asInt() > 0) {
+                return pit.get("id").asInt();
+            }
+        }
+        return 0;
+    }
+
+    private void stopNodes() {
+        nodes.forEach(ConfigurableApplicationContext::close);
+        nodes.clear();
+    }
+}
@@ -0,0 +1,166 @@
+package com.backbase.kalah.ai;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.After;
+import org.junit.Test;
+
+import com.backbase.kalah.engine.GameState;
+import com.backbase.kalah.engine.KalahEngine;
+import com.backbase.kalah.util.Constants;
+
+/**
+ * Test class for {@link AlphaBetaSearch}
+ * Created by tojagrut
+ */
+public class AlphaBetaSearchTest {
+
+    private static final long NO_LIMIT = 60_000L;
+
+    private final ForkJoinPool serialPool = new ForkJoinPool(1);
+    private final ForkJoinPool parallelPool = new ForkJoinPool(4);
+
+    @After
+    public void tearDown() {
+        serialPool.shutdownNow();
+        parallelPool.shutdownNow();
+    }
+
+    @Test
+    public void testScoreMatchesMinimax() {
+        Random random = new Random(7L);
+        for (int position = 0; position < 20; position++) {
+            GameState state = randomPosition(random, random.nextInt(20));
+            for (int depth = 1; depth <= 4; depth++) {
+                SearchResult result = new AlphaBetaSearch(new TranspositionTable(16), serialPool).search(state, depth, NO_LIMIT);
+                assertEquals("Invalid score at depth " + depth, minimax(state, depth), result.getScore());
+                assertEquals("Invalid depth", depth, result.getDepth());
+            }
+        }
+    }
+
+    @Test
+    public void testParallelSearchSolvesEndgame() {
+        // north pits and kalah, south pits and kalah, 72 stones in all
+        GameState state = GameState.of(1L, new int[] {0, 0, 1, 2, 1, 0, 33, 1, 0, 2, 0, 1, 0, 31}, GameState.NORTH, GameState.NONE, 0);
+        SearchResult result = new AlphaBetaSearch(new TranspositionTable(16), parallelPool).search(state, AlphaBetaSearch.MAX_DEPTH, NO_LIMIT);
+        assertEquals("Invalid solved score", minimax(state, Integer.MAX_VALUE), result.getScore());
+        assertTrue("Endgame should be proven", Math.abs(result.getScore()) >= AlphaBetaSearch.WIN || result.getDepth() == AlphaBetaSearch.MAX_DEPTH);
+    }
+
+    @Test
+    public void testTakesWinningMove() {
+        GameState state = GameState.of(1L, new int[] {0, 0, 3, 0, 0, 1, 36, 4, 4, 4, 4, 4, 4, 12}, GameState.NORTH, GameState.NONE, 0);
+        SearchResult result = new AlphaBetaSearch(new TranspositionTable(16), parallelPool).search(state, 10, NO_LIMIT);
+        assertEquals("Winning pit should be played", 6, result.getPit());
+        assertTrue("Win should be scored", result.getScore() >= AlphaBetaSearch.WIN);
+    }
+
+    @Test
+    public void testSearchStopsAtTimeBudget() {
+        GameState state = GameState.newGame(1L);
+        long start = System.nanoTime();
+        SearchResult result = new AlphaBetaSearch(new TranspositionTable(16), parallelPool).search(state, AlphaBetaSearch.MAX_DEPTH, 50L);
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+        assertTrue("Search should stop at time budget, took " + elapsedMillis + " millis", elapsedMillis < 2000);
+        assertTrue("First iteration should be completed", result.getDepth() >= 1);
+        assertTrue("Nodes should be counted", result.getNodes() > 0 && result.getNodesPerSecond() > 0);
+        assertTrue("Legal pit should be played", KalahEngine.isLegal(state, result.getPit()));
+    }
+
+    @Test
+    public void testSearchDoesNotChangeState() {
+        GameState state = randomPosition(new Random(3L), 10);
+        GameState before = state.copy();
+        new AlphaBetaSearch(new TranspositionTable(16), parallelPool).search(state, 8, NO_LIMIT);
+        assertArrayEquals("State should not change", stones(before), stones(state));
+        assertEquals("Invalid player for next turn", before.getNextTurn(), state.getNextTurn());
+    }
+
+    @Test
+    public void testNoStonesLeftForPlayer() {
+        // pit 6 gives north an extra turn without stones, south collects its pits into 51 stones, unfinished by the engine
+        GameState state = GameState.of(1L, new int[] {0, 0, 0, 0, 0, 1, 20, 4, 4, 4, 4, 4, 4, 27}, GameState.NORTH, GameState.NONE, 0);
+        GameState child = state.copy();
+        KalahEngine.play(child, 6);
+        assertEquals("Position should be left without moves", 0, KalahEngine.legalMoves(child));
+        SearchResult result = new AlphaBetaSearch(new TranspositionTable(16), serialPool).search(state, 4, NO_LIMIT);
+        assertEquals("Lost game should be scored by final kalahs", -AlphaBetaSearch.WIN - 30, result.getScore());
+        assertEquals("Invalid score against minimax", minimax(state, 4), result.getScore());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testSearchFinishedGame() {
+        GameState state = GameState.of(1L, new int[14], GameState.NONE, GameState.TIE, 0);
+        new AlphaBetaSearch(new TranspositionTable(16), serialPool).search(state, 4, NO_LIMIT);
+    }
+
+    private static GameState randomPosition(Random random, int moves) {
+        GameState state = GameState.newGame(1L);
+        for (int move = 0; move < moves; move++) {
+            GameState next = state.copy();
+            int pit = random.nextInt(Constants.MAX_PITS) + 1;
+            if (KalahEngine.isLegal(next, pit)) {
+                KalahEngine.play(next, pit);
+                if (next.isFinished()) {
+                    break;
+                }
+                state = next;
+            }
+        }
+        return state;
+    }
+
+    /**
+     * Plain minimax without pruning, the reference of search scores
+     */
+    private static int minimax(GameState state, int depth) {
+        int player = state.getNextTurn();
+        int best = Integer.MIN_VALUE;
+        for (int pit = 1; pit <= Constants.MAX_PITS; pit++) {
+            if (!KalahEngine.isLegal(state, pit)) {
+                continue;
+            }
+            GameState child = state.copy();
+            KalahEngine.play(child, pit);
+            int score;
+            if (child.isFinished()) {
+                score = kalahDifference(child, player) + (child.getWinner() == player ? AlphaBetaSearch.WIN
+                        : child.getWinner() == GameState.TIE ? 0 : -AlphaBetaSearch.WIN);
+            }
+            else if (depth <= 1) {
+                score = kalahDifference(child, player);
+            }
+            else {
+                score = child.getNextTurn() == player ? minimax(child, depth - 1) : -minimax(child, depth - 1);
+            }
+            best = Math.max(best, score);
+        }
+        if (best == Integer.MIN_VALUE) {
+            // no stones to play, stones left in pits go to their side
+            int difference = kalahDifference(state, player);
+            for (int pit = 1; pit <= Constants.MAX_PITS; pit++) {
+                difference += state.getStones(GameState.pitIndex(player, pit)) - state.getStones(GameState.pitIndex(1 - player, pit));
+            }
+            return difference + Integer.signum(difference) * AlphaBetaSearch.WIN;
+        }
+        return best;
+    }
+
+    private static int kalahDifference(GameState state, int player) {
+        return state.getStones(GameState.kalahIndex(player)) - state.getStones(GameState.kalahIndex(1 - player));
+    }
+
+    private static int[] stones(GameState state) {
+        int[] stones = new int[state.length()];
+        for (int index = 0; index < stones.length; index++) {
+            stones[index] = state.getStones(index);
+        }
+        return stones;
+    }
+}
@@ -0,0 +1,156 @@
+package com.backbase.kalah.ai;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.backbase.kalah.engine.GameState;
+import com.backbase.kalah.engine.KalahEngine;
+import com.backbase.kalah.util.Constants;
+
+/**
+ * Test class for {@link EndgameDatabase} and {@link EndgameGenerator}
+ * Created by tojagrut
+ */
+public class EndgameDatabaseTest {
+
+    private static final int MAX_STONES = 6;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private EndgameDatabase database;
+
+    @Before
+    public void setup() throws IOException {
+        Path file = folder.getRoot().toPath().resolve("endgame.db");
+        EndgameGenerator generator = new EndgameGenerator(MAX_STONES);
+        generator.generate();
+        generator.write(file);
+        database = EndgameDatabase.open(file);
+    }
+
+    @Test
+    public void testIndexIsDense() {
+        EndgameIndex index = new EndgameIndex(4);
+        Set<Long> indexes = new HashSet<>();
+        int[] pits = new int[EndgameIndex.PITS];
+        for (int stones = 0; stones <= 4; stones++) {
+            for (long rank = 0; rank < index.count(stones); rank++) {
+                index.position(stones, rank, pits);
+                long position = index.index(pits, stones);
+                assertEquals("Invalid index of position", position, index.index(toState(pits, 0, 0, GameState.NORTH), stones));
+                indexes.add(position);
+            }
+        }
+        assertEquals("Indexes should be unique", index.size(), indexes.size());
+        assertEquals("Indexes should be dense", index.size() - 1, (long) indexes.stream().max(Long::compare).get());
+    }
+
+    @Test
+    public void testFinalDifferenceMatchesSolve() {
+        Random random = new Random(11L);
+        for (int position = 0; position < 500; position++) {
+            int[] pits = randomPits(random, random.nextInt(MAX_STONES - 1) + 2);
+            GameState state = toState(pits, random.nextInt(30), random.nextInt(30), random.nextInt(2));
+            assertEquals("Invalid final difference", solve(state), database.finalDifference(state));
+        }
+    }
+
+    @Test
+    public void testBestPitIsPerfect() {
+        Random random = new Random(13L);
+        for (int position = 0; position < 200; position++) {
+            GameState state = toState(randomPits(random, random.nextInt(MAX_STONES - 1) + 2), 0, 0, random.nextInt(2));
+            int pit = database.bestPit(state);
+            GameState child = EndgameDatabase.pitsOnly(state);
+            int player = child.getNextTurn();
+            KalahEngine.play(child, pit);
+            int difference = EndgameDatabase.stones(child) == 0 ? kalahDifference(child, player)
+                    : child.getNextTurn() == player ? solve(child) : -solve(child);
+            assertEquals("Best pit should keep the final difference", solve(state), difference);
+        }
+    }
+
+    @Test
+    public void testSearchLooksUpCoveredPosition() {
+        GameState state = toState(new int[] {0, 0, 0, 1, 2, 0, 1, 0, 1, 0, 0, 1}, 30, 36, GameState.SOUTH);
+        SearchResult result = new AlphaBetaSearch(new TranspositionTable(8), new ForkJoinPool(1), database).search(state, 10, 1000L);
+        assertEquals("Covered position should not be searched", 0, result.getDepth());
+        assertEquals("Invalid pit", database.bestPit(state), result.getPit());
+    }
+
+    @Test
+    public void testSearchWithEndgameAgreesOnOutcome() {
+        GameState state = toState(new int[] {1, 0, 2, 0, 1, 1, 0, 2, 0, 1, 0, 1}, 32, 31, GameState.NORTH);
+        ForkJoinPool pool = new ForkJoinPool(2);
+        SearchResult searched = new AlphaBetaSearch(new TranspositionTable(12), pool).search(state, 40, 10_000L);
+        SearchResult lookedUp = new AlphaBetaSearch(new TranspositionTable(12), pool, database).search(state, 40, 10_000L);
+        pool.shutdownNow();
+        assertEquals("Outcome should be the same", Integer.signum(searched.getScore()), Integer.signum(lookedUp.getScore()));
+    }
+
+    @Test(expected = IOException.class)
+    public void testOpenOtherFile() throws IOException {
+        Path file = folder.newFile("other.db").toPath();
+        Files.write(file, new byte[64]);
+        EndgameDatabase.open(file);
+    }
+
+    /**
+     * Exhaustive solve, the reference of the table
+     */
+    private static int solve(GameState state) {
+        GameState pits = EndgameDatabase.pitsOnly(state);
+        int best = Integer.MIN_VALUE;
+        for (int pit = 1; pit <= Constants.MAX_PITS; pit++) {
+            if (KalahEngine.isLegal(pits, pit)) {
+                GameState child = pits.copy();
+                KalahEngine.play(child, pit);
+                // solve of the child counts the stones the move put in kalahs
+                int difference = EndgameDatabase.stones(child) == 0 ? kalahDifference(child, GameState.NORTH)
+                        : child.getNextTurn() == GameState.NORTH ? solve(child) : -solve(child);
+                best = Math.max(best, difference);
+            }
+        }
+        return best + kalahDifference(state, state.getNextTurn());
+    }
+
+    private static int kalahDifference(GameState state, int player) {
+        return state.getStones(GameState.kalahIndex(player)) - state.getStones(GameState.kalahIndex(1 - player));
+    }
+
+    private static int[] randomPits(Random random, int stones) {
+        int[] pits = new int[EndgameIndex.PITS];
+        // a game having no stones on either side is finished
+        pits[random.nextInt(Constants.MAX_PITS)]++;
+        pits[Constants.MAX_PITS + random.nextInt(Constants.MAX_PITS)]++;
+        for (int stone = 2; stone < stones; stone++) {
+            pits[random.nextInt(pits.length)]++;
+        }
+        return pits;
+    }
+
+    private static GameState toState(int[] pits, int northKalah, int southKalah, int nextTurn) {
+        int[] packed = new int[Constants.MAX_PITS * 2 + 2];
+        for (int pit = 1; pit <= Constants.MAX_PITS; pit++) {
+            // pits are given for the player having next turn first
+            packed[GameState.pitIndex(nextTurn, pit)] = pits[pit - 1];
+            packed[GameState.pitIndex(1 - nextTurn, pit)] = pits[Constants.MAX_PITS + pit - 1];
+        }
+        packed[GameState.kalahIndex(GameState.NORTH)] = northKalah;
+        packed[GameState.kalahIndex(GameState.SOUTH)] = southKalah;
+        return GameState.of(1L, packed, nextTurn, GameState.NONE, 0);
+    }
+}
@@ -0,0 +1,104 @@
+package com.backbase.kalah.ai;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.After;
+import org.junit.Test;
+
+import com.backbase.kalah.engine.GameState;
+import com.backbase.kalah.engine.KalahEngine;
+import com.backbase.kalah.util.Constants;
+
+/**
+ * Test class for {@link Perft}, the counts from the start of the game pin down the rules of {@link KalahEngine}
+ * Created by tojagrut
+ */
+public class PerftTest {
+
+    private static final long[] OPENING_COUNTS = {1L, 6L, 35L, 190L, 1056L, 5882L, 32243L, 177804L, 961846L};
+
+    private final ForkJoinPool pool = new ForkJoinPool(2);
+
+    @After
+    public void tearDown() {
+        pool.shutdownNow();
+    }
+
+    @Test
+    public void testOpeningCounts() {
+        Perft perft = new Perft(pool, 0);
+        for (int depth = 0; depth < OPENING_COUNTS.length; depth++) {
+            assertEquals("Invalid count at depth " + depth, OPENING_COUNTS[depth], perft.count(GameState.newGame(1L), depth));
+        }
+    }
+
+    @Test
+    public void testCachedCountsAreSame() {
+        Perft perft = new Perft(pool, 12);
+        for (int depth = 0; depth < OPENING_COUNTS.length; depth++) {
+            assertEquals("Invalid count at depth " + depth, OPENING_COUNTS[depth], perft.count(GameState.newGame(1L), depth));
+        }
+    }
+
+    @Test
+    public void testCountMatchesMoveByMove() {
+        GameState state = midgame();
+        assertEquals("Invalid count", count(state, 7), new Perft(pool, 10).count(state, 7));
+    }
+
+    @Test
+    public void testFinishedGamesAreNotCounted() {
+        int[] pits = new int[Constants.MAX_PITS * 2 + 2];
+        pits[GameState.pitIndex(GameState.NORTH, 6)] = 1;
+        pits[GameState.pitIndex(GameState.SOUTH, 1)] = 1;
+        pits[GameState.kalahIndex(GameState.NORTH)] = 36;
+        pits[GameState.kalahIndex(GameState.SOUTH)] = 34;
+        GameState state = GameState.of(1L, pits, GameState.NORTH, GameState.NONE, 0);
+        Perft perft = new Perft(pool, 0);
+        assertEquals("Winning move is a sequence of its own", 1L, perft.count(state, 1));
+        assertEquals("Game is finished after the only move", 0L, perft.count(state, 2));
+    }
+
+    @Test
+    public void testCountDoesNotChangeState() {
+        GameState state = midgame();
+        GameState before = state.copy();
+        new Perft(pool, 0).count(state, 6);
+        for (int index = 0; index < state.length(); index++) {
+            assertEquals("State should not be changed", before.getStones(index), state.getStones(index));
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidDepth() {
+        new Perft(pool, 0).count(GameState.newGame(1L), Perft.MAX_DEPTH + 1);
+    }
+
+    /**
+     * Plain recursive count, the reference of the counter
+     */
+    private static long count(GameState state, int depth) {
+        if (depth == 0) {
+            return 1L;
+        }
+        long total = 0L;
+        for (int pit = 1; pit <= Constants.MAX_PITS; pit++) {
+            if (KalahEngine.isLegal(state, pit)) {
+                GameState child = state.copy();
+                KalahEngine.play(child, pit);
+                total += count(child, depth - 1);
+            }
+        }
+        return total;
+    }
+
+    private static GameState midgame() {
+        GameState state = GameState.newGame(1L);
+        for (int pit : new int[] {3, 6, 1, 4, 2, 5}) {
+            KalahEngine.play(state, pit);
+        }
+        return state;
+    }
+}
@@ -0,0 +1,54 @@
+package com.backbase.kalah.ai;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+
+import org.junit.Test;
+
+import com.backbase.kalah.engine.GameState;
+import com.backbase.kalah.engine.KalahEngine;
+
+/**
+ * Test class for {@link TranspositionTable}
+ * Created by tojagrut
+ */
+public class TranspositionTableTest {
+
+    @Test
+    public void testStoreAndProbe() {
+        TranspositionTable table = new TranspositionTable(8);
+        long key = TranspositionTable.hash(GameState.newGame(1L));
+        table.store(key, -1005, 12, TranspositionTable.UPPER, 4);
+        long entry = table.probe(key);
+        assertEquals("Invalid score", -1005, TranspositionTable.score(entry));
+        assertEquals("Invalid depth", 12, TranspositionTable.depth(entry));
+        assertEquals("Invalid bound", TranspositionTable.UPPER, TranspositionTable.bound(entry));
+        assertEquals("Invalid pit", 4, TranspositionTable.pit(entry));
+    }
+
+    @Test
+    public void testProbeOtherPosition() {
+        TranspositionTable table = new TranspositionTable(1);
+        GameState state = GameState.newGame(1L);
+        long key = TranspositionTable.hash(state);
+        table.store(key, 3, 2, TranspositionTable.EXACT, 1);
+        KalahEngine.play(state, 1);
+        assertEquals("Other position should not be found", TranspositionTable.MISS, table.probe(TranspositionTable.hash(state)));
+    }
+
+    @Test
+    public void testDeeperEntryIsKept() {
+        TranspositionTable table = new TranspositionTable(8);
+        long key = TranspositionTable.hash(GameState.newGame(1L));
+        table.store(key, 7, 10, TranspositionTable.EXACT, 2);
+        table.store(key, 1, 3, TranspositionTable.EXACT, 5);
+        assertEquals("Deeper entry should be kept", 10, TranspositionTable.depth(table.probe(key)));
+    }
+
+    @Test
+    public void testHashIncludesNextTurn() {
+        GameState north = GameState.of(1L, new int[14], GameState.NORTH, GameState.NONE, 0);
+        GameState south = GameState.of(2L, new int[14], GameState.SOUTH, GameState.NONE, 0);
+        assertNotEquals("Hash should differ by player", TranspositionTable.hash(north), TranspositionTable.hash(south));
+    }
+}
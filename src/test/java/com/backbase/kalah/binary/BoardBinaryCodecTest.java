@@ -0,0 +1,104 @@
+package com.backbase.kalah.binary;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Base64;
+
+import org.junit.Test;
+
+import com.backbase.kalah.engine.GameState;
+import com.backbase.kalah.engine.KalahEngine;
+import com.backbase.kalah.engine.Variant;
+import com.backbase.kalah.id.BoardIds;
+import com.backbase.kalah.json.BoardJsonWriter;
+
+/**
+ * Test class for {@link BoardBinaryCodec}
+ * Created by tojagrut
+ */
+public class BoardBinaryCodecTest {
+
+    private static final long ID = 0x0123456789ABCDEFL;
+
+    @Test
+    public void testStandardBoardLayout() throws Exception {
+        GameState state = GameState.newGame(ID);
+        KalahEngine.play(state, 2);
+        byte[] bytes = BoardBinaryCodec.write(state);
+        assertEquals("Standard board should be a header and 14 pits", BoardBinaryCodec.HEADER_LENGTH + 14, bytes.length);
+        assertEquals("Invalid format version", BoardBinaryCodec.FORMAT_VERSION, bytes[0]);
+        assertEquals("Invalid variant", Variant.STANDARD.getId(), bytes[1]);
+        assertEquals("Invalid next turn", state.getNextTurn(), bytes[2]);
+        assertEquals("Invalid winner", (byte) 0xFF, bytes[3]);
+        assertEquals("Invalid version", 1, ByteBuffer.wrap(bytes, 4, 4).getInt());
+        assertEquals("Invalid board id", ID, ByteBuffer.wrap(bytes, 8, 8).getLong());
+        for (int index = 0; index < state.length(); index++) {
+            assertEquals("Invalid stones of pit " + index, state.getStones(index), bytes[BoardBinaryCodec.HEADER_LENGTH + index]);
+        }
+    }
+
+    @Test
+    public void testIdIsBase64UrlOfIdBytes() throws Exception {
+        byte[] bytes = BoardBinaryCodec.write(GameState.newGame(ID));
+        byte[] id = new byte[8];
+        System.arraycopy(bytes, 8, id, 0, id.length);
+        assertEquals("Id of urls should be base64url of id bytes", BoardIds.encode(ID),
+                Base64.getUrlEncoder().withoutPadding().encodeToString(id));
+    }
+
+    @Test
+    public void testReadWrittenBoard() throws Exception {
+        for (Variant variant : Variant.values()) {
+            GameState state = GameState.newGame(ID, variant);
+            KalahEngine.play(state, 1);
+            KalahEngine.play(state, 2);
+            GameState result = BoardBinaryCodec.read(BoardBinaryCodec.write(state));
+            assertEquals("Invalid variant", variant, result.getVariant());
+            assertEquals("Invalid board id", ID, result.getBoardId());
+            assertEquals("Invalid next turn", state.getNextTurn(), result.getNextTurn());
+            assertEquals("Invalid winner", state.getWinner(), result.getWinner());
+            assertEquals("Invalid version", state.getVersion(), result.getVersion());
+            assertArrayEquals("Invalid stones", BoardBinaryCodec.write(state), BoardBinaryCodec.write(result));
+        }
+    }
+
+    @Test
+    public void testReadFinishedBoard() throws Exception {
+        int[] pits = new int[Variant.STANDARD.getLength()];
+        pits[GameState.kalahIndex(GameState.NORTH)] = 40;
+        pits[GameState.kalahIndex(GameState.SOUTH)] = 32;
+        GameState state = GameState.of(ID, pits, GameState.NONE, GameState.NORTH, 57);
+        GameState result = BoardBinaryCodec.read(BoardBinaryCodec.write(state));
+        assertEquals("Invalid next turn", GameState.NONE, result.getNextTurn());
+        assertEquals("Invalid winner", GameState.NORTH, result.getWinner());
+        assertEquals("Invalid stones of kalah", 40, result.getStones(GameState.kalahIndex(GameState.NORTH)));
+    }
+
+    @Test
+    public void testBinaryIsSmallerThanJson() throws Exception {
+        GameState state = GameState.newGame(ID);
+        int json = BoardJsonWriter.write(state, "http://localhost:8081/kalah/").length;
+        int binary = BoardBinaryCodec.write(state).length;
+        assertTrue("Binary board should be a small fraction of JSON, " + binary + " vs " + json + " bytes", binary * 10 < json);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testReadTruncatedBoard() throws Exception {
+        byte[] bytes = BoardBinaryCodec.write(GameState.newGame(ID));
+        BoardBinaryCodec.read(Arrays.copyOf(bytes, bytes.length - 1));
+    }
+
+    @Test
+    public void testReadPit() throws Exception {
+        assertEquals("Invalid pit", 6, BoardBinaryCodec.readPit(new byte[] {6}));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testReadEmptyPit() throws Exception {
+        BoardBinaryCodec.readPit(new byte[0]);
+    }
+}
@@ -0,0 +1,200 @@
+package com.backbase.kalah.cluster;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.ServerSocket;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Test;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.util.StreamUtils;
+
+import com.backbase.kalah.Application;
+import com.backbase.kalah.id.BoardIds;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Test class for clustered mode, nodes are started in this JVM on localhost ports
+ * Created by tojagrut
+ */
+public class ClusterTest {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final List<ConfigurableApplicationContext> nodes = new ArrayList<>();
+
+    @After
+    public void tearDown() throws Exception {
+        stopNodes();
+    }
+
+    @Test
+    public void testRequestIsForwardedToOwner() throws Exception {
+        List<String> urls = urls(2);
+        startNode(urls, 0, "--kalah.cluster.routing=forward");
+        startNode(urls, 1, "--kalah.cluster.routing=forward");
+
+        Response created = send("POST", urls.get(1) + "/kalah", null, null);
+        assertEquals("Board should be created", 201, created.status);
+        String id = created.json().get("id").asText();
+        assertEquals("Board should be linked at its owner", urls.get(1) + "/kalah/" + id,
+                created.json().get("_links").get("self").get("href").asText());
+
+        Response played = send("PUT", urls.get(0) + "/kalah/" + id, "{\"id\":1}", null);
+        assertEquals("Move sent to other node should be forwarded", 200, played.status);
+        assertEquals("Invalid ETag of forwarded move", "\"1\"", played.etag);
+        assertEquals("Vary of owner should be passed back", "Accept", played.vary);
+        assertEquals("Invalid next turn after forwarded move", "North", played.json().get("nextTurn").asText());
+
+        Response retrieved = send("GET", urls.get(1) + "/kalah/" + id, null, null);
+        assertEquals("Move should be applied on the owner", 0, retrieved.json().get("north").get("pits").get(0).get("stones").asInt());
+
+        Response notModified = send("GET", urls.get(0) + "/kalah/" + id, null, "\"1\"");
+        assertEquals("Conditional request should be forwarded", 304, notModified.status);
+
+        Response invalid = send("PUT", urls.get(0) + "/kalah/" + id, "{\"id\":20}", null);
+        assertEquals("Error of owner should be passed back", 400, invalid.status);
+    }
+
+    @Test
+    public void testMissingBoardIsAnsweredByOwner() throws Exception {
+        List<String> urls = urls(2);
+        startNode(urls, 0, "--kalah.cluster.routing=forward");
+        startNode(urls, 1, "--kalah.cluster.routing=forward");
+        HashRing ring = new HashRing(urls, 160);
+        long id = 1;
+        while (ring.ownerIndex(id) != 1) {
+            id++;
+        }
+        Response missing = send("GET", urls.get(0) + "/kalah/" + BoardIds.encode(id), null, null);
+        assertEquals("Missing board should be answered by its owner", 404, missing.status);
+    }
+
+    @Test
+    public void testClientIsRedirectedToOwner() throws Exception {
+        List<String> urls = urls(2);
+        startNode(urls, 0, "--kalah.cluster.routing=redirect");
+        startNode(urls, 1, "--kalah.cluster.routing=forward");
+
+        String id = send("POST", urls.get(1) + "/kalah", null, null).json().get("id").asText();
+        Response redirected = send("PUT", urls.get(0) + "/kalah/" + id, "{\"id\":1}", null);
+        assertEquals("Move sent to other node should be redirected", 307, redirected.status);
+        assertEquals("Invalid location of redirect", urls.get(1) + "/kalah/" + id, redirected.location);
+
+        String other = send("POST", urls.get(0) + "/kalah", null, null).json().get("id").asText();
+        Response events = send("GET", urls.get(1) + "/kalah/" + other + "/events", null, null);
+        assertEquals("Event stream should be redirected in forward routing", 307, events.status);
+        assertEquals("Invalid location of redirect", urls.get(0) + "/kalah/" + other + "/events", events.location);
+    }
+
+    /**
+     * Urls of localhost on free ports
+     * @param size no. of urls
+     * @return urls
+     */
+    static List<String> urls(int size) throws IOException {
+        List<ServerSocket> sockets = new ArrayList<>();
+        List<String> urls = new ArrayList<>();
+        try {
+            // all ports are held until all are chosen, so that no port is chosen twice
+            for (int index = 0; index < size; index++) {
+                ServerSocket socket = new ServerSocket(0);
+                sockets.add(socket);
+                urls.add("http://localhost:" + socket.getLocalPort());
+            }
+        }
+        finally {
+            for (ServerSocket socket : sockets) {
+                socket.close();
+            }
+        }
+        return urls;
+    }
+
+    private void startNode(List<String> urls, int index, String... properties) {
+        nodes.add(SpringApplication.run(Application.class, nodeArgs(urls, index, properties)));
+    }
+
+    /**
+     * Arguments of a node of the cluster
+     * @param urls urls of all nodes
+     * @param index index of the node
+     * @param properties further properties
+     * @return arguments
+     */
+    static String[] nodeArgs(List<String> urls, int index, String... properties) {
+        String url = urls.get(index);
+        List<String> args = new ArrayList<>(Arrays.asList("--server.port=" + url.substring(url.lastIndexOf(':') + 1),
+                "--kalah.cluster.enabled=true", "--kalah.cluster.self=" + url, "--kalah.cluster.nodes=" + String.join(",", urls),
+                "--spring.jmx.enabled=false", "--kalah.pool.size=100", "--kalah.ai.table-size-bits=10",
+                "--logging.level.com.backbase=WARN"));
+        args.addAll(Arrays.asList(properties));
+        return args.toArray(new String[0]);
+    }
+
+    private void stopNodes() {
+        nodes.forEach(ConfigurableApplicationContext::close);
+        nodes.clear();
+    }
+
+    /**
+     * Sends a request without following redirects
+     * @param method method
+     * @param url url
+     * @param body JSON body, none when null
+     * @param ifNoneMatch If-None-Match header, none when null
+     * @return Response
+     */
+    static Response send(String method, String url, String body, String ifNoneMatch) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL(url).openConnection();
+        connection.setRequestMethod(method);
+        connection.setInstanceFollowRedirects(false);
+        connection.setRequestProperty("Accept", "application/json");
+        if (ifNoneMatch != null) {
+            connection.setRequestProperty("If-None-Match", ifNoneMatch);
+        }
+        if (body != null) {
+            connection.setDoOutput(true);
+            connection.setRequestProperty("Content-Type", "application/json");
+            try (OutputStream output = connection.getOutputStream()) {
+                output.write(body.getBytes(StandardCharsets.UTF_8));
+            }
+        }
+        Response response = new Response();
+        response.status = connection.getResponseCode();
+        response.etag = connection.getHeaderField("ETag");
+        response.location = connection.getHeaderField("Location");
+        response.vary = connection.getHeaderField("Vary");
+        if (response.status == 307 || response.status == 304) {
+            connection.disconnect();
+            return response;
+        }
+        try (InputStream input = response.status >= 400 ? connection.getErrorStream() : connection.getInputStream()) {
+            response.body = input != null ? StreamUtils.copyToString(input, StandardCharsets.UTF_8) : "";
+        }
+        return response;
+    }
+
+    static final class Response {
+        int status;
+        String etag;
+        String location;
+        String vary;
+        String body;
+
+        JsonNode json() throws IOException {
+            return MAPPER.readTree(body);
+        }
+    }
+}
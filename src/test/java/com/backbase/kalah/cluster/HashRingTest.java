@@ -0,0 +1,106 @@
+package com.backbase.kalah.cluster;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import org.junit.Test;
+
+/**
+ * Test class for {@link HashRing}
+ * Created by tojagrut
+ */
+public class HashRingTest {
+
+    private static final List<String> NODES = Arrays.asList("http://localhost:8081", "http://localhost:8082",
+            "http://localhost:8083", "http://localhost:8084");
+    private static final int IDS = 100_000;
+
+    @Test
+    public void testBoardsAreSpreadEvenly() throws Exception {
+        HashRing ring = new HashRing(NODES, 160);
+        int[] counts = new int[NODES.size()];
+        SplittableRandom random = new SplittableRandom(42);
+        for (int index = 0; index < IDS; index++) {
+            counts[ring.ownerIndex(random.nextLong())]++;
+        }
+        for (int count : counts) {
+            double share = count / (double) IDS;
+            assertTrue("Share of a node should be close to a quarter - " + share, share > 0.20 && share < 0.30);
+        }
+    }
+
+    @Test
+    public void testSequentialIdsAreSpreadEvenly() throws Exception {
+        HashRing ring = new HashRing(NODES, 160);
+        int[] counts = new int[NODES.size()];
+        for (int index = 0; index < IDS; index++) {
+            counts[ring.ownerIndex(index)]++;
+        }
+        for (int count : counts) {
+            double share = count / (double) IDS;
+            assertTrue("Share of a node should be close to a quarter - " + share, share > 0.20 && share < 0.30);
+        }
+    }
+
+    @Test
+    public void testAddingNodeOnlyMovesBoardsToIt() throws Exception {
+        HashRing ring = new HashRing(NODES, 160);
+        String added = "http://localhost:8085";
+        HashRing grown = new HashRing(concat(NODES, added), 160);
+        int moved = 0;
+        SplittableRandom random = new SplittableRandom(42);
+        for (int index = 0; index < IDS; index++) {
+            long id = random.nextLong();
+            String before = ring.owner(id);
+            String after = grown.owner(id);
+            if (!before.equals(after)) {
+                assertEquals("Boards should only move to the added node", added, after);
+                moved++;
+            }
+        }
+        double share = moved / (double) IDS;
+        assertTrue("About a fifth of boards should move - " + share, share > 0.15 && share < 0.25);
+    }
+
+    @Test
+    public void testOrderOfNodesDoesNotMatter() throws Exception {
+        List<String> reversed = new ArrayList<>(NODES);
+        Collections.reverse(reversed);
+        HashRing ring = new HashRing(NODES, 160);
+        HashRing other = new HashRing(reversed, 160);
+        SplittableRandom random = new SplittableRandom(42);
+        for (int index = 0; index < 1000; index++) {
+            long id = random.nextLong();
+            assertEquals("Owner should not depend on order of nodes", ring.owner(id), other.owner(id));
+        }
+    }
+
+    @Test
+    public void testSingleNodeOwnsAll() throws Exception {
+        HashRing ring = new HashRing(Collections.singletonList("http://localhost:8081"), 1);
+        assertEquals("Single node should own all boards", 0, ring.ownerIndex(Long.MAX_VALUE));
+        assertEquals("Single node should own all boards", 0, ring.ownerIndex(Long.MIN_VALUE));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testDuplicateNodes() throws Exception {
+        new HashRing(Arrays.asList("http://localhost:8081", "http://localhost:8081"), 160);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNoNodes() throws Exception {
+        new HashRing(Collections.emptyList(), 160);
+    }
+
+    private static List<String> concat(List<String> nodes, String node) {
+        List<String> result = new ArrayList<>(nodes);
+        result.add(node);
+        return result;
+    }
+}
@@ -0,0 +1,120 @@
+package com.backbase.kalah.controller;
+
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import com.backbase.kalah.engine.GameState;
+import com.backbase.kalah.exception.BoardNotFoundException;
+import com.backbase.kalah.id.BoardIds;
+import com.backbase.kalah.json.GameStateMessageConverter;
+import com.backbase.kalah.service.KalahService;
+
+/**
+ * Test class for {@link AsyncKalahController}
+ * Created by tojagrut
+ */
+public class AsyncKalahControllerTest {
+
+    private static final String BOARD_ID = BoardIds.encode(1L);
+
+    private KalahService kalahService;
+
+    private AsyncKalahController controller;
+
+    private GameState state;
+
+    @Before
+    public void setup() {
+        state = GameState.newGame(1L);
+        kalahService = mock(KalahService.class);
+        controller = new AsyncKalahController();
+        ReflectionTestUtils.setField(controller, "kalahService", kalahService);
+        ReflectionTestUtils.setField(controller, "kalahExecutor", (Executor) Runnable::run);
+    }
+
+    @Test
+    public void testInitializeRequest() throws Exception {
+        when(kalahService.createBoard(null)).thenReturn(state);
+        perform(post("/kalah"))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.id").value(BOARD_ID))
+                .andExpect(jsonPath("$._links.self.href").value("http://localhost/kalah/" + BOARD_ID));
+    }
+
+    @Test
+    public void testRetrieveRequestHasVersion() throws Exception {
+        when(kalahService.retrieveBoard(BOARD_ID)).thenReturn(state);
+        perform(get("/kalah/{id}", BOARD_ID))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"0\""));
+    }
+
+    @Test
+    public void testPlayRequestCompletesOnCommit() throws Exception {
+        CompletableFuture<GameState> committed = new CompletableFuture<>();
+        when(kalahService.playAsync(any(String.class), anyInt())).thenReturn(committed);
+        MvcResult result = mockMvc().perform(put("/kalah/{id}", BOARD_ID).contentType(MediaType.APPLICATION_JSON).content("{\"id\": 1}"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        committed.complete(GameState.of(1L, new int[14], GameState.SOUTH, GameState.NONE, 1));
+        mockMvc().perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"1\""));
+    }
+
+    @Test
+    public void testRetrieveRequestNotFound() throws Exception {
+        when(kalahService.retrieveBoard(BOARD_ID)).thenThrow(new BoardNotFoundException("board not found"));
+        perform(get("/kalah/{id}", BOARD_ID))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    public void testRequestRejectedWhenBusy() throws Exception {
+        ReflectionTestUtils.setField(controller, "kalahExecutor", (Executor) runnable -> {
+            throw new RejectedExecutionException("busy");
+        });
+        mockMvc().perform(get("/kalah/{id}", BOARD_ID))
+                .andExpect(status().isServiceUnavailable());
+    }
+
+    private ResultActions perform(RequestBuilder requestBuilder) throws Exception {
+        MvcResult result = mockMvc().perform(requestBuilder)
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        return mockMvc().perform(asyncDispatch(result));
+    }
+
+    private MockMvc mockMvc() {
+        return MockMvcBuilders.standaloneSetup(controller)
+                .setMessageConverters(new GameStateMessageConverter(), new MappingJackson2HttpMessageConverter())
+                .setControllerAdvice(new KalahExceptionHandler())
+                .build();
+    }
+}
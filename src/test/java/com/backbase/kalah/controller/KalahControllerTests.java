@@ -15,9 +15,26 @@
  */
 package com.backbase.kalah.controller;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
 import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
 
 import org.junit.Before;
 import org.junit.Test;
@@ -25,12 +42,34 @@ import org.junit.runner.RunWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.runners.MockitoJUnitRunner;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.StringHttpMessageConverter;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
 import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 import org.springframework.web.context.request.RequestContextHolder;
 import org.springframework.web.context.request.ServletRequestAttributes;
 
+import com.backbase.kalah.binary.BoardBinaryCodec;
+import com.backbase.kalah.binary.GameStateBinaryConverter;
+import com.backbase.kalah.binary.PitBinaryConverter;
+import com.backbase.kalah.engine.GameState;
+import com.backbase.kalah.engine.KalahEngine;
+import com.backbase.kalah.engine.Variant;
+import com.backbase.kalah.event.BoardEvents;
+import com.backbase.kalah.exception.BoardConflictException;
 import com.backbase.kalah.exception.BoardNotFoundException;
+import com.backbase.kalah.json.GameStateMessageConverter;
 import com.backbase.kalah.model.Board;
+import com.backbase.kalah.model.ComputerMove;
+import com.backbase.kalah.model.EndgameResult;
+import com.backbase.kalah.model.GameHistory;
+import com.backbase.kalah.model.LegalMoves;
+import com.backbase.kalah.model.MoveBatch;
+import com.backbase.kalah.model.PerftResult;
 import com.backbase.kalah.model.Pit;
 import com.backbase.kalah.service.KalahService;
 
@@ -50,39 +89,294 @@ public class KalahControllerTests {
 
     private Board board;
 
+    private GameState state;
+
     @Before
     public void setup() {
         board = new Board();
+        state = GameState.fromBoard(board);
         request = new MockHttpServletRequest();
         ServletRequestAttributes requestAttributes = new ServletRequestAttributes(request);
         RequestContextHolder.setRequestAttributes(requestAttributes);
 
-        when(kalahService.createBoard()).thenReturn(board);
-        when(kalahService.retrieveBoard(any(String.class))).thenReturn(board);
-        when(kalahService.play(any(String.class), any(int.class))).thenReturn(board);
+        when(kalahService.createBoard(null)).thenReturn(state);
+        when(kalahService.retrieveBoard(any(String.class))).thenReturn(state);
+        when(kalahService.play(any(String.class), any(int.class))).thenReturn(state);
+        when(kalahService.playAll(any(String.class), any(int[].class))).thenReturn(new MoveBatch(board, Collections.emptyList()));
     }
 
     @Test
     public void testInitialize() throws Exception {
-        Board result = kalahController.initialize();
+        GameState result = kalahController.initialize(null);
         assertNotNull("Invalid board", result);
     }
 
+    @Test
+    public void testInitializeAll() throws Exception {
+        when(kalahService.createBoards(2, null)).thenReturn(Arrays.asList(board, new Board()));
+        List<Board> result = kalahController.initializeAll(2, null);
+        assertEquals("Invalid no. of boards", 2, result.size());
+    }
+
     @Test
     public void testRetrieve() throws Exception {
-        Board result = kalahController.retrieve(board.getBoardId());
+        GameState result = kalahController.retrieve(board.getBoardId(), null).getBody();
         assertNotNull("Invalid board", result);
     }
 
     @Test(expected = BoardNotFoundException.class)
     public void testRetrieveWithException() throws Exception {
         when(kalahService.retrieveBoard("abc1234")).thenThrow(new BoardNotFoundException("board not found"));
-        kalahController.retrieve("abc1234");
+        kalahController.retrieve("abc1234", null);
+    }
+
+    @Test
+    public void testRetrieveRequestNotFound() throws Exception {
+        when(kalahService.retrieveBoard("abc1234")).thenThrow(new BoardNotFoundException("board not found"));
+        mockMvc().perform(get("/kalah/{id}", "abc1234"))
+                .andExpect(status().isNotFound());
     }
 
     @Test
     public void testPlay() throws Exception {
-        Board result = kalahController.play(board.getBoardId(), new Pit(1,1));
+        GameState result = kalahController.play(board.getBoardId(), new Pit(1,1), null).getBody();
         assertNotNull("Invalid board", result);
     }
+
+    @Test
+    public void testPlayAll() throws Exception {
+        MoveBatch result = kalahController.playAll(board.getBoardId(), new int[] {1, 2});
+        assertNotNull("Invalid board", result.getBoard());
+    }
+
+    @Test
+    public void testPlayComputerRequest() throws Exception {
+        when(kalahService.playComputer(board.getBoardId(), 6, 500L)).thenReturn(new ComputerMove(board, 3, "North"));
+        mockMvc()
+                .perform(put("/kalah/{id}/ai-move", board.getBoardId()).param("depth", "6").param("timeMillis", "500"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.pit").value(3))
+                .andExpect(jsonPath("$.board._links.self.href").value("http://localhost/kalah/" + board.getBoardId()));
+    }
+
+    @Test
+    public void testPlayComputerRequestConflict() throws Exception {
+        when(kalahService.playComputer(board.getBoardId(), null, null)).thenThrow(new BoardConflictException("Board was moved"));
+        mockMvc().perform(put("/kalah/{id}/ai-move", board.getBoardId()))
+                .andExpect(status().isConflict());
+    }
+
+    @Test
+    public void testInitializeVariantRequest() throws Exception {
+        when(kalahService.createBoard(Variant.valueOf("4x3"))).thenReturn(GameState.newGame(1L, Variant.valueOf("4x3")));
+        mockMvc()
+                .perform(post("/kalah").param("variant", "4x3"))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.variant").value("4x3"))
+                .andExpect(jsonPath("$.north.pits.length()").value(4));
+    }
+
+    @Test
+    public void testInitializeUnknownVariantRequest() throws Exception {
+        mockMvc()
+                .perform(post("/kalah").param("variant", "5x5"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void testLookupEndgameRequest() throws Exception {
+        EndgameResult result = new EndgameResult("South", 4, 3);
+        result.setOutcome(EndgameResult.Outcome.WIN);
+        when(kalahService.lookupEndgame(board.getBoardId())).thenReturn(result);
+        mockMvc()
+                .perform(get("/kalah/{id}/endgame", board.getBoardId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.pit").value(4))
+                .andExpect(jsonPath("$.outcome").value("WIN"));
+    }
+
+    @Test
+    public void testLegalMovesRequest() throws Exception {
+        when(kalahService.legalMoves(board.getBoardId())).thenReturn(new LegalMoves("North", new int[] {2, 5}));
+        mockMvc()
+                .perform(get("/kalah/{id}/moves", board.getBoardId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.player").value("North"))
+                .andExpect(jsonPath("$.pits[1]").value(5));
+    }
+
+    @Test
+    public void testPerftRequest() throws Exception {
+        when(kalahService.perft(board.getBoardId(), 4)).thenReturn(new PerftResult(4, 1056L));
+        mockMvc()
+                .perform(get("/kalah/{id}/perft", board.getBoardId()).param("depth", "4"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.sequences").value(1056));
+    }
+
+    @Test
+    public void testHistoryRequest() throws Exception {
+        when(kalahService.history(board.getBoardId())).thenReturn(new GameHistory(0, 2, new int[] {1, 4}));
+        mockMvc()
+                .perform(get("/kalah/{id}/history", board.getBoardId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.lastPly").value(2))
+                .andExpect(jsonPath("$.pits[1]").value(4));
+    }
+
+    @Test
+    public void testReplayRequest() throws Exception {
+        GameState state = GameState.fromBoard(board);
+        KalahEngine.play(state, 1);
+        when(kalahService.replay(board.getBoardId(), 1)).thenReturn(state);
+        mockMvc()
+                .perform(get("/kalah/{id}/history/{ply}", board.getBoardId(), 1))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.north.kalah.stones").value(1))
+                .andExpect(jsonPath("$.north.pits[0].stones").value(0));
+    }
+
+    @Test
+    public void testPlayAllRequest() throws Exception {
+        mockMvc()
+                .perform(put("/kalah/{id}/moves", board.getBoardId()).contentType(MediaType.APPLICATION_JSON).content("[1, 2]"))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    public void testRetrieveRequestHasLinks() throws Exception {
+        String boardUri = "http://localhost/kalah/" + board.getBoardId();
+        mockMvc()
+                .perform(get("/kalah/{id}", board.getBoardId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").value(board.getBoardId()))
+                .andExpect(jsonPath("$._links.play.href").value(boardUri))
+                .andExpect(jsonPath("$._links.self.href").value(boardUri));
+    }
+
+    @Test
+    public void testPlayAllRequestHasLinks() throws Exception {
+        mockMvc()
+                .perform(put("/kalah/{id}/moves", board.getBoardId()).contentType(MediaType.APPLICATION_JSON).content("[1, 2]"))
+                .andExpect(jsonPath("$.board._links.self.href").value("http://localhost/kalah/" + board.getBoardId()));
+    }
+
+    @Test
+    public void testRetrieveRequestHasVersion() throws Exception {
+        mockMvc().perform(get("/kalah/{id}", board.getBoardId()))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"0\""))
+                .andExpect(header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT));
+    }
+
+    @Test
+    public void testRetrieveRequestNotModified() throws Exception {
+        mockMvc().perform(get("/kalah/{id}", board.getBoardId()).header(HttpHeaders.IF_NONE_MATCH, "\"0\""))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+    }
+
+    @Test
+    public void testRetrieveRequestBinaryNotMatchedByJsonVersion() throws Exception {
+        mockMvc().perform(get("/kalah/{id}", board.getBoardId()).accept(BoardBinaryCodec.BOARD).header(HttpHeaders.IF_NONE_MATCH, "\"0\""))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(BoardBinaryCodec.BOARD))
+                .andExpect(header().string(HttpHeaders.ETAG, "\"0-b\""));
+        mockMvc().perform(get("/kalah/{id}", board.getBoardId()).accept(BoardBinaryCodec.BOARD).header(HttpHeaders.IF_NONE_MATCH, "\"0-b\""))
+                .andExpect(status().isNotModified());
+        mockMvc().perform(get("/kalah/{id}", board.getBoardId()).header(HttpHeaders.IF_NONE_MATCH, "\"0-b\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"0\""));
+    }
+
+    @Test
+    public void testAcceptsBinary() {
+        assertFalse("Missing Accept should select JSON", KalahController.acceptsBinary(null));
+        assertFalse("Wildcard should select JSON", KalahController.acceptsBinary("*/*"));
+        assertTrue("Binary board should be selected", KalahController.acceptsBinary("application/vnd.kalah.board"));
+        assertTrue("First of equal types should be selected", KalahController.acceptsBinary("application/vnd.kalah.board, application/json"));
+        assertFalse("Type of higher quality should be selected", KalahController.acceptsBinary("application/vnd.kalah.board;q=0.5, application/json"));
+    }
+
+    @Test
+    public void testRetrieveRequestModified() throws Exception {
+        when(kalahService.retrieveBoard(any(String.class))).thenReturn(GameState.of(1L, new int[14], GameState.SOUTH, GameState.NONE, 3));
+        mockMvc().perform(get("/kalah/{id}", board.getBoardId()).header(HttpHeaders.IF_NONE_MATCH, "\"2\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"3\""))
+                .andExpect(jsonPath("$.nextTurn").value("South"));
+    }
+
+    @Test
+    public void testRetrieveRequestBinary() throws Exception {
+        GameState played = state.copy();
+        KalahEngine.play(played, 2);
+        when(kalahService.retrieveBoard(any(String.class))).thenReturn(played);
+        byte[] bytes = mockMvc().perform(get("/kalah/{id}", board.getBoardId()).accept(BoardBinaryCodec.BOARD))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(BoardBinaryCodec.BOARD))
+                .andExpect(header().string(HttpHeaders.ETAG, "\"1-b\""))
+                .andExpect(header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT))
+                .andReturn().getResponse().getContentAsByteArray();
+        assertEquals("Invalid length of binary board", 30, bytes.length);
+        GameState result = BoardBinaryCodec.read(bytes);
+        for (int index = 0; index < played.length(); index++) {
+            assertEquals("Invalid stones of binary board", played.getStones(index), result.getStones(index));
+        }
+        assertEquals("Invalid next turn of binary board", played.getNextTurn(), result.getNextTurn());
+    }
+
+    @Test
+    public void testRetrieveRequestDefaultsToJson() throws Exception {
+        mockMvc().perform(get("/kalah/{id}", board.getBoardId()).accept(MediaType.ALL))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON));
+    }
+
+    @Test
+    public void testPlayRequestBinary() throws Exception {
+        mockMvc().perform(put("/kalah/{id}", board.getBoardId()).contentType(BoardBinaryCodec.PIT).content(new byte[] {3})
+                .accept(BoardBinaryCodec.BOARD))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(BoardBinaryCodec.BOARD));
+        verify(kalahService).play(board.getBoardId(), 3);
+    }
+
+    @Test
+    public void testPlayRequestBinaryInvalid() throws Exception {
+        mockMvc().perform(put("/kalah/{id}", board.getBoardId()).contentType(BoardBinaryCodec.PIT).content(new byte[] {3, 4}))
+                .andExpect(status().isBadRequest());
+        mockMvc().perform(put("/kalah/{id}", board.getBoardId()).contentType(BoardBinaryCodec.PIT).content(new byte[] {9}))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void testSubscribeRequest() throws Exception {
+        BoardEvents boardEvents = new BoardEvents();
+        when(kalahService.subscribe(board.getBoardId())).thenAnswer(invocation -> boardEvents.subscribe(state.getBoardId(), () -> Optional.of(state)).get());
+        MvcResult result = mockMvc().perform(get("/kalah/{id}/events", board.getBoardId()))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        assertEquals("Invalid no. of subscribers", 1, boardEvents.getSubscribers());
+
+        GameState next = state.copy();
+        KalahEngine.play(next, 1);
+        boardEvents.publish(next);
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!result.getResponse().getContentAsString().contains("id:1") && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        String events = result.getResponse().getContentAsString();
+        assertTrue("Current board should be sent", events.startsWith("id:0\nevent:board\ndata:{\"id\":\"" + board.getBoardId()));
+        assertTrue("Board after move should be sent", events.contains("id:1\nevent:board\ndata:{\"id\":\"" + board.getBoardId()));
+        boardEvents.stop();
+    }
+
+    private MockMvc mockMvc() {
+        return MockMvcBuilders.standaloneSetup(kalahController)
+                .setMessageConverters(new GameStateMessageConverter(), new GameStateBinaryConverter(), new PitBinaryConverter(),
+                        new StringHttpMessageConverter(), new MappingJackson2HttpMessageConverter())
+                .setControllerAdvice(new KalahExceptionHandler())
+                .build();
+    }
 }
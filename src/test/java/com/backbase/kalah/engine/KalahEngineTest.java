@@ -0,0 +1,192 @@
+package com.backbase.kalah.engine;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.util.Arrays;
+
+import org.junit.Test;
+
+import com.backbase.kalah.id.BoardIds;
+import com.backbase.kalah.model.Board;
+
+/**
+ * Test class for {@link KalahEngine}
+ * Created by tojagrut
+ */
+public class KalahEngineTest {
+
+    @Test
+    public void testPlay() {
+        GameState state = GameState.newGame(1L);
+        int outcome = KalahEngine.play(state, 2);
+        assertEquals("Invalid outcome", 0, outcome);
+        assertEquals("Invalid no. of stones in selected pit", 0, state.getStones(GameState.pitIndex(GameState.NORTH, 2)));
+        assertEquals("Invalid no. of stones in kalah", 1, state.getStones(GameState.kalahIndex(GameState.NORTH)));
+        assertEquals("Invalid no. of stones in opponent's first pit", 7, state.getStones(GameState.pitIndex(GameState.SOUTH, 1)));
+        assertEquals("Invalid player for next turn", GameState.SOUTH, state.getNextTurn());
+    }
+
+    @Test
+    public void testPlayForSouth() {
+        GameState state = GameState.newGame(1L);
+        KalahEngine.play(state, 2);
+        int outcome = KalahEngine.play(state, 1);
+        assertEquals("Invalid outcome", 0, outcome);
+        assertEquals("Invalid no. of stones in kalah", 1, state.getStones(GameState.kalahIndex(GameState.SOUTH)));
+        assertEquals("Invalid no. of stones in opponent's first pit", 7, state.getStones(GameState.pitIndex(GameState.NORTH, 1)));
+        assertEquals("Invalid player for next turn", GameState.NORTH, state.getNextTurn());
+    }
+
+    @Test
+    public void testLegalMoves() {
+        Board board = new Board();
+        board.getNorth().getPits().get(0).setStones(0);
+        board.getNorth().getPits().get(3).setStones(0);
+        GameState state = GameState.fromBoard(board);
+        assertEquals("Invalid legal moves", (1 << 2) | (1 << 3) | (1 << 5) | (1 << 6), KalahEngine.legalMoves(state));
+        for (int pit = 1; pit <= 6; pit++) {
+            assertEquals("Legal moves should agree with isLegal", KalahEngine.isLegal(state, pit), (KalahEngine.legalMoves(state) & (1 << pit)) != 0);
+        }
+    }
+
+    @Test
+    public void testLegalMovesWhenFinished() {
+        Board board = new Board();
+        board.setWinner("North");
+        assertEquals("Finished game should have no legal moves", 0, KalahEngine.legalMoves(GameState.fromBoard(board)));
+    }
+
+    @Test
+    public void testPlayWithCapture() {
+        Board board = new Board();
+        board.getNorth().getPits().get(0).setStones(1);
+        board.getNorth().getPits().get(1).setStones(0);
+        GameState state = GameState.fromBoard(board);
+        int outcome = KalahEngine.play(state, 1);
+        assertEquals("Invalid outcome", KalahEngine.CAPTURE, outcome);
+        assertEquals("Invalid no. of stones in kalah", 7, state.getStones(GameState.kalahIndex(GameState.NORTH)));
+        assertEquals("Invalid no. of stones in opponent's opposite pit", 0, state.getStones(GameState.pitIndex(GameState.SOUTH, 5)));
+    }
+
+    @Test
+    public void testPlayWithFullLap() {
+        Board board = new Board();
+        board.getNorth().getPits().get(0).setStones(15);
+        GameState state = GameState.fromBoard(board);
+        KalahEngine.play(state, 1);
+        // stone sown back in selected pit is removed along with the pit as before
+        assertEquals("Invalid no. of stones in selected pit", 0, state.getStones(GameState.pitIndex(GameState.NORTH, 1)));
+        assertEquals("Invalid no. of stones in second pit", 8, state.getStones(GameState.pitIndex(GameState.NORTH, 2)));
+        assertEquals("Invalid no. of stones in fourth pit", 7, state.getStones(GameState.pitIndex(GameState.NORTH, 4)));
+        assertEquals("Invalid no. of stones in kalah", 1, state.getStones(GameState.kalahIndex(GameState.NORTH)));
+        assertEquals("Invalid no. of stones in opponent's pit", 7, state.getStones(GameState.pitIndex(GameState.SOUTH, 6)));
+    }
+
+    @Test
+    public void testSowWithLargeStones() {
+        for (int current = GameState.NORTH; current <= GameState.SOUTH; current++) {
+            for (int pit = 1; pit <= 6; pit++) {
+                for (int stones = 0; stones <= 500; stones++) {
+                    int[] pits = new int[14];
+                    Arrays.fill(pits, 3);
+                    pits[GameState.pitIndex(current, pit)] = stones;
+                    int[] expected = pits.clone();
+                    int expectedLastPosition = sowStoneByStone(expected, 6, current, pit);
+
+                    assertEquals("Invalid last pit for " + stones + " stones in pit " + pit, expectedLastPosition, KalahEngine.sow(Variant.STANDARD, pits, current, pit));
+                    assertArrayEquals("Invalid pits for " + stones + " stones in pit " + pit, expected, pits);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testSowOfVariants() {
+        for (Variant variant : Variant.values()) {
+            for (int current = GameState.NORTH; current <= GameState.SOUTH; current++) {
+                for (int pit = 1; pit <= variant.getPits(); pit++) {
+                    for (int stones = 0; stones <= 60; stones++) {
+                        int[] pits = new int[variant.getLength()];
+                        Arrays.fill(pits, 2);
+                        pits[variant.pitIndex(current, pit)] = stones;
+                        int[] expected = pits.clone();
+                        int expectedLastPosition = sowStoneByStone(expected, variant.getPits(), current, pit);
+
+                        assertEquals("Invalid last pit of " + variant + " for " + stones + " stones in pit " + pit, expectedLastPosition, KalahEngine.sow(variant, pits, current, pit));
+                        assertArrayEquals("Invalid pits of " + variant + " for " + stones + " stones in pit " + pit, expected, pits);
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testPlayOfVariantWithCapture() {
+        Variant variant = Variant.valueOf("4x3");
+        // last stone lands in empty fourth pit, opposite of the first pit of south
+        GameState state = GameState.of(1L, variant, new int[] {3, 0, 0, 0, 0, 3, 3, 3, 3, 0}, GameState.NORTH, GameState.NONE, 0);
+        int outcome = KalahEngine.play(state, 1);
+        assertEquals("Invalid outcome", KalahEngine.CAPTURE, outcome);
+        assertEquals("Invalid no. of stones in kalah", 4, state.getStones(variant.kalahIndex(GameState.NORTH)));
+        assertEquals("Invalid no. of stones in opponent's opposite pit", 0, state.getStones(variant.pitIndex(GameState.SOUTH, 1)));
+        assertEquals("Invalid player for next turn", GameState.SOUTH, state.getNextTurn());
+    }
+
+    @Test
+    public void testPlayOfVariantWithWinner() {
+        Variant variant = Variant.valueOf("4x3");
+        GameState state = GameState.of(1L, variant, new int[] {0, 0, 0, 1, 12, 1, 0, 0, 0, 10}, GameState.NORTH, GameState.NONE, 0);
+        int outcome = KalahEngine.play(state, 4);
+        assertEquals("Invalid outcome", KalahEngine.WIN | KalahEngine.COLLECTED, outcome);
+        assertEquals("Invalid winner", GameState.NORTH, state.getWinner());
+    }
+
+    @Test
+    public void testPlayOfVariantWithTie() {
+        Variant variant = Variant.valueOf("8x3");
+        int[] pits = new int[variant.getLength()];
+        pits[variant.pitIndex(GameState.NORTH, 8)] = 1;
+        pits[variant.kalahIndex(GameState.NORTH)] = 23;
+        pits[variant.pitIndex(GameState.SOUTH, 1)] = 1;
+        pits[variant.kalahIndex(GameState.SOUTH)] = 23;
+        GameState state = GameState.of(1L, variant, pits, GameState.NORTH, GameState.NONE, 0);
+        int outcome = KalahEngine.play(state, 8);
+        assertEquals("Invalid outcome", KalahEngine.TIE | KalahEngine.COLLECTED, outcome);
+        assertEquals("Invalid winner", GameState.TIE, state.getWinner());
+    }
+
+    @Test
+    public void testToBoardOfVariant() {
+        Board board = GameState.newGame(1L, Variant.valueOf("8x4")).toBoard();
+        assertEquals("Invalid variant", "8x4", board.getVariant());
+        assertEquals("Invalid no. of pits", 8, board.getNorth().getPits().size());
+        assertEquals("Invalid no. of stones in pit", 4, board.getSouth().getPits().get(7).getStones());
+        GameState state = GameState.fromBoard(board);
+        assertEquals("Variant should be packed", Variant.valueOf("8x4"), state.getVariant());
+    }
+
+    @Test
+    public void testToBoard() {
+        Board board = GameState.newGame(1L).toBoard();
+        assertEquals("Invalid board id", BoardIds.encode(1L), board.getBoardId());
+        assertEquals("Invalid player name for next turn", "North", board.getNextTurn());
+        assertEquals("Invalid no. of stones in pit", 6, board.getSouth().getPits().get(5).getStones());
+    }
+
+    private int sowStoneByStone(int[] pits, int pitCount, int current, int pit) {
+        // sow ring of current player i.e. own pits, own kalah and pits of opponent
+        int[] ring = new int[pitCount * 2 + 1];
+        for (int position = 0; position < ring.length; position++) {
+            ring[position] = (current * (pitCount + 1) + position) % (pitCount * 2 + 2);
+        }
+        int stonesToSow = pits[ring[pit - 1]];
+        int position = pit - 1;
+        for (int stone = 1; stone <= stonesToSow; stone++) {
+            position = (position + 1) % ring.length;
+            pits[ring[position]]++;
+        }
+        pits[ring[pit - 1]] = 0;
+        return position;
+    }
+}
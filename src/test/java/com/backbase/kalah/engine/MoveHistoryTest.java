@@ -0,0 +1,124 @@
+package com.backbase.kalah.engine;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * Test class for {@link MoveHistory}
+ * Created by tojagrut
+ */
+public class MoveHistoryTest {
+
+    @Test
+    public void testReplayEveryPly() {
+        Random random = new Random(17L);
+        for (Variant variant : Variant.values()) {
+            GameState state = GameState.newGame(1L, variant);
+            MoveHistory history = new MoveHistory(state, 8, 1024);
+            List<GameState> plies = playRandomGame(state, history, random);
+            assertEquals("Invalid last ply", plies.size() - 1, history.getLastPly());
+            for (int ply = 0; ply < plies.size(); ply++) {
+                assertState(plies.get(ply), history.replay(ply));
+            }
+        }
+    }
+
+    @Test
+    public void testPitOfPly() {
+        GameState state = GameState.newGame(1L, Variant.STANDARD);
+        MoveHistory history = new MoveHistory(state, 4, 64);
+        KalahEngine.play(state, 1);
+        history.record(1, state);
+        KalahEngine.play(state, 6);
+        history.record(6, state);
+        assertEquals("Invalid pit of first move", 1, history.pit(1));
+        assertEquals("Invalid pit of second move", 6, history.pit(2));
+    }
+
+    @Test
+    public void testOldestMovesAreDropped() {
+        Random random = new Random(19L);
+        GameState state = GameState.newGame(1L, Variant.STANDARD);
+        MoveHistory history = new MoveHistory(state, 4, 16);
+        List<GameState> plies = playRandomGame(state, history, random);
+        int lastPly = plies.size() - 1;
+        assertTrue("Game should be longer than history", lastPly > 16);
+        assertTrue("Too many moves kept", history.getLastPly() - history.getFirstPly() <= 16);
+        assertEquals("Invalid last ply", lastPly, history.getLastPly());
+        assertEquals("Dropped plies should be whole intervals", 0, history.getFirstPly() % 4);
+        for (int ply = history.getFirstPly(); ply <= lastPly; ply++) {
+            assertState(plies.get(ply), history.replay(ply));
+        }
+    }
+
+    @Test
+    public void testSizeIsBounded() {
+        GameState state = GameState.newGame(1L, Variant.STANDARD);
+        MoveHistory history = new MoveHistory(state, 64, 1024);
+        GameState after = state.copy();
+        int size = 0;
+        for (int move = 0; move < 10_000; move++) {
+            // moves are recorded as given, history does not check them
+            history.record(move % 6 + 1, after);
+            if (move == 2048) {
+                size = history.sizeInBytes();
+            }
+        }
+        assertEquals("Invalid last ply", 10_000, history.getLastPly());
+        assertEquals("History should not grow once full", size, history.sizeInBytes());
+        // 4 bits per move and a checkpoint of a few bytes per 64 moves
+        assertTrue("History should be compact, size " + size, size < 2048);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testReplayDroppedPly() {
+        GameState state = GameState.newGame(1L, Variant.STANDARD);
+        MoveHistory history = new MoveHistory(state, 2, 2);
+        for (int move = 0; move < 4; move++) {
+            history.record(1, state);
+        }
+        history.replay(1);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testReplayFuturePly() {
+        new MoveHistory(GameState.newGame(1L, Variant.STANDARD), 64, 1024).replay(1);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidCheckpointInterval() {
+        new MoveHistory(GameState.newGame(1L, Variant.STANDARD), 3, 1024);
+    }
+
+    private static List<GameState> playRandomGame(GameState state, MoveHistory history, Random random) {
+        List<GameState> plies = new ArrayList<>();
+        plies.add(state.copy());
+        int moves;
+        while ((moves = KalahEngine.legalMoves(state)) != 0) {
+            int pit;
+            do {
+                pit = random.nextInt(state.getVariant().getPits()) + 1;
+            }
+            while ((moves & 1 << pit) == 0);
+            KalahEngine.play(state, pit);
+            history.record(pit, state);
+            plies.add(state.copy());
+        }
+        return plies;
+    }
+
+    private static void assertState(GameState expected, GameState actual) {
+        assertArrayEquals("Invalid pits at ply " + expected.getVersion(), expected.pits(), actual.pits());
+        assertEquals("Invalid next turn", expected.getNextTurn(), actual.getNextTurn());
+        assertEquals("Invalid winner", expected.getWinner(), actual.getWinner());
+        assertEquals("Invalid version", expected.getVersion(), actual.getVersion());
+        assertEquals("Invalid variant", expected.getVariant(), actual.getVariant());
+    }
+}
@@ -0,0 +1,48 @@
+package com.backbase.kalah.engine;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import org.junit.Test;
+
+/**
+ * Test class for {@link Variant}
+ * Created by tojagrut
+ */
+public class VariantTest {
+
+    @Test
+    public void testStandard() {
+        assertSame("Invalid standard variant", Variant.valueOf("6x6"), Variant.STANDARD);
+        assertEquals("Invalid stones to win", 37, Variant.STANDARD.getStonesToWin());
+        assertEquals("Invalid stones of a tie", 36, Variant.STANDARD.getTieStones());
+        assertEquals("Standard layout should not change", GameState.kalahIndex(GameState.SOUTH), Variant.STANDARD.kalahIndex(GameState.SOUTH));
+    }
+
+    @Test
+    public void testValues() {
+        assertEquals("Invalid no. of variants", 12, Variant.values().size());
+        for (Variant variant : Variant.values()) {
+            assertSame("Invalid variant of id", variant, Variant.byId(variant.getId()));
+            assertSame("Invalid variant of name", variant, Variant.valueOf(variant.getName()));
+        }
+    }
+
+    @Test
+    public void testRules() {
+        Variant variant = Variant.valueOf("8x5");
+        assertEquals("Invalid length", 18, variant.getLength());
+        assertEquals("Invalid stones to win", 41, variant.getStonesToWin());
+        assertEquals("Invalid opposite pit", variant.pitIndex(GameState.SOUTH, 8), variant.opposite(variant.pitIndex(GameState.NORTH, 1)));
+        assertEquals("Invalid opposite pit", variant.pitIndex(GameState.NORTH, 3), variant.opposite(variant.pitIndex(GameState.SOUTH, 6)));
+        // ring of south goes over own kalah and skips the kalah of north
+        assertEquals("Invalid ring", variant.kalahIndex(GameState.SOUTH), variant.ring(GameState.SOUTH)[8]);
+        assertEquals("Invalid ring", variant.pitIndex(GameState.NORTH, 8), variant.ring(GameState.SOUTH)[16]);
+        assertEquals("Invalid ring", variant.pitIndex(GameState.SOUTH, 1), variant.ring(GameState.SOUTH)[17]);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testUnknownVariant() {
+        Variant.valueOf("7x6");
+    }
+}
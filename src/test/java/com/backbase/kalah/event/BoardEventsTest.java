@@ -0,0 +1,121 @@
+package com.backbase.kalah.event;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Supplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.backbase.kalah.engine.GameState;
+import com.backbase.kalah.engine.KalahEngine;
+
+/**
+ * Test class for {@link BoardEvents}
+ * Created by tojagrut
+ */
+public class BoardEventsTest {
+
+    private static final Pattern EVENT_ID = Pattern.compile("^id:(\\d+)$", Pattern.MULTILINE);
+
+    private BoardEvents boardEvents;
+    private List<GameState> states;
+    private Supplier<Optional<GameState>> current;
+
+    @Before
+    public void setup() {
+        boardEvents = new BoardEvents();
+        states = new ArrayList<>();
+        GameState state = GameState.newGame(5L);
+        states.add(state);
+        for (int move = 0; move < 4; move++) {
+            state = state.copy();
+            KalahEngine.play(state, Integer.numberOfTrailingZeros(KalahEngine.legalMoves(state)));
+            states.add(state);
+        }
+        current = () -> Optional.of(states.get(0));
+    }
+
+    @After
+    public void tearDown() {
+        boardEvents.stop();
+    }
+
+    @Test
+    public void testPublishOutOfOrder() throws Exception {
+        MvcResult result = subscribe();
+        boardEvents.publish(states.get(2));
+        boardEvents.publish(states.get(1));
+        awaitVersion(result, 2);
+        boardEvents.publish(states.get(1));
+        boardEvents.publish(states.get(3));
+        awaitVersion(result, 3);
+        assertEquals("Older states should not be sent after newer ones", Arrays.asList(0, 2, 3), versions(result));
+    }
+
+    @Test
+    public void testMoveWhileSubscribing() throws Exception {
+        // a move published after the subscriber is registered and before the board is read
+        current = () -> {
+            boardEvents.publish(states.get(1));
+            return Optional.of(states.get(0));
+        };
+        MvcResult result = subscribe();
+        awaitVersion(result, 1);
+        List<Integer> versions = versions(result);
+        assertEquals("Move while subscribing should be sent last", 1, (int) versions.get(versions.size() - 1));
+        assertEquals("Invalid no. of subscribers", 1, boardEvents.getSubscribers());
+    }
+
+    @Test
+    public void testSubscribeMissingBoard() {
+        assertFalse("Missing board should not be subscribed", boardEvents.subscribe(6L, Optional::empty).isPresent());
+        assertEquals("Invalid no. of subscribers", 0, boardEvents.getSubscribers());
+    }
+
+    private MvcResult subscribe() throws Exception {
+        MockMvc mockMvc = MockMvcBuilders.standaloneSetup(new EventsController()).build();
+        return mockMvc.perform(get("/events")).andExpect(request().asyncStarted()).andReturn();
+    }
+
+    private static void awaitVersion(MvcResult result, int version) throws Exception {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!versions(result).contains(version) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+    }
+
+    private static List<Integer> versions(MvcResult result) throws Exception {
+        List<Integer> versions = new ArrayList<>();
+        Matcher matcher = EVENT_ID.matcher(result.getResponse().getContentAsString());
+        while (matcher.find()) {
+            versions.add(Integer.valueOf(matcher.group(1)));
+        }
+        return versions;
+    }
+
+    @RestController
+    private class EventsController {
+
+        @GetMapping("/events")
+        public SseEmitter subscribe() {
+            return boardEvents.subscribe(5L, current).get();
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package com.backbase.kalah.event;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import org.junit.After;
+import org.junit.Test;
+
+import com.backbase.kalah.config.GameEventProperties;
+import com.backbase.kalah.config.GameEventProperties.Backpressure;
+import com.backbase.kalah.config.StoreProperties;
+import com.backbase.kalah.engine.GameState;
+import com.backbase.kalah.engine.KalahEngine;
+import com.backbase.kalah.engine.Variant;
+import com.backbase.kalah.repository.ResourceStore;
+
+/**
+ * Test class for {@link GameEvents}
+ * Created by tojagrut
+ */
+public class GameEventsTest {
+
+    private GameEvents gameEvents;
+
+    @After
+    public void tearDown() throws InterruptedException {
+        if (gameEvents != null) {
+            gameEvents.stop();
+        }
+    }
+
+    @Test
+    public void testEventsInOrder() throws InterruptedException {
+        List<String> received = Collections.synchronizedList(new ArrayList<>());
+        gameEvents = start(1024, Backpressure.DROP, event -> received.add(event.getType() + " " + event.getBoardId()
+                + " " + event.getPit() + " " + event.getOutcome() + " " + event.getWinner()));
+        GameState state = GameState.newGame(5L, Variant.valueOf("4x3"));
+        gameEvents.created(state);
+        gameEvents.moved(state, 2, KalahEngine.CAPTURE | KalahEngine.EXTRA_TURN);
+        gameEvents.notFound(7L, false);
+        await(() -> received.size() == 4);
+        // a single shard keeps the order of all boards
+        assertEquals("Invalid events", Arrays.asList("BOARD_CREATED 5 0 0 -1", "MOVE_APPLIED 5 2 3 -1",
+                "CAPTURED 5 2 0 -1", "BOARD_NOT_FOUND 7 0 0 -1"), received);
+        assertEquals("Invalid no. of delivered events", 4, gameEvents.getDelivered());
+    }
+
+    @Test
+    public void testGameFinished() throws InterruptedException {
+        List<Integer> winners = Collections.synchronizedList(new ArrayList<>());
+        gameEvents = start(16, Backpressure.DROP, event -> {
+            if (event.getType() == GameEvent.Type.GAME_FINISHED) {
+                winners.add(event.getWinner());
+            }
+        });
+        GameState state = GameState.of(1L, Variant.STANDARD, new int[14], GameState.NONE, GameState.SOUTH, 20);
+        gameEvents.moved(state, 6, KalahEngine.WIN);
+        gameEvents.moved(state, 6, 0);
+        await(() -> gameEvents.getDelivered() == 3);
+        assertEquals("Invalid winners", Collections.singletonList(GameState.SOUTH), winners);
+    }
+
+    @Test
+    public void testVariantAndExpiry() throws InterruptedException {
+        List<String> received = Collections.synchronizedList(new ArrayList<>());
+        gameEvents = start(16, Backpressure.DROP, event -> received.add(event.getType() == GameEvent.Type.BOARD_CREATED
+                ? event.getVariant().getName() : Boolean.toString(event.isExpired())));
+        gameEvents.created(GameState.newGame(1L, Variant.valueOf("8x5")));
+        await(() -> received.size() == 1);
+        gameEvents.notFound(1L, true);
+        await(() -> received.size() == 2);
+        assertEquals("Invalid events", Arrays.asList("8x5", "true"), received);
+    }
+
+    @Test
+    public void testDropWhenFull() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        gameEvents = start(4, Backpressure.DROP, event -> awaitQuietly(release));
+        GameState state = GameState.newGame(1L);
+        for (int event = 0; event < 10; event++) {
+            gameEvents.created(state);
+        }
+        // slots are freed only after the blocked batch is done
+        assertEquals("Invalid no. of dropped events", 6, gameEvents.getDropped());
+        release.countDown();
+        await(() -> gameEvents.getDelivered() == 4);
+        assertEquals("Invalid no. of pending events", 0, gameEvents.getPending());
+    }
+
+    @Test
+    public void testBlockWhenFull() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        gameEvents = start(4, Backpressure.BLOCK, event -> awaitQuietly(release));
+        GameState state = GameState.newGame(1L);
+        Thread producer = new Thread(() -> {
+            for (int event = 0; event < 10; event++) {
+                gameEvents.created(state);
+            }
+        });
+        producer.start();
+        producer.join(200);
+        assertTrue("Producer should wait for free slots", producer.isAlive());
+        release.countDown();
+        producer.join(5000);
+        await(() -> gameEvents.getDelivered() == 10);
+        assertEquals("No event should be dropped", 0, gameEvents.getDropped());
+    }
+
+    @Test
+    public void testFailingListenerDoesNotStopDelivery() throws InterruptedException {
+        List<Long> received = Collections.synchronizedList(new ArrayList<>());
+        GameEventListener failing = event -> {
+            throw new IllegalStateException("failed");
+        };
+        gameEvents = start(16, Backpressure.DROP, failing, event -> received.add(event.getBoardId()));
+        gameEvents.created(GameState.newGame(1L));
+        gameEvents.created(GameState.newGame(2L));
+        await(() -> received.size() == 2);
+        assertEquals("Every event should be delivered", 2, received.size());
+    }
+
+    private static GameEvents start(int ringSize, Backpressure backpressure, GameEventListener... listeners) {
+        StoreProperties storeProperties = new StoreProperties();
+        storeProperties.setConcurrencyLevel(1);
+        GameEventProperties properties = new GameEventProperties();
+        properties.setRingSize(ringSize);
+        properties.setBackpressure(backpressure);
+        GameEvents events = new GameEvents(new ResourceStore(storeProperties), properties, Arrays.asList(listeners));
+        events.start();
+        return events;
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        }
+        catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean() && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+        assertTrue("Condition not met in time", condition.getAsBoolean());
+    }
+}
@@ -0,0 +1,45 @@
+package com.backbase.kalah.id;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+/**
+ * Test class for {@link BoardIds}
+ * Created by tojagrut
+ */
+public class BoardIdsTest {
+
+    @Test
+    public void testEncodeAndDecode() throws Exception {
+        long[] ids = {0L, 1L, -1L, Long.MIN_VALUE, Long.MAX_VALUE, 0x0123456789ABCDEFL};
+        for (long id : ids) {
+            String encoded = BoardIds.encode(id);
+            assertEquals("Invalid length of encoded id", BoardIds.LENGTH, encoded.length());
+            assertTrue("Encoded id should be valid", BoardIds.isValid(encoded));
+            assertEquals("Invalid decoded id", id, BoardIds.decode(encoded));
+        }
+    }
+
+    @Test
+    public void testInvalidIds() throws Exception {
+        assertFalse("Null id should be invalid", BoardIds.isValid(null));
+        assertFalse("Short id should be invalid", BoardIds.isValid("abc1234"));
+        assertFalse("Uuid should be invalid", BoardIds.isValid("0b5e9a4c-3f8e-4a9d-9f53-2b6f0d1c7e21"));
+        assertFalse("Id with invalid character should be invalid", BoardIds.isValid("AAAAAAAAAA+"));
+        // low bits of the last character are not used by encoding
+        assertFalse("Id with unused bits should be invalid", BoardIds.isValid("AAAAAAAAAAB"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testDecodeInvalidId() throws Exception {
+        BoardIds.decode("abc1234");
+    }
+
+    @Test
+    public void testGenerate() throws Exception {
+        assertTrue("Generated id should be valid", BoardIds.isValid(BoardIds.generate()));
+    }
+}
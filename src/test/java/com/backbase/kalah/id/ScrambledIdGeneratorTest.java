@@ -0,0 +1,74 @@
+package com.backbase.kalah.id;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Test;
+
+/**
+ * Test class for {@link ScrambledIdGenerator}
+ * Created by tojagrut
+ */
+public class ScrambledIdGeneratorTest {
+
+    @Test
+    public void testUnscramble() throws Exception {
+        ScrambledIdGenerator generator = new ScrambledIdGenerator(3, 42L);
+        long[] values = {0L, 1L, -1L, Long.MIN_VALUE, 0x0123456789ABCDEFL};
+        for (long value : values) {
+            assertEquals("Unscramble should invert scramble", value, generator.unscramble(generator.scramble(value)));
+        }
+    }
+
+    @Test
+    public void testIdContainsNode() throws Exception {
+        ScrambledIdGenerator generator = new ScrambledIdGenerator(5, 42L);
+        long id = generator.unscramble(generator.nextId());
+        assertEquals("Invalid node of id", 5, (id >>> ScrambledIdGenerator.SEQUENCE_BITS) & ScrambledIdGenerator.MAX_NODE);
+    }
+
+    @Test
+    public void testKeyChangesIds() throws Exception {
+        assertNotEquals("Different keys should scramble differently",
+                new ScrambledIdGenerator(0, 1L).scramble(1L), new ScrambledIdGenerator(0, 2L).scramble(1L));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidNode() throws Exception {
+        new ScrambledIdGenerator(ScrambledIdGenerator.MAX_NODE + 1, 42L);
+    }
+
+    @Test
+    public void testUniqueIdsAcrossThreads() throws Exception {
+        ScrambledIdGenerator generator = new ScrambledIdGenerator(0, 42L);
+        int threads = 4;
+        int idsPerThread = 100_000;
+        Set<Long> ids = ConcurrentHashMap.newKeySet();
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int thread = 0; thread < threads; thread++) {
+                futures.add(executor.submit(() -> {
+                    for (int index = 0; index < idsPerThread; index++) {
+                        ids.add(generator.nextId());
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        }
+        finally {
+            executor.shutdownNow();
+        }
+        assertEquals("Ids should be unique", threads * idsPerThread, ids.size());
+    }
+}
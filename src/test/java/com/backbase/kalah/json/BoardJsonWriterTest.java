@@ -0,0 +1,84 @@
+package com.backbase.kalah.json;
+
+import static org.junit.Assert.assertEquals;
+
+import java.nio.charset.StandardCharsets;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import com.backbase.kalah.controller.BoardLinksWriter;
+import com.backbase.kalah.engine.GameState;
+import com.backbase.kalah.engine.KalahEngine;
+import com.backbase.kalah.engine.Variant;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Test class for {@link BoardJsonWriter}
+ * Created by tojagrut
+ */
+public class BoardJsonWriterTest {
+
+    private ObjectMapper objectMapper;
+
+    @Before
+    public void setup() {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setServerName("kalah.example.com");
+        request.setServerPort(8081);
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+        // same configuration as the application's object mapper
+        objectMapper = new ObjectMapper();
+        objectMapper.setSerializationInclusion(JsonInclude.Include.NON_NULL);
+    }
+
+    @After
+    public void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    public void testNewGame() throws Exception {
+        assertSameAsBean(GameState.newGame(1L));
+    }
+
+    @Test
+    public void testGameInProgress() throws Exception {
+        assertSameAsBean(GameState.of(-7L, new int[] {4, 0, 9, 8, 2, 7, 10, 5, 1, 8, 0, 6, 3, 9}, GameState.SOUTH, GameState.NONE, 12));
+    }
+
+    @Test
+    public void testFinishedGame() throws Exception {
+        assertSameAsBean(GameState.of(Long.MAX_VALUE, new int[] {0, 0, 0, 0, 0, 0, 40, 0, 0, 0, 0, 0, 0, 32}, GameState.NONE, GameState.NORTH, 40));
+        assertSameAsBean(GameState.of(Long.MIN_VALUE, new int[] {0, 0, 0, 0, 0, 0, 36, 0, 0, 0, 0, 0, 0, 36}, GameState.NONE, GameState.TIE, 40));
+    }
+
+    @Test
+    public void testLargeNoOfStones() throws Exception {
+        assertSameAsBean(GameState.of(3L, new int[] {100, 999, 1000, 12345, Integer.MAX_VALUE, 0, 10, 1, 99, 101, 0, 6, 3, 9}, GameState.NORTH, GameState.NONE, 3));
+    }
+
+    @Test
+    public void testVariant() throws Exception {
+        GameState state = GameState.newGame(5L, Variant.valueOf("8x3"));
+        KalahEngine.play(state, 8);
+        assertSameAsBean(state);
+        assertSameAsBean(GameState.of(6L, Variant.valueOf("4x6"), new int[] {0, 0, 0, 0, 30, 0, 0, 0, 0, 18}, GameState.NONE, GameState.NORTH, 30));
+    }
+
+    @Test
+    public void testWithoutRequest() throws Exception {
+        RequestContextHolder.resetRequestAttributes();
+        assertSameAsBean(GameState.newGame(1L));
+    }
+
+    private void assertSameAsBean(GameState state) throws Exception {
+        String expected = objectMapper.writeValueAsString(state.toBoard());
+        assertEquals("Invalid JSON of board", expected, new String(BoardJsonWriter.write(state, BoardLinksWriter.baseUri()), StandardCharsets.UTF_8));
+    }
+}
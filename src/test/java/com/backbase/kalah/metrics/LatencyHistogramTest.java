@@ -0,0 +1,47 @@
+package com.backbase.kalah.metrics;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+/**
+ * Test class for {@link LatencyHistogram}
+ * Created by tojagrut
+ */
+public class LatencyHistogramTest {
+
+    @Test
+    public void testPercentile() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long value = 1; value <= 10_000; value++) {
+            histogram.record(value * 1000);
+        }
+        assertEquals("Invalid count", 10_000, histogram.getCount());
+        assertEquals("Invalid max", 10_000_000, histogram.getMax());
+        assertEquals("Invalid mean", 5_000_500, histogram.getMean(), 0.001);
+        assertWithinPrecision(5_000_000, histogram.getPercentile(0.5));
+        assertWithinPrecision(9_900_000, histogram.getPercentile(0.99));
+        assertWithinPrecision(9_990_000, histogram.getPercentile(0.999));
+        assertEquals("Invalid max percentile", 10_000_000, histogram.getPercentile(1));
+    }
+
+    @Test
+    public void testEmpty() {
+        assertEquals("Invalid percentile", 0, new LatencyHistogram().getPercentile(0.99));
+    }
+
+    @Test
+    public void testBuckets() {
+        for (long value = 0; value < 1_000_000; value += 7) {
+            int index = LatencyHistogram.index(value);
+            assertTrue("Value above its bucket", value <= LatencyHistogram.highestValue(index));
+            assertTrue("Value in lower bucket", index == 0 || value > LatencyHistogram.highestValue(index - 1));
+        }
+        assertTrue("Invalid bucket of max value", LatencyHistogram.highestValue(LatencyHistogram.index(Long.MAX_VALUE)) == Long.MAX_VALUE);
+    }
+
+    private void assertWithinPrecision(long expected, long actual) {
+        assertTrue("Percentile " + actual + " is not close to " + expected, Math.abs(actual - expected) <= expected * 0.07);
+    }
+}
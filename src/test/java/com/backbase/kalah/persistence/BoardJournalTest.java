@@ -0,0 +1,196 @@
+package com.backbase.kalah.persistence;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.backbase.kalah.config.JournalProperties;
+import com.backbase.kalah.engine.GameState;
+import com.backbase.kalah.engine.KalahEngine;
+import com.backbase.kalah.engine.Variant;
+import com.backbase.kalah.id.BoardIds;
+import com.backbase.kalah.repository.ResourceStore;
+
+/**
+ * Test class for {@link BoardJournal}
+ * Created by tojagrut
+ */
+public class BoardJournalTest {
+
+    private static final long FIRST = 1L;
+    private static final long SECOND = 2L;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testRecoverFromJournal() throws Exception {
+        ResourceStore store = new ResourceStore();
+        BoardJournal journal = start(store);
+        create(store, journal, FIRST);
+        create(store, journal, SECOND);
+        play(store, journal, FIRST, 2);
+        play(store, journal, SECOND, 1);
+        play(store, journal, FIRST, 3);
+        journal.stop();
+
+        ResourceStore recovered = new ResourceStore();
+        start(recovered).stop();
+        assertRecovered(store, recovered, FIRST);
+        assertRecovered(store, recovered, SECOND);
+    }
+
+    @Test
+    public void testRecoverFromSnapshotAndJournal() throws Exception {
+        ResourceStore store = new ResourceStore();
+        BoardJournal journal = start(store);
+        create(store, journal, FIRST);
+        play(store, journal, FIRST, 2);
+        journal.snapshot();
+        create(store, journal, SECOND);
+        play(store, journal, FIRST, 1);
+        play(store, journal, SECOND, 4);
+        journal.stop();
+
+        ResourceStore recovered = new ResourceStore();
+        start(recovered).stop();
+        assertRecovered(store, recovered, FIRST);
+        assertRecovered(store, recovered, SECOND);
+    }
+
+    @Test
+    public void testRecoverVariants() throws Exception {
+        ResourceStore store = new ResourceStore();
+        BoardJournal journal = start(store);
+        create(store, journal, FIRST, Variant.valueOf("4x3"));
+        create(store, journal, SECOND, Variant.valueOf("8x6"));
+        play(store, journal, FIRST, 4);
+        journal.snapshot();
+        play(store, journal, SECOND, 8);
+        play(store, journal, FIRST, 2);
+        journal.stop();
+
+        ResourceStore recovered = new ResourceStore();
+        start(recovered).stop();
+        assertRecovered(store, recovered, FIRST);
+        assertRecovered(store, recovered, SECOND);
+        assertEquals("Invalid variant", Variant.valueOf("8x6"), recovered.compute(SECOND, GameState::getVariant).get());
+    }
+
+    @Test
+    public void testRecoverAcrossSegments() throws Exception {
+        ResourceStore store = new ResourceStore();
+        BoardJournal journal = start(store);
+        for (int board = 0; board < 50; board++) {
+            create(store, journal, board + 1L);
+            for (int move = 0; move < 20; move++) {
+                play(store, journal, board + 1L, (board + move) % 6 + 1);
+            }
+        }
+        journal.stop();
+
+        ResourceStore recovered = new ResourceStore();
+        start(recovered).stop();
+        for (int board = 0; board < 50; board++) {
+            assertRecovered(store, recovered, board + 1L);
+        }
+    }
+
+    @Test
+    public void testRecoverIgnoresTornRecord() throws Exception {
+        ResourceStore store = new ResourceStore();
+        BoardJournal journal = start(store);
+        create(store, journal, FIRST);
+        play(store, journal, FIRST, 2);
+        journal.stop();
+        corruptLastRecord();
+
+        ResourceStore recovered = new ResourceStore();
+        start(recovered).stop();
+        assertEquals("Torn move should not be replayed", 0, version(recovered, FIRST));
+    }
+
+    @Test
+    public void testCommitAsyncCompletesOnFlush() throws Exception {
+        ResourceStore store = new ResourceStore();
+        BoardJournal journal = start(store, true);
+        create(store, journal, FIRST);
+        play(store, journal, FIRST, 2);
+        CompletableFuture<Void> committed = journal.commitAsync();
+        committed.get(5, TimeUnit.SECONDS);
+        assertTrue("Commit should complete once the move is flushed", committed.isDone());
+        journal.stop();
+    }
+
+    private BoardJournal start(ResourceStore store) throws IOException {
+        return start(store, false);
+    }
+
+    private BoardJournal start(ResourceStore store, boolean syncCommit) throws IOException {
+        JournalProperties properties = new JournalProperties();
+        properties.setDirectory(folder.getRoot().getPath());
+        properties.setSegmentSizeBytes(4096);
+        properties.setSyncCommit(syncCommit);
+        BoardJournal journal = new BoardJournal();
+        ReflectionTestUtils.setField(journal, "resourceStore", store);
+        ReflectionTestUtils.setField(journal, "properties", properties);
+        journal.start();
+        return journal;
+    }
+
+    private void create(ResourceStore store, BoardJournal journal, long id) {
+        create(store, journal, id, Variant.STANDARD);
+    }
+
+    private void create(ResourceStore store, BoardJournal journal, long id, Variant variant) {
+        GameState state = GameState.newGame(id, variant);
+        store.saveState(state);
+        journal.created(state);
+    }
+
+    private void play(ResourceStore store, BoardJournal journal, long id, int pit) {
+        store.compute(id, state -> {
+            if (!state.isFinished()) {
+                KalahEngine.play(state, pit);
+                journal.moved(state, pit);
+            }
+            return state;
+        });
+    }
+
+    private int version(ResourceStore store, long id) {
+        return store.compute(id, GameState::getVersion).orElse(-1);
+    }
+
+    private void assertRecovered(ResourceStore expected, ResourceStore actual, long id) {
+        GameState expectedState = expected.compute(id, GameState::copy).get();
+        GameState actualState = actual.compute(id, GameState::copy).get();
+        assertEquals("Invalid version", expectedState.getVersion(), actualState.getVersion());
+        assertEquals("Invalid player for next turn", expectedState.getNextTurn(), actualState.getNextTurn());
+        assertArrayEquals("Invalid pits", expected.getBoard(BoardIds.encode(id)).getNorth().getPits().toArray(), actual.getBoard(BoardIds.encode(id)).getNorth().getPits().toArray());
+        assertArrayEquals("Invalid pits", expected.getBoard(BoardIds.encode(id)).getSouth().getPits().toArray(), actual.getBoard(BoardIds.encode(id)).getSouth().getPits().toArray());
+    }
+
+    private void corruptLastRecord() throws IOException {
+        Path segment = folder.getRoot().toPath().resolve("journal-0000000000000000.log");
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer content = channel.map(FileChannel.MapMode.READ_WRITE, 0, channel.size());
+            // skip the created record and flip a byte in payload of the move record
+            int moveStart = 8 + content.getInt(0);
+            content.put(moveStart + 9, (byte) (content.get(moveStart + 9) + 1));
+        }
+    }
+}
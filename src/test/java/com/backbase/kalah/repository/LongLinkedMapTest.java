@@ -0,0 +1,54 @@
+package com.backbase.kalah.repository;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+/**
+ * Test class for {@link LongLinkedMap}
+ * Created by tojagrut
+ */
+public class LongLinkedMapTest {
+
+    @Test
+    public void testPutAndGet() throws Exception {
+        LongLinkedMap<String> map = new LongLinkedMap<>();
+        for (long key = 0; key < 1000; key++) {
+            assertNull("Key should be new", map.put(key * 31, "value-" + key));
+        }
+        assertEquals("Invalid size", 1000, map.size());
+        for (long key = 0; key < 1000; key++) {
+            assertEquals("Invalid value", "value-" + key, map.get(key * 31));
+        }
+        assertEquals("Invalid previous value", "value-1", map.put(31, "other"));
+        assertEquals("Invalid size after replace", 1000, map.size());
+        assertNull("Missing key should not have value", map.get(-1));
+    }
+
+    @Test
+    public void testAccessOrder() throws Exception {
+        LongLinkedMap<String> map = new LongLinkedMap<>();
+        map.put(1, "first");
+        map.put(2, "second");
+        map.put(3, "third");
+        map.get(1);
+        assertEquals("Least recently used should be eldest", "second", map.eldest());
+        assertTrue("Contains should find key", map.containsKey(2));
+        assertEquals("Contains should not change access order", "second", map.removeEldest());
+        assertEquals("Invalid eldest after remove", "third", map.eldest());
+        assertEquals("Invalid size", 2, map.size());
+    }
+
+    @Test
+    public void testRemoveOnlyMatchingValue() throws Exception {
+        LongLinkedMap<String> map = new LongLinkedMap<>();
+        map.put(1, "first");
+        assertFalse("Other value should not be removed", map.remove(1, "other"));
+        assertTrue("Value should be removed", map.remove(1, "first"));
+        assertNull("Empty map should not have eldest", map.eldest());
+        assertEquals("Invalid size", 0, map.size());
+    }
+}
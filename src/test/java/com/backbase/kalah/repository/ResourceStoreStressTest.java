@@ -0,0 +1,131 @@
+package com.backbase.kalah.repository;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.backbase.kalah.engine.GameState;
+import com.backbase.kalah.engine.KalahEngine;
+
+/**
+ * Multi-threaded stress test for {@link ResourceStore}
+ * Created by tojagrut
+ */
+public class ResourceStoreStressTest {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ResourceStoreStressTest.class);
+
+    private static final int BOARDS_PER_THREAD = 64;
+    private static final int MOVES_PER_THREAD = 200_000;
+
+    @Test
+    public void testMovesOnSameBoardAreSerialized() throws Exception {
+        ResourceStore resourceStore = new ResourceStore();
+        resourceStore.saveState(GameState.newGame(0L));
+        int threads = 8;
+        int increments = 50_000;
+        int[] counter = new int[1];
+
+        run(threads, thread -> {
+            for (int index = 0; index < increments; index++) {
+                // unsynchronized read-modify-write, only safe when the store serializes access to the board
+                resourceStore.compute(0L, state -> counter[0]++);
+            }
+        });
+        assertEquals("Lost updates on the same board", threads * increments, counter[0]);
+    }
+
+    @Test
+    public void testConcurrentSave() throws Exception {
+        ResourceStore resourceStore = new ResourceStore();
+        int threads = 8;
+
+        run(threads, thread -> {
+            for (int index = 0; index < BOARDS_PER_THREAD; index++) {
+                resourceStore.saveState(GameState.newGame(boardId(thread, index)));
+            }
+        });
+        assertEquals("Invalid no. of boards", threads * BOARDS_PER_THREAD, resourceStore.size());
+    }
+
+    @Test
+    public void testThroughputScalesWithThreads() throws Exception {
+        int cores = Runtime.getRuntime().availableProcessors();
+        // threads on a single core can not run in parallel, so there is no speedup to check
+        assumeTrue("Scaling needs more than one core", cores > 1);
+        // warm up before measuring
+        throughput(1);
+        double singleThreaded = throughput(1);
+        double multiThreaded = throughput(cores);
+        LOGGER.info("Store throughput: 1 thread {} moves/s, {} threads {} moves/s, speedup {}",
+                (long) singleThreaded, cores, (long) multiThreaded, String.format("%.2f", multiThreaded / singleThreaded));
+        // conservative bound, threads mostly lock different segments so they should not be serialized
+        double expected = 1 + (Math.min(cores, 8) - 1) * 0.25;
+        assertTrue("Store throughput should scale with threads, speedup " + multiThreaded / singleThreaded + " on " + cores
+                + " cores", multiThreaded / singleThreaded > expected);
+    }
+
+    private double throughput(int threads) throws Exception {
+        ResourceStore resourceStore = new ResourceStore();
+        for (int thread = 0; thread < threads; thread++) {
+            for (int index = 0; index < BOARDS_PER_THREAD; index++) {
+                resourceStore.saveState(GameState.newGame(boardId(thread, index)));
+            }
+        }
+        long start = System.nanoTime();
+        run(threads, thread -> {
+            long[] ids = new long[BOARDS_PER_THREAD];
+            for (int index = 0; index < BOARDS_PER_THREAD; index++) {
+                ids[index] = boardId(thread, index);
+            }
+            for (int move = 0; move < MOVES_PER_THREAD; move++) {
+                int pit = move % 6 + 1;
+                resourceStore.compute(ids[move % BOARDS_PER_THREAD], state -> state.isFinished() ? 0 : KalahEngine.play(state, pit));
+            }
+        });
+        return (double) threads * MOVES_PER_THREAD / (System.nanoTime() - start) * TimeUnit.SECONDS.toNanos(1);
+    }
+
+    private static long boardId(int thread, int index) {
+        return (long) thread * BOARDS_PER_THREAD + index + 1;
+    }
+
+    private void run(int threads, ThreadTask task) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<?>> futures = new ArrayList<>();
+            for (int thread = 0; thread < threads; thread++) {
+                int threadId = thread;
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    task.run(threadId);
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        }
+        finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private interface ThreadTask {
+        void run(int thread);
+    }
+}
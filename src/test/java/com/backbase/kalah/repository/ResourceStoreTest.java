@@ -1,9 +1,16 @@
 package com.backbase.kalah.repository;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.TimeUnit;
 
 import org.junit.Test;
 
+import com.backbase.kalah.config.StoreProperties;
+import com.backbase.kalah.id.BoardIds;
 import com.backbase.kalah.model.Board;
 
 /**
@@ -12,10 +19,107 @@ import com.backbase.kalah.model.Board;
  */
 public class ResourceStoreTest {
 
+    private ResourceStore resourceStore = new ResourceStore();
+
+    private long now;
+
     @Test
     public void testSaveAndGetBoard() throws Exception {
         Board board = new Board();
-        ResourceStore.saveBoard(board);
-        assertEquals("Invalid board id", board.getBoardId(), ResourceStore.getBoard(board.getBoardId()).getBoardId());
+        resourceStore.saveBoard(board);
+        assertEquals("Invalid board id", board.getBoardId(), resourceStore.getBoard(board.getBoardId()).getBoardId());
+    }
+
+    @Test
+    public void testGetMissingBoard() throws Exception {
+        assertNull("Board should not exist", resourceStore.getBoard("abc1234"));
+        assertFalse("Action should not be applied", resourceStore.compute(42L, state -> true).isPresent());
+    }
+
+    @Test
+    public void testSize() throws Exception {
+        StoreProperties properties = new StoreProperties();
+        properties.setConcurrencyLevel(4);
+        ResourceStore store = new ResourceStore(properties);
+        for (int index = 0; index < 100; index++) {
+            store.saveBoard(new Board());
+        }
+        assertEquals("Invalid no. of boards", 100, store.size());
+    }
+
+    @Test
+    public void testEvictLeastRecentlyUsedBoard() throws Exception {
+        ResourceStore store = new ResourceStore(properties(2), () -> now);
+        Board first = new Board();
+        Board second = new Board();
+        store.saveBoard(first);
+        store.saveBoard(second);
+        // access first board so that second one is least recently used
+        store.getBoard(first.getBoardId());
+        store.saveBoard(new Board());
+        assertEquals("Invalid no. of boards", 2, store.size());
+        assertNull("Least recently used board should be evicted", store.getBoard(second.getBoardId()));
+        assertTrue("Evicted board should be expired", store.isExpired(BoardIds.decode(second.getBoardId())));
+        assertEquals("Invalid no. of evicted boards", 1, store.getEvictedBySize());
+    }
+
+    @Test
+    public void testExpireIdleBoard() throws Exception {
+        ResourceStore store = new ResourceStore(properties(10), () -> now);
+        Board idle = new Board();
+        Board active = new Board();
+        store.saveBoard(idle);
+        store.saveBoard(active);
+        now += TimeUnit.SECONDS.toNanos(60);
+        store.getBoard(active.getBoardId());
+        now += TimeUnit.SECONDS.toNanos(60);
+        store.cleanUp();
+        assertNull("Idle board should be evicted", store.getBoard(idle.getBoardId()));
+        assertTrue("Idle board should be expired", store.isExpired(BoardIds.decode(idle.getBoardId())));
+        assertEquals("Invalid board id", active.getBoardId(), store.getBoard(active.getBoardId()).getBoardId());
+        assertEquals("Invalid no. of expired boards", 1, store.getExpiredByIdle());
+    }
+
+    @Test
+    public void testEvictFinishedBoard() throws Exception {
+        ResourceStore store = new ResourceStore(properties(10), () -> now);
+        Board finished = new Board();
+        finished.setWinner("North");
+        store.saveBoard(finished);
+        now += TimeUnit.SECONDS.toNanos(5);
+        store.cleanUp();
+        assertFalse("Finished board should be evicted", store.isExpired(BoardIds.decode(finished.getBoardId())));
+        now += TimeUnit.SECONDS.toNanos(5);
+        store.cleanUp();
+        assertTrue("Finished board should be expired", store.isExpired(BoardIds.decode(finished.getBoardId())));
+        assertEquals("Invalid no. of evicted boards", 1, store.getEvictedFinished());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidHistorySize() throws Exception {
+        StoreProperties properties = properties(10);
+        properties.setHistoryMaxMoves(100);
+        properties.setHistoryCheckpointInterval(64);
+        new ResourceStore(properties);
+    }
+
+    @Test
+    public void testNoHistory() throws Exception {
+        StoreProperties properties = properties(10);
+        properties.setHistoryMaxMoves(0);
+        properties.setHistoryCheckpointInterval(3);
+        ResourceStore store = new ResourceStore(properties);
+        Board board = new Board();
+        store.saveBoard(board);
+        assertEquals("Invalid board id", board.getBoardId(), store.getBoard(board.getBoardId()).getBoardId());
+    }
+
+    private StoreProperties properties(int maximumSize) {
+        StoreProperties properties = new StoreProperties();
+        properties.setConcurrencyLevel(1);
+        properties.setMaximumSize(maximumSize);
+        properties.setIdleTimeoutSeconds(100);
+        properties.setFinishedTimeoutSeconds(10);
+        return properties;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,45 @@
+package com.backbase.kalah.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+
+import org.junit.Test;
+
+import com.backbase.kalah.engine.GameState;
+import com.backbase.kalah.id.ScrambledIdGenerator;
+
+/**
+ * Test class for {@link BoardPool}
+ * Created by tojagrut
+ */
+public class BoardPoolTest {
+
+    @Test
+    public void testTakeFromEmptyPool() throws Exception {
+        BoardPool boardPool = new BoardPool(10, new ScrambledIdGenerator(0, 1L));
+        GameState state = boardPool.take();
+        assertEquals("Invalid player for next turn", GameState.NORTH, state.getNextTurn());
+        assertNotEquals("Board ids should be unique", state.getBoardId(), boardPool.take().getBoardId());
+    }
+
+    @Test
+    public void testRefill() throws Exception {
+        BoardPool boardPool = new BoardPool(10, new ScrambledIdGenerator(0, 1L));
+        boardPool.start();
+        try {
+            long deadline = System.currentTimeMillis() + 5000;
+            while (boardPool.available() < 10 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+            assertEquals("Pool should be refilled", 10, boardPool.available());
+            boardPool.take();
+            while (boardPool.available() < 10 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+            assertEquals("Pool should be refilled after take", 10, boardPool.available());
+        }
+        finally {
+            boardPool.stop();
+        }
+    }
+}
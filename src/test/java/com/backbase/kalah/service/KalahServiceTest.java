@@ -1,18 +1,44 @@
 package com.backbase.kalah.service;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doReturn;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
 
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.mockito.InjectMocks;
+import org.mockito.Spy;
 import org.mockito.runners.MockitoJUnitRunner;
 
+import com.backbase.kalah.ai.ComputerPlayer;
+import com.backbase.kalah.engine.GameState;
+import com.backbase.kalah.engine.KalahEngine;
+import com.backbase.kalah.engine.Variant;
+import com.backbase.kalah.exception.BoardConflictException;
+import com.backbase.kalah.exception.BoardExpiredException;
 import com.backbase.kalah.exception.BoardNotFoundException;
+import com.backbase.kalah.id.BoardIds;
+import com.backbase.kalah.metrics.KalahMetrics;
 import com.backbase.kalah.model.Board;
+import com.backbase.kalah.model.ComputerMove;
+import com.backbase.kalah.model.GameHistory;
+import com.backbase.kalah.model.LegalMoves;
+import com.backbase.kalah.model.MoveBatch;
+import com.backbase.kalah.model.MoveResult;
+import com.backbase.kalah.model.PerftResult;
 import com.backbase.kalah.model.Pit;
 import com.backbase.kalah.repository.ResourceStore;
+import com.backbase.kalah.util.Constants;
 
 /**
  * Test class for {@link KalahService}
@@ -24,30 +50,67 @@ public class KalahServiceTest {
     @InjectMocks
     KalahService kalahService;
 
+    @Spy
+    ResourceStore resourceStore = new ResourceStore();
+
+    @Spy
+    BoardPool boardPool = new BoardPool();
+
+    @Spy
+    KalahMetrics kalahMetrics = new KalahMetrics();
+
+    @Spy
+    ComputerPlayer computerPlayer = startComputerPlayer();
+
     @Test
     public void testCreateBoard() throws Exception {
-        assertNotNull("Board is not created", kalahService.createBoard());
+        assertNotNull("Board is not created", kalahService.createBoard(null));
+    }
+
+    @Test
+    public void testCreateBoardReturnsSnapshot() throws Exception {
+        GameState created = kalahService.createBoard(null);
+        kalahService.play(BoardIds.encode(created.getBoardId()), 1);
+        assertEquals("Created board should not change with moves", 0, created.getVersion());
+    }
+
+    @Test
+    public void testCreateBoards() throws Exception {
+        List<Board> boards = kalahService.createBoards(3, null);
+        assertEquals("Invalid no. of boards", 3, boards.size());
+        boards.forEach(board -> assertEquals("Invalid board id", board.getBoardId(), kalahService.retrieveBoard(board.getBoardId()).toBoard().getBoardId()));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testCreateBoardsWithInvalidCount() throws Exception {
+        kalahService.createBoards(0, null);
     }
 
     @Test
     public void testRetrieveBoard() throws BoardNotFoundException {
         Board board = new Board();
-        ResourceStore.saveBoard(board);
-        assertEquals("Invalid board id", board.getBoardId(), kalahService.retrieveBoard(board.getBoardId()).getBoardId());
+        resourceStore.saveBoard(board);
+        assertEquals("Invalid board id", board.getBoardId(), kalahService.retrieveBoard(board.getBoardId()).toBoard().getBoardId());
     }
 
     @Test(expected = BoardNotFoundException.class)
     public void testRetrieveBoardWithInvalidId() throws BoardNotFoundException {
         Board board = new Board();
-        ResourceStore.saveBoard(board);
+        resourceStore.saveBoard(board);
         kalahService.retrieveBoard("abc1234").getBoardId();
     }
 
+    @Test(expected = BoardExpiredException.class)
+    public void testRetrieveExpiredBoard() throws BoardNotFoundException {
+        doReturn(true).when(resourceStore).isExpired(42L);
+        kalahService.retrieveBoard(BoardIds.encode(42L));
+    }
+
     @Test
     public void testPlay() throws BoardNotFoundException {
         Board board = new Board();
-        ResourceStore.saveBoard(board);
-        Board result = kalahService.play(board.getBoardId(), 2);
+        resourceStore.saveBoard(board);
+        Board result = kalahService.play(board.getBoardId(), 2).toBoard();
         assertEquals("Invalid board id", board.getBoardId(), result.getBoardId());
         assertEquals("Invalid player name for next turn", "South", result.getNextTurn());
     }
@@ -55,20 +118,37 @@ public class KalahServiceTest {
     @Test
     public void testPlayWithCapture() throws BoardNotFoundException {
         Board board = createBoardForCapture();
-        ResourceStore.saveBoard(board);
-        Board result = kalahService.play(board.getBoardId(), 1);
+        resourceStore.saveBoard(board);
+        Board result = kalahService.play(board.getBoardId(), 1).toBoard();
         assertEquals("Invalid board id", board.getBoardId(), result.getBoardId());
         assertEquals("Invalid no. of stones in kalah", 7, result.getNorth().getKalah().getStones());
         assertEquals("Invalid no. of stones in current player's selected pit", 0, result.getNorth().getPits().get(0).getStones());
         assertEquals("Invalid no. of stones in current player's empty pit", 0, result.getNorth().getPits().get(1).getStones());
         assertEquals("Invalid no. of stones in opponent's pit after capture", 0, result.getSouth().getPits().get(4).getStones());
+        assertEquals("Invalid no. of captures", 1, kalahMetrics.getCaptures());
+        assertEquals("Invalid no. of plays", 1, kalahMetrics.getPlayLatency().getCount());
+    }
+
+    @Test
+    public void testPlayAsyncRecordsLatency() throws Exception {
+        Board board = new Board();
+        resourceStore.saveBoard(board);
+        kalahService.playAsync(board.getBoardId(), 2).get();
+        try {
+            kalahService.playAsync(BoardIds.encode(42L), 2);
+            fail("Missing board should not be played");
+        }
+        catch (BoardNotFoundException exception) {
+            // counted below
+        }
+        assertEquals("Missing board should be counted as play", 2, kalahMetrics.getPlayLatency().getCount());
     }
 
     @Test
     public void testPlayWithCollectAllStones() throws BoardNotFoundException {
         Board board = createBoardForCollectAllStones();
-        ResourceStore.saveBoard(board);
-        Board result = kalahService.play(board.getBoardId(), 6);
+        resourceStore.saveBoard(board);
+        Board result = kalahService.play(board.getBoardId(), 6).toBoard();
         assertEquals("Invalid board id", board.getBoardId(), result.getBoardId());
         assertEquals("Invalid no. of stones in kalah", 1, result.getNorth().getKalah().getStones());
         assertEquals("Invalid no. of stones in current player's selected pit", 0, result.getNorth().getPits().get(5).getStones());
@@ -76,11 +156,118 @@ public class KalahServiceTest {
         assertEquals("Invalid total no. of stones in opponent's pits", 0, result.getSouth().getPits().stream().mapToInt(Pit::getStones).sum());
     }
 
+    @Test
+    public void testPlayComputer() throws BoardNotFoundException {
+        Board board = createBoardForWinner();
+        resourceStore.saveBoard(board);
+        ComputerMove move = kalahService.playComputer(board.getBoardId(), 4, null);
+        assertEquals("Winning pit should be played", 6, move.getPit());
+        assertEquals("Invalid player", "North", move.getPlayer());
+        assertEquals("Invalid winner", "North", move.getBoard().getWinner());
+        assertEquals("Invalid no. of searches", 1, kalahMetrics.getSearches());
+        assertEquals("Move should be applied on the board", "North", kalahService.retrieveBoard(board.getBoardId()).toBoard().getWinner());
+    }
+
+    @Test
+    public void testPlayComputerMovedDuringEverySearch() throws BoardNotFoundException {
+        Board board = new Board();
+        resourceStore.saveBoard(board);
+        // another player moves the board during each search
+        doAnswer(invocation -> {
+            kalahService.play(board.getBoardId(), Integer.numberOfTrailingZeros(KalahEngine.legalMoves(kalahService.retrieveBoard(board.getBoardId()))));
+            return invocation.callRealMethod();
+        }).when(computerPlayer).search(any(GameState.class), any(Integer.class), any(Long.class));
+        try {
+            kalahService.playComputer(board.getBoardId(), 2, null);
+            fail("Move should not be applied on a board moved during every search");
+        }
+        catch (BoardConflictException exception) {
+            // retries are bounded
+        }
+        assertEquals("Invalid no. of searches", Constants.MAX_COMPUTER_MOVE_ATTEMPTS, kalahMetrics.getSearches());
+        assertEquals("Only moves of others should be applied", Constants.MAX_COMPUTER_MOVE_ATTEMPTS,
+                kalahService.retrieveBoard(board.getBoardId()).getVersion());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testPlayComputerWithInvalidDepth() throws BoardNotFoundException {
+        Board board = new Board();
+        resourceStore.saveBoard(board);
+        kalahService.playComputer(board.getBoardId(), 0, null);
+    }
+
+    @Test
+    public void testCreateBoardOfVariant() throws BoardNotFoundException {
+        GameState state = kalahService.createBoard(Variant.valueOf("4x5"));
+        Board board = kalahService.retrieveBoard(BoardIds.encode(state.getBoardId())).toBoard();
+        assertEquals("Invalid variant", "4x5", board.getVariant());
+        assertEquals("Invalid no. of pits", 4, board.getNorth().getPits().size());
+        assertEquals("Invalid no. of stones", 5, board.getNorth().getPits().get(0).getStones());
+        GameState result = kalahService.play(board.getBoardId(), 4);
+        assertEquals("Invalid no. of stones in kalah", 1, result.getStones(result.getVariant().kalahIndex(GameState.NORTH)));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testPlayPitBeyondVariant() throws BoardNotFoundException {
+        GameState state = kalahService.createBoard(Variant.valueOf("4x5"));
+        kalahService.play(BoardIds.encode(state.getBoardId()), 5);
+    }
+
+    @Test
+    public void testLegalMoves() throws BoardNotFoundException {
+        Board board = new Board();
+        board.getSouth().getPits().get(1).setStones(0);
+        board.setNextTurn("South");
+        resourceStore.saveBoard(board);
+        LegalMoves moves = kalahService.legalMoves(board.getBoardId());
+        assertEquals("Invalid player", "South", moves.getPlayer());
+        assertArrayEquals("Empty pit should not be legal", new int[] {1, 3, 4, 5, 6}, moves.getPits());
+    }
+
+    @Test
+    public void testPerft() throws BoardNotFoundException {
+        Board board = new Board();
+        resourceStore.saveBoard(board);
+        PerftResult result = kalahService.perft(board.getBoardId(), 4);
+        assertEquals("Invalid no. of sequences", 1056L, result.getSequences());
+        assertEquals("Invalid depth", 4, result.getDepth());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testPerftWithInvalidDepth() throws BoardNotFoundException {
+        Board board = new Board();
+        resourceStore.saveBoard(board);
+        kalahService.perft(board.getBoardId(), 11);
+    }
+
+    @Test
+    public void testHistoryAndReplay() throws BoardNotFoundException {
+        Board board = new Board();
+        resourceStore.saveBoard(board);
+        GameState first = kalahService.play(board.getBoardId(), 1);
+        kalahService.playAll(board.getBoardId(), new int[] {2, 3});
+        GameHistory history = kalahService.history(board.getBoardId());
+        assertEquals("Invalid first ply", 0, history.getFirstPly());
+        assertEquals("Invalid last ply", 3, history.getLastPly());
+        assertArrayEquals("Invalid moves", new int[] {1, 2, 3}, history.getPits());
+        GameState replayed = kalahService.replay(board.getBoardId(), 1);
+        assertEquals("Replayed board should be the board after first move", first.toBoard(), replayed.toBoard());
+        assertEquals("Invalid board at last ply", kalahService.retrieveBoard(board.getBoardId()).toBoard(),
+                kalahService.replay(board.getBoardId(), 3).toBoard());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testReplayFuturePly() throws BoardNotFoundException {
+        Board board = new Board();
+        resourceStore.saveBoard(board);
+        kalahService.replay(board.getBoardId(), 1);
+    }
+
     @Test
     public void testPlayWithTurnAgain() throws BoardNotFoundException {
         Board board = createBoardForTurnAgain();
-        ResourceStore.saveBoard(board);
-        Board result = kalahService.play(board.getBoardId(), 6);
+        resourceStore.saveBoard(board);
+        Board result = kalahService.play(board.getBoardId(), 6).toBoard();
         assertEquals("Invalid board id", board.getBoardId(), result.getBoardId());
         assertEquals("Invalid no. of stones in kalah", 1, result.getNorth().getKalah().getStones());
         assertEquals("Invalid no. of stones in current player's selected pit", 0, result.getNorth().getPits().get(5).getStones());
@@ -90,8 +277,8 @@ public class KalahServiceTest {
     @Test
     public void testPlayWithWinner() throws BoardNotFoundException {
         Board board = createBoardForWinner();
-        ResourceStore.saveBoard(board);
-        Board result = kalahService.play(board.getBoardId(), 6);
+        resourceStore.saveBoard(board);
+        Board result = kalahService.play(board.getBoardId(), 6).toBoard();
         assertEquals("Invalid board id", board.getBoardId(), result.getBoardId());
         assertEquals("Invalid no. of stones in kalah", 37, result.getNorth().getKalah().getStones());
         assertEquals("Invalid no. of stones in current player's selected pit", 0, result.getNorth().getPits().get(5).getStones());
@@ -102,8 +289,8 @@ public class KalahServiceTest {
     @Test
     public void testPlayWithTie() throws BoardNotFoundException {
         Board board = createBoardForTie();
-        ResourceStore.saveBoard(board);
-        Board result = kalahService.play(board.getBoardId(), 6);
+        resourceStore.saveBoard(board);
+        Board result = kalahService.play(board.getBoardId(), 6).toBoard();
         assertEquals("Invalid board id", board.getBoardId(), result.getBoardId());
         assertEquals("Invalid no. of stones in kalah", 36, result.getNorth().getKalah().getStones());
         assertEquals("Invalid no. of stones in opponent's kalah", 36, result.getSouth().getKalah().getStones());
@@ -115,8 +302,8 @@ public class KalahServiceTest {
     @Test
     public void testPlayWithMoreThanSixStones() throws BoardNotFoundException {
         Board board = createBoardForMoreThanSixStones();
-        ResourceStore.saveBoard(board);
-        Board result = kalahService.play(board.getBoardId(), 6);
+        resourceStore.saveBoard(board);
+        Board result = kalahService.play(board.getBoardId(), 6).toBoard();
         assertEquals("Invalid board id", board.getBoardId(), result.getBoardId());
         assertEquals("Invalid no. of stones in kalah", 1, result.getNorth().getKalah().getStones());
         assertEquals("Invalid no. of stones in opponent's kalah", 0, result.getSouth().getKalah().getStones());
@@ -124,6 +311,40 @@ public class KalahServiceTest {
         assertEquals("Invalid no. of stones in last pit after sow", 7, result.getNorth().getPits().get(2).getStones());
     }
 
+    @Test
+    public void testPlayAll() throws BoardNotFoundException {
+        Board board = new Board();
+        resourceStore.saveBoard(board);
+        MoveBatch result = kalahService.playAll(board.getBoardId(), new int[] {1, 2});
+        assertEquals("Invalid no. of moves", 2, result.getMoves().size());
+        assertEquals("Invalid player of first move", "North", result.getMoves().get(0).getPlayer());
+        assertTrue("First move should give extra turn", result.getMoves().get(0).isExtraTurn());
+        assertEquals("Invalid player of second move", "North", result.getMoves().get(1).getPlayer());
+        assertEquals("Invalid status of second move", MoveResult.Status.APPLIED, result.getMoves().get(1).getStatus());
+        assertEquals("Invalid player name for next turn", "South", result.getBoard().getNextTurn());
+        assertEquals("Invalid no. of stones in kalah", 2, result.getBoard().getNorth().getKalah().getStones());
+    }
+
+    @Test
+    public void testPlayAllStopsAtIllegalMove() throws BoardNotFoundException {
+        Board board = new Board();
+        resourceStore.saveBoard(board);
+        MoveBatch result = kalahService.playAll(board.getBoardId(), new int[] {2, 7, 1});
+        assertEquals("Invalid no. of moves", 2, result.getMoves().size());
+        assertEquals("Invalid status of second move", MoveResult.Status.ILLEGAL, result.getMoves().get(1).getStatus());
+        assertEquals("Invalid no. of stones in first pit", 6, result.getBoard().getSouth().getPits().get(1).getStones());
+    }
+
+    @Test
+    public void testPlayAllStopsAtGameEnd() throws BoardNotFoundException {
+        Board board = createBoardForWinner();
+        resourceStore.saveBoard(board);
+        MoveBatch result = kalahService.playAll(board.getBoardId(), new int[] {6, 1});
+        assertEquals("Invalid no. of moves", 2, result.getMoves().size());
+        assertEquals("Invalid status of second move", MoveResult.Status.GAME_FINISHED, result.getMoves().get(1).getStatus());
+        assertEquals("Invalid winner", "North", result.getBoard().getWinner());
+    }
+
     private Board createBoardForCapture() {
         Board board = new Board();
         // keep 1 stone in first pit
@@ -175,4 +396,15 @@ public class KalahServiceTest {
         board.getNorth().getPits().get(5).setStones(10);
         return board;
     }
-}
\ No newline at end of file
+
+    private static ComputerPlayer startComputerPlayer() {
+        ComputerPlayer player = new ComputerPlayer();
+        try {
+            player.start();
+        }
+        catch (IOException exception) {
+            throw new UncheckedIOException(exception);
+        }
+        return player;
+    }
+}
@@ -0,0 +1,91 @@
+package com.backbase.kalah.simulation;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.Test;
+
+import com.backbase.kalah.engine.GameState;
+import com.backbase.kalah.engine.KalahEngine;
+import com.backbase.kalah.engine.Variant;
+
+/**
+ * Test class for {@link SelfPlaySimulator} and {@link Policy}
+ * Created by tojagrut
+ */
+public class SelfPlaySimulatorTest {
+
+    @Test
+    public void testStatsAddUp() {
+        SimulationStats stats = simulate(1, Variant.STANDARD, Policy.RANDOM, Policy.RANDOM, 10_000, 7L);
+        assertEquals("Invalid no. of games", 10_000, stats.getGames());
+        assertEquals("Every game should have an outcome", stats.getGames(),
+                stats.getNorthWins() + stats.getSouthWins() + stats.getTies() + stats.getUnfinished());
+        assertTrue("Invalid game length", stats.getAverageLength() > 1 && stats.getAverageLength() <= stats.getMaxPlies());
+        assertTrue("Random games should capture", stats.getCaptures() > 0);
+        assertTrue("Random games should have extra turns", stats.getExtraTurns() > 0);
+    }
+
+    @Test
+    public void testSeedDoesNotDependOnThreads() {
+        SimulationStats single = simulate(1, Variant.valueOf("4x4"), Policy.RANDOM, Policy.GREEDY, 20_000, 11L);
+        SimulationStats parallel = simulate(4, Variant.valueOf("4x4"), Policy.RANDOM, Policy.GREEDY, 20_000, 11L);
+        assertEquals("Invalid north wins", single.getNorthWins(), parallel.getNorthWins());
+        assertEquals("Invalid south wins", single.getSouthWins(), parallel.getSouthWins());
+        assertEquals("Invalid plies", single.getPlies(), parallel.getPlies());
+        assertEquals("Invalid captures", single.getCaptures(), parallel.getCaptures());
+    }
+
+    @Test
+    public void testGreedyBeatsRandom() {
+        SimulationStats stats = simulate(2, Variant.STANDARD, Policy.RANDOM, Policy.GREEDY, 5_000, 13L);
+        assertTrue("Greedy should win most games, " + stats, stats.getSouthWinRate() > 0.6);
+    }
+
+    @Test
+    public void testDeterministicPoliciesPlayTheSameGame() {
+        SimulationStats stats = simulate(1, Variant.STANDARD, Policy.FIRST, Policy.LAST, 100, 17L);
+        assertEquals("Every game should be the same", stats.getMaxPlies() * 100, stats.getPlies());
+    }
+
+    @Test
+    public void testMerge() {
+        SimulationStats first = simulate(1, Variant.STANDARD, Policy.RANDOM, Policy.RANDOM, 100, 19L);
+        SimulationStats second = simulate(1, Variant.STANDARD, Policy.RANDOM, Policy.RANDOM, 200, 23L);
+        long plies = first.getPlies() + second.getPlies();
+        long maxPlies = Math.max(first.getMaxPlies(), second.getMaxPlies());
+        first.merge(second);
+        assertEquals("Invalid no. of games", 300, first.getGames());
+        assertEquals("Invalid plies", plies, first.getPlies());
+        assertEquals("Invalid max plies", maxPlies, first.getMaxPlies());
+    }
+
+    @Test
+    public void testPoliciesChooseLegalMoves() {
+        SplittableRandom random = new SplittableRandom(29L);
+        GameState state = GameState.newGame(1L, Variant.STANDARD);
+        GameState scratch = state.copy();
+        int moves = 1 << 2 | 1 << 4 | 1 << 5;
+        assertEquals("Invalid first pit", 2, Policy.FIRST.choose(state, moves, scratch, random));
+        assertEquals("Invalid last pit", 5, Policy.LAST.choose(state, moves, scratch, random));
+        for (int move = 0; move < 100; move++) {
+            int pit = Policy.RANDOM.choose(state, moves, scratch, random);
+            assertTrue("Random pit should be legal", (moves & 1 << pit) != 0);
+        }
+        // pit 1 of 6 stones ends in the kalah
+        assertEquals("Greedy should take the extra turn", 1, Policy.GREEDY.choose(state, KalahEngine.legalMoves(state), scratch, random));
+    }
+
+    private static SimulationStats simulate(int threads, Variant variant, Policy north, Policy south, long games, long seed) {
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            return new SelfPlaySimulator(pool).simulate(variant, north, south, games, seed);
+        }
+        finally {
+            pool.shutdownNow();
+        }
+    }
+}